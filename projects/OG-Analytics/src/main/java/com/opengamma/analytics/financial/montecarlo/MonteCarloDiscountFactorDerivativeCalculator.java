@@ -9,6 +9,7 @@ import org.apache.commons.lang.Validate;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponIborRatchet;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CapFloorIbor;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFixed;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIborGearing;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIborRatchet;
@@ -39,6 +40,43 @@ public class MonteCarloDiscountFactorDerivativeCalculator extends InstrumentDeri
   MonteCarloDiscountFactorDerivativeCalculator() {
   }
 
+  @Override
+  public Double visitCapFloorIbor(final CapFloorIbor payment, final MonteCarloDiscountFactorDerivativeDataBundle mcResults) {
+    // Forward sweep
+    final Double[][][] pathDiscountFactors = mcResults.getPathDiscountingFactor();
+    final double[][] impactAmount = mcResults.getImpactAmount();
+    Validate.isTrue(pathDiscountFactors[0].length == 1, "Only one decision date for cap/floor.");
+    double price = 0;
+    final int nbPath = pathDiscountFactors.length;
+    final double[] ibor = new double[nbPath];
+    final double[] payoff = new double[nbPath];
+    final double omega = (payment.isCap() ? 1.0 : -1.0);
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      ibor[looppath] = (-impactAmount[0][0] * pathDiscountFactors[looppath][0][0] / (impactAmount[0][1] * pathDiscountFactors[looppath][0][1]) - 1.0) / payment.getFixingAccrualFactor();
+      payoff[looppath] = Math.max(omega * (ibor[looppath] - payment.getStrike()), 0);
+      price += payoff[looppath] * pathDiscountFactors[looppath][0][2];
+    }
+    price = price / nbPath * payment.getNotional() * payment.getPaymentYearFraction();
+    // Backward sweep
+    final double priceBar = 1.0;
+    final double pathValueBar = payment.getNotional() * payment.getPaymentYearFraction() / nbPath * priceBar;
+    final double[][] impactAmountBar = new double[1][impactAmount[0].length];
+    final Double[][][] pathDiscountFactorsBar = new Double[nbPath][1][];
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      final double iborBar = ((payoff[looppath] > 0) ? omega : 0.0) * pathDiscountFactors[looppath][0][2] * pathValueBar;
+      final double ratio = pathDiscountFactors[looppath][0][0] / pathDiscountFactors[looppath][0][1];
+      impactAmountBar[0][0] += -ratio / impactAmount[0][1] / payment.getFixingAccrualFactor() * iborBar;
+      impactAmountBar[0][1] += impactAmount[0][0] * ratio / (impactAmount[0][1] * impactAmount[0][1]) / payment.getFixingAccrualFactor() * iborBar;
+      pathDiscountFactorsBar[looppath][0] = new Double[impactAmount[0].length];
+      pathDiscountFactorsBar[looppath][0][0] = -impactAmount[0][0] / (impactAmount[0][1] * pathDiscountFactors[looppath][0][1]) / payment.getFixingAccrualFactor() * iborBar;
+      pathDiscountFactorsBar[looppath][0][1] = impactAmount[0][0] * ratio / (impactAmount[0][1] * pathDiscountFactors[looppath][0][1]) / payment.getFixingAccrualFactor() * iborBar;
+      pathDiscountFactorsBar[looppath][0][2] = payoff[looppath] * pathValueBar;
+    }
+    mcResults.setImpactAmountDerivative(impactAmountBar);
+    mcResults.setPathDiscountingFactorDerivative(pathDiscountFactorsBar);
+    return price;
+  }
+
   @Override
   public Double visitSwaptionPhysicalFixedIbor(final SwaptionPhysicalFixedIbor swaption, final MonteCarloDiscountFactorDerivativeDataBundle mcResults) {
     // Forward sweep
@@ -59,7 +97,7 @@ public class MonteCarloDiscountFactorDerivativeCalculator extends InstrumentDeri
     final double priceBar = 1.0;
     final double[] swapPathValueBar = new double[nbPath];
     for (int looppath = 0; looppath < nbPath; looppath++) {
-      swapPathValueBar[looppath] = ((swapPathValue[looppath] > 0) ? 1.0 : 0.0) / nbPath * priceBar;
+      swapPathValueBar[looppath] = ((swapPathValue[looppath] > 0) ? 1.0 : 0.0) / nbPath * (swaption.isLong() ? 1.0 : -1.0) * priceBar;
     }
     final double[][] impactAmountBar = new double[1][impactAmount[0].length];
     for (int looppath = 0; looppath < nbPath; looppath++) {
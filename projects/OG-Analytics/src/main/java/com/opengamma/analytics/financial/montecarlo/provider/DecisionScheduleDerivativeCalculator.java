@@ -6,17 +6,23 @@
 package com.opengamma.analytics.financial.montecarlo.provider;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponIborRatchet;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityPaymentFixed;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CapFloorIbor;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFloating;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
 import com.opengamma.analytics.financial.provider.calculator.discounting.CashFlowEquivalentCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.CashFlowEquivalentCurveSensitivityCalculator;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.SimplyCompoundedForwardSensitivity;
+import com.opengamma.util.tuple.DoublesPair;
 
 /**
  * Calculator of decision schedule for different instruments. Used in particular for Monte Carlo pricing.
@@ -64,6 +70,37 @@ public class DecisionScheduleDerivativeCalculator extends InstrumentDerivativeVi
     return decision;
   }
 
+  @Override
+  public DecisionScheduleDerivative visitCapFloorIbor(final CapFloorIbor payment, final MulticurveProviderInterface multicurves) {
+    final double[] decisionTime = new double[] {payment.getFixingTime()};
+    final double fixingStartTime = payment.getFixingPeriodStartTime();
+    final double fixingEndTime = payment.getFixingPeriodEndTime();
+    final double paymentTime = payment.getPaymentTime();
+    final double[][] impactTime = new double[1][];
+    impactTime[0] = new double[] {fixingStartTime, fixingEndTime, paymentTime};
+    final double[][] impactAmount = new double[1][];
+    final double forward = multicurves.getSimplyCompoundForwardRate(payment.getIndex(), fixingStartTime, fixingEndTime, payment.getFixingAccrualFactor());
+    final double dfRatio = multicurves.getDiscountFactor(payment.getCurrency(), fixingEndTime) / multicurves.getDiscountFactor(payment.getCurrency(), fixingStartTime);
+    final double beta = (1.0 + payment.getFixingAccrualFactor() * forward) * dfRatio;
+    impactAmount[0] = new double[] {beta, -1.0, 1.0};
+    // Only the amount at the fixing period start depends on the curves.
+    final Map<String, List<ForwardSensitivity>> resultFwd = new HashMap<>();
+    final List<ForwardSensitivity> listForward = new ArrayList<>();
+    listForward.add(new SimplyCompoundedForwardSensitivity(fixingStartTime, fixingEndTime, payment.getFixingAccrualFactor(), payment.getFixingAccrualFactor() * dfRatio));
+    resultFwd.put(multicurves.getName(payment.getIndex()), listForward);
+    final Map<String, List<DoublesPair>> resultDsc = new HashMap<>();
+    final List<DoublesPair> listDisc = new ArrayList<>();
+    listDisc.add(DoublesPair.of(fixingStartTime, fixingStartTime * beta));
+    listDisc.add(DoublesPair.of(fixingEndTime, -fixingEndTime * beta));
+    resultDsc.put(multicurves.getName(payment.getCurrency()), listDisc);
+    final Map<Double, MulticurveSensitivity> betaDerivative = new HashMap<>();
+    betaDerivative.put(fixingStartTime, MulticurveSensitivity.of(resultDsc, resultFwd));
+    final ArrayList<Map<Double, MulticurveSensitivity>> impactAmountDerivative = new ArrayList<>();
+    impactAmountDerivative.add(betaDerivative);
+    final DecisionScheduleDerivative decision = new DecisionScheduleDerivative(decisionTime, impactTime, impactAmount, impactAmountDerivative);
+    return decision;
+  }
+
   @Override
   public DecisionScheduleDerivative visitAnnuityCouponIborRatchet(final AnnuityCouponIborRatchet annuity, final MulticurveProviderInterface multicurves) {
     final int nbCpn = annuity.getNumberOfPayments();
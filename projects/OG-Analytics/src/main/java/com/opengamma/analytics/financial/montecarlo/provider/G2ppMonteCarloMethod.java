@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.G2ppPiecewiseConstantModel;
 import com.opengamma.analytics.financial.model.interestrate.definition.G2ppPiecewiseConstantParameters;
@@ -46,10 +48,6 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
    * The Hull-White one factor model.
    */
   private static final G2ppPiecewiseConstantModel MODEL = new G2ppPiecewiseConstantModel();
-  /**
-   * The number of paths in one block.
-   */
-  private static final int BLOCK_SIZE = 1000;
 
   /**
    * @param numberGenerator The random number generator.
@@ -59,6 +57,15 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
     super(numberGenerator, nbPath);
   }
 
+  /**
+   * @param numberGenerator The random number generator. Must be an {@link com.opengamma.analytics.math.random.IndexedRandomNumberGenerator} if a pool is given.
+   * @param nbPath The number of paths.
+   * @param pool The pool to run blocks of paths on, null to run them on the calling thread.
+   */
+  public G2ppMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final ForkJoinPool pool) {
+    super(numberGenerator, nbPath, pool);
+  }
+
   /**
    * Computes the present value in the G2++ two factors model by Monte-Carlo.
    * Implementation note: The total number of paths is divided in blocks of maximum size BLOCK_SIZE=1000. The Monte Carlo is run on each block and the average of each
@@ -69,6 +76,17 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
    * @return The present value.
    */
   public MultipleCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final G2ppProviderInterface g2Data) {
+    return MultipleCurrencyAmount.of(ccy, presentValueEstimate(instrument, ccy, g2Data).getValue());
+  }
+
+  /**
+   * Computes the present value in the G2++ two factors model by Monte-Carlo, with its standard error.
+   * @param instrument The swaption.
+   * @param ccy The currency
+   * @param g2Data The G2++ data (curves and G2++ parameters).
+   * @return The present value estimate.
+   */
+  public MonteCarloEstimate presentValueEstimate(final InstrumentDerivative instrument, final Currency ccy, final G2ppProviderInterface g2Data) {
     MulticurveProviderInterface multicurves = g2Data.getMulticurveProvider();
     G2ppPiecewiseConstantParameters parameters = g2Data.getG2ppParameters();
     final DecisionSchedule decision = instrument.accept(DC, multicurves);
@@ -119,43 +137,25 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
     final CholeskyDecompositionCommons cd = new CholeskyDecompositionCommons();
     final CholeskyDecompositionResult cdr = cd.evaluate(new DoubleMatrix2D(cov));
     final double[][] covCD = cdr.getL().getData();
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
     final double[][] impactAmount = decision.getImpactAmount();
-    double pv = 0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(2 * nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[2 * nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < 2 * nbJump; i++) {
-          for (int j = 0; j < 2 * nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
+    final MonteCarloEstimate estimate = simulate(new BlockPricer() {
+      @Override
+      public double price(final PathBlock block) {
+        final int nbPath = block.getNbPath();
+        final double[][] x = block.getNormals(2 * nbJump);
+        final double[][] y = new double[2 * nbJump][nbPath]; // jump/path
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          for (int i = 0; i < 2 * nbJump; i++) {
+            for (int j = 0; j < 2 * nbJump; j++) {
+              y[i][looppath] += x[j][looppath] * covCD[i][j];
+            }
           }
         }
+        final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, tau2);
+        return instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath;
       }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, tau2);
-      pv += instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath2[loopblock];
-    }
-    pv *= pDN / getNbPath(); // Multiply by the numeraire.
-    return MultipleCurrencyAmount.of(ccy, pv);
-  }
-
-  /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
-   */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
-    }
-    return result;
+    });
+    return estimate.multipliedBy(pDN); // Multiply by the numeraire.
   }
 
   /**
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.HullWhiteOneFactorPiecewiseConstantInterestRateModel;
@@ -25,10 +26,13 @@ import com.opengamma.analytics.financial.provider.sensitivity.multicurve.Multipl
 import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionCommons;
 import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionResult;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.random.BrownianBridge;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
 import com.opengamma.util.money.Currency;
 import com.opengamma.util.money.MultipleCurrencyAmount;
 import com.opengamma.util.tuple.DoublesPair;
+import com.opengamma.util.tuple.ObjectsPair;
+import com.opengamma.util.tuple.Pair;
 
 /**
  * Monte Carlo pricing method in the hull-White one factor model.
@@ -56,10 +60,6 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    * The Hull-White one factor model.
    */
   private static final HullWhiteOneFactorPiecewiseConstantInterestRateModel MODEL = new HullWhiteOneFactorPiecewiseConstantInterestRateModel();
-  /**
-   * The number of paths in one block.
-   */
-  private static final int BLOCK_SIZE = 1000;
 
   /**
    * @param numberGenerator The random number generator.
@@ -69,6 +69,15 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
     super(numberGenerator, nbPath);
   }
 
+  /**
+   * @param numberGenerator The random number generator. Must be an {@link com.opengamma.analytics.math.random.IndexedRandomNumberGenerator} if a pool is given.
+   * @param nbPath The number of paths.
+   * @param pool The pool to run blocks of paths on, null to run them on the calling thread.
+   */
+  public HullWhiteMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final ForkJoinPool pool) {
+    super(numberGenerator, nbPath, pool);
+  }
+
   /**
    * Computes the present value in the Hull-White one factor model by Monte-Carlo.
    * Implementation note: The total number of paths is divided in blocks of maximum size BLOCK_SIZE=1000. The Monte Carlo is run on each block and the average of each
@@ -79,6 +88,18 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    * @return The present value.
    */
   public MultipleCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData) {
+    return MultipleCurrencyAmount.of(ccy, presentValueEstimate(instrument, ccy, hwData).getValue());
+  }
+
+  /**
+   * Computes the present value in the Hull-White one factor model by Monte-Carlo, with its standard error. The standard error is NaN if there are fewer than two blocks of paths or the
+   * generator is a low-discrepancy one.
+   * @param instrument The swaption.
+   * @param ccy The currency.
+   * @param hwData The Hull-White data (curves and Hull-White parameters).
+   * @return The present value estimate.
+   */
+  public MonteCarloEstimate presentValueEstimate(final InstrumentDerivative instrument, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData) {
     // TODO: remove currency and dsc curve name (should be available from the instrument)
     final MulticurveProviderInterface multicurves = hwData.getMulticurveProvider();
     final HullWhiteOneFactorPiecewiseConstantParameters parameters = hwData.getHullWhiteParameters();
@@ -136,29 +157,31 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
         covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
       }
     }
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
     final double[][] impactAmount = decision.getImpactAmount();
-    double pv = 0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < nbJump; i++) {
-          for (int j = 0; j < nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
+    // The covariance of the jumps is that of a Brownian motion at times gamma.
+    final BrownianBridge bridge = isBrownianBridge() ? new BrownianBridge(gamma) : null;
+    final MonteCarloEstimate estimate = simulate(new BlockPricer() {
+      @Override
+      public double price(final PathBlock block) {
+        final int nbPath = block.getNbPath();
+        final double[][] x = block.getNormals(nbJump);
+        final double[][] y = new double[nbJump][nbPath]; // jump/path
+        if (bridge != null) {
+          bridge.construct(x, y);
+        } else {
+          for (int looppath = 0; looppath < nbPath; looppath++) {
+            for (int i = 0; i < nbJump; i++) {
+              for (int j = 0; j < nbJump; j++) {
+                y[i][looppath] += x[j][looppath] * covCD[i][j];
+              }
+            }
           }
         }
+        final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
+        return instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath;
       }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
-      pv += instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath2[loopblock];
-    }
-    pv *= pDN / getNbPath(); // Multiply by the numeraire.
-    return MultipleCurrencyAmount.of(ccy, pv);
+    });
+    return estimate.multipliedBy(pDN); // Multiply by the numeraire.
   }
 
   /**
@@ -171,6 +194,20 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    * @return The curve sensitivity.
    */
   public MultipleCurrencyMulticurveSensitivity presentValueCurveSensitivity(final InstrumentDerivative instrument, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData) {
+    return presentValueAndCurveSensitivity(instrument, ccy, hwData).getSecond();
+  }
+
+  /**
+   * Computes the present value and its curve sensitivity in the Hull-White one factor model by Monte-Carlo. The sensitivity is computed by Adjoint Algorithmic Differentiation:
+   * each path is priced forward and then swept backward to the initial discount factors and the reference amounts, which are the only inputs depending on the curves. The
+   * sensitivities to all the curve nodes are obtained from the same paths as the present value, at a cost of a small multiple of the present value alone.
+   * @param instrument The instrument.
+   * @param ccy The currency.
+   * @param hwData The Hull-White data (curves and Hull-White parameters).
+   * @return The present value and the curve sensitivity.
+   */
+  public Pair<MultipleCurrencyAmount, MultipleCurrencyMulticurveSensitivity> presentValueAndCurveSensitivity(final InstrumentDerivative instrument, final Currency ccy,
+      final HullWhiteOneFactorProviderInterface hwData) {
     final MulticurveProviderInterface multicurves = hwData.getMulticurveProvider();
     final HullWhiteOneFactorPiecewiseConstantParameters parameters = hwData.getHullWhiteParameters();
     // Forward sweep
@@ -228,68 +265,70 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
         covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
       }
     }
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
     final double[][] impactAmount = decision.getImpactAmount();
-    double pv = 0;
-    final double[] pvBlock = new double[nbBlock];
-    // Backward sweep (init)
-    final double pvBar = 1.0;
-    final double[] pvBlockBar = new double[nbBlock];
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      pvBlockBar[loopblock] = pDN / getNbPath() * pvBar;
-    }
-    final double[][] impactAmountBar = new double[nbJump][];
+    // The inputs of the simulation depending on the curves: the initial discount factors then the reference amounts, both jump/cf.
+    int nbInput = 0;
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      impactAmountBar[loopjump] = new double[impactAmount[loopjump].length];
+      nbInput += 2 * impactAmount[loopjump].length;
     }
-    // Forward sweep (end) and backward sweep (main)
-    final double[][] pDIBar = new double[nbJump][];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      pDIBar[loopjump] = new double[impactAmount[loopjump].length];
-    }
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < nbJump; i++) {
-          for (int j = 0; j < nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
+    final double[] inputBar = new double[nbInput];
+    final BrownianBridge bridge = isBrownianBridge() ? new BrownianBridge(gamma) : null;
+    // Forward sweep and backward sweep on each path
+    final MonteCarloEstimate estimate = simulate(new BlockAdjointPricer() {
+      @Override
+      public double price(final PathBlock block, final double[] blockBar) {
+        final int nbPath = block.getNbPath();
+        final double[][] x = block.getNormals(nbJump);
+        final double[][] y = new double[nbJump][nbPath]; // jump/path
+        if (bridge != null) {
+          bridge.construct(x, y);
+        } else {
+          for (int looppath = 0; looppath < nbPath; looppath++) {
+            for (int i = 0; i < nbJump; i++) {
+              for (int j = 0; j < nbJump; j++) {
+                y[i][looppath] += x[j][looppath] * covCD[i][j];
+              }
+            }
           }
         }
-      }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
-      final MonteCarloDiscountFactorDerivativeDataBundle mcdDB = new MonteCarloDiscountFactorDerivativeDataBundle(pD, impactAmount);
-      pvBlock[loopblock] = instrument.accept(MCDC, mcdDB) * nbPath2[loopblock];
-      pv += pvBlock[loopblock];
-      // Backward sweep (in block loop)
-      for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-        for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
-          impactAmountBar[loopjump][loopimp] += mcdDB.getImpactAmountDerivative()[loopjump][loopimp] * nbPath2[loopblock] * pvBlockBar[loopblock];
+        final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
+        final MonteCarloDiscountFactorDerivativeDataBundle mcdDB = new MonteCarloDiscountFactorDerivativeDataBundle(pD, impactAmount);
+        final double pvBlock = instrument.accept(MCDC, mcdDB) * nbPath;
+        // The calculator derivatives are those of the block average.
+        final double[][] pDIBarBlock = pathGeneratorDiscountAdjointIDF(pDI, y, h, h2, gamma, mcdDB.getPathDiscountingFactorDerivative());
+        final double[][] impactAmountBarBlock = mcdDB.getImpactAmountDerivative();
+        int loopinput = 0;
+        for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+          for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
+            blockBar[loopinput++] += pDIBarBlock[loopjump][loopimp] * nbPath;
+          }
         }
-      }
-      final Double[][][] pDBar = new Double[nbPath2[loopblock]][nbJump][];
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
         for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-          pDBar[looppath][loopjump] = new Double[impactAmount[loopjump].length];
           for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
-            pDBar[looppath][loopjump][loopimp] = mcdDB.getPathDiscountingFactorDerivative()[looppath][loopjump][loopimp] * nbPath2[loopblock] * pvBlockBar[loopblock];
+            blockBar[loopinput++] += impactAmountBarBlock[loopjump][loopimp] * nbPath;
           }
         }
+        return pvBlock;
       }
-      final double[][] pDIBarTemp = pathGeneratorDiscountAdjointIDF(pDI, y, h, h2, gamma, pDBar);
-      for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-        for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
-          pDIBar[loopjump][loopimp] += pDIBarTemp[loopjump][loopimp];
-        }
+    }, inputBar);
+    final double pv = estimate.getValue() * pDN; // Multiply by the numeraire.
+    // Backward sweep (end)
+    final double pvBar = 1.0;
+    final double[][] pDIBar = new double[nbJump][];
+    final double[][] impactAmountBar = new double[nbJump][];
+    int loopinput = 0;
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      pDIBar[loopjump] = new double[impactAmount[loopjump].length];
+      for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
+        pDIBar[loopjump][loopimp] = inputBar[loopinput++] * pDN * pvBar;
+      }
+    }
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      impactAmountBar[loopjump] = new double[impactAmount[loopjump].length];
+      for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
+        impactAmountBar[loopjump][loopimp] = inputBar[loopinput++] * pDN * pvBar;
       }
     }
-    pv *= pDN / getNbPath(); // Multiply by the numeraire.
-    // Backward sweep (end)
     double pDNBar = pv / pDN * pvBar;
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
       for (int loopimp = 0; loopimp < impactTime[loopjump].length; loopimp++) {
@@ -317,21 +356,7 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
       }
     }
     result = result.cleaned();
-    return MultipleCurrencyMulticurveSensitivity.of(ccy, result);
-  }
-
-  /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
-   */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
-    }
-    return result;
+    return ObjectsPair.of(MultipleCurrencyAmount.of(ccy, pv), MultipleCurrencyMulticurveSensitivity.of(ccy, result));
   }
 
   /**
@@ -6,6 +6,7 @@
 package com.opengamma.analytics.financial.montecarlo.provider;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.definition.LiborMarketModelDisplacedDiffusionParameters;
@@ -16,6 +17,7 @@ import com.opengamma.analytics.financial.provider.description.interestrate.Multi
 import com.opengamma.analytics.math.matrix.CommonsMatrixAlgebra;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.math.matrix.MatrixAlgebra;
+import com.opengamma.analytics.math.random.BrownianBridge;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
 import com.opengamma.util.money.Currency;
 import com.opengamma.util.money.MultipleCurrencyAmount;
@@ -38,10 +40,6 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    * The calculator from discount factors (calculate the price from simulated discount factors and the reference amounts).
    */
   private static final MonteCarloIborRateCalculator MCC = MonteCarloIborRateCalculator.getInstance();
-  /**
-   * The number of paths in one block.
-   */
-  private static final int BLOCK_SIZE = 1000;
   /**
    * The default maximum length of a jump in the path generation.
    */
@@ -68,7 +66,31 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
     _maxJump = maxJump;
   }
 
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator. Generate Normally distributed numbers. Must be an
+   * {@link com.opengamma.analytics.math.random.IndexedRandomNumberGenerator} if a pool is given.
+   * @param nbPath The number of paths.
+   * @param maxJump The maximum length of a jump in the path generation.
+   * @param pool The pool to run blocks of paths on, null to run them on the calling thread.
+   */
+  public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final double maxJump, final ForkJoinPool pool) {
+    super(numberGenerator, nbPath, pool);
+    _maxJump = maxJump;
+  }
+
   public MultipleCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData) {
+    return MultipleCurrencyAmount.of(ccy, presentValueEstimate(instrument, ccy, lmmData).getValue());
+  }
+
+  /**
+   * Computes the present value in the Libor Market Model by Monte-Carlo, with its standard error.
+   * @param instrument The instrument.
+   * @param ccy The currency.
+   * @param lmmData The LMM data (curves and LMM parameters).
+   * @return The present value estimate.
+   */
+  public MonteCarloEstimate presentValueEstimate(final InstrumentDerivative instrument, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData) {
     final MulticurveProviderInterface multicurves = lmmData.getMulticurveProvider();
     final LiborMarketModelDisplacedDiffusionParameters parameters = lmmData.getLMMParameters();
     // The numeraire is the last time in the LMM description.
@@ -86,26 +108,25 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
       initL[loopper] = (dfL[loopper] / dfL[loopper + 1] - 1.0) / deltaLMM[loopper];
     }
 
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
-
-    double price = 0.0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] initLPath = new double[nbPeriodLMM][nbPath2[loopblock]];
-      for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
-        for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-          initLPath[loopper][looppath] = initL[loopper];
+    final double[][] jumpIn = jumpTimes(decision.getDecisionTime());
+    final double[] stepTime = stepTimes(jumpIn);
+    final int nbFactorLMM = parameters.getNbFactor();
+    // Each factor is driven by a standard Brownian motion observed at the step times.
+    final BrownianBridge bridge = isBrownianBridge() ? new BrownianBridge(stepTime) : null;
+    final MonteCarloEstimate estimate = simulate(new BlockPricer() {
+      @Override
+      public double price(final PathBlock block) {
+        final int nbPath = block.getNbPath();
+        final double[][] initLPath = new double[nbPeriodLMM][nbPath];
+        for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
+          Arrays.fill(initLPath[loopper], initL[loopper]);
         }
+        final double[][][] dw = increments(block, stepTime, nbFactorLMM, bridge);
+        final double[][][] pathIbor = pathgeneratorlibor(jumpIn, initLPath, parameters, dw);
+        return instrument.accept(MCC, new MonteCarloIborRateDataBundle(pathIbor, deltaLMM, decision.getImpactAmount(), impactIndex));
       }
-      final double[][][] pathIbor = pathgeneratorlibor(decision.getDecisionTime(), initLPath, parameters);
-      price += instrument.accept(MCC, new MonteCarloIborRateDataBundle(pathIbor, deltaLMM, decision.getImpactAmount(), impactIndex));
-    }
-    price *= multicurves.getDiscountFactor(ccy, parameters.getIborTime()[parameters.getIborTime().length - 1]) / getNbPath();
-    return MultipleCurrencyAmount.of(ccy, price);
+    });
+    return estimate.multipliedBy(multicurves.getDiscountFactor(ccy, parameters.getIborTime()[parameters.getIborTime().length - 1]));
   }
 
   private int[][] index(final double[][] time, final LiborMarketModelDisplacedDiffusionParameters lmm) {
@@ -123,9 +144,11 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    * Create one step in the LMM diffusion. The step is done through several jump times. The diffusion is approximated with a predictor-corrector approach.
    * @param jumpTime The jump times.
    * @param initIbor Rate at the start of the period. Size: nbPeriodLMM x nbPath.
+   * @param lmm The LMM parameters.
+   * @param dw The normally distributed factor increments for each jump, scaled to unit variance. Size: nbJump x nbFactorLMM x nbPath.
    * @return The Ibor rates at the end of the jump period. Size: nbPeriodLMM x nbPath.
    */
-  private double[][] stepPC(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm) {
+  private double[][] stepPC(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm, final double[][][] dw) {
     final double amr = lmm.getMeanReversion();
     final double[] iborTime = lmm.getIborTime();
     final double[] almm = lmm.getDisplacement();
@@ -163,8 +186,6 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
         }
       }
       final DoubleMatrix2D salpha2 = new DoubleMatrix2D(salpha2Array);
-      // Random seed
-      final double[][] dw = getNormalArray(nbFactorLMM, nbPath);
       // Common figures
       final double[] dr1 = new double[nI];
       for (int loopn = 0; loopn < nI; loopn++) {
@@ -174,7 +195,7 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
       for (int loopn = 0; loopn < nI; loopn++) {
         for (int looppath = 0; looppath < nbPath; looppath++) {
           for (int loopfact = 0; loopfact < nbFactorLMM; loopfact++) {
-            cc[loopn][looppath] += gammaLMM.getEntry(index + loopn, loopfact) * dw[loopfact][looppath] * sqrtDt * alpha[loopjump];
+            cc[loopn][looppath] += gammaLMM.getEntry(index + loopn, loopfact) * dw[loopjump][loopfact][looppath] * sqrtDt * alpha[loopjump];
           }
           cc[loopn][looppath] += dr1[loopn];
         }
@@ -213,57 +234,118 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
   }
 
   /**
-   *
-   * @param jumpTime The time of the mandatory jumps.
-   * @param initIbor The Ibor rates at the start. nbPeriodLMM x nbPath
-   * @param lmm The LMM parameters.
-   * @return The paths. Size: nbJump x nbPeriodLMM x nbPath
+   * Splits the periods between the decision times into jumps no longer than the maximum jump length.
+   * @param decisionTime The decision times.
+   * @return For each decision time, the times of the jumps from the previous decision time (or 0) to the decision time.
    */
-  private double[][][] pathgeneratorlibor(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm) {
-    final int nbPeriod = initIbor.length;
-    final int nbPath = initIbor[0].length;
-    final int nbJump = jumpTime.length;
-    double[][] initTmp = new double[nbPeriod][nbPath];
-    for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
-      System.arraycopy(initIbor[loop1], 0, initTmp[loop1], 0, nbPath);
-    }
+  private double[][] jumpTimes(final double[] decisionTime) {
+    final int nbJump = decisionTime.length;
     final double[] jumpTimeA = new double[nbJump + 1];
     jumpTimeA[0] = 0;
-    System.arraycopy(jumpTime, 0, jumpTimeA, 1, nbJump);
-    final double[][][] result = new double[nbJump][nbPeriod][nbPath];
-    // TODO: add intermediary jump dates if necessary
+    System.arraycopy(decisionTime, 0, jumpTimeA, 1, nbJump);
+    final double[][] jumpIn = new double[nbJump][];
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      // Intermediary jumps
-      double[] jumpIn;
       if (jumpTimeA[loopjump + 1] - jumpTimeA[loopjump] < _maxJump) {
-        jumpIn = new double[] {jumpTimeA[loopjump], jumpTimeA[loopjump + 1]};
+        jumpIn[loopjump] = new double[] {jumpTimeA[loopjump], jumpTimeA[loopjump + 1]};
       } else {
         final double jump = jumpTimeA[loopjump + 1] - jumpTimeA[loopjump];
         final int nbJumpIn = (int) Math.ceil(jump / _maxJump);
-        jumpIn = new double[nbJumpIn + 1];
-        jumpIn[0] = jumpTimeA[loopjump];
+        jumpIn[loopjump] = new double[nbJumpIn + 1];
+        jumpIn[loopjump][0] = jumpTimeA[loopjump];
         for (int loopJumpIn = 1; loopJumpIn <= nbJumpIn; loopJumpIn++) {
-          jumpIn[loopJumpIn] = jumpTimeA[loopjump] + loopJumpIn * jump / nbJumpIn;
+          jumpIn[loopjump][loopJumpIn] = jumpTimeA[loopjump] + loopJumpIn * jump / nbJumpIn;
         }
       }
-      initTmp = stepPC(jumpIn, initTmp, lmm);
-      for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
-        System.arraycopy(initTmp[loop1], 0, result[loopjump][loop1], 0, nbPath);
+    }
+    return jumpIn;
+  }
+
+  /**
+   * The end times of all the steps of the path generation.
+   * @param jumpIn The jump times for each decision time.
+   * @return The step end times.
+   */
+  private static double[] stepTimes(final double[][] jumpIn) {
+    int nbStep = 0;
+    for (final double[] jump : jumpIn) {
+      nbStep += jump.length - 1;
+    }
+    final double[] stepTime = new double[nbStep];
+    int step = 0;
+    for (final double[] jump : jumpIn) {
+      for (int loopJumpIn = 1; loopJumpIn < jump.length; loopJumpIn++) {
+        stepTime[step++] = jump[loopJumpIn];
       }
     }
-    return result;
+    return stepTime;
   }
 
   /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
+   * Draws the factor increments for all the steps of the paths. Without Brownian bridge the increments are drawn step by step; with it each factor's Brownian motion is constructed
+   * across all the steps, the first dimensions giving the coarsest points of every factor.
+   * @param block The block of paths, the source of the random draws.
+   * @param stepTime The step end times.
+   * @param nbFactor The number of factors.
+   * @param bridge The Brownian bridge on the step times, null to draw the increments directly.
+   * @return The increments, scaled to unit variance. Size: nbStep x nbFactor x nbPath.
+   */
+  private static double[][][] increments(final PathBlock block, final double[] stepTime, final int nbFactor, final BrownianBridge bridge) {
+    final int nbStep = stepTime.length;
+    final int nbPath = block.getNbPath();
+    final double[][] normals = block.getNormals(nbStep * nbFactor);
+    final double[][][] dw = new double[nbStep][nbFactor][];
+    if (bridge == null) {
+      for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+        for (int loopfact = 0; loopfact < nbFactor; loopfact++) {
+          dw[loopstep][loopfact] = normals[loopstep * nbFactor + loopfact];
+        }
+      }
+      return dw;
+    }
+    final double[][] z = new double[nbStep][];
+    final double[][] w = new double[nbStep][nbPath];
+    for (int loopfact = 0; loopfact < nbFactor; loopfact++) {
+      for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+        z[loopstep] = normals[loopstep * nbFactor + loopfact];
+      }
+      bridge.construct(z, w);
+      for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+        final double dt = stepTime[loopstep] - ((loopstep == 0) ? 0 : stepTime[loopstep - 1]);
+        final double scale = (dt > 0) ? 1.0 / Math.sqrt(dt) : 0;
+        dw[loopstep][loopfact] = new double[nbPath];
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          dw[loopstep][loopfact][looppath] = (w[loopstep][looppath] - ((loopstep == 0) ? 0 : w[loopstep - 1][looppath])) * scale;
+        }
+      }
+    }
+    return dw;
+  }
+
+  /**
+   *
+   * @param jumpIn The jump times for each decision time.
+   * @param initIbor The Ibor rates at the start. nbPeriodLMM x nbPath
+   * @param lmm The LMM parameters.
+   * @param dw The normally distributed factor increments for each step. Size: nbStep x nbFactorLMM x nbPath.
+   * @return The paths. Size: nbJump x nbPeriodLMM x nbPath
    */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
+  private double[][][] pathgeneratorlibor(final double[][] jumpIn, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm, final double[][][] dw) {
+    final int nbPeriod = initIbor.length;
+    final int nbPath = initIbor[0].length;
+    final int nbJump = jumpIn.length;
+    double[][] initTmp = new double[nbPeriod][nbPath];
+    for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
+      System.arraycopy(initIbor[loop1], 0, initTmp[loop1], 0, nbPath);
+    }
+    final double[][][] result = new double[nbJump][nbPeriod][nbPath];
+    int step = 0;
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
+      final int nbJumpIn = jumpIn[loopjump].length - 1;
+      initTmp = stepPC(jumpIn[loopjump], initTmp, lmm, Arrays.copyOfRange(dw, step, step + nbJumpIn));
+      step += nbJumpIn;
+      for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
+        System.arraycopy(initTmp[loop1], 0, result[loopjump][loop1], 0, nbPath);
+      }
     }
     return result;
   }
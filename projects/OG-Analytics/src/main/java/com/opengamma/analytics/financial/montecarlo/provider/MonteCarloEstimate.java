@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo.provider;
+
+/**
+ * The result of a Monte Carlo simulation: the estimated value and its standard error.
+ * <p>
+ * The standard error is estimated from the spread of the block averages (batch means), so is only available when the simulation has at least two blocks of paths. It is not available for
+ * a low-discrepancy generator as the blocks of a quasi-random sequence are not independent; the error of such an estimate can be measured from runs with independently seeded generators.
+ */
+public final class MonteCarloEstimate {
+
+  /**
+   * The estimated value.
+   */
+  private final double _value;
+  /**
+   * The standard error of the estimated value.
+   */
+  private final double _standardError;
+  /**
+   * The number of paths.
+   */
+  private final int _nbPath;
+
+  /**
+   * Constructor.
+   * @param value The estimated value.
+   * @param standardError The standard error of the estimate, NaN if not known.
+   * @param nbPath The number of paths.
+   */
+  public MonteCarloEstimate(final double value, final double standardError, final int nbPath) {
+    _value = value;
+    _standardError = standardError;
+    _nbPath = nbPath;
+  }
+
+  /**
+   * Gets the estimated value.
+   * @return The value.
+   */
+  public double getValue() {
+    return _value;
+  }
+
+  /**
+   * Gets the standard error of the estimated value.
+   * @return The standard error, NaN if not known.
+   */
+  public double getStandardError() {
+    return _standardError;
+  }
+
+  /**
+   * Gets the number of paths.
+   * @return The number of paths.
+   */
+  public int getNbPath() {
+    return _nbPath;
+  }
+
+  /**
+   * Scales the estimate, for example by a numeraire.
+   * @param factor The multiplicative factor.
+   * @return The scaled estimate.
+   */
+  public MonteCarloEstimate multipliedBy(final double factor) {
+    return new MonteCarloEstimate(_value * factor, _standardError * Math.abs(factor), _nbPath);
+  }
+
+  @Override
+  public String toString() {
+    return "MonteCarloEstimate[" + _value + " +/- " + _standardError + ", " + _nbPath + " paths]";
+  }
+
+}
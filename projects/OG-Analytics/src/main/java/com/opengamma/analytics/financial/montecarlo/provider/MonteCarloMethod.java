@@ -1,17 +1,32 @@
 /**
  * Copyright (C) 2011 - present by OpenGamma Inc. and the OpenGamma group of companies
- * 
+ *
  * Please see distribution for license.
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.opengamma.analytics.math.random.IndexedRandomNumberGenerator;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.SobolNormalRandomNumberGenerator;
+import com.opengamma.util.ArgumentChecker;
 
 /**
  * Generic Monte-Carlo pricing method.
+ * <p>
+ * The paths are simulated and priced in blocks of {@link #BLOCK_SIZE}. By default the blocks are run sequentially on the calling thread. If a fork-join pool is given, the blocks are split
+ * across the pool. This requires an {@link IndexedRandomNumberGenerator} so that the numbers drawn for each path do not depend on the order the blocks are run in; the block results are
+ * combined in block order so the result does not depend on the number of threads.
  */
 public abstract class MonteCarloMethod {
 
+  /**
+   * The number of paths in one block.
+   */
+  protected static final int BLOCK_SIZE = 1000;
+
   /**
    * The random number generator.
    */
@@ -20,6 +35,10 @@ public abstract class MonteCarloMethod {
    * The number of paths.
    */
   private final int _nbPath;
+  /**
+   * The pool to run blocks of paths on, null to run them on the calling thread.
+   */
+  private final ForkJoinPool _pool;
 
   /**
    * Constructor.
@@ -27,8 +46,20 @@ public abstract class MonteCarloMethod {
    * @param nbPath The number of paths.
    */
   public MonteCarloMethod(RandomNumberGenerator numberGenerator, int nbPath) {
+    this(numberGenerator, nbPath, null);
+  }
+
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator. Must be an {@link IndexedRandomNumberGenerator} if a pool is given.
+   * @param nbPath The number of paths.
+   * @param pool The pool to run blocks of paths on, null to run them on the calling thread.
+   */
+  public MonteCarloMethod(RandomNumberGenerator numberGenerator, int nbPath, ForkJoinPool pool) {
+    ArgumentChecker.isTrue((pool == null) || (numberGenerator instanceof IndexedRandomNumberGenerator), "Parallel simulation requires an indexed number generator");
     _numberGenerator = numberGenerator;
     _nbPath = nbPath;
+    _pool = pool;
   }
 
   /**
@@ -47,4 +78,216 @@ public abstract class MonteCarloMethod {
     return _nbPath;
   }
 
+  /**
+   * Gets the _pool field.
+   * @return the _pool, null if the paths are simulated on the calling thread
+   */
+  public ForkJoinPool getPool() {
+    return _pool;
+  }
+
+  /**
+   * Returns whether the generator produces a low-discrepancy (quasi-random) sequence rather than pseudo-random numbers.
+   * @return true for a low-discrepancy generator
+   */
+  protected boolean isLowDiscrepancy() {
+    return _numberGenerator instanceof SobolNormalRandomNumberGenerator;
+  }
+
+  /**
+   * Returns whether the paths should be constructed by Brownian bridge. This is the case for a low-discrepancy generator, so that its first dimensions, which are the most uniform,
+   * determine the large scale shape of the paths.
+   * @return true to construct the paths by Brownian bridge
+   */
+  protected boolean isBrownianBridge() {
+    return isLowDiscrepancy();
+  }
+
+  /**
+   * Prices the paths of one block. Implementations must be thread-safe if the method has a pool.
+   */
+  protected interface BlockPricer {
+
+    /**
+     * Simulates and prices the paths of the block.
+     * @param block The block, giving the number of paths and the random draws.
+     * @return The sum of the path values.
+     */
+    double price(PathBlock block);
+
+  }
+
+  /**
+   * Prices the paths of one block with the adjoint of the price with respect to the inputs of the simulation. Implementations must be thread-safe if the method has a pool.
+   */
+  protected interface BlockAdjointPricer {
+
+    /**
+     * Simulates and prices the paths of the block, and computes the derivatives by a backward sweep on each path.
+     * @param block The block, giving the number of paths and the random draws.
+     * @param inputBar The array to which the derivatives of the sum of the path values with respect to each input are added. It is specific to the block.
+     * @return The sum of the path values.
+     */
+    double price(PathBlock block, double[] inputBar);
+
+  }
+
+  /**
+   * The paths of one block and the source of their random draws.
+   */
+  protected static final class PathBlock {
+
+    private final RandomNumberGenerator _generator;
+    private final IndexedRandomNumberGenerator _indexedGenerator;
+    private double[][] _normals = new double[0][];
+    private long _firstPath;
+    private int _nbPath;
+    private int _nbDimension;
+
+    private PathBlock(final RandomNumberGenerator generator) {
+      _generator = generator;
+      _indexedGenerator = (generator instanceof IndexedRandomNumberGenerator) ? (IndexedRandomNumberGenerator) generator : null;
+    }
+
+    private void reset(final long firstPath, final int nbPath) {
+      _firstPath = firstPath;
+      _nbPath = nbPath;
+      _nbDimension = 0;
+    }
+
+    /**
+     * Gets the number of paths in the block.
+     * @return The number of paths.
+     */
+    public int getNbPath() {
+      return _nbPath;
+    }
+
+    /**
+     * Draws independent normally distributed variables for the next dimensions of the paths. The array returned is reused by the next call, for this or a later block.
+     * @param nbDimension The number of dimensions.
+     * @return The variables, dimension/path.
+     */
+    public double[][] getNormals(final int nbDimension) {
+      if (_indexedGenerator == null) {
+        // Sequential generator; draw in the same order as the original block implementation
+        final double[][] normals = new double[nbDimension][];
+        for (int loopdim = 0; loopdim < nbDimension; loopdim++) {
+          normals[loopdim] = _generator.getVector(_nbPath);
+        }
+        return normals;
+      }
+      if ((_normals.length != nbDimension) || ((nbDimension > 0) && (_normals[0].length != _nbPath))) {
+        _normals = new double[nbDimension][_nbPath];
+      }
+      for (int loopdim = 0; loopdim < nbDimension; loopdim++) {
+        _indexedGenerator.fill(_firstPath, _nbDimension++, _normals[loopdim], 0, _nbPath);
+      }
+      return _normals;
+    }
+
+  }
+
+  /**
+   * Prices a range of blocks, splitting it across the pool.
+   */
+  private final class BlockTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BlockPricer _pricer;
+    private final double[] _blockValue;
+    private final int _from;
+    private final int _to;
+    private final int _grain;
+
+    private BlockTask(final BlockPricer pricer, final double[] blockValue, final int from, final int to, final int grain) {
+      _pricer = pricer;
+      _blockValue = blockValue;
+      _from = from;
+      _to = to;
+      _grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (_to - _from <= _grain) {
+        priceBlocks(_pricer, _blockValue, _from, _to);
+      } else {
+        final int mid = (_from + _to) >>> 1;
+        invokeAll(new BlockTask(_pricer, _blockValue, _from, mid, _grain), new BlockTask(_pricer, _blockValue, mid, _to, _grain));
+      }
+    }
+
+  }
+
+  private void priceBlocks(final BlockPricer pricer, final double[] blockValue, final int from, final int to) {
+    final PathBlock block = new PathBlock(getNumberGenerator());
+    for (int loopblock = from; loopblock < to; loopblock++) {
+      final long firstPath = (long) loopblock * BLOCK_SIZE;
+      block.reset(firstPath, (int) Math.min(BLOCK_SIZE, getNbPath() - firstPath));
+      blockValue[loopblock] = pricer.price(block);
+    }
+  }
+
+  /**
+   * Simulates and prices all of the paths.
+   * @param pricer The pricer for each block of paths.
+   * @return The average path value and its standard error. The standard error is NaN for a low-discrepancy generator.
+   */
+  protected MonteCarloEstimate simulate(final BlockPricer pricer) {
+    final int nbBlock = getNbBlock();
+    final double[] blockValue = new double[nbBlock];
+    if (_pool == null) {
+      priceBlocks(pricer, blockValue, 0, nbBlock);
+    } else {
+      _pool.invoke(new BlockTask(pricer, blockValue, 0, nbBlock, Math.max(1, nbBlock / (4 * _pool.getParallelism()))));
+    }
+    // Accumulate in block order so that the result is the same however the blocks were run. The variance of the path values is estimated from the weighted spread of the block means.
+    double sum = 0;
+    double mean = 0;
+    double squares = 0;
+    int weight = 0;
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      final int nbPath = Math.min(BLOCK_SIZE, getNbPath() - loopblock * BLOCK_SIZE);
+      final double blockMean = blockValue[loopblock] / nbPath;
+      sum += blockValue[loopblock];
+      weight += nbPath;
+      final double delta = blockMean - mean;
+      mean += delta * nbPath / weight;
+      squares += nbPath * delta * (blockMean - mean);
+    }
+    // The blocks of a low-discrepancy sequence are not independent, so their spread is not an error estimate
+    final double standardError = ((nbBlock > 1) && !isLowDiscrepancy()) ? Math.sqrt(squares / (nbBlock - 1) / getNbPath()) : Double.NaN;
+    return new MonteCarloEstimate(sum / getNbPath(), standardError, getNbPath());
+  }
+
+  /**
+   * Simulates and prices all of the paths, computing the derivatives of the average path value with respect to the inputs of the simulation by Adjoint Algorithmic Differentiation.
+   * The derivatives of each block are kept apart and added in block order, like the values, so the result does not depend on the number of threads.
+   * @param pricer The adjoint pricer for each block of paths.
+   * @param inputBar The array to which the derivatives of the average path value with respect to each input are added.
+   * @return The average path value and its standard error.
+   */
+  protected MonteCarloEstimate simulate(final BlockAdjointPricer pricer, final double[] inputBar) {
+    ArgumentChecker.notNull(inputBar, "inputBar");
+    final double[][] blockBar = new double[getNbBlock()][inputBar.length];
+    final MonteCarloEstimate estimate = simulate(new BlockPricer() {
+      @Override
+      public double price(final PathBlock block) {
+        return pricer.price(block, blockBar[(int) (block._firstPath / BLOCK_SIZE)]);
+      }
+    });
+    for (final double[] bar : blockBar) {
+      for (int loopinput = 0; loopinput < inputBar.length; loopinput++) {
+        inputBar[loopinput] += bar[loopinput] / getNbPath();
+      }
+    }
+    return estimate;
+  }
+
+  private int getNbBlock() {
+    return (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
+  }
+
 }
@@ -9,6 +9,8 @@ import cern.jet.random.engine.MersenneTwister;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponIborRatchet;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CapFloorIbor;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
 import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
 import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderInterface;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
@@ -49,4 +51,16 @@ public class PresentValueCurveSensitivityHullWhiteMonteCarloCalculator extends I
     return methodMC.presentValueCurveSensitivity(annuity, annuity.getCurrency(), hullWhite);
   }
 
+  @Override
+  public MultipleCurrencyMulticurveSensitivity visitCapFloorIbor(final CapFloorIbor payment, final HullWhiteOneFactorProviderInterface hullWhite) {
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), _nbPath);
+    return methodMC.presentValueCurveSensitivity(payment, payment.getCurrency(), hullWhite);
+  }
+
+  @Override
+  public MultipleCurrencyMulticurveSensitivity visitSwaptionPhysicalFixedIbor(final SwaptionPhysicalFixedIbor swaption, final HullWhiteOneFactorProviderInterface hullWhite) {
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), _nbPath);
+    return methodMC.presentValueCurveSensitivity(swaption, swaption.getCurrency(), hullWhite);
+  }
+
 }
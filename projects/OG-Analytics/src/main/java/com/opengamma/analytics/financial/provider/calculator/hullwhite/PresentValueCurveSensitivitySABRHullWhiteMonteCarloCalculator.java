@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.hullwhite;
+
+import cern.jet.random.engine.MersenneTwister;
+
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
+import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
+import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProvider;
+import com.opengamma.analytics.financial.provider.description.interestrate.SABRSwaptionProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
+import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Present value curve sensitivity calculator for interest rate instruments using a Hull-White one factor model calibrated to SABR prices.
+ * The sensitivity is computed by Adjoint Algorithmic Differentiation on the Monte Carlo paths, with the calibrated Hull-White parameters fixed.
+ */
+public final class PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator extends
+    InstrumentDerivativeVisitorAdapter<SABRSwaptionProviderInterface, MultipleCurrencyMulticurveSensitivity> {
+
+  /**
+   * The unique instance of the calculator.
+   */
+  private static final PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator INSTANCE = new PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator();
+
+  /**
+   * Constructor.
+   */
+  private PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator() {
+  }
+
+  /**
+   * Gets the calculator instance.
+   * @return The calculator.
+   */
+  public static PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * The default number of path in the Monte Carlo simulation.
+   */
+  private static final int DEFAULT_NB_PATH = 50000;
+
+  @Override
+  /**
+   * The calculator is for test purposes only! It calibrates a Hull-White on a swaption priced with SABR and then computes the curve sensitivity of the same swaption in the
+   * Hull-White model by Monte Carlo. Do not use this calculator in production.
+   */
+  public MultipleCurrencyMulticurveSensitivity visitSwaptionPhysicalFixedIbor(final SwaptionPhysicalFixedIbor swaption, final SABRSwaptionProviderInterface sabrData) {
+    ArgumentChecker.notNull(swaption, "Swaption");
+    ArgumentChecker.notNull(sabrData, "SABR swaption provider");
+    final HullWhiteOneFactorProvider hwMulticurves = PresentValueSABRHullWhiteMonteCarloCalculator.calibrate(swaption, sabrData);
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), DEFAULT_NB_PATH);
+    return methodMC.presentValueCurveSensitivity(swaption, swaption.getCurrency(), hwMulticurves);
+  }
+
+}
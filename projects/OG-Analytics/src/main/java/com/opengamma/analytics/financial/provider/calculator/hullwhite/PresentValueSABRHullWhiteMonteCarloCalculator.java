@@ -66,6 +66,19 @@ public final class PresentValueSABRHullWhiteMonteCarloCalculator extends Instrum
   public MultipleCurrencyAmount visitSwaptionPhysicalFixedIbor(final SwaptionPhysicalFixedIbor swaption, final SABRSwaptionProviderInterface sabrData) {
     ArgumentChecker.notNull(swaption, "Swaption");
     ArgumentChecker.notNull(sabrData, "SABR swaption provider");
+    final HullWhiteOneFactorProvider hwMulticurves = calibrate(swaption, sabrData);
+    // Pricing
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), DEFAULT_NB_PATH);
+    return methodMC.presentValue(swaption, swaption.getCurrency(), hwMulticurves);
+  }
+
+  /**
+   * Calibrates a Hull-White one factor model with the default mean reversion on the swaption priced with SABR.
+   * @param swaption The swaption.
+   * @param sabrData The SABR and multi-curves provider.
+   * @return The Hull-White provider with the calibrated parameters.
+   */
+  static HullWhiteOneFactorProvider calibrate(final SwaptionPhysicalFixedIbor swaption, final SABRSwaptionProviderInterface sabrData) {
     final Currency ccy = swaption.getCurrency();
     final HullWhiteOneFactorPiecewiseConstantParameters hwParameters = new HullWhiteOneFactorPiecewiseConstantParameters(DEFAULT_MEAN_REVERSION, new double[] {0.01}, new double[0]);
     final SuccessiveRootFinderHullWhiteCalibrationObjective objective = new SuccessiveRootFinderHullWhiteCalibrationObjective(hwParameters, ccy);
@@ -74,10 +87,7 @@ public final class PresentValueSABRHullWhiteMonteCarloCalculator extends Instrum
     calibrationEngine.addInstrument(swaption, PVSSC);
     // Calibration
     calibrationEngine.calibrate(sabrData);
-    final HullWhiteOneFactorProvider hwMulticurves = new HullWhiteOneFactorProvider(sabrData.getMulticurveProvider(), hwParameters, ccy);
-    // Pricing
-    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), DEFAULT_NB_PATH);
-    return methodMC.presentValue(swaption, ccy, hwMulticurves);
+    return new HullWhiteOneFactorProvider(sabrData.getMulticurveProvider(), hwParameters, ccy);
   }
 
 }
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.curve.multicurve;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlock;
+import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlockBundle;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * The results of the previous calibration of each unit of a curve configuration, used by {@link MulticurveDiscountBuildingRepository} to speed up the
+ * next calibration of the same configuration.
+ * <p>
+ * When a unit is calibrated again, the calculator (usually the par spread market quote) is first evaluated at the previous parameters. If all the values
+ * are within the quote tolerance, the quotes have not moved enough to matter and the previous parameters are kept. Otherwise the root finder is started
+ * from the previous parameters and Jacobian. The inverse Jacobian matrices of the previous calibration are also reused when neither the unit nor any of
+ * the units before it moved, and the known data and block bundle are the same as in the previous calibration.
+ * <p>
+ * A cache should be used for one curve configuration only; the units are identified by the names of their curves. This class is thread-safe.
+ */
+public class MulticurveDiscountBuildingCache {
+
+  /**
+   * The tolerance on the calibration values below which a unit is not recalibrated.
+   */
+  private final double _quoteTolerance;
+  /**
+   * The previous calibration of each unit, by the names of its curves.
+   */
+  private final ConcurrentMap<List<String>, UnitCalibration> _units = new ConcurrentHashMap<>();
+  /**
+   * The number of units not recalibrated.
+   */
+  private final AtomicInteger _nbSkipped = new AtomicInteger();
+  /**
+   * The number of units calibrated by the root finder.
+   */
+  private final AtomicInteger _nbCalibrated = new AtomicInteger();
+
+  /**
+   * Constructor.
+   * @param quoteTolerance The tolerance on the calibration values (e.g. par spreads) below which a unit is not recalibrated, not negative.
+   * Zero means that the units are always recalibrated, from a warm start.
+   */
+  public MulticurveDiscountBuildingCache(final double quoteTolerance) {
+    _quoteTolerance = ArgumentChecker.notNegative(quoteTolerance, "quote tolerance");
+  }
+
+  /**
+   * Gets the tolerance on the calibration values below which a unit is not recalibrated.
+   * @return The tolerance.
+   */
+  public double getQuoteTolerance() {
+    return _quoteTolerance;
+  }
+
+  /**
+   * Gets the number of units which were not recalibrated since the creation of the cache.
+   * @return The number.
+   */
+  public int getNumberOfSkippedUnits() {
+    return _nbSkipped.get();
+  }
+
+  /**
+   * Gets the number of units which were calibrated by the root finder since the creation of the cache.
+   * @return The number.
+   */
+  public int getNumberOfCalibratedUnits() {
+    return _nbCalibrated.get();
+  }
+
+  /**
+   * Removes all the previous calibrations; the next calibration starts from the generators starting points.
+   */
+  public void clear() {
+    _units.clear();
+  }
+
+  /**
+   * Gets the previous calibration of a unit.
+   * @param curveNames The names of the curves of the unit.
+   * @return The calibration, null if the unit was not calibrated before.
+   */
+  UnitCalibration get(final List<String> curveNames) {
+    return _units.get(curveNames);
+  }
+
+  /**
+   * Stores the calibration of a unit.
+   * @param curveNames The names of the curves of the unit.
+   * @param calibration The calibration.
+   * @param skipped Whether the unit was not recalibrated.
+   */
+  void put(final List<String> curveNames, final UnitCalibration calibration, final boolean skipped) {
+    _units.put(new ArrayList<>(curveNames), calibration);
+    if (skipped) {
+      _nbSkipped.incrementAndGet();
+    } else {
+      _nbCalibrated.incrementAndGet();
+    }
+  }
+
+  /**
+   * The calibration of a unit: its parameters, the Jacobian of the calibration values with respect to them and the block bundle entries of its curves.
+   * The block bundle entries include the known block bundle and depend on the known data, so these are recorded with them.
+   */
+  static final class UnitCalibration {
+    private final double[] _parameters;
+    private final DoubleMatrix2D _jacobian;
+    private final LinkedHashMap<String, Pair<CurveBuildingBlock, DoubleMatrix2D>> _blocks;
+    private final MulticurveProviderDiscount _knownData;
+    private final CurveBuildingBlockBundle _knownBlockBundle;
+
+    UnitCalibration(final double[] parameters, final DoubleMatrix2D jacobian, final LinkedHashMap<String, Pair<CurveBuildingBlock, DoubleMatrix2D>> blocks,
+        final MulticurveProviderDiscount knownData, final CurveBuildingBlockBundle knownBlockBundle) {
+      _parameters = parameters;
+      _jacobian = jacobian;
+      _blocks = blocks;
+      _knownData = knownData;
+      _knownBlockBundle = knownBlockBundle;
+    }
+
+    /**
+     * Checks if the unit was calibrated with the same known data and block bundle.
+     * @param knownData The known data.
+     * @param knownBlockBundle The known block bundle.
+     * @return True if the block bundle entries can be reused with them.
+     */
+    boolean isKnown(final MulticurveProviderDiscount knownData, final CurveBuildingBlockBundle knownBlockBundle) {
+      return _knownData.equals(knownData) && _knownBlockBundle.equals(knownBlockBundle);
+    }
+
+    double[] getParameters() {
+      return _parameters;
+    }
+
+    DoubleMatrix2D getJacobian() {
+      return _jacobian;
+    }
+
+    LinkedHashMap<String, Pair<CurveBuildingBlock, DoubleMatrix2D>> getBlocks() {
+      return _blocks;
+    }
+  }
+
+}
@@ -10,7 +10,10 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorYDCurve;
 import com.opengamma.analytics.financial.instrument.index.IborIndex;
@@ -21,6 +24,7 @@ import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlock;
 import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlockBundle;
 import com.opengamma.analytics.financial.provider.curve.MultiCurveBundle;
 import com.opengamma.analytics.financial.provider.curve.SingleCurveBundle;
+import com.opengamma.analytics.financial.provider.curve.multicurve.MulticurveDiscountBuildingCache.UnitCalibration;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
@@ -40,6 +44,10 @@ import com.opengamma.util.tuple.Pairs;
 
 /**
  * Functions to build curves.
+ * <p>
+ * The units are calibrated one after the other. Independent sequences of units, e.g. the curves of different currencies, can be calibrated in
+ * parallel on a fork-join pool. A {@link MulticurveDiscountBuildingCache} can be given to warm-start each unit from its previous calibration and to
+ * skip the units whose quotes did not move.
  */
 // TODO: REVIEW: Embed in a better object.
 public class MulticurveDiscountBuildingRepository {
@@ -60,6 +68,10 @@ public class MulticurveDiscountBuildingRepository {
    * The root finder used for curve calibration.
    */
   private final BroydenVectorRootFinder _rootFinder;
+  /**
+   * The pool used to calibrate independent sequences of units in parallel, null to calibrate them on the calling thread.
+   */
+  private final ForkJoinPool _pool;
   /**
    * The matrix algebra used for matrix inversion.
    */
@@ -72,6 +84,18 @@ public class MulticurveDiscountBuildingRepository {
    * @param stepMaximum The maximum number of step for the root finder.
    */
   public MulticurveDiscountBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum) {
+    this(toleranceAbs, toleranceRel, stepMaximum, null);
+  }
+
+  /**
+   * Constructor.
+   * @param toleranceAbs The absolute tolerance for the root finder.
+   * @param toleranceRel The relative tolerance for the root finder.
+   * @param stepMaximum The maximum number of step for the root finder.
+   * @param pool The pool used to calibrate independent sequences of units in parallel, null to calibrate them on the calling thread.
+   */
+  public MulticurveDiscountBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum, final ForkJoinPool pool) {
+    _pool = pool;
     _toleranceAbs = toleranceAbs;
     _toleranceRel = toleranceRel;
     _stepMaximum = stepMaximum;
@@ -82,29 +106,39 @@ public class MulticurveDiscountBuildingRepository {
 
   /**
    * Build a unit of curves.
-   * @param instruments The instruments used for the unit calibration.
+   * @param data The data required for the unit calibration.
    * @param initGuess The initial parameters guess.
-   * @param knownData The known data (fx rates, other curves, model parameters, ...)
-   * @param discountingMap The discounting curves names map.
-   * @param forwardIborMap The forward curves names map.
-   * @param forwardONMap The forward curves names map.
-   * @param generatorsMap The generators map.
+   * @param initJacobian The initial estimate of the Jacobian, null to compute it at the initial guess.
    * @param calculator The calculator of the value on which the calibration is done (usually ParSpreadMarketQuoteCalculator (recommended) or converted present value).
    * @param sensitivityCalculator The parameter sensitivity calculator.
-   * @return The new curves and the calibrated parameters.
+   * @return The calibrated parameters.
    */
-  private MulticurveProviderDiscount makeUnit(final InstrumentDerivative[] instruments, final double[] initGuess, final MulticurveProviderDiscount knownData,
-      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap, final LinkedHashMap<String, IndexON[]> forwardONMap,
-      final LinkedHashMap<String, GeneratorYDCurve> generatorsMap, final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator,
+  private double[] makeUnit(final MulticurveDiscountBuildingData data, final double[] initGuess, final DoubleMatrix2D initJacobian,
+      final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator,
       final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> sensitivityCalculator) {
-    final GeneratorMulticurveProviderDiscount generator = new GeneratorMulticurveProviderDiscount(knownData, discountingMap, forwardIborMap, forwardONMap, generatorsMap);
-    final MulticurveDiscountBuildingData data = new MulticurveDiscountBuildingData(instruments, generator);
     final Function1D<DoubleMatrix1D, DoubleMatrix1D> curveCalculator = new MulticurveDiscountFinderFunction(calculator, data);
     final Function1D<DoubleMatrix1D, DoubleMatrix2D> jacobianCalculator = new MulticurveDiscountFinderJacobian(
         new ParameterSensitivityMulticurveUnderlyingMatrixCalculator(sensitivityCalculator), data);
-    final double[] parameters = _rootFinder.getRoot(curveCalculator, jacobianCalculator, new DoubleMatrix1D(initGuess)).getData();
-    final MulticurveProviderDiscount newCurves = data.getGeneratorMarket().evaluate(new DoubleMatrix1D(parameters));
-    return newCurves;
+    return _rootFinder.getRoot(curveCalculator, jacobianCalculator, new DoubleMatrix1D(initGuess), initJacobian).getData();
+  }
+
+  /**
+   * Checks if the parameters of a unit still calibrate its instruments within a tolerance.
+   * @param data The data required for the unit calibration.
+   * @param parameters The parameters.
+   * @param calculator The calculator of the value on which the calibration is done.
+   * @param tolerance The tolerance.
+   * @return True if all the values are strictly below the tolerance in absolute value.
+   */
+  private static boolean isCalibrated(final MulticurveDiscountBuildingData data, final double[] parameters,
+      final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator, final double tolerance) {
+    final double[] values = new MulticurveDiscountFinderFunction(calculator, data).evaluate(new DoubleMatrix1D(parameters)).getData();
+    for (final double value : values) {
+      if (!(Math.abs(value) < tolerance)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -115,10 +149,10 @@ public class MulticurveDiscountBuildingRepository {
    * @param blockBundle
    * @param sensitivityCalculator The parameter sensitivity calculator for the value on which the calibration is done
   (usually ParSpreadMarketQuoteDiscountingProviderCalculator (recommended) or converted present value).
-   * @return The part of the inverse Jacobian matrix associated to each curve. Only the part for the curve in the current unit (not the previous units).
-   * The Jacobian matrix is the transition matrix between the curve parameters and the par spread.
+   * @return The Jacobian matrix of the values of the current unit instruments with respect to the current unit parameters.
+   * The inverse of this matrix, together with the part for the previous units, is added to the block bundle for each curve of the unit.
    */
-  private void updateBlockBundle(final InstrumentDerivative[] instruments, final MulticurveProviderDiscount multicurves, final List<String> currentCurvesList,
+  private DoubleMatrix2D updateBlockBundle(final InstrumentDerivative[] instruments, final MulticurveProviderDiscount multicurves, final List<String> currentCurvesList,
       final CurveBuildingBlockBundle blockBundle, final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> sensitivityCalculator) {
     // Sensitivity calculator
     final ParameterSensitivityMulticurveUnderlyingMatrixCalculator parameterSensitivityCalculator = new ParameterSensitivityMulticurveUnderlyingMatrixCalculator(sensitivityCalculator);
@@ -243,6 +277,7 @@ public class MulticurveDiscountBuildingRepository {
       blockBundle.add(name, blockOut, pDmCurveMatrix);
       loopc++;
     }
+    return new DoubleMatrix2D(direct);
   }
 
   /**
@@ -282,8 +317,30 @@ public class MulticurveDiscountBuildingRepository {
       final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap, final LinkedHashMap<String, IndexON[]> forwardONMap,
       final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator,
       final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> sensitivityCalculator) {
+    return makeCurvesFromDerivatives(curveBundles, knownData, knownBlockBundle, discountingMap, forwardIborMap, forwardONMap, calculator, sensitivityCalculator, null);
+  }
+
+  /**
+   * Build a block of curves with a known CurveBuildingBlockBundle, starting from the previous calibration stored in a cache.
+   * @param curveBundles The bundles of curve data used in construction.
+   * @param knownData The known data (fx rates, other curves, model parameters, ...)
+   * @param knownBlockBundle The already build CurveBuildingBlockBundle.
+   * @param discountingMap The discounting curves names map.
+   * @param forwardIborMap The forward curves names map.
+   * @param forwardONMap The forward curves names map.
+   * @param calculator The calculator of the value on which the calibration is done (usually ParSpreadMarketQuoteCalculator (recommended) or converted present value).
+   * @param sensitivityCalculator The parameter sensitivity calculator.
+   * @param cache The previous calibrations of the units, updated with the new ones. Null to calibrate from the generators starting points.
+   * @return A pair with the calibrated yield curve bundle (including the known data) and the CurveBuildingBlockBundle with the relevant inverse Jacobian Matrix.
+   */
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> makeCurvesFromDerivatives(final MultiCurveBundle<GeneratorYDCurve>[] curveBundles,
+      final MulticurveProviderDiscount knownData, final CurveBuildingBlockBundle knownBlockBundle,
+      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap, final LinkedHashMap<String, IndexON[]> forwardONMap,
+      final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator,
+      final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> sensitivityCalculator, final MulticurveDiscountBuildingCache cache) {
     ArgumentChecker.notNull(curveBundles, "curve bundles");
     ArgumentChecker.notNull(knownData, "known data");
+    ArgumentChecker.notNull(knownBlockBundle, "known block bundle");
     ArgumentChecker.notNull(discountingMap, "discounting map");
     ArgumentChecker.notNull(forwardIborMap, "forward ibor map");
     ArgumentChecker.notNull(forwardONMap, "forward overnight map");
@@ -293,11 +350,20 @@ public class MulticurveDiscountBuildingRepository {
     MulticurveProviderDiscount knownSoFarData = knownData.copy();
     final CurveBuildingBlockBundle totalBundle = new CurveBuildingBlockBundle();
     totalBundle.addAll(knownBlockBundle);
+    // The inverse Jacobian blocks of the units depend on the known data and blocks, so copies of them are recorded with each unit's calibration
+    MulticurveProviderDiscount cachedKnownData = null;
+    CurveBuildingBlockBundle cachedKnownBlockBundle = null;
+    if (cache != null) {
+      cachedKnownData = knownData.copy();
+      cachedKnownBlockBundle = new CurveBuildingBlockBundle();
+      cachedKnownBlockBundle.addAll(knownBlockBundle);
+    }
 
     final List<InstrumentDerivative> instrumentsSoFar = new ArrayList<>();
     final LinkedHashMap<String, GeneratorYDCurve> generatorsSoFar = new LinkedHashMap<>();
     final LinkedHashMap<String, Pair<Integer, Integer>> unitMap = new LinkedHashMap<>();
     int startUnit = 0;
+    boolean unchangedSoFar = true;
     for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
       final MultiCurveBundle<GeneratorYDCurve> curveBundle = curveBundles[iUnits];
       final int nbCurve = curveBundle.size();
@@ -325,12 +391,133 @@ public class MulticurveDiscountBuildingRepository {
         generatorsSoFar.put(curveName, tmp);
         unitMap.put(curveName, Pairs.of(startUnit + startCurve[iCurve], nbIns[iCurve]));
       }
-      knownSoFarData = makeUnit(instrumentsUnit, parametersGuess, knownSoFarData,
-          discountingMap, forwardIborMap, forwardONMap, gen, calculator, sensitivityCalculator);
-      updateBlockBundle(instrumentsUnit, knownSoFarData, curveBundle.getNames(), totalBundle, sensitivityCalculator);
+      final List<String> unitNames = curveBundle.getNames();
+      final GeneratorMulticurveProviderDiscount generator = new GeneratorMulticurveProviderDiscount(knownSoFarData, discountingMap, forwardIborMap, forwardONMap, gen);
+      final MulticurveDiscountBuildingData data = new MulticurveDiscountBuildingData(instrumentsUnit, generator);
+      final UnitCalibration previous = (cache == null) ? null : cache.get(unitNames);
+      final double[] parameters;
+      boolean skipped = false;
+      if (previous != null && previous.getParameters().length == nbInsUnit) {
+        if (isCalibrated(data, previous.getParameters(), calculator, cache.getQuoteTolerance())) {
+          parameters = previous.getParameters();
+          skipped = true;
+        } else {
+          parameters = makeUnit(data, previous.getParameters(), previous.getJacobian(), calculator, sensitivityCalculator);
+        }
+      } else {
+        parameters = makeUnit(data, parametersGuess, null, calculator, sensitivityCalculator);
+      }
+      knownSoFarData = data.getGeneratorMarket().evaluate(new DoubleMatrix1D(parameters));
+      unchangedSoFar = unchangedSoFar && skipped && previous.isKnown(knownData, knownBlockBundle);
+      if (unchangedSoFar) { // Same curves and known inputs as in the previous calibration: same inverse Jacobian
+        for (final Map.Entry<String, Pair<CurveBuildingBlock, DoubleMatrix2D>> entry : previous.getBlocks().entrySet()) {
+          totalBundle.add(entry.getKey(), entry.getValue().getFirst(), entry.getValue().getSecond());
+        }
+        cache.put(unitNames, previous, true);
+      } else {
+        final DoubleMatrix2D jacobian = updateBlockBundle(instrumentsUnit, knownSoFarData, unitNames, totalBundle, sensitivityCalculator);
+        if (cache != null) {
+          final LinkedHashMap<String, Pair<CurveBuildingBlock, DoubleMatrix2D>> blocks = new LinkedHashMap<>();
+          for (final String name : unitNames) {
+            blocks.put(name, totalBundle.getBlock(name));
+          }
+          cache.put(unitNames, new UnitCalibration(parameters, jacobian, blocks, cachedKnownData, cachedKnownBlockBundle), skipped);
+        }
+      }
       startUnit = startUnit + nbInsUnit;
     }
     return ObjectsPair.of(knownSoFarData, totalBundle);
   }
 
+  /**
+   * Build several independent sequences of units with a known CurveBuildingBlockBundle. The sequences are calibrated in parallel if the repository has a pool.
+   * <p>
+   * The units of a sequence can depend on the units before them in the sequence and on the known data, but not on the units of the other sequences;
+   * typically each sequence is the curves of one currency.
+   * @param independentCurveBundles The sequences of bundles of curve data used in construction.
+   * @param knownData The known data (fx rates, other curves, model parameters, ...)
+   * @param knownBlockBundle The already build CurveBuildingBlockBundle.
+   * @param discountingMap The discounting curves names map.
+   * @param forwardIborMap The forward curves names map.
+   * @param forwardONMap The forward curves names map.
+   * @param calculator The calculator of the value on which the calibration is done (usually ParSpreadMarketQuoteCalculator (recommended) or converted present value).
+   * @param sensitivityCalculator The parameter sensitivity calculator.
+   * @param cache The previous calibrations of the units, updated with the new ones. Null to calibrate from the generators starting points.
+   * @return A pair with the calibrated yield curve bundle (including the known data) and the CurveBuildingBlockBundle with the relevant inverse Jacobian Matrix.
+   */
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> makeIndependentCurvesFromDerivatives(final MultiCurveBundle<GeneratorYDCurve>[][] independentCurveBundles,
+      final MulticurveProviderDiscount knownData, final CurveBuildingBlockBundle knownBlockBundle,
+      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap, final LinkedHashMap<String, IndexON[]> forwardONMap,
+      final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator,
+      final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> sensitivityCalculator, final MulticurveDiscountBuildingCache cache) {
+    ArgumentChecker.noNulls(independentCurveBundles, "independent curve bundles");
+    ArgumentChecker.notNull(knownData, "known data");
+    ArgumentChecker.notNull(knownBlockBundle, "known block bundle");
+    final int nbSequences = independentCurveBundles.length;
+    final List<CalibrationTask> tasks = new ArrayList<>(nbSequences);
+    for (int loopseq = 0; loopseq < nbSequences; loopseq++) {
+      tasks.add(new CalibrationTask(independentCurveBundles[loopseq], knownData, knownBlockBundle, discountingMap, forwardIborMap, forwardONMap, calculator,
+          sensitivityCalculator, cache));
+    }
+    if (_pool != null) {
+      for (final CalibrationTask task : tasks) {
+        _pool.execute(task);
+      }
+    }
+    final MulticurveProviderDiscount multicurves = knownData.copy();
+    final CurveBuildingBlockBundle totalBundle = new CurveBuildingBlockBundle();
+    totalBundle.addAll(knownBlockBundle);
+    try {
+      for (final CalibrationTask task : tasks) {
+        final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> sequence = (_pool != null) ? task.join() : task.invoke();
+        multicurves.setAll(sequence.getFirst());
+        totalBundle.addAll(sequence.getSecond());
+      }
+    } catch (final RuntimeException ex) {
+      // The curves are not usable without all the sequences; do not leave the others running on the pool
+      for (final CalibrationTask task : tasks) {
+        task.cancel(true);
+      }
+      throw ex;
+    }
+    return ObjectsPair.of(multicurves, totalBundle);
+  }
+
+  /**
+   * The calibration of one sequence of units.
+   */
+  private final class CalibrationTask extends RecursiveTask<Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle>> {
+    private static final long serialVersionUID = 1L;
+    private final MultiCurveBundle<GeneratorYDCurve>[] _curveBundles;
+    private final MulticurveProviderDiscount _knownData;
+    private final CurveBuildingBlockBundle _knownBlockBundle;
+    private final LinkedHashMap<String, Currency> _discountingMap;
+    private final LinkedHashMap<String, IborIndex[]> _forwardIborMap;
+    private final LinkedHashMap<String, IndexON[]> _forwardONMap;
+    private final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> _calculator;
+    private final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> _sensitivityCalculator;
+    private final MulticurveDiscountBuildingCache _cache;
+
+    CalibrationTask(final MultiCurveBundle<GeneratorYDCurve>[] curveBundles, final MulticurveProviderDiscount knownData, final CurveBuildingBlockBundle knownBlockBundle,
+        final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap, final LinkedHashMap<String, IndexON[]> forwardONMap,
+        final InstrumentDerivativeVisitor<MulticurveProviderInterface, Double> calculator,
+        final InstrumentDerivativeVisitor<MulticurveProviderInterface, MulticurveSensitivity> sensitivityCalculator, final MulticurveDiscountBuildingCache cache) {
+      _curveBundles = curveBundles;
+      _knownData = knownData;
+      _knownBlockBundle = knownBlockBundle;
+      _discountingMap = discountingMap;
+      _forwardIborMap = forwardIborMap;
+      _forwardONMap = forwardONMap;
+      _calculator = calculator;
+      _sensitivityCalculator = sensitivityCalculator;
+      _cache = cache;
+    }
+
+    @Override
+    protected Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> compute() {
+      return makeCurvesFromDerivatives(_curveBundles, _knownData, _knownBlockBundle, _discountingMap, _forwardIborMap, _forwardONMap, _calculator, _sensitivityCalculator,
+          _cache);
+    }
+  }
+
 }
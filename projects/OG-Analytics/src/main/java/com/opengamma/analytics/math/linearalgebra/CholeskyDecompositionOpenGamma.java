@@ -7,10 +7,12 @@ package com.opengamma.analytics.math.linearalgebra;
 
 import org.apache.commons.lang.Validate;
 
+import com.opengamma.analytics.math.matrix.DenseMatrixKernels;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 
 /**
  * OpenGamma implementation of the Cholesky decomposition and its differentiation.
+ * The lower part of the matrix is copied once into a row-major array, which is decomposed in place by the {@link DenseMatrixKernels}.
  */
 public class CholeskyDecompositionOpenGamma extends Decomposition<CholeskyDecompositionResult> {
 
@@ -45,32 +47,20 @@ public class CholeskyDecompositionOpenGamma extends Decomposition<CholeskyDecomp
     int nbRow = matrix.getNumberOfRows();
     int nbCol = matrix.getNumberOfColumns();
     Validate.isTrue(nbRow == nbCol, "Matrix not square");
-    double[][] l = new double[nbRow][nbRow];
-    // Check symmetry and initial fill of _lTArray
+    final double[] l = new double[nbRow * nbRow];
+    // Check symmetry and copy the lower part
     double[][] matrixData = matrix.getData();
     for (int looprow = 0; looprow < nbRow; looprow++) {
       for (int loopcol = 0; loopcol <= looprow; loopcol++) {
         double maxValue = Math.max(Math.abs(matrixData[looprow][loopcol]), Math.abs(matrixData[loopcol][looprow]));
         double diff = Math.abs(matrixData[looprow][loopcol] - matrixData[loopcol][looprow]);
         Validate.isTrue(diff <= maxValue * symmetryThreshold, "Matrix not symmetrical");
-        l[looprow][loopcol] = matrixData[looprow][loopcol];
+        l[looprow * nbRow + loopcol] = matrixData[looprow][loopcol];
       }
     }
     // The decomposition
-    for (int loopcol = 0; loopcol < nbCol; loopcol++) {
-      Validate.isTrue(l[loopcol][loopcol] > positivityThreshold, "Matrix not positive");
-      l[loopcol][loopcol] = Math.sqrt(l[loopcol][loopcol]); // Pivot
-      double lInverse = 1.0 / l[loopcol][loopcol];
-      for (int looprow = loopcol + 1; looprow < nbRow; looprow++) { // Current column
-        l[looprow][loopcol] *= lInverse;
-      }
-      for (int j = loopcol + 1; j < nbRow; j++) { // Other columns
-        for (int i = j; i < nbRow; i++) {
-          l[i][j] -= l[i][loopcol] * l[j][loopcol];
-        }
-      }
-    }
-    return new CholeskyDecompositionOpenGammaResult(l);
+    DenseMatrixKernels.choleskyDecompose(l, nbRow, positivityThreshold);
+    return new CholeskyDecompositionOpenGammaResult(l, nbRow);
   }
 
 }
@@ -7,21 +7,25 @@ package com.opengamma.analytics.math.linearalgebra;
 
 import org.apache.commons.lang.Validate;
 
+import com.opengamma.analytics.math.matrix.DenseMatrixKernels;
 import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
-import com.opengamma.analytics.math.matrix.MatrixAlgebra;
-import com.opengamma.analytics.math.matrix.OGMatrixAlgebra;
+import com.opengamma.analytics.math.matrix.FlatDoubleMatrix2D;
 
 /**
  * Results of the OpenGamma implementation of Cholesky decomposition.
+ * The factor is kept in the row-major form of {@link DenseMatrixKernels#choleskyDecompose}; the systems are solved by {@link DenseMatrixKernels#choleskySolve}.
  */
 public class CholeskyDecompositionOpenGammaResult implements CholeskyDecompositionResult {
 
-  private static final MatrixAlgebra ALGEBRA = new OGMatrixAlgebra();
   /**
-   * The array that store the data.
+   * The matrix L as a row-major array.
    */
-  private final double[][] _lArray;
+  private final double[] _lFlat;
+  /**
+   * The size of the matrix.
+   */
+  private final int _n;
   /**
    * The matrix L, result of the decomposition.
    */
@@ -33,79 +37,57 @@ public class CholeskyDecompositionOpenGammaResult implements CholeskyDecompositi
   /**
    * The determinant of the original matrix A = L L^T.
    */
-  private double _determinant;
+  private final double _determinant;
 
   /**
    * Constructor.
    * @param lArray The matrix L as an array of doubles.
    */
   public CholeskyDecompositionOpenGammaResult(final double[][] lArray) {
-    _lArray = lArray;
-    _l = new DoubleMatrix2D(_lArray);
-    _lT = ALGEBRA.getTranspose(_l);
-    _determinant = 1.0;
-    for (int loopdiag = 0; loopdiag < _lArray.length; ++loopdiag) {
-      _determinant *= _lArray[loopdiag][loopdiag] * _lArray[loopdiag][loopdiag];
+    this(FlatDoubleMatrix2D.of(new DoubleMatrix2D(lArray)).getData(), lArray.length);
+  }
+
+  /**
+   * Constructor.
+   * @param l The matrix L as a row-major array, in the form of {@link DenseMatrixKernels#choleskyDecompose}.
+   * @param n The size of the matrix.
+   */
+  public CholeskyDecompositionOpenGammaResult(final double[] l, final int n) {
+    Validate.notNull(l, "L");
+    Validate.isTrue(l.length == n * n, "L does not match the dimension");
+    _lFlat = l;
+    _n = n;
+    final double[][] lArray = new double[n][n];
+    final double[][] lTArray = new double[n][n];
+    double determinant = 1.0;
+    for (int looprow = 0; looprow < n; looprow++) {
+      for (int loopcol = 0; loopcol <= looprow; loopcol++) {
+        lArray[looprow][loopcol] = l[looprow * n + loopcol];
+        lTArray[loopcol][looprow] = l[looprow * n + loopcol];
+      }
+      determinant *= l[looprow * n + looprow] * l[looprow * n + looprow];
     }
+    _l = new DoubleMatrix2D(lArray);
+    _lT = new DoubleMatrix2D(lTArray);
+    _determinant = determinant;
   }
 
   @Override
-  public DoubleMatrix1D solve(DoubleMatrix1D b) {
-    return new DoubleMatrix1D(b.getData());
+  public DoubleMatrix1D solve(final DoubleMatrix1D b) {
+    return new DoubleMatrix1D(solve(b.getData()));
   }
 
   @Override
-  public double[] solve(double[] b) {
-    int dim = b.length;
-    Validate.isTrue(dim == _lArray.length, "b array of incorrect size");
-    final double[] x = new double[dim];
-    System.arraycopy(b, 0, x, 0, dim);
-    // L y = b (y stored in x array)
-    for (int looprow = 0; looprow < dim; looprow++) {
-      x[looprow] /= _lArray[looprow][looprow];
-      for (int j = looprow + 1; j < dim; j++) {
-        x[j] -= x[looprow] * _lArray[j][looprow];
-      }
-    }
-    // L^T x = y
-    for (int looprow = dim - 1; looprow >= -0; looprow--) {
-      x[looprow] /= _lArray[looprow][looprow];
-      for (int j = 0; j < looprow; j++) {
-        x[j] -= x[looprow] * _lArray[looprow][j];
-      }
-    }
-    return x;
+  public double[] solve(final double[] b) {
+    Validate.isTrue(b.length == _n, "b array of incorrect size");
+    return DenseMatrixKernels.choleskySolve(_lFlat, _n, b, 1);
   }
 
   @Override
-  public DoubleMatrix2D solve(DoubleMatrix2D b) {
-    int nbRow = b.getNumberOfRows();
-    int nbCol = b.getNumberOfColumns();
-    Validate.isTrue(nbRow == _lArray.length, "b array of incorrect size");
-    double[][] bArray = b.getData();
-    final double[][] x = new double[nbRow][nbCol];
-    for (int looprow = 0; looprow < nbRow; looprow++) {
-      System.arraycopy(bArray[looprow], 0, x[looprow], 0, nbCol);
-    }
-    // L Y = B (Y stored in x array)
-    for (int loopcol = 0; loopcol < nbCol; loopcol++) {
-      for (int looprow = 0; looprow < nbRow; looprow++) {
-        x[looprow][loopcol] /= _lArray[looprow][looprow];
-        for (int j = looprow + 1; j < nbRow; j++) {
-          x[j][loopcol] -= x[looprow][loopcol] * _lArray[j][looprow];
-        }
-      }
-    }
-    // L^T X = Y
-    for (int loopcol = 0; loopcol < nbCol; loopcol++) {
-      for (int looprow = nbRow - 1; looprow >= -0; looprow--) {
-        x[looprow][loopcol] /= _lArray[looprow][looprow];
-        for (int j = 0; j < looprow; j++) {
-          x[j][loopcol] -= x[looprow][loopcol] * _lArray[looprow][j];
-        }
-      }
-    }
-    return new DoubleMatrix2D(x);
+  public DoubleMatrix2D solve(final DoubleMatrix2D b) {
+    Validate.isTrue(b.getNumberOfRows() == _n, "b array of incorrect size");
+    final int nbCol = b.getNumberOfColumns();
+    return FlatDoubleMatrix2D.wrap(DenseMatrixKernels.choleskySolve(_lFlat, _n, FlatDoubleMatrix2D.of(b).getData(), nbCol), _n, nbCol).toDoubleMatrix2D();
   }
 
   @Override
@@ -16,6 +16,10 @@ public final class DecompositionFactory {
   public static final String LU_COMMONS_NAME = "LU_COMMONS";
   /** Commons QR decomposition */
   public static final String QR_COMMONS_NAME = "QR_COMMONS";
+  /** OpenGamma LU decomposition */
+  public static final String LU_OG_NAME = "LU_OG";
+  /** OpenGamma QR decomposition */
+  public static final String QR_OG_NAME = "QR_OG";
   /** Colt SV decomposition */
   public static final String SV_COLT_NAME = "SV_COLT";
   /** Commons SV decomposition */
@@ -24,6 +28,10 @@ public final class DecompositionFactory {
   public static final Decomposition<?> LU_COMMONS = new LUDecompositionCommons();
   /** {@link QRDecompositionCommons} */
   public static final Decomposition<?> QR_COMMONS = new QRDecompositionCommons();
+  /** {@link LUDecompositionOpenGamma} */
+  public static final Decomposition<?> LU_OG = new LUDecompositionOpenGamma();
+  /** {@link QRDecompositionOpenGamma} */
+  public static final Decomposition<?> QR_OG = new QRDecompositionOpenGamma();
   /** {@link SVDecompositionColt} */
   public static final Decomposition<?> SV_COLT = new SVDecompositionColt();
   /** {@link SVDecompositionCommons} */
@@ -35,11 +43,15 @@ public final class DecompositionFactory {
     s_staticInstances = new HashMap<>();
     s_staticInstances.put(LU_COMMONS_NAME, LU_COMMONS);
     s_staticInstances.put(QR_COMMONS_NAME, QR_COMMONS);
+    s_staticInstances.put(LU_OG_NAME, LU_OG);
+    s_staticInstances.put(QR_OG_NAME, QR_OG);
     s_staticInstances.put(SV_COLT_NAME, SV_COLT);
     s_staticInstances.put(SV_COMMONS_NAME, SV_COMMONS);
     s_instanceNames = new HashMap<>();
     s_instanceNames.put(LU_COMMONS.getClass(), LU_COMMONS_NAME);
     s_instanceNames.put(QR_COMMONS.getClass(), QR_COMMONS_NAME);
+    s_instanceNames.put(LU_OG.getClass(), LU_OG_NAME);
+    s_instanceNames.put(QR_OG.getClass(), QR_OG_NAME);
     s_instanceNames.put(SV_COLT.getClass(), SV_COLT_NAME);
     s_instanceNames.put(SV_COMMONS.getClass(), SV_COMMONS_NAME);
   }
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import org.apache.commons.lang.Validate;
+
+import com.opengamma.analytics.math.matrix.DenseMatrixKernels;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.FlatDoubleMatrix2D;
+
+/**
+ * LU decomposition with partial pivoting, in pure Java on the {@link DenseMatrixKernels}. The matrix is copied once into a row-major array,
+ * which is then decomposed in place.
+ */
+public class LUDecompositionOpenGamma extends Decomposition<LUDecompositionResult> {
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public LUDecompositionResult evaluate(final DoubleMatrix2D x) {
+    Validate.notNull(x);
+    final int n = x.getNumberOfRows();
+    Validate.isTrue(n == x.getNumberOfColumns(), "Matrix not square");
+    final double[] lu = FlatDoubleMatrix2D.of(x).getData();
+    final int[] pivot = new int[n];
+    final int sign = DenseMatrixKernels.luDecompose(lu, n, pivot);
+    return new LUDecompositionOpenGammaResult(lu, n, pivot, sign);
+  }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import org.apache.commons.lang.Validate;
+
+import com.opengamma.analytics.math.matrix.DenseMatrixKernels;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.FlatDoubleMatrix2D;
+
+/**
+ * Results of the OpenGamma implementation of LU decomposition ({@link LUDecompositionOpenGamma}).
+ * The factors are kept in the compact row-major form of {@link DenseMatrixKernels#luDecompose}; the matrices L, U and P are built on request.
+ */
+public class LUDecompositionOpenGammaResult implements LUDecompositionResult {
+  private final double[] _lu;
+  private final int _n;
+  private final int[] _pivot;
+  private final double _determinant;
+
+  /**
+   * @param lu The decomposed matrix, in the form of {@link DenseMatrixKernels#luDecompose}, not null
+   * @param n The size of the matrix
+   * @param pivot The permutation, not null
+   * @param sign The sign of the permutation
+   */
+  public LUDecompositionOpenGammaResult(final double[] lu, final int n, final int[] pivot, final int sign) {
+    Validate.notNull(lu, "LU decomposition");
+    Validate.notNull(pivot, "pivot");
+    Validate.isTrue(lu.length == n * n, "LU decomposition does not match the dimension");
+    Validate.isTrue(pivot.length == n, "pivot does not match the dimension");
+    _lu = lu;
+    _n = n;
+    _pivot = pivot;
+    double determinant = sign;
+    for (int i = 0; i < n; i++) {
+      determinant *= lu[i * n + i];
+    }
+    _determinant = determinant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getDeterminant() {
+    return _determinant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getL() {
+    final double[][] l = new double[_n][_n];
+    for (int i = 0; i < _n; i++) {
+      System.arraycopy(_lu, i * _n, l[i], 0, i);
+      l[i][i] = 1.0;
+    }
+    return new DoubleMatrix2D(l);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getP() {
+    final double[][] p = new double[_n][_n];
+    for (int i = 0; i < _n; i++) {
+      p[i][_pivot[i]] = 1.0;
+    }
+    return new DoubleMatrix2D(p);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int[] getPivot() {
+    return _pivot.clone();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getU() {
+    final double[][] u = new double[_n][_n];
+    for (int i = 0; i < _n; i++) {
+      System.arraycopy(_lu, i * _n + i, u[i], i, _n - i);
+    }
+    return new DoubleMatrix2D(u);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public DoubleMatrix1D solve(final DoubleMatrix1D b) {
+    Validate.notNull(b);
+    return new DoubleMatrix1D(solve(b.getData()));
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public double[] solve(final double[] b) {
+    Validate.notNull(b);
+    return DenseMatrixKernels.luSolve(_lu, _n, _pivot, b, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public DoubleMatrix2D solve(final DoubleMatrix2D b) {
+    Validate.notNull(b);
+    final int nbColumn = b.getNumberOfColumns();
+    final double[] x = DenseMatrixKernels.luSolve(_lu, _n, _pivot, FlatDoubleMatrix2D.of(b).getData(), nbColumn);
+    return FlatDoubleMatrix2D.wrap(x, _n, nbColumn).toDoubleMatrix2D();
+  }
+
+}
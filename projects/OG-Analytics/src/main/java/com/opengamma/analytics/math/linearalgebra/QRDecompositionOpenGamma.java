@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import org.apache.commons.lang.Validate;
+
+import com.opengamma.analytics.math.matrix.DenseMatrixKernels;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.FlatDoubleMatrix2D;
+
+/**
+ * QR decomposition by Householder reflections, in pure Java on the {@link DenseMatrixKernels}. The matrix must have at least as many rows as columns;
+ * it is copied once into a row-major array, which is then decomposed in place.
+ */
+public class QRDecompositionOpenGamma extends Decomposition<QRDecompositionResult> {
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public QRDecompositionResult evaluate(final DoubleMatrix2D x) {
+    Validate.notNull(x);
+    final int m = x.getNumberOfRows();
+    final int n = x.getNumberOfColumns();
+    Validate.isTrue(m >= n, "Matrix must have at least as many rows as columns");
+    final double[] qr = FlatDoubleMatrix2D.of(x).getData();
+    final double[] rDiagonal = new double[n];
+    DenseMatrixKernels.qrDecompose(qr, m, n, rDiagonal);
+    return new QRDecompositionOpenGammaResult(qr, m, n, rDiagonal);
+  }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import org.apache.commons.lang.Validate;
+
+import com.opengamma.analytics.math.matrix.DenseMatrixKernels;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.DoubleMatrixUtils;
+import com.opengamma.analytics.math.matrix.FlatDoubleMatrix2D;
+
+/**
+ * Results of the OpenGamma implementation of QR decomposition ({@link QRDecompositionOpenGamma}).
+ * The factors are kept in the compact row-major form of {@link DenseMatrixKernels#qrDecompose}; the matrices Q, R and H are built on request.
+ * The solutions are computed from the compact form directly and are least squares solutions when there are more rows than columns.
+ */
+public class QRDecompositionOpenGammaResult implements QRDecompositionResult {
+  private final double[] _qr;
+  private final int _m;
+  private final int _n;
+  private final double[] _rDiagonal;
+
+  /**
+   * @param qr The decomposed matrix, in the form of {@link DenseMatrixKernels#qrDecompose}, not null
+   * @param m The number of rows
+   * @param n The number of columns
+   * @param rDiagonal The diagonal of R, not null
+   */
+  public QRDecompositionOpenGammaResult(final double[] qr, final int m, final int n, final double[] rDiagonal) {
+    Validate.notNull(qr, "QR decomposition");
+    Validate.notNull(rDiagonal, "R diagonal");
+    Validate.isTrue(qr.length == m * n, "QR decomposition does not match the dimensions");
+    Validate.isTrue(rDiagonal.length == n, "R diagonal does not match the dimension");
+    _qr = qr;
+    _m = m;
+    _n = n;
+    _rDiagonal = rDiagonal;
+  }
+
+  /**
+   * {@inheritDoc}
+   * The Householder vectors are scaled as in the Commons implementation, i.e. the reflection k is $I - hh^T/h_k$ with $h$ the column k.
+   */
+  @Override
+  public DoubleMatrix2D getH() {
+    final double[][] h = new double[_m][_n];
+    for (int i = 0; i < _m; i++) {
+      for (int k = 0; k <= Math.min(i, _n - 1); k++) {
+        h[i][k] = _qr[i * _n + k];
+      }
+    }
+    return new DoubleMatrix2D(h);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getQ() {
+    return FlatDoubleMatrix2D.wrap(DenseMatrixKernels.qrGetQ(_qr, _m, _n), _m, _m).toDoubleMatrix2D();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getQT() {
+    return DoubleMatrixUtils.getTranspose(getQ());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DoubleMatrix2D getR() {
+    final double[][] r = new double[_m][_n];
+    for (int i = 0; i < _n; i++) {
+      r[i][i] = _rDiagonal[i];
+      System.arraycopy(_qr, i * _n + i + 1, r[i], i + 1, _n - i - 1);
+    }
+    return new DoubleMatrix2D(r);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is rank deficient
+   */
+  @Override
+  public DoubleMatrix1D solve(final DoubleMatrix1D b) {
+    Validate.notNull(b);
+    return new DoubleMatrix1D(solve(b.getData()));
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is rank deficient
+   */
+  @Override
+  public double[] solve(final double[] b) {
+    Validate.notNull(b);
+    return DenseMatrixKernels.qrSolve(_qr, _m, _n, _rDiagonal, b, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws IllegalArgumentException If the matrix is rank deficient
+   */
+  @Override
+  public DoubleMatrix2D solve(final DoubleMatrix2D b) {
+    Validate.notNull(b);
+    final int nbColumn = b.getNumberOfColumns();
+    final double[] x = DenseMatrixKernels.qrSolve(_qr, _m, _n, _rDiagonal, FlatDoubleMatrix2D.of(b).getData(), nbColumn);
+    return FlatDoubleMatrix2D.wrap(x, _n, nbColumn).toDoubleMatrix2D();
+  }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import org.apache.commons.lang.NotImplementedException;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Matrix algebra in pure Java on the {@link DenseMatrixKernels}. It extends {@link OGMatrixAlgebra} with the inverse and the determinant, by LU decomposition,
+ * the norms 1 and infinity and the integer powers. The products also accept {@link FlatDoubleMatrix2D}.
+ * <p>
+ * The condition number, the 2-norm of a matrix and the non-integer powers need an eigenvalue or singular value decomposition; use {@link ColtMatrixAlgebra} or
+ * {@link CommonsMatrixAlgebra} for those.
+ */
+public class DenseMatrixAlgebra extends OGMatrixAlgebra {
+
+  /**
+   * {@inheritDoc}
+   * The determinant is computed by LU decomposition with partial pivoting.
+   */
+  @Override
+  public double getDeterminant(final Matrix<?> m) {
+    Validate.notNull(m, "m");
+    final FlatDoubleMatrix2D flat = toSquareFlat(m);
+    final int n = flat.getNumberOfRows();
+    final double[] lu = flat.getData();
+    double det = DenseMatrixKernels.luDecompose(lu, n, new int[n]);
+    for (int i = 0; i < n; i++) {
+      det *= lu[i * n + i];
+    }
+    return det;
+  }
+
+  /**
+   * {@inheritDoc}
+   * The inverse is computed by LU decomposition with partial pivoting.
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  @Override
+  public DoubleMatrix2D getInverse(final Matrix<?> m) {
+    Validate.notNull(m, "m");
+    final FlatDoubleMatrix2D flat = toSquareFlat(m);
+    return inverse(flat.getData(), flat.getNumberOfRows()).toDoubleMatrix2D();
+  }
+
+  /**
+   * {@inheritDoc}
+   * For a matrix, this is the maximum absolute column sum.
+   */
+  @Override
+  public double getNorm1(final Matrix<?> m) {
+    Validate.notNull(m, "m");
+    if (m instanceof DoubleMatrix1D) {
+      final double[] a = ((DoubleMatrix1D) m).getData();
+      double sum = 0.0;
+      for (final double element : a) {
+        sum += Math.abs(element);
+      }
+      return sum;
+    } else if (m instanceof DoubleMatrix2D) {
+      final double[][] a = ((DoubleMatrix2D) m).getData();
+      final int n = ((DoubleMatrix2D) m).getNumberOfColumns();
+      final double[] sum = new double[n];
+      for (final double[] row : a) {
+        for (int j = 0; j < n; j++) {
+          sum[j] += Math.abs(row[j]);
+        }
+      }
+      double max = 0.0;
+      for (int j = 0; j < n; j++) {
+        max = Math.max(max, sum[j]);
+      }
+      return max;
+    }
+    throw new IllegalArgumentException("Can only find norm1 of DoubleMatrix1D or DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * For a matrix, this is the maximum absolute row sum.
+   */
+  @Override
+  public double getNormInfinity(final Matrix<?> m) {
+    Validate.notNull(m, "m");
+    if (m instanceof DoubleMatrix1D) {
+      final double[] a = ((DoubleMatrix1D) m).getData();
+      double max = 0.0;
+      for (final double element : a) {
+        max = Math.max(max, Math.abs(element));
+      }
+      return max;
+    } else if (m instanceof DoubleMatrix2D) {
+      double max = 0.0;
+      for (final double[] row : ((DoubleMatrix2D) m).getData()) {
+        double sum = 0.0;
+        for (final double element : row) {
+          sum += Math.abs(element);
+        }
+        max = Math.max(max, sum);
+      }
+      return max;
+    }
+    throw new IllegalArgumentException("Can only find normInfinity of DoubleMatrix1D or DoubleMatrix2D; have " + m.getClass());
+  }
+
+  /**
+   * {@inheritDoc}
+   * The power is computed by repeated squaring; negative powers are powers of the inverse.
+   */
+  @Override
+  public DoubleMatrix2D getPower(final Matrix<?> m, final int p) {
+    Validate.notNull(m, "m");
+    final FlatDoubleMatrix2D flat = toSquareFlat(m);
+    final int n = flat.getNumberOfRows();
+    double[] base = p < 0 ? inverse(flat.getData(), n).getData() : flat.getData();
+    double[] result = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      result[i * n + i] = 1.0;
+    }
+    double[] temp = new double[n * n];
+    long power = Math.abs((long) p);
+    while (power > 0) {
+      if ((power & 1) == 1) {
+        DenseMatrixKernels.multiply(result, base, temp, n, n, n);
+        final double[] swap = result;
+        result = temp;
+        temp = swap;
+      }
+      power >>= 1;
+      if (power > 0) {
+        DenseMatrixKernels.multiply(base, base, temp, n, n, n);
+        final double[] swap = base;
+        base = temp;
+        temp = swap;
+      }
+    }
+    return FlatDoubleMatrix2D.wrap(result, n, n).toDoubleMatrix2D();
+  }
+
+  /**
+   * {@inheritDoc}
+   * @throws NotImplementedException
+   */
+  @Override
+  public DoubleMatrix2D getPower(final Matrix<?> m, final double p) {
+    throw new NotImplementedException();
+  }
+
+  /**
+   * {@inheritDoc}
+   * In addition to the products of {@link OGMatrixAlgebra}, the matrices can be {@link FlatDoubleMatrix2D}:
+   * <ul>
+   * <li> m1 = flat matrix, m2 = flat matrix, returns the flat matrix $\mathbf{C} = \mathbf{AB}$
+   * <li> m1 = flat matrix, m2 = 1-D matrix, returns $\mathbf{C} = \mathbf{A}b$
+   * </ul>
+   */
+  @Override
+  public Matrix<?> multiply(final Matrix<?> m1, final Matrix<?> m2) {
+    Validate.notNull(m1, "m1");
+    Validate.notNull(m2, "m2");
+    if (m1 instanceof FlatDoubleMatrix2D && m2 instanceof FlatDoubleMatrix2D) {
+      final FlatDoubleMatrix2D a = (FlatDoubleMatrix2D) m1;
+      final FlatDoubleMatrix2D b = (FlatDoubleMatrix2D) m2;
+      final int p = a.getNumberOfColumns();
+      Validate.isTrue(b.getNumberOfRows() == p, "Matrix size mismatch. m1 is " + a.getNumberOfRows() + " by " + p + ", but m2 is " + b.getNumberOfRows() + " by "
+          + b.getNumberOfColumns());
+      final int m = a.getNumberOfRows();
+      final int n = b.getNumberOfColumns();
+      final double[] res = new double[m * n];
+      DenseMatrixKernels.multiply(a.getData(), b.getData(), res, m, p, n);
+      return FlatDoubleMatrix2D.wrap(res, m, n);
+    } else if (m1 instanceof FlatDoubleMatrix2D && m2 instanceof DoubleMatrix1D) {
+      final FlatDoubleMatrix2D a = (FlatDoubleMatrix2D) m1;
+      final double[] x = ((DoubleMatrix1D) m2).getData();
+      final int p = a.getNumberOfColumns();
+      Validate.isTrue(x.length == p, "Matrix/vector size mismatch");
+      final int m = a.getNumberOfRows();
+      final double[] res = new double[m];
+      DenseMatrixKernels.multiply(a.getData(), x, res, m, p, 1);
+      return new DoubleMatrix1D(res);
+    }
+    return super.multiply(m1, m2);
+  }
+
+  private static FlatDoubleMatrix2D toSquareFlat(final Matrix<?> m) {
+    final FlatDoubleMatrix2D flat;
+    if (m instanceof DoubleMatrix2D) {
+      flat = FlatDoubleMatrix2D.of((DoubleMatrix2D) m);
+    } else if (m instanceof FlatDoubleMatrix2D) {
+      final FlatDoubleMatrix2D other = (FlatDoubleMatrix2D) m;
+      flat = new FlatDoubleMatrix2D(other.getData(), other.getNumberOfRows(), other.getNumberOfColumns());
+    } else {
+      throw new IllegalArgumentException("Can only work with DoubleMatrix2D or FlatDoubleMatrix2D; have " + m.getClass());
+    }
+    Validate.isTrue(flat.getNumberOfRows() == flat.getNumberOfColumns(), "Matrix must be square");
+    return flat;
+  }
+
+  /**
+   * Inverts a square row-major matrix, overwriting it by its LU decomposition.
+   */
+  private static FlatDoubleMatrix2D inverse(final double[] a, final int n) {
+    final int[] pivot = new int[n];
+    DenseMatrixKernels.luDecompose(a, n, pivot);
+    final double[] identity = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      identity[i * n + i] = 1.0;
+    }
+    return FlatDoubleMatrix2D.wrap(DenseMatrixKernels.luSolve(a, n, pivot, identity, n), n, n);
+  }
+
+}
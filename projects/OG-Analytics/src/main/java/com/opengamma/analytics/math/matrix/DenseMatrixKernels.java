@@ -0,0 +1,475 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import java.util.Arrays;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Kernels for dense matrices of doubles, in the style of the BLAS and LAPACK routines.
+ * <p>
+ * The kernels work either on flat row-major arrays, where the element (i, j) of a matrix with n columns is at index i * n + j, or directly on the rows of a {@code double[][]}, so
+ * that the data of a {@link DoubleMatrix2D} is used without copying. All the loops run along rows, so the innermost loop reads contiguous memory. The decompositions overwrite
+ * their input.
+ * <p>
+ * The products accumulate each element in increasing order of the inner index, so they give the same result as the naive triple loop.
+ */
+public final class DenseMatrixKernels {
+
+  /**
+   * The size of the blocks of the inner and column dimensions in the products; a block of rows of the right matrix fits in the level 1 cache.
+   */
+  private static final int BLOCK_SIZE = 64;
+
+  private DenseMatrixKernels() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the product C = AB of row-major matrices.
+   * @param a The m x p matrix A.
+   * @param b The p x n matrix B.
+   * @param c The m x n array for C, overwritten.
+   * @param m The number of rows of A.
+   * @param p The number of columns of A.
+   * @param n The number of columns of B.
+   */
+  public static void multiply(final double[] a, final double[] b, final double[] c, final int m, final int p, final int n) {
+    ArgumentChecker.isTrue(a.length >= m * p && b.length >= p * n && c.length >= m * n, "Array sizes do not match the dimensions {}, {}, {}", m, p, n);
+    Arrays.fill(c, 0, m * n, 0.0);
+    for (int kk = 0; kk < p; kk += BLOCK_SIZE) {
+      final int kEnd = Math.min(kk + BLOCK_SIZE, p);
+      for (int jj = 0; jj < n; jj += BLOCK_SIZE) {
+        final int jEnd = Math.min(jj + BLOCK_SIZE, n);
+        for (int i = 0; i < m; i++) {
+          final int rowA = i * p;
+          final int rowC = i * n;
+          for (int k = kk; k < kEnd; k++) {
+            final double aik = a[rowA + k];
+            final int rowB = k * n;
+            for (int j = jj; j < jEnd; j++) {
+              c[rowC + j] += aik * b[rowB + j];
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the product C = AB of matrices stored by rows.
+   * @param a The m x p matrix A.
+   * @param b The p x n matrix B.
+   * @param c The m x n array for C, overwritten.
+   */
+  public static void multiply(final double[][] a, final double[][] b, final double[][] c) {
+    final int m = a.length;
+    final int p = b.length;
+    final int n = (p == 0) ? 0 : b[0].length;
+    for (int i = 0; i < m; i++) {
+      Arrays.fill(c[i], 0, n, 0.0);
+    }
+    for (int kk = 0; kk < p; kk += BLOCK_SIZE) {
+      final int kEnd = Math.min(kk + BLOCK_SIZE, p);
+      for (int jj = 0; jj < n; jj += BLOCK_SIZE) {
+        final int jEnd = Math.min(jj + BLOCK_SIZE, n);
+        for (int i = 0; i < m; i++) {
+          final double[] rowA = a[i];
+          final double[] rowC = c[i];
+          for (int k = kk; k < kEnd; k++) {
+            final double aik = rowA[k];
+            final double[] rowB = b[k];
+            for (int j = jj; j < jEnd; j++) {
+              rowC[j] += aik * rowB[j];
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the product y = x<sup>T</sup>B of a vector and a matrix stored by rows.
+   * @param x The vector of size p.
+   * @param b The p x n matrix B.
+   * @param y The array of size n for y, overwritten.
+   */
+  public static void multiply(final double[] x, final double[][] b, final double[] y) {
+    final int p = x.length;
+    final int n = y.length;
+    Arrays.fill(y, 0.0);
+    for (int k = 0; k < p; k++) {
+      final double xk = x[k];
+      final double[] rowB = b[k];
+      for (int j = 0; j < n; j++) {
+        y[j] += xk * rowB[j];
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Decomposes a square row-major matrix in place as PA = LU, with partial pivoting.
+   * On exit the strictly lower part holds L, which has a unit diagonal, and the upper part holds U.
+   * @param a The n x n matrix, overwritten by the decomposition.
+   * @param n The size of the matrix.
+   * @param pivot The array of size n for the permutation; row i of PA is row pivot[i] of A.
+   * @return The sign of the permutation, 1 or -1.
+   */
+  public static int luDecompose(final double[] a, final int n, final int[] pivot) {
+    ArgumentChecker.isTrue(a.length >= n * n && pivot.length >= n, "Array sizes do not match the dimension {}", n);
+    int sign = 1;
+    for (int i = 0; i < n; i++) {
+      pivot[i] = i;
+    }
+    for (int k = 0; k < n; k++) {
+      int p = k;
+      double max = Math.abs(a[k * n + k]);
+      for (int i = k + 1; i < n; i++) {
+        final double value = Math.abs(a[i * n + k]);
+        if (value > max) {
+          max = value;
+          p = i;
+        }
+      }
+      if (p != k) {
+        swapRows(a, n, k, p);
+        final int temp = pivot[k];
+        pivot[k] = pivot[p];
+        pivot[p] = temp;
+        sign = -sign;
+      }
+      final double diagonal = a[k * n + k];
+      if (diagonal == 0.0) {
+        continue; // Singular; detected when solving
+      }
+      final int rowK = k * n;
+      for (int i = k + 1; i < n; i++) {
+        final int rowI = i * n;
+        final double l = a[rowI + k] / diagonal;
+        a[rowI + k] = l;
+        if (l != 0.0) {
+          for (int j = k + 1; j < n; j++) {
+            a[rowI + j] -= l * a[rowK + j];
+          }
+        }
+      }
+    }
+    return sign;
+  }
+
+  /**
+   * Solves AX = B from the decomposition of {@link #luDecompose}.
+   * @param lu The decomposed n x n matrix.
+   * @param n The size of the matrix.
+   * @param pivot The permutation.
+   * @param b The row-major n x nbColumn right-hand side.
+   * @param nbColumn The number of columns of the right-hand side.
+   * @return The row-major n x nbColumn solution.
+   * @throws IllegalArgumentException If the matrix is singular
+   */
+  public static double[] luSolve(final double[] lu, final int n, final int[] pivot, final double[] b, final int nbColumn) {
+    ArgumentChecker.isTrue(b.length == n * nbColumn, "Right-hand side has {} elements, expected {}", b.length, n * nbColumn);
+    final double[] x = new double[n * nbColumn];
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(b, pivot[i] * nbColumn, x, i * nbColumn, nbColumn);
+    }
+    // Forward substitution with the unit lower triangle
+    for (int i = 1; i < n; i++) {
+      final int rowI = i * nbColumn;
+      for (int k = 0; k < i; k++) {
+        final double l = lu[i * n + k];
+        if (l != 0.0) {
+          final int rowK = k * nbColumn;
+          for (int j = 0; j < nbColumn; j++) {
+            x[rowI + j] -= l * x[rowK + j];
+          }
+        }
+      }
+    }
+    backSubstitute(lu, n, n, x, nbColumn);
+    return x;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Decomposes a symmetric positive definite row-major matrix in place as A = LL<sup>T</sup>.
+   * On exit the lower part holds L and the strictly upper part is zero. Only the lower part of the input is read.
+   * @param a The n x n matrix, overwritten by L.
+   * @param n The size of the matrix.
+   * @throws IllegalArgumentException If the matrix is not positive definite
+   */
+  public static void choleskyDecompose(final double[] a, final int n) {
+    choleskyDecompose(a, n, 0.0);
+  }
+
+  /**
+   * Decomposes a symmetric positive definite row-major matrix in place as A = LL<sup>T</sup>, as {@link #choleskyDecompose(double[], int)},
+   * rejecting the matrix if a reduced diagonal element, before its square root is taken, is not above a threshold.
+   * @param a The n x n matrix, overwritten by L.
+   * @param n The size of the matrix.
+   * @param positivityThreshold The threshold for the reduced diagonal elements.
+   * @throws IllegalArgumentException If the matrix is not positive definite
+   */
+  public static void choleskyDecompose(final double[] a, final int n, final double positivityThreshold) {
+    ArgumentChecker.isTrue(a.length >= n * n, "Array size does not match the dimension {}", n);
+    for (int i = 0; i < n; i++) {
+      final int rowI = i * n;
+      for (int j = 0; j <= i; j++) {
+        final int rowJ = j * n;
+        double sum = a[rowI + j];
+        for (int k = 0; k < j; k++) {
+          sum -= a[rowI + k] * a[rowJ + k];
+        }
+        if (i == j) {
+          ArgumentChecker.isTrue(sum > positivityThreshold, "Matrix not positive definite");
+          a[rowI + i] = Math.sqrt(sum);
+        } else {
+          a[rowI + j] = sum / a[rowJ + j];
+        }
+      }
+      Arrays.fill(a, rowI + i + 1, rowI + n, 0.0);
+    }
+  }
+
+  /**
+   * Solves AX = B from the decomposition of {@link #choleskyDecompose}.
+   * @param l The n x n lower triangular factor.
+   * @param n The size of the matrix.
+   * @param b The row-major n x nbColumn right-hand side.
+   * @param nbColumn The number of columns of the right-hand side.
+   * @return The row-major n x nbColumn solution.
+   */
+  public static double[] choleskySolve(final double[] l, final int n, final double[] b, final int nbColumn) {
+    ArgumentChecker.isTrue(b.length == n * nbColumn, "Right-hand side has {} elements, expected {}", b.length, n * nbColumn);
+    final double[] x = b.clone();
+    // L y = b
+    for (int i = 0; i < n; i++) {
+      final int rowI = i * nbColumn;
+      for (int k = 0; k < i; k++) {
+        final double lik = l[i * n + k];
+        final int rowK = k * nbColumn;
+        for (int j = 0; j < nbColumn; j++) {
+          x[rowI + j] -= lik * x[rowK + j];
+        }
+      }
+      final double lii = l[i * n + i];
+      for (int j = 0; j < nbColumn; j++) {
+        x[rowI + j] /= lii;
+      }
+    }
+    // L^T x = y
+    for (int i = n - 1; i >= 0; i--) {
+      final int rowI = i * nbColumn;
+      final double lii = l[i * n + i];
+      for (int j = 0; j < nbColumn; j++) {
+        x[rowI + j] /= lii;
+      }
+      for (int k = 0; k < i; k++) {
+        final double lik = l[i * n + k];
+        final int rowK = k * nbColumn;
+        for (int j = 0; j < nbColumn; j++) {
+          x[rowK + j] -= lik * x[rowI + j];
+        }
+      }
+    }
+    return x;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Decomposes a row-major m x n matrix, m &ge; n, in place as A = QR by Householder reflections.
+   * On exit the lower trapezoidal part holds the Householder vectors, scaled so that their first element is the diagonal element, and the strictly upper part holds R.
+   * @param a The m x n matrix, overwritten by the decomposition.
+   * @param m The number of rows.
+   * @param n The number of columns.
+   * @param rDiagonal The array of size n for the diagonal of R.
+   */
+  public static void qrDecompose(final double[] a, final int m, final int n, final double[] rDiagonal) {
+    ArgumentChecker.isTrue(m >= n, "QR decomposition requires at least as many rows as columns");
+    ArgumentChecker.isTrue(a.length >= m * n && rDiagonal.length >= n, "Array sizes do not match the dimensions {}, {}", m, n);
+    final double[] w = new double[n];
+    for (int k = 0; k < n; k++) {
+      double norm = 0;
+      for (int i = k; i < m; i++) {
+        norm = Math.hypot(norm, a[i * n + k]);
+      }
+      if (norm != 0.0) {
+        if (a[k * n + k] < 0) {
+          norm = -norm;
+        }
+        for (int i = k; i < m; i++) {
+          a[i * n + k] /= norm;
+        }
+        a[k * n + k] += 1.0;
+        // Apply the reflection to the remaining columns, running along the rows
+        Arrays.fill(w, k + 1, n, 0.0);
+        for (int i = k; i < m; i++) {
+          final int rowI = i * n;
+          final double v = a[rowI + k];
+          for (int j = k + 1; j < n; j++) {
+            w[j] += v * a[rowI + j];
+          }
+        }
+        final double scale = -1.0 / a[k * n + k];
+        for (int j = k + 1; j < n; j++) {
+          w[j] *= scale;
+        }
+        for (int i = k; i < m; i++) {
+          final int rowI = i * n;
+          final double v = a[rowI + k];
+          for (int j = k + 1; j < n; j++) {
+            a[rowI + j] += w[j] * v;
+          }
+        }
+      }
+      rDiagonal[k] = -norm;
+    }
+  }
+
+  /**
+   * Solves AX = B in the least squares sense from the decomposition of {@link #qrDecompose}.
+   * @param qr The decomposed m x n matrix.
+   * @param m The number of rows.
+   * @param n The number of columns.
+   * @param rDiagonal The diagonal of R.
+   * @param b The row-major m x nbColumn right-hand side.
+   * @param nbColumn The number of columns of the right-hand side.
+   * @return The row-major n x nbColumn solution.
+   * @throws IllegalArgumentException If the matrix is rank deficient
+   */
+  public static double[] qrSolve(final double[] qr, final int m, final int n, final double[] rDiagonal, final double[] b, final int nbColumn) {
+    ArgumentChecker.isTrue(b.length == m * nbColumn, "Right-hand side has {} elements, expected {}", b.length, m * nbColumn);
+    final double[] y = b.clone();
+    final double[] w = new double[nbColumn];
+    // y = Q^T b
+    for (int k = 0; k < n; k++) {
+      final double vk = qr[k * n + k];
+      if (rDiagonal[k] == 0.0 || vk == 0.0) {
+        continue;
+      }
+      Arrays.fill(w, 0.0);
+      for (int i = k; i < m; i++) {
+        final double v = qr[i * n + k];
+        final int rowI = i * nbColumn;
+        for (int j = 0; j < nbColumn; j++) {
+          w[j] += v * y[rowI + j];
+        }
+      }
+      for (int j = 0; j < nbColumn; j++) {
+        w[j] *= -1.0 / vk;
+      }
+      for (int i = k; i < m; i++) {
+        final double v = qr[i * n + k];
+        final int rowI = i * nbColumn;
+        for (int j = 0; j < nbColumn; j++) {
+          y[rowI + j] += w[j] * v;
+        }
+      }
+    }
+    // R x = y
+    final double[] x = new double[n * nbColumn];
+    System.arraycopy(y, 0, x, 0, n * nbColumn);
+    for (int i = n - 1; i >= 0; i--) {
+      final int rowI = i * nbColumn;
+      for (int k = i + 1; k < n; k++) {
+        final double r = qr[i * n + k];
+        final int rowK = k * nbColumn;
+        for (int j = 0; j < nbColumn; j++) {
+          x[rowI + j] -= r * x[rowK + j];
+        }
+      }
+      ArgumentChecker.isTrue(rDiagonal[i] != 0.0, "Matrix is rank deficient");
+      for (int j = 0; j < nbColumn; j++) {
+        x[rowI + j] /= rDiagonal[i];
+      }
+    }
+    return x;
+  }
+
+  /**
+   * Builds the orthogonal factor Q from the decomposition of {@link #qrDecompose}.
+   * @param qr The decomposed m x n matrix.
+   * @param m The number of rows.
+   * @param n The number of columns.
+   * @return The row-major m x m matrix Q.
+   */
+  public static double[] qrGetQ(final double[] qr, final int m, final int n) {
+    final double[] q = new double[m * m];
+    for (int i = 0; i < m; i++) {
+      q[i * m + i] = 1.0;
+    }
+    final double[] w = new double[m];
+    // Q = H_0 ... H_{n-1}, applied to the identity from the last reflection
+    for (int k = n - 1; k >= 0; k--) {
+      final double vk = qr[k * n + k];
+      if (vk == 0.0) {
+        continue;
+      }
+      Arrays.fill(w, 0.0);
+      for (int i = k; i < m; i++) {
+        final double v = qr[i * n + k];
+        final int rowI = i * m;
+        for (int j = k; j < m; j++) {
+          w[j] += v * q[rowI + j];
+        }
+      }
+      for (int j = k; j < m; j++) {
+        w[j] *= -1.0 / vk;
+      }
+      for (int i = k; i < m; i++) {
+        final double v = qr[i * n + k];
+        final int rowI = i * m;
+        for (int j = k; j < m; j++) {
+          q[rowI + j] += w[j] * v;
+        }
+      }
+    }
+    return q;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Solves UX = Y in place for the upper triangle U of a row-major matrix.
+   * @param u The matrix whose upper part is U.
+   * @param n The size of U.
+   * @param nbColumnU The number of columns of the matrix holding U.
+   * @param x The row-major n x nbColumn right-hand side, overwritten by the solution.
+   * @param nbColumn The number of columns of the right-hand side.
+   */
+  private static void backSubstitute(final double[] u, final int n, final int nbColumnU, final double[] x, final int nbColumn) {
+    for (int i = n - 1; i >= 0; i--) {
+      final int rowI = i * nbColumn;
+      final int rowU = i * nbColumnU;
+      for (int k = i + 1; k < n; k++) {
+        final double uik = u[rowU + k];
+        if (uik != 0.0) {
+          final int rowK = k * nbColumn;
+          for (int j = 0; j < nbColumn; j++) {
+            x[rowI + j] -= uik * x[rowK + j];
+          }
+        }
+      }
+      final double diagonal = u[rowU + i];
+      ArgumentChecker.isTrue(diagonal != 0.0, "Matrix is singular");
+      for (int j = 0; j < nbColumn; j++) {
+        x[rowI + j] /= diagonal;
+      }
+    }
+  }
+
+  private static void swapRows(final double[] a, final int n, final int row1, final int row2) {
+    final int start1 = row1 * n;
+    final int start2 = row2 * n;
+    for (int j = 0; j < n; j++) {
+      final double temp = a[start1 + j];
+      a[start1 + j] = a[start2 + j];
+      a[start2 + j] = temp;
+    }
+  }
+
+}
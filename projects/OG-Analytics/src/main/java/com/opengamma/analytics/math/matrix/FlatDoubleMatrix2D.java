@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import java.util.Arrays;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * A 2D matrix of doubles stored in a single row-major array, the element (i, j) being at index i * columns + j.
+ * <p>
+ * Compared to {@link DoubleMatrix2D}, the elements are contiguous in memory, which suits the {@link DenseMatrixKernels}.
+ */
+public class FlatDoubleMatrix2D implements Matrix<Double> {
+  private final double[] _data;
+  private final int _rows;
+  private final int _columns;
+
+  /**
+   * Sets up a matrix of zeros.
+   * @param rows Number of rows
+   * @param columns Number of columns
+   */
+  public FlatDoubleMatrix2D(final int rows, final int columns) {
+    ArgumentChecker.isTrue(rows > 0, "row number cannot be negative or zero");
+    ArgumentChecker.isTrue(columns > 0, "column number cannot be negative or zero");
+    _rows = rows;
+    _columns = columns;
+    _data = new double[rows * columns];
+  }
+
+  /**
+   * @param data The row-major data, not null. The data is copied.
+   * @param rows Number of rows
+   * @param columns Number of columns
+   */
+  public FlatDoubleMatrix2D(final double[] data, final int rows, final int columns) {
+    this(data, rows, columns, true);
+  }
+
+  private FlatDoubleMatrix2D(final double[] data, final int rows, final int columns, final boolean copy) {
+    ArgumentChecker.notNull(data, "data");
+    ArgumentChecker.isTrue(rows > 0, "row number cannot be negative or zero");
+    ArgumentChecker.isTrue(columns > 0, "column number cannot be negative or zero");
+    ArgumentChecker.isTrue(data.length == rows * columns, "data has {} elements, expected {}", data.length, rows * columns);
+    _rows = rows;
+    _columns = columns;
+    _data = copy ? data.clone() : data;
+  }
+
+  /**
+   * Wraps a row-major array without copying it; changes to the array are changes to the matrix.
+   * @param data The row-major data, not null
+   * @param rows Number of rows
+   * @param columns Number of columns
+   * @return The matrix
+   */
+  public static FlatDoubleMatrix2D wrap(final double[] data, final int rows, final int columns) {
+    return new FlatDoubleMatrix2D(data, rows, columns, false);
+  }
+
+  /**
+   * Copies a {@link DoubleMatrix2D} into a flat matrix.
+   * @param matrix The matrix, not null
+   * @return The flat matrix
+   */
+  public static FlatDoubleMatrix2D of(final DoubleMatrix2D matrix) {
+    ArgumentChecker.notNull(matrix, "matrix");
+    final int rows = matrix.getNumberOfRows();
+    final int columns = matrix.getNumberOfColumns();
+    final double[][] data = matrix.getData();
+    final double[] flat = new double[rows * columns];
+    for (int i = 0; i < rows; i++) {
+      System.arraycopy(data[i], 0, flat, i * columns, columns);
+    }
+    return new FlatDoubleMatrix2D(flat, rows, columns, false);
+  }
+
+  /**
+   * Copies the matrix into a {@link DoubleMatrix2D}.
+   * @return The matrix
+   */
+  public DoubleMatrix2D toDoubleMatrix2D() {
+    final double[][] res = new double[_rows][_columns];
+    for (int i = 0; i < _rows; i++) {
+      System.arraycopy(_data, i * _columns, res[i], 0, _columns);
+    }
+    return new DoubleMatrix2D(res);
+  }
+
+  /**
+   * Returns the element (i, j).
+   * @param i The row index
+   * @param j The column index
+   * @return The element
+   */
+  public double get(final int i, final int j) {
+    return _data[i * _columns + j];
+  }
+
+  /**
+   * Sets the element (i, j).
+   * @param i The row index
+   * @param j The column index
+   * @param value The value
+   */
+  public void set(final int i, final int j, final double value) {
+    _data[i * _columns + j] = value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Double getEntry(final int... index) {
+    ArgumentChecker.notNull(index, "indices");
+    ArgumentChecker.isTrue(index[0] < _rows, "x index {} is greater than number of rows {}", index[0], _rows);
+    ArgumentChecker.isTrue(index[1] < _columns, "y index {} is greater than number of columns {}", index[1], _columns);
+    return _data[index[0] * _columns + index[1]];
+  }
+
+  /**
+   * Returns the underlying row-major data. If this is changed so is the matrix.
+   * @return The data
+   */
+  public double[] getData() {
+    return _data;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNumberOfElements() {
+    return _data.length;
+  }
+
+  /**
+   * @return The number of rows in this matrix
+   */
+  public int getNumberOfRows() {
+    return _rows;
+  }
+
+  /**
+   * @return The number of columns in this matrix
+   */
+  public int getNumberOfColumns() {
+    return _columns;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + _columns;
+    result = prime * result + _rows;
+    result = prime * result + Arrays.hashCode(_data);
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    final FlatDoubleMatrix2D other = (FlatDoubleMatrix2D) obj;
+    return _rows == other._rows && _columns == other._columns && Arrays.equals(_data, other._data);
+  }
+
+  @Override
+  public String toString() {
+    return toDoubleMatrix2D().toString();
+  }
+
+}
@@ -19,12 +19,16 @@ public final class MatrixAlgebraFactory {
   public static final String COMMONS = "Commons";
   /** Label for OpenGamma matrix algebra */
   public static final String OG = "OG";
+  /** Label for dense pure Java matrix algebra */
+  public static final String DENSE = "Dense";
   /** {@link ColtMatrixAlgebra} */
   public static final ColtMatrixAlgebra COLT_ALGEBRA = new ColtMatrixAlgebra();
   /** {@link CommonsMatrixAlgebra} */
   public static final CommonsMatrixAlgebra COMMONS_ALGEBRA = new CommonsMatrixAlgebra();
   /** {@link OGMatrixAlgebra} */
   public static final OGMatrixAlgebra OG_ALGEBRA = new OGMatrixAlgebra();
+  /** {@link DenseMatrixAlgebra} */
+  public static final DenseMatrixAlgebra DENSE_ALGEBRA = new DenseMatrixAlgebra();
   private static final Map<String, MatrixAlgebra> s_staticInstances;
   private static final Map<Class<?>, String> s_instanceNames;
 
@@ -37,6 +41,8 @@ public final class MatrixAlgebraFactory {
     s_instanceNames.put(CommonsMatrixAlgebra.class, COMMONS);
     s_staticInstances.put(OG, OG_ALGEBRA);
     s_instanceNames.put(OGMatrixAlgebra.class, OG);
+    s_staticInstances.put(DENSE, DENSE_ALGEBRA);
+    s_instanceNames.put(DenseMatrixAlgebra.class, DENSE);
   }
 
   private MatrixAlgebraFactory() {
@@ -223,18 +223,8 @@ public class OGMatrixAlgebra extends MatrixAlgebra {
         + m1.getNumberOfColumns() + ", but m2 is " + m2.getNumberOfRows() + " by " + m2.getNumberOfColumns());
     final int m = a.length;
     final int n = b[0].length;
-    double sum;
     final double[][] res = new double[m][n];
-    int i, j, k;
-    for (i = 0; i < m; i++) {
-      for (j = 0; j < n; j++) {
-        sum = 0.0;
-        for (k = 0; k < p; k++) {
-          sum += a[i][k] * b[k][j];
-        }
-        res[i][j] = sum;
-      }
-    }
+    DenseMatrixKernels.multiply(a, b, res);
     return new DoubleMatrix2D(res);
   }
 
@@ -281,15 +271,7 @@ public class OGMatrixAlgebra extends MatrixAlgebra {
     Validate.isTrue(b.length == n, "Matrix/vector size mismatch");
     final int m = b[0].length;
     final double[] res = new double[m];
-    int i, j;
-    double sum;
-    for (i = 0; i < m; i++) {
-      sum = 0.0;
-      for (j = 0; j < n; j++) {
-        sum += a[j] * b[j][i];
-      }
-      res[i] = sum;
-    }
+    DenseMatrixKernels.multiply(a, b, res);
     return new DoubleMatrix1D(res);
   }
 
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Constructs Brownian motion paths from independent normally distributed variables by the Brownian bridge.
+ * <p>
+ * The first variable gives the value at the last time, the second the value at the middle time conditional on the start and end, and so on by bisection. With a low-discrepancy
+ * sequence the first dimensions, which are the most uniform, then determine the large scale shape of the paths.
+ * <p>
+ * The times are any non-decreasing variances; for a time-changed Brownian motion use the accumulated variance at each date. Dates with equal variance have equal values.
+ */
+public class BrownianBridge {
+
+  /**
+   * The number of times.
+   */
+  private final int _nbTimes;
+  /**
+   * The index of the time constructed by each step.
+   */
+  private final int[] _bridgeIndex;
+  /**
+   * The index of the time to the left of the time constructed by each step, -1 for the origin.
+   */
+  private final int[] _leftIndex;
+  /**
+   * The index of the time to the right of the time constructed by each step, -1 for none.
+   */
+  private final int[] _rightIndex;
+  /**
+   * The weight of the left value in each step.
+   */
+  private final double[] _leftWeight;
+  /**
+   * The weight of the right value in each step.
+   */
+  private final double[] _rightWeight;
+  /**
+   * The conditional standard deviation in each step.
+   */
+  private final double[] _stdDev;
+
+  /**
+   * Constructor.
+   * @param times The times (or variances), non-decreasing and non-negative.
+   */
+  public BrownianBridge(final double[] times) {
+    ArgumentChecker.notEmpty(times, "times");
+    _nbTimes = times.length;
+    for (int i = 0; i < _nbTimes; i++) {
+      ArgumentChecker.isTrue(times[i] >= (i == 0 ? 0 : times[i - 1]), "Times must be non-negative and non-decreasing");
+    }
+    _bridgeIndex = new int[_nbTimes];
+    _leftIndex = new int[_nbTimes];
+    _rightIndex = new int[_nbTimes];
+    _leftWeight = new double[_nbTimes];
+    _rightWeight = new double[_nbTimes];
+    _stdDev = new double[_nbTimes];
+    final boolean[] constructed = new boolean[_nbTimes];
+    _bridgeIndex[0] = _nbTimes - 1;
+    _leftIndex[0] = -1;
+    _rightIndex[0] = -1;
+    _stdDev[0] = Math.sqrt(times[_nbTimes - 1]);
+    constructed[_nbTimes - 1] = true;
+    int j = 0;
+    for (int step = 1; step < _nbTimes; step++) {
+      // Find the next unconstructed range [j, k) and bisect it
+      while (constructed[j]) {
+        j = (j + 1) % _nbTimes;
+      }
+      int k = j;
+      while (!constructed[k]) {
+        k++;
+      }
+      final int m = j + ((k - 1 - j) >> 1);
+      constructed[m] = true;
+      _bridgeIndex[step] = m;
+      _leftIndex[step] = j - 1;
+      _rightIndex[step] = k;
+      final double tLeft = (j == 0) ? 0 : times[j - 1];
+      final double range = times[k] - tLeft;
+      if (range > 0) {
+        _leftWeight[step] = (times[k] - times[m]) / range;
+        _rightWeight[step] = (times[m] - tLeft) / range;
+        _stdDev[step] = Math.sqrt((times[m] - tLeft) * (times[k] - times[m]) / range);
+      } else {
+        _leftWeight[step] = 1;
+      }
+      j = (k + 1) % _nbTimes;
+    }
+  }
+
+  /**
+   * Gets the number of times, which is the number of variables used for each path.
+   * @return The number of times.
+   */
+  public int getNbTimes() {
+    return _nbTimes;
+  }
+
+  /**
+   * Constructs the paths.
+   * @param normals The independent normally distributed variables, in bridge order. Size: nbTimes x nbPath.
+   * @param path The array to fill with the values at each time. Size: nbTimes x nbPath.
+   */
+  public void construct(final double[][] normals, final double[][] path) {
+    ArgumentChecker.isTrue(normals.length >= _nbTimes && path.length >= _nbTimes, "Expected {} dimensions", _nbTimes);
+    final int nbPath = path[0].length;
+    final double[] last = path[_nbTimes - 1];
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      last[looppath] = _stdDev[0] * normals[0][looppath];
+    }
+    for (int step = 1; step < _nbTimes; step++) {
+      final double[] z = normals[step];
+      final double[] mid = path[_bridgeIndex[step]];
+      final double[] right = path[_rightIndex[step]];
+      final double rightWeight = _rightWeight[step];
+      final double stdDev = _stdDev[step];
+      if (_leftIndex[step] < 0) {
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          mid[looppath] = rightWeight * right[looppath] + stdDev * z[looppath];
+        }
+      } else {
+        final double[] left = path[_leftIndex[step]];
+        final double leftWeight = _leftWeight[step];
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          mid[looppath] = leftWeight * left[looppath] + rightWeight * right[looppath] + stdDev * z[looppath];
+        }
+      }
+    }
+  }
+
+}
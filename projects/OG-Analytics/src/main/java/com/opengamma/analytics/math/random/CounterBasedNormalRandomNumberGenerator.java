@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cern.jet.stat.Probability;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Generates standard normally distributed numbers from a counter-based generator.
+ * <p>
+ * Each number is a pure function of the seed, a path index and a dimension index: the two indices are mixed with the seed by the SplitMix64 finalizer to give a uniform number which is mapped to
+ * the normal distribution by its inverse cumulative distribution function. There is no shared state between draws, so any path can be generated on any thread, in any order, and give the same
+ * numbers. This makes Monte Carlo results reproducible regardless of the number of threads used.
+ * <p>
+ * When used through the {@link RandomNumberGenerator} methods, each vector is the first dimensions of the next path index.
+ */
+public class CounterBasedNormalRandomNumberGenerator implements IndexedRandomNumberGenerator {
+
+  /**
+   * The odd constant used to spread consecutive counters (the SplitMix64 increment).
+   */
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  /**
+   * The scaling of 53 random bits to a double in [0, 1).
+   */
+  private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+  /**
+   * The seed.
+   */
+  private final long _seed;
+  /**
+   * The path index used by the next call to {@link #getVector}.
+   */
+  private final AtomicLong _nextPath = new AtomicLong();
+
+  /**
+   * Constructor.
+   * @param seed The seed.
+   */
+  public CounterBasedNormalRandomNumberGenerator(final long seed) {
+    _seed = seed;
+  }
+
+  /**
+   * Gets the seed.
+   * @return The seed.
+   */
+  public long getSeed() {
+    return _seed;
+  }
+
+  /**
+   * Returns the uniformly distributed number for a path and dimension.
+   * @param path The path index.
+   * @param dimension The dimension index.
+   * @return The number, strictly between 0 and 1.
+   */
+  public double getUniform(final long path, final int dimension) {
+    final long bits = mix(mix(_seed + (path + 1) * GOLDEN_GAMMA) + (dimension + 1) * GOLDEN_GAMMA);
+    return ((bits >>> 11) + 0.5) * DOUBLE_UNIT;
+  }
+
+  /**
+   * Returns the normally distributed number for a path and dimension.
+   * @param path The path index.
+   * @param dimension The dimension index.
+   * @return The number.
+   */
+  public double getNormal(final long path, final int dimension) {
+    return Probability.normalInverse(getUniform(path, dimension));
+  }
+
+  @Override
+  public void fill(final long firstPath, final int dimension, final double[] buffer, final int offset, final int nbPath) {
+    ArgumentChecker.notNull(buffer, "buffer");
+    ArgumentChecker.isTrue(offset >= 0 && offset + nbPath <= buffer.length, "Buffer too small");
+    for (int i = 0; i < nbPath; i++) {
+      buffer[offset + i] = getNormal(firstPath + i, dimension);
+    }
+  }
+
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    final long path = _nextPath.getAndIncrement();
+    final double[] result = new double[dimension];
+    for (int i = 0; i < dimension; i++) {
+      result[i] = getNormal(path, i);
+    }
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    ArgumentChecker.notNegative(n, "n");
+    final List<double[]> result = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      result.add(getVector(dimension));
+    }
+    return result;
+  }
+
+  /**
+   * The SplitMix64 finalizer; a bijective mixing of the bits of a long.
+   * @param z The value to mix.
+   * @return The mixed value.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+}
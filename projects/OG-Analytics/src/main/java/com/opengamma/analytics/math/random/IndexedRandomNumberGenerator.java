@@ -0,0 +1,25 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+/**
+ * A generator of normally distributed numbers where each number is identified by a path index and a dimension index.
+ * <p>
+ * The number for a given path and dimension does not depend on which other numbers have been generated, so blocks of paths can be generated independently, on any thread and in any order.
+ */
+public interface IndexedRandomNumberGenerator extends RandomNumberGenerator {
+
+  /**
+   * Fills a buffer with the normally distributed numbers for one dimension of consecutive paths.
+   * @param firstPath The index of the first path.
+   * @param dimension The dimension index.
+   * @param buffer The buffer to fill.
+   * @param offset The position in the buffer of the first path's number.
+   * @param nbPath The number of paths.
+   */
+  void fill(long firstPath, int dimension, double[] buffer, int offset, int nbPath);
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cern.jet.stat.Probability;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Generates normally distributed numbers from a Sobol low-discrepancy sequence.
+ * <p>
+ * Path n is the point n + 1 of the sequence (the origin is skipped), and each dimension of the path is a coordinate of that point, mapped to the normal distribution by the inverse
+ * cumulative distribution function. The direction numbers are those of Joe and Kuo (new-joe-kuo-6.21201) for the first {@link #MAX_DIMENSION} dimensions; further dimensions are padded
+ * with a {@link CounterBasedNormalRandomNumberGenerator}. As the first dimensions of a low-discrepancy sequence are the most uniform, the paths should be constructed so that these drive
+ * most of the variance, for example with a {@link BrownianBridge}.
+ * <p>
+ * A generator created with a seed applies a random digital shift to each dimension. The shifted sequence keeps its low-discrepancy but is randomised; the error of an estimate can be
+ * measured from independent seeds. The standard error of blocks of consecutive points is not a valid error estimate for a quasi-random sequence.
+ * <p>
+ * Any point can be generated directly from its index, so the generator can be used by several threads at once.
+ */
+public class SobolNormalRandomNumberGenerator implements IndexedRandomNumberGenerator {
+
+  /**
+   * The number of dimensions generated from the Sobol sequence.
+   */
+  public static final int MAX_DIMENSION = 32;
+  /**
+   * The number of bits of each coordinate.
+   */
+  private static final int BITS = 32;
+  /**
+   * The scaling of a coordinate to [0, 1).
+   */
+  private static final double SCALE = 1.0 / (1L << BITS);
+  /**
+   * The primitive polynomial degree, coefficients and initial direction numbers for dimensions 2 to {@link #MAX_DIMENSION}; from S. Joe and F. Y. Kuo, Constructing Sobol sequences with
+   * better two-dimensional projections, SIAM J. Sci. Comput. 30, 2635-2654 (2008).
+   */
+  private static final int[][] PRIMITIVES = {
+    {1, 0, 1 }, {2, 1, 1, 3 }, {3, 1, 1, 3, 1 }, {3, 2, 1, 1, 1 }, {4, 1, 1, 1, 3, 3 }, {4, 4, 1, 3, 5, 13 }, {5, 2, 1, 1, 5, 5, 17 }, {5, 4, 1, 1, 5, 5, 5 },
+    {5, 7, 1, 1, 7, 11, 19 }, {5, 11, 1, 1, 5, 1, 1 }, {5, 13, 1, 1, 1, 3, 11 }, {5, 14, 1, 3, 5, 5, 31 }, {6, 1, 1, 3, 3, 9, 7, 49 }, {6, 13, 1, 1, 1, 15, 21, 21 },
+    {6, 16, 1, 3, 1, 13, 27, 49 }, {6, 19, 1, 1, 1, 15, 7, 5 }, {6, 22, 1, 3, 1, 15, 13, 25 }, {6, 25, 1, 1, 5, 5, 19, 61 }, {7, 1, 1, 3, 7, 11, 23, 15, 103 },
+    {7, 4, 1, 3, 7, 13, 13, 15, 69 }, {7, 7, 1, 1, 3, 13, 7, 35, 63 }, {7, 8, 1, 3, 5, 9, 1, 25, 53 }, {7, 14, 1, 3, 1, 13, 9, 35, 107 }, {7, 19, 1, 3, 1, 5, 27, 61, 31 },
+    {7, 21, 1, 1, 5, 11, 19, 41, 61 }, {7, 28, 1, 3, 5, 3, 3, 13, 69 }, {7, 31, 1, 1, 7, 13, 1, 19, 1 }, {7, 32, 1, 3, 7, 5, 13, 19, 59 }, {7, 37, 1, 1, 3, 9, 25, 29, 41 },
+    {7, 41, 1, 3, 5, 13, 23, 1, 55 }, {7, 42, 1, 3, 7, 3, 13, 59, 17 } };
+  /**
+   * The direction numbers, dimension/bit.
+   */
+  private static final long[][] DIRECTIONS = directions();
+
+  /**
+   * The digital shift of each dimension.
+   */
+  private final long[] _shift = new long[MAX_DIMENSION];
+  /**
+   * The generator for the dimensions after {@link #MAX_DIMENSION}.
+   */
+  private final CounterBasedNormalRandomNumberGenerator _padding;
+  /**
+   * The path index used by the next call to {@link #getVector}.
+   */
+  private final AtomicLong _nextPath = new AtomicLong();
+
+  /**
+   * Creates a generator for the unshifted Sobol sequence.
+   */
+  public SobolNormalRandomNumberGenerator() {
+    _padding = new CounterBasedNormalRandomNumberGenerator(0L);
+  }
+
+  /**
+   * Creates a generator for a randomly shifted Sobol sequence.
+   * @param seed The seed of the shift and of the padding dimensions.
+   */
+  public SobolNormalRandomNumberGenerator(final long seed) {
+    _padding = new CounterBasedNormalRandomNumberGenerator(seed);
+    final Random random = new Random(seed);
+    for (int i = 0; i < MAX_DIMENSION; i++) {
+      _shift[i] = random.nextInt() & 0xFFFFFFFFL;
+    }
+  }
+
+  private static long[][] directions() {
+    final long[][] v = new long[MAX_DIMENSION][BITS];
+    for (int k = 0; k < BITS; k++) {
+      v[0][k] = 1L << (BITS - 1 - k);
+    }
+    for (int d = 1; d < MAX_DIMENSION; d++) {
+      final int[] primitive = PRIMITIVES[d - 1];
+      final int s = primitive[0];
+      final int a = primitive[1];
+      for (int k = 0; k < s; k++) {
+        v[d][k] = ((long) primitive[2 + k]) << (BITS - 1 - k);
+      }
+      for (int k = s; k < BITS; k++) {
+        v[d][k] = v[d][k - s] ^ (v[d][k - s] >>> s);
+        for (int i = 1; i < s; i++) {
+          if (((a >>> (s - 1 - i)) & 1) != 0) {
+            v[d][k] ^= v[d][k - i];
+          }
+        }
+      }
+    }
+    return v;
+  }
+
+  /**
+   * Returns the integer coordinate of a point of the sequence.
+   * @param index The index of the point.
+   * @param v The direction numbers of the dimension.
+   * @return The coordinate, scaled by 2^32.
+   */
+  private static long point(final long index, final long[] v) {
+    long gray = index ^ (index >>> 1);
+    long x = 0;
+    for (int k = 0; gray != 0; k++, gray >>>= 1) {
+      if ((gray & 1) != 0) {
+        x ^= v[k];
+      }
+    }
+    return x;
+  }
+
+  /**
+   * Returns the uniformly distributed number for a path and dimension.
+   * @param path The path index.
+   * @param dimension The dimension index, less than {@link #MAX_DIMENSION}.
+   * @return The number, strictly between 0 and 1.
+   */
+  public double getUniform(final long path, final int dimension) {
+    ArgumentChecker.isTrue(dimension >= 0 && dimension < MAX_DIMENSION, "Dimension {} outside the Sobol sequence", dimension);
+    checkPath(path, 1);
+    return ((point(path + 1, DIRECTIONS[dimension]) ^ _shift[dimension]) + 0.5) * SCALE;
+  }
+
+  /**
+   * Returns the normally distributed number for a path and dimension.
+   * @param path The path index.
+   * @param dimension The dimension index.
+   * @return The number.
+   */
+  public double getNormal(final long path, final int dimension) {
+    if (dimension >= MAX_DIMENSION) {
+      return _padding.getNormal(path, dimension);
+    }
+    return Probability.normalInverse(getUniform(path, dimension));
+  }
+
+  @Override
+  public void fill(final long firstPath, final int dimension, final double[] buffer, final int offset, final int nbPath) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    if (dimension >= MAX_DIMENSION) {
+      _padding.fill(firstPath, dimension, buffer, offset, nbPath);
+      return;
+    }
+    ArgumentChecker.notNull(buffer, "buffer");
+    ArgumentChecker.isTrue(offset >= 0 && offset + nbPath <= buffer.length, "Buffer too small");
+    checkPath(firstPath, nbPath);
+    final long[] v = DIRECTIONS[dimension];
+    final long shift = _shift[dimension];
+    long index = firstPath + 1;
+    long x = point(index, v);
+    for (int i = 0; i < nbPath; i++) {
+      buffer[offset + i] = Probability.normalInverse(((x ^ shift) + 0.5) * SCALE);
+      // Gray code order; the next point differs by the direction number of the lowest zero bit of the index
+      x ^= v[Long.numberOfTrailingZeros(~index)];
+      index++;
+    }
+  }
+
+  private static void checkPath(final long firstPath, final int nbPath) {
+    ArgumentChecker.isTrue(firstPath >= 0 && firstPath + nbPath < (1L << BITS) - 1, "Path index {} outside the Sobol sequence", firstPath);
+  }
+
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    final long path = _nextPath.getAndIncrement();
+    final double[] result = new double[dimension];
+    for (int i = 0; i < dimension; i++) {
+      result[i] = getNormal(path, i);
+    }
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgumentChecker.notNegative(dimension, "dimension");
+    ArgumentChecker.notNegative(n, "n");
+    final List<double[]> result = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      result.add(getVector(dimension));
+    }
+    return result;
+  }
+
+}
@@ -60,8 +60,22 @@ public class NewtonVectorRootFinder extends VectorRootFinder {
   * @return the vector root of the collection of functions 
    */
 
-  @SuppressWarnings("synthetic-access")
   public DoubleMatrix1D getRoot(final Function1D<DoubleMatrix1D, DoubleMatrix1D> function, final Function1D<DoubleMatrix1D, DoubleMatrix2D> jacobianFunction, final DoubleMatrix1D startPosition) {
+    return getRoot(function, jacobianFunction, startPosition, null);
+  }
+
+  /**
+   * Finds the root starting from a known estimate of the matrix, typically the one of a previous solve from a close starting position. This saves the initial
+   * computation of the matrix by the initialization function; the matrix is still recomputed if the search does not progress with the estimate.
+   *@param function a vector function (i.e. vector to vector)
+   *@param jacobianFunction calculates the Jacobian
+   *@param startPosition where to start the root finder for. Note if multiple roots exist which one if found (if at all) will depend on startPosition
+   *@param initialEstimate the initial estimate of the matrix used by the direction function (e.g. the Jacobian for Broyden), null to compute it from the initialization function
+   *@return the vector root of the collection of functions
+   */
+  @SuppressWarnings("synthetic-access")
+  public DoubleMatrix1D getRoot(final Function1D<DoubleMatrix1D, DoubleMatrix1D> function, final Function1D<DoubleMatrix1D, DoubleMatrix2D> jacobianFunction, final DoubleMatrix1D startPosition,
+      final DoubleMatrix2D initialEstimate) {
     checkInputs(function, startPosition);
 
     final DataBundle data = new DataBundle();
@@ -69,13 +83,20 @@ public class NewtonVectorRootFinder extends VectorRootFinder {
     data.setX(startPosition);
     data.setY(y);
     data.setG0(_algebra.getInnerProduct(y, y));
-    DoubleMatrix2D estimate = _initializationFunction.getInitializedMatrix(jacobianFunction, startPosition);
+    DoubleMatrix2D estimate = initialEstimate == null ? _initializationFunction.getInitializedMatrix(jacobianFunction, startPosition) : initialEstimate;
 
     if (!getNextPosition(function, estimate, data)) {
       if (isConverged(data)) {
         return data.getX(); // this can happen if the starting position is the root
       }
-      throw new MathException("Cannot work with this starting position. Please choose another point");
+      if (initialEstimate == null) {
+        throw new MathException("Cannot work with this starting position. Please choose another point");
+      }
+      // The given estimate may be too far from the Jacobian at this position
+      estimate = _initializationFunction.getInitializedMatrix(jacobianFunction, startPosition);
+      if (!getNextPosition(function, estimate, data)) {
+        throw new MathException("Cannot work with this starting position. Please choose another point");
+      }
     }
 
     int count = 0;
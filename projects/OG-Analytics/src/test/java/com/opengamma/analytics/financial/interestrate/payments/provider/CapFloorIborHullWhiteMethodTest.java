@@ -19,7 +19,9 @@ import com.opengamma.analytics.financial.model.interestrate.HullWhiteOneFactorPi
 import com.opengamma.analytics.financial.model.interestrate.definition.HullWhiteOneFactorPiecewiseConstantParameters;
 import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
 import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueCurveSensitivityHullWhiteCalculator;
+import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueCurveSensitivityHullWhiteMonteCarloCalculator;
 import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueHullWhiteCalculator;
+import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueHullWhiteMonteCarloCalculator;
 import com.opengamma.analytics.financial.provider.description.HullWhiteDataSets;
 import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
 import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderDiscount;
@@ -77,8 +79,13 @@ public class CapFloorIborHullWhiteMethodTest {
   private static final ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator PS_HW_FDC = new ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator(PVHWC, SHIFT);
 
   private static final int NB_PATH = 12500;
+  private static final PresentValueHullWhiteMonteCarloCalculator PVHWMCC = new PresentValueHullWhiteMonteCarloCalculator(NB_PATH);
+  private static final PresentValueCurveSensitivityHullWhiteMonteCarloCalculator PVCSHWMCC = new PresentValueCurveSensitivityHullWhiteMonteCarloCalculator(NB_PATH);
+  private static final ParameterSensitivityParameterCalculator<HullWhiteOneFactorProviderInterface> PS_HW_MC_C = new ParameterSensitivityParameterCalculator<>(PVCSHWMCC);
+  private static final ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator PS_HW_MC_FDC = new ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator(PVHWMCC, SHIFT);
   private static final double TOLERANCE_PV = 1.0E-2;
   private static final double TOLERANCE_PV_DELTA = 1.0E+0; // 0.01 currency unit for 1bp
+  private static final double TOLERANCE_PV_DELTA_MC = 5.0E+3;
 
   @Test
   public void presentValueStandard() {
@@ -177,6 +184,19 @@ public class CapFloorIborHullWhiteMethodTest {
     assertEquals("Swaption physical - Hull-White - Monte Carlo", -pvMC.getAmount(EUR), pvShortMC.getAmount(EUR), TOLERANCE_PV);
   }
 
+  @Test
+  /**
+   * Tests the Monte-Carlo curve sensitivity by adjoint against the finite difference of the Monte-Carlo present value with the same random numbers.
+   */
+  public void monteCarloCurveSensitivity() {
+    final MultipleCurrencyParameterSensitivity pvpsAdjoint = PS_HW_MC_C.calculateSensitivity(CAP_LONG, HW_MULTICURVES, HW_MULTICURVES.getMulticurveProvider().getAllNames());
+    final MultipleCurrencyParameterSensitivity pvpsFD = PS_HW_MC_FDC.calculateSensitivity(CAP_LONG, HW_MULTICURVES);
+    AssertSensitivityObjects.assertEquals("Cap/floor - Hull-White - Monte Carlo - curve sensitivity", pvpsAdjoint, pvpsFD, TOLERANCE_PV_DELTA_MC);
+    final MultipleCurrencyParameterSensitivity pvpsPutAdjoint = PS_HW_MC_C.calculateSensitivity(PUT_LONG, HW_MULTICURVES, HW_MULTICURVES.getMulticurveProvider().getAllNames());
+    final MultipleCurrencyParameterSensitivity pvpsPutFD = PS_HW_MC_FDC.calculateSensitivity(PUT_LONG, HW_MULTICURVES);
+    AssertSensitivityObjects.assertEquals("Cap/floor - Hull-White - Monte Carlo - curve sensitivity", pvpsPutAdjoint, pvpsPutFD, TOLERANCE_PV_DELTA_MC);
+  }
+
   @Test(enabled = false)
   /**
    * Performance for a high number of paths.
@@ -6,8 +6,10 @@
 package com.opengamma.analytics.financial.interestrate.swaption.provider;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.Period;
@@ -32,6 +34,7 @@ import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.N
 import com.opengamma.analytics.financial.model.volatility.BlackImpliedVolatilityFormula;
 import com.opengamma.analytics.financial.model.volatility.NormalImpliedVolatilityFormula;
 import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
+import com.opengamma.analytics.financial.montecarlo.provider.MonteCarloEstimate;
 import com.opengamma.analytics.financial.provider.calculator.discounting.CashFlowEquivalentCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.ParRateDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueCurveSensitivityDiscountingCalculator;
@@ -49,7 +52,9 @@ import com.opengamma.analytics.financial.provider.sensitivity.multicurve.Multipl
 import com.opengamma.analytics.financial.provider.sensitivity.parameter.ParameterSensitivityParameterCalculator;
 import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
 import com.opengamma.analytics.financial.util.AssertSensitivityObjects;
+import com.opengamma.analytics.math.random.CounterBasedNormalRandomNumberGenerator;
 import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.SobolNormalRandomNumberGenerator;
 import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
 import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
 import com.opengamma.financial.convention.calendar.Calendar;
@@ -57,6 +62,7 @@ import com.opengamma.util.money.Currency;
 import com.opengamma.util.money.MultipleCurrencyAmount;
 import com.opengamma.util.test.TestGroup;
 import com.opengamma.util.time.DateUtils;
+import com.opengamma.util.tuple.Pair;
 
 /**
  * Tests related to the pricing of physical delivery swaption in Hull-White one factor model.
@@ -271,6 +277,48 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
     assertEquals("Swaption physical - Hull-White - Monte Carlo - payer/receiver/swap parity", pvReceiverLongMC.getAmount(EUR) + pvPayerShortMC.getAmount(EUR), pvSwap.getAmount(EUR), 1.0E+5);
   }
 
+  @Test
+  /**
+   * Tests that the Monte-Carlo with a counter based generator gives the same result run sequentially or on a pool, and that the standard error is consistent with the explicit formula.
+   */
+  public void presentValueMonteCarloParallel() {
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0L), NB_PATH);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0L), NB_PATH, pool);
+      final MonteCarloEstimate pvSequential = methodSequential.presentValueEstimate(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES);
+      final MonteCarloEstimate pvParallel = methodParallel.presentValueEstimate(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES);
+      assertEquals("Swaption physical - Hull-White - Monte Carlo - parallel", pvSequential.getValue(), pvParallel.getValue(), 0.0);
+      assertEquals("Swaption physical - Hull-White - Monte Carlo - parallel", pvSequential.getStandardError(), pvParallel.getStandardError(), 0.0);
+      final MultipleCurrencyAmount pvPayerLongExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES);
+      assertEquals("Swaption physical - Hull-White - Monte Carlo - parallel", pvPayerLongExplicit.getAmount(EUR), pvParallel.getValue(), 4.0 * pvParallel.getStandardError());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  /**
+   * Tests the Monte-Carlo with a Sobol sequence and Brownian bridge against the explicit formula. At the same number of paths, the error should be well inside the standard error of a
+   * pseudo-random simulation.
+   */
+  public void presentValueMonteCarloSobol() {
+    final HullWhiteMonteCarloMethod methodSobol = new HullWhiteMonteCarloMethod(new SobolNormalRandomNumberGenerator(), NB_PATH);
+    final MultipleCurrencyAmount pvPayerLongExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES);
+    final MonteCarloEstimate pvPayerLongSobol = methodSobol.presentValueEstimate(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES);
+    assertTrue("Swaption physical - Hull-White - Monte Carlo - Sobol", Double.isNaN(pvPayerLongSobol.getStandardError()));
+    final HullWhiteMonteCarloMethod methodPseudo = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0L), NB_PATH);
+    final MonteCarloEstimate pvPayerLongPseudo = methodPseudo.presentValueEstimate(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - Sobol", pvPayerLongExplicit.getAmount(EUR), pvPayerLongSobol.getValue(), 0.1 * pvPayerLongPseudo.getStandardError());
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new SobolNormalRandomNumberGenerator(), NB_PATH, pool);
+      assertEquals("Swaption physical - Hull-White - Monte Carlo - Sobol", pvPayerLongSobol.getValue(), methodParallel.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR), 0.0);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   @Test
   /**
    * Tests the Hull-White parameters sensitivity for the explicit formula.
@@ -414,6 +462,37 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
     AssertSensitivityObjects.assertEquals("Swaption physical - Hull-White - presentValueCurveSensitivity - payer/receiver/swap parity", pvcsExplicit, pvcsMC, toleranceDelta);
   }
 
+  @Test
+  /**
+   * Tests that the present value and curve sensitivity computed together are those computed separately, and the long/short parity of the Monte Carlo sensitivity.
+   */
+  public void presentValueAndCurveSensitivityMonteCarlo() {
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0L), NB_PATH);
+    final Pair<MultipleCurrencyAmount, MultipleCurrencyMulticurveSensitivity> pvAndCs = methodMC.presentValueAndCurveSensitivity(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - present value and sensitivity", methodMC.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR),
+        pvAndCs.getFirst().getAmount(EUR), TOLERANCE_PV);
+    AssertSensitivityObjects.assertEquals("Swaption physical - Hull-White - Monte Carlo - present value and sensitivity",
+        methodMC.presentValueCurveSensitivity(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES), pvAndCs.getSecond(), TOLERANCE_PV_DELTA);
+    final MultipleCurrencyMulticurveSensitivity pvcsShort = methodMC.presentValueCurveSensitivity(SWAPTION_SHORT_PAYER, EUR, HW_MULTICURVES);
+    AssertSensitivityObjects.assertEquals("Swaption physical - Hull-White - Monte Carlo - long/short parity", pvAndCs.getSecond().multipliedBy(-1.0), pvcsShort, TOLERANCE_PV_DELTA);
+  }
+
+  @Test
+  /**
+   * Tests that the Monte Carlo curve sensitivity with a counter based generator is the same run sequentially or on a pool.
+   */
+  public void presentValueCurveSensitivityMonteCarloParallel() {
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0L), NB_PATH);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new CounterBasedNormalRandomNumberGenerator(0L), NB_PATH, pool);
+      AssertSensitivityObjects.assertEquals("Swaption physical - Hull-White - Monte Carlo - parallel", methodSequential.presentValueCurveSensitivity(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES),
+          methodParallel.presentValueCurveSensitivity(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES), 0.0);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   @Test(enabled = false)
   /**
    * Tests of performance. "enabled = false" for the standard testing.
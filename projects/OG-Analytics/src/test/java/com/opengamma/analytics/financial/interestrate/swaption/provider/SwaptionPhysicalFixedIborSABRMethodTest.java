@@ -22,21 +22,28 @@ import com.opengamma.analytics.financial.interestrate.payments.derivative.Coupon
 import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
 import com.opengamma.analytics.financial.interestrate.swap.provider.SwapFixedCouponDiscountingMethod;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
+import com.opengamma.analytics.financial.model.interestrate.definition.HullWhiteOneFactorPiecewiseConstantParameters;
 import com.opengamma.analytics.financial.model.option.definition.SABRInterestRateParameters;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.BlackFunctionData;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.BlackPriceFunction;
 import com.opengamma.analytics.financial.model.volatility.smile.function.SABRHaganAlternativeVolatilityFunction;
 import com.opengamma.analytics.financial.provider.calculator.discounting.ParRateDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator;
+import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueHullWhiteMonteCarloCalculator;
 import com.opengamma.analytics.financial.provider.calculator.hullwhite.PresentValueSABRHullWhiteMonteCarloCalculator;
 import com.opengamma.analytics.financial.provider.calculator.sabrswaption.PresentValueCurveSensitivitySABRSwaptionCalculator;
 import com.opengamma.analytics.financial.provider.calculator.sabrswaption.PresentValueSABRSensitivitySABRSwaptionCalculator;
 import com.opengamma.analytics.financial.provider.calculator.sabrswaption.PresentValueSABRSwaptionCalculator;
 import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
 import com.opengamma.analytics.financial.provider.description.SABRDataSets;
+import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.SABRSwaptionProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.SABRSwaptionProviderInterface;
+import com.opengamma.analytics.financial.provider.method.SuccessiveRootFinderHullWhiteCalibrationEngine;
+import com.opengamma.analytics.financial.provider.method.SuccessiveRootFinderHullWhiteCalibrationObjective;
+import com.opengamma.analytics.financial.provider.sensitivity.hullwhite.ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyParameterSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.parameter.ParameterSensitivityParameterCalculator;
@@ -109,11 +116,19 @@ public class SwaptionPhysicalFixedIborSABRMethodTest {
   private static final ParameterSensitivityParameterCalculator<SABRSwaptionProviderInterface> PS_SS_C = new ParameterSensitivityParameterCalculator<>(PVCSSSC);
   private static final ParameterSensitivitySABRSwaptionDiscountInterpolatedFDCalculator PS_SS_FDC = new ParameterSensitivitySABRSwaptionDiscountInterpolatedFDCalculator(PVSSC, SHIFT);
 
+  private static final int NB_PATH_SABR_HW = 50000;
+  private static final double SHIFT_MC = 1.0E-6;
+  private static final ParameterSensitivityParameterCalculator<SABRSwaptionProviderInterface> PS_SABR_HW_MC_C = new ParameterSensitivityParameterCalculator<>(
+      PresentValueCurveSensitivitySABRHullWhiteMonteCarloCalculator.getInstance());
+  private static final ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator PS_HW_MC_FDC = new ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator(
+      new PresentValueHullWhiteMonteCarloCalculator(NB_PATH_SABR_HW), SHIFT_MC);
+
   // Pricing functions
   private static final BlackPriceFunction BLACK_FUNCTION = new BlackPriceFunction();
 
   private static final double TOLERANCE_PV = 1.0E-2;
   private static final double TOLERANCE_PV_DELTA = 1.0E+0; //Testing note: Sensitivity is for a movement of 1. 1E+2 = 1 cent for a 1 bp move.
+  private static final double TOLERANCE_PV_DELTA_MC = 5.0E+3;
 
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void testNoSABRHaganSensi() {
@@ -261,6 +276,23 @@ public class SwaptionPhysicalFixedIborSABRMethodTest {
     assertEquals("Swaption Physical SABR: Present value using Hull-White by Monte Carlo", pvSABR.getAmount(EUR), pvMC.getAmount(EUR), 2.5E+4);
   }
 
+  @Test
+  /**
+   * Tests the curve sensitivity of the Hull-White Monte-Carlo calibrated to SABR swaption by adjoint against the finite difference of the Monte-Carlo present value
+   * with the same random numbers and the calibrated Hull-White parameters fixed.
+   */
+  public void presentValueCurveSensitivitySABRHullWhiteMonteCarlo() {
+    final HullWhiteOneFactorPiecewiseConstantParameters hwParameters = new HullWhiteOneFactorPiecewiseConstantParameters(0.01, new double[] {0.01}, new double[0]);
+    final SuccessiveRootFinderHullWhiteCalibrationObjective objective = new SuccessiveRootFinderHullWhiteCalibrationObjective(hwParameters, EUR);
+    final SuccessiveRootFinderHullWhiteCalibrationEngine<SABRSwaptionProviderInterface> calibrationEngine = new SuccessiveRootFinderHullWhiteCalibrationEngine<>(objective);
+    calibrationEngine.addInstrument(SWAPTION_LONG_PAYER, PVSSC);
+    calibrationEngine.calibrate(SABR_MULTICURVES);
+    final HullWhiteOneFactorProviderDiscount hwMulticurves = new HullWhiteOneFactorProviderDiscount(MULTICURVES, hwParameters, EUR);
+    final MultipleCurrencyParameterSensitivity pvpsAdjoint = PS_SABR_HW_MC_C.calculateSensitivity(SWAPTION_LONG_PAYER, SABR_MULTICURVES, MULTICURVES.getAllNames());
+    final MultipleCurrencyParameterSensitivity pvpsFD = PS_HW_MC_FDC.calculateSensitivity(SWAPTION_LONG_PAYER, hwMulticurves);
+    AssertSensitivityObjects.assertEquals("Swaption Physical SABR: Curve sensitivity using Hull-White by Monte Carlo", pvpsAdjoint, pvpsFD, TOLERANCE_PV_DELTA_MC);
+  }
+
   //  @Test(enabled = false)
   //  /**
   //   * Analyzes the smoothness of sensitivities.
@@ -0,0 +1,351 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.curve;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Period;
+import org.threeten.bp.ZonedDateTime;
+
+import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorCurveYieldInterpolated;
+import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorYDCurve;
+import com.opengamma.analytics.financial.forex.method.FXMatrix;
+import com.opengamma.analytics.financial.instrument.InstrumentDefinition;
+import com.opengamma.analytics.financial.instrument.cash.CashDefinition;
+import com.opengamma.analytics.financial.instrument.index.GeneratorAttribute;
+import com.opengamma.analytics.financial.instrument.index.GeneratorAttributeIR;
+import com.opengamma.analytics.financial.instrument.index.GeneratorDepositIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorDepositON;
+import com.opengamma.analytics.financial.instrument.index.GeneratorInstrument;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIborMaster;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedON;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedONMaster;
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedONDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
+import com.opengamma.analytics.financial.provider.calculator.discounting.ParSpreadMarketQuoteCurveSensitivityDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.discounting.ParSpreadMarketQuoteDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.generic.LastTimeCalculator;
+import com.opengamma.analytics.financial.provider.curve.multicurve.MulticurveDiscountBuildingCache;
+import com.opengamma.analytics.financial.provider.curve.multicurve.MulticurveDiscountBuildingRepository;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.math.interpolation.CombinedInterpolatorExtrapolatorFactory;
+import com.opengamma.analytics.math.interpolation.Interpolator1D;
+import com.opengamma.analytics.math.interpolation.Interpolator1DFactory;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.MondayToFridayCalendar;
+import com.opengamma.timeseries.precise.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
+import com.opengamma.timeseries.precise.zdt.ZonedDateTimeDoubleTimeSeries;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.time.DateUtils;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Tests the calibration of curves from a previous calibration (warm start and skipped units) and of independent units in parallel.
+ */
+@Test(groups = TestGroup.UNIT)
+public class MulticurveBuildingDiscountingWarmStartTest {
+
+  private static final Interpolator1D INTERPOLATOR_LINEAR = CombinedInterpolatorExtrapolatorFactory.getInterpolator(Interpolator1DFactory.LINEAR, Interpolator1DFactory.FLAT_EXTRAPOLATOR,
+      Interpolator1DFactory.FLAT_EXTRAPOLATOR);
+  private static final GeneratorYDCurve GENERATOR_INT_LIN = new GeneratorCurveYieldInterpolated(LastTimeCalculator.getInstance(), INTERPOLATOR_LINEAR);
+
+  private static final double TOLERANCE_ROOT = 1.0E-10;
+  private static final int STEP_MAX = 100;
+
+  private static final Calendar NYC = new MondayToFridayCalendar("NYC");
+  private static final Calendar TARGET = new MondayToFridayCalendar("TARGET");
+  private static final Currency USD = Currency.USD;
+  private static final Currency EUR = Currency.EUR;
+  private static final FXMatrix FX_MATRIX = new FXMatrix(USD);
+  static {
+    FX_MATRIX.addCurrency(EUR, USD, 1.40);
+  }
+  private static final double NOTIONAL = 1.0;
+
+  private static final GeneratorSwapFixedON GENERATOR_OIS_USD = GeneratorSwapFixedONMaster.getInstance().getGenerator("USD1YFEDFUND", NYC);
+  private static final IndexON INDEX_ON_USD = GENERATOR_OIS_USD.getIndex();
+  private static final GeneratorDepositON GENERATOR_DEPOSIT_ON_USD = new GeneratorDepositON("USD Deposit ON", USD, NYC, INDEX_ON_USD.getDayCount());
+  private static final GeneratorSwapFixedIbor USD6MLIBOR3M = GeneratorSwapFixedIborMaster.getInstance().getGenerator("USD6MLIBOR3M", NYC);
+  private static final IborIndex USDLIBOR3M = USD6MLIBOR3M.getIborIndex();
+  private static final GeneratorDepositIbor GENERATOR_USDLIBOR3M = new GeneratorDepositIbor("GENERATOR_USDLIBOR3M", USDLIBOR3M, NYC);
+  private static final GeneratorSwapFixedON GENERATOR_OIS_EUR = GeneratorSwapFixedONMaster.getInstance().getGenerator("EUR1YEONIA", TARGET);
+  private static final IndexON INDEX_ON_EUR = GENERATOR_OIS_EUR.getIndex();
+  private static final GeneratorDepositON GENERATOR_DEPOSIT_ON_EUR = new GeneratorDepositON("EUR Deposit ON", EUR, TARGET, INDEX_ON_EUR.getDayCount());
+
+  private static final ZonedDateTime NOW = DateUtils.getUTCDate(2011, 9, 28);
+
+  private static final ZonedDateTimeDoubleTimeSeries TS_EMPTY = ImmutableZonedDateTimeDoubleTimeSeries.ofEmptyUTC();
+  private static final ZonedDateTimeDoubleTimeSeries TS_ON = ImmutableZonedDateTimeDoubleTimeSeries.ofUTC(new ZonedDateTime[] {DateUtils.getUTCDate(2011, 9, 27),
+    DateUtils.getUTCDate(2011, 9, 28) }, new double[] {0.07, 0.08 });
+  private static final ZonedDateTimeDoubleTimeSeries[] TS_FIXED_OIS = new ZonedDateTimeDoubleTimeSeries[] {TS_EMPTY, TS_ON };
+  private static final ZonedDateTimeDoubleTimeSeries TS_IBOR_USD3M = ImmutableZonedDateTimeDoubleTimeSeries.ofUTC(new ZonedDateTime[] {DateUtils.getUTCDate(2011, 9, 27) },
+      new double[] {0.0035 });
+  private static final ZonedDateTimeDoubleTimeSeries[] TS_FIXED_IBOR_USD3M = new ZonedDateTimeDoubleTimeSeries[] {TS_IBOR_USD3M };
+
+  private static final String CURVE_NAME_DSC_USD = "USD Dsc";
+  private static final String CURVE_NAME_FWD3_USD = "USD Fwd 3M";
+  private static final String CURVE_NAME_DSC_EUR = "EUR Dsc";
+
+  private static final double[] DSC_USD_MARKET_QUOTES = new double[] {0.0040, 0.0040, 0.0040, 0.0040, 0.0040, 0.0040, 0.0040, 0.0040, 0.0045, 0.0050, 0.0060, 0.0085 };
+  private static final GeneratorInstrument<? extends GeneratorAttribute>[] DSC_USD_GENERATORS = new GeneratorInstrument<?>[] {GENERATOR_DEPOSIT_ON_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD,
+    GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD, GENERATOR_OIS_USD };
+  private static final Period[] DSC_USD_TENOR = new Period[] {Period.ofDays(0), Period.ofMonths(1), Period.ofMonths(2), Period.ofMonths(3), Period.ofMonths(6), Period.ofMonths(9),
+    Period.ofYears(1), Period.ofYears(2), Period.ofYears(3), Period.ofYears(4), Period.ofYears(5), Period.ofYears(10) };
+
+  private static final double[] FWD3_USD_MARKET_QUOTES = new double[] {0.0045, 0.0045, 0.0045, 0.0045, 0.0060, 0.0070, 0.0080, 0.0160 };
+  private static final GeneratorInstrument<? extends GeneratorAttribute>[] FWD3_USD_GENERATORS = new GeneratorInstrument<?>[] {GENERATOR_USDLIBOR3M, USD6MLIBOR3M, USD6MLIBOR3M, USD6MLIBOR3M,
+    USD6MLIBOR3M, USD6MLIBOR3M, USD6MLIBOR3M, USD6MLIBOR3M };
+  private static final Period[] FWD3_USD_TENOR = new Period[] {Period.ofMonths(0), Period.ofMonths(6), Period.ofYears(1), Period.ofYears(2), Period.ofYears(3), Period.ofYears(5),
+    Period.ofYears(7), Period.ofYears(10) };
+
+  private static final double[] DSC_EUR_MARKET_QUOTES = new double[] {0.0010, 0.0010, 0.0010, 0.0010, 0.0010, 0.0015, 0.0020, 0.0030, 0.0060 };
+  private static final GeneratorInstrument<? extends GeneratorAttribute>[] DSC_EUR_GENERATORS = new GeneratorInstrument<?>[] {GENERATOR_DEPOSIT_ON_EUR, GENERATOR_OIS_EUR, GENERATOR_OIS_EUR,
+    GENERATOR_OIS_EUR, GENERATOR_OIS_EUR, GENERATOR_OIS_EUR, GENERATOR_OIS_EUR, GENERATOR_OIS_EUR, GENERATOR_OIS_EUR };
+  private static final Period[] DSC_EUR_TENOR = new Period[] {Period.ofDays(0), Period.ofMonths(1), Period.ofMonths(3), Period.ofMonths(6), Period.ofYears(1), Period.ofYears(2),
+    Period.ofYears(3), Period.ofYears(5), Period.ofYears(10) };
+
+  /** Shift of all the quotes, 0.1 bp */
+  private static final double SHIFT = 1.0E-5;
+
+  private static final MulticurveProviderDiscount KNOWN_DATA = new MulticurveProviderDiscount(FX_MATRIX);
+  private static final LinkedHashMap<String, Currency> DSC_MAP = new LinkedHashMap<>();
+  private static final LinkedHashMap<String, IndexON[]> FWD_ON_MAP = new LinkedHashMap<>();
+  private static final LinkedHashMap<String, IborIndex[]> FWD_IBOR_MAP = new LinkedHashMap<>();
+  static {
+    DSC_MAP.put(CURVE_NAME_DSC_USD, USD);
+    DSC_MAP.put(CURVE_NAME_DSC_EUR, EUR);
+    FWD_ON_MAP.put(CURVE_NAME_DSC_USD, new IndexON[] {INDEX_ON_USD });
+    FWD_ON_MAP.put(CURVE_NAME_DSC_EUR, new IndexON[] {INDEX_ON_EUR });
+    FWD_IBOR_MAP.put(CURVE_NAME_FWD3_USD, new IborIndex[] {USDLIBOR3M });
+  }
+
+  private static final ParSpreadMarketQuoteDiscountingCalculator PSMQC = ParSpreadMarketQuoteDiscountingCalculator.getInstance();
+  private static final ParSpreadMarketQuoteCurveSensitivityDiscountingCalculator PSMQCSC = ParSpreadMarketQuoteCurveSensitivityDiscountingCalculator.getInstance();
+
+  private static final MulticurveDiscountBuildingRepository CURVE_BUILDING_REPOSITORY = new MulticurveDiscountBuildingRepository(TOLERANCE_ROOT, TOLERANCE_ROOT, STEP_MAX);
+
+  private static final double TOLERANCE_PARAMETERS = 1.0E-8;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void negativeQuoteTolerance() {
+    new MulticurveDiscountBuildingCache(-1.0E-8);
+  }
+
+  @Test
+  /**
+   * Tests that a second calibration with the same quotes skips all the units and returns the same curves and inverse Jacobian matrices.
+   */
+  public void unchangedQuotes() {
+    final MulticurveDiscountBuildingCache cache = new MulticurveDiscountBuildingCache(1.0E-8);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> first = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    assertEquals("Curve building - cache", 2, cache.getNumberOfCalibratedUnits());
+    assertEquals("Curve building - cache", 0, cache.getNumberOfSkippedUnits());
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> second = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    assertEquals("Curve building - cache", 2, cache.getNumberOfCalibratedUnits());
+    assertEquals("Curve building - cache", 2, cache.getNumberOfSkippedUnits());
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD }) {
+      assertParameters(first.getFirst(), second.getFirst(), name, 0.0);
+      assertMatrix(first.getSecond().getBlock(name).getSecond(), second.getSecond().getBlock(name).getSecond(), 0.0);
+    }
+  }
+
+  @Test
+  /**
+   * Tests that a unit whose quote moved by less than the tolerance is not recalibrated and keeps its previous parameters.
+   */
+  public void quoteMoveBelowTolerance() {
+    final MulticurveDiscountBuildingCache cache = new MulticurveDiscountBuildingCache(1.0E-8);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> first = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> second = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnitsFwdQuoteShift(5, 1.0E-10), KNOWN_DATA,
+        new CurveBuildingBlockBundle(), DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    assertEquals("Curve building - cache", 2, cache.getNumberOfCalibratedUnits());
+    assertEquals("Curve building - cache", 2, cache.getNumberOfSkippedUnits());
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD }) {
+      assertParameters(first.getFirst(), second.getFirst(), name, 0.0);
+    }
+  }
+
+  @Test
+  /**
+   * Tests that a unit whose quote moved by more than the tolerance is recalibrated from the warm start, while the unit before it is not.
+   */
+  public void quoteMoveAboveTolerance() {
+    final double shift = 1.0E-6;
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> cold = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnitsFwdQuoteShift(5, shift), KNOWN_DATA, DSC_MAP,
+        FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC);
+    final MulticurveDiscountBuildingCache cache = new MulticurveDiscountBuildingCache(1.0E-8);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> first = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> warm = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnitsFwdQuoteShift(5, shift), KNOWN_DATA,
+        new CurveBuildingBlockBundle(), DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    assertEquals("Curve building - cache", 3, cache.getNumberOfCalibratedUnits());
+    assertEquals("Curve building - cache", 1, cache.getNumberOfSkippedUnits());
+    assertParameters(first.getFirst(), warm.getFirst(), CURVE_NAME_DSC_USD, 0.0);
+    assertParameters(cold.getFirst(), warm.getFirst(), CURVE_NAME_FWD3_USD, TOLERANCE_PARAMETERS);
+    assertMatrix(cold.getSecond().getBlock(CURVE_NAME_FWD3_USD).getSecond(), warm.getSecond().getBlock(CURVE_NAME_FWD3_USD).getSecond(), 1.0E-6);
+    for (final InstrumentDerivative instrument : usdUnitsFwdQuoteShift(5, shift)[1].getCurveBundle(0).getDerivatives()) {
+      assertEquals("Curve building - warm start", 0.0, instrument.accept(PSMQC, warm.getFirst()), TOLERANCE_ROOT);
+    }
+  }
+
+  @Test
+  /**
+   * Tests that the inverse Jacobian matrices of units which are not recalibrated are recomputed when the known data and block bundle change, as they include the known curves.
+   */
+  public void changedKnownData() {
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> eur = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(eurUnits(), KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP,
+        PSMQC, PSMQCSC);
+    final MulticurveDiscountBuildingCache cache = new MulticurveDiscountBuildingCache(1.0E-8);
+    CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), KNOWN_DATA, new CurveBuildingBlockBundle(), DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> expected = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), eur.getFirst(), eur.getSecond(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, null);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> actual = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), eur.getFirst(), eur.getSecond(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    // The USD quotes did not move so the units are not recalibrated, but their blocks now include the EUR curve
+    assertEquals("Curve building - cache", 2, cache.getNumberOfSkippedUnits());
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD }) {
+      assertParameters(expected.getFirst(), actual.getFirst(), name, TOLERANCE_PARAMETERS);
+      assertEquals("Curve building - cache", expected.getSecond().getBlock(name).getFirst(), actual.getSecond().getBlock(name).getFirst());
+      assertMatrix(expected.getSecond().getBlock(name).getSecond(), actual.getSecond().getBlock(name).getSecond(), 1.0E-6);
+    }
+  }
+
+  @Test
+  /**
+   * Tests that a calibration started from the previous calibration gives the same curves and inverse Jacobian matrices as a calibration from the generators starting points.
+   */
+  public void warmStart() {
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> cold = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(SHIFT), KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP,
+        PSMQC, PSMQCSC);
+    final MulticurveDiscountBuildingCache cache = new MulticurveDiscountBuildingCache(0.0);
+    CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(0.0), KNOWN_DATA, new CurveBuildingBlockBundle(), DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> warm = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(usdUnits(SHIFT), KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, cache);
+    assertEquals("Curve building - cache", 4, cache.getNumberOfCalibratedUnits());
+    assertEquals("Curve building - cache", 0, cache.getNumberOfSkippedUnits());
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD }) {
+      assertParameters(cold.getFirst(), warm.getFirst(), name, TOLERANCE_PARAMETERS);
+      assertMatrix(cold.getSecond().getBlock(name).getSecond(), warm.getSecond().getBlock(name).getSecond(), 1.0E-6);
+    }
+    final MultiCurveBundle<GeneratorYDCurve>[] units = usdUnits(SHIFT);
+    for (final MultiCurveBundle<GeneratorYDCurve> unit : units) {
+      for (int loopcurve = 0; loopcurve < unit.size(); loopcurve++) {
+        for (final InstrumentDerivative instrument : unit.getCurveBundle(loopcurve).getDerivatives()) {
+          assertEquals("Curve building - warm start", 0.0, instrument.accept(PSMQC, warm.getFirst()), TOLERANCE_ROOT);
+        }
+      }
+    }
+  }
+
+  @Test
+  /**
+   * Tests that the independent units calibrated on a pool give the same curves as the same units calibrated in sequence.
+   */
+  @SuppressWarnings("unchecked")
+  public void independentUnits() {
+    final MultiCurveBundle<GeneratorYDCurve>[] usd = usdUnits(0.0);
+    final MultiCurveBundle<GeneratorYDCurve>[] eur = eurUnits();
+    final MultiCurveBundle<GeneratorYDCurve>[] all = new MultiCurveBundle[] {usd[0], usd[1], eur[0] };
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> sequential = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(all, KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP,
+        PSMQC, PSMQCSC);
+    final MultiCurveBundle<GeneratorYDCurve>[][] sequences = new MultiCurveBundle[][] {usd, eur };
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> noPool = CURVE_BUILDING_REPOSITORY.makeIndependentCurvesFromDerivatives(sequences, KNOWN_DATA,
+        new CurveBuildingBlockBundle(), DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, null);
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      final MulticurveDiscountBuildingRepository repositoryParallel = new MulticurveDiscountBuildingRepository(TOLERANCE_ROOT, TOLERANCE_ROOT, STEP_MAX, pool);
+      final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> parallel = repositoryParallel.makeIndependentCurvesFromDerivatives(sequences, KNOWN_DATA,
+          new CurveBuildingBlockBundle(), DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP, PSMQC, PSMQCSC, null);
+      for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD, CURVE_NAME_DSC_EUR }) {
+        assertParameters(sequential.getFirst(), parallel.getFirst(), name, TOLERANCE_PARAMETERS);
+        assertParameters(noPool.getFirst(), parallel.getFirst(), name, 0.0);
+        assertTrue("Curve building - independent units", parallel.getSecond().getData().containsKey(name));
+        assertMatrix(noPool.getSecond().getBlock(name).getSecond(), parallel.getSecond().getBlock(name).getSecond(), 0.0);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertParameters(final MulticurveProviderDiscount expected, final MulticurveProviderDiscount actual, final String name, final double tolerance) {
+    final Double[] expectedParameters = ((YieldCurve) expected.getCurve(name)).getCurve().getYData();
+    final Double[] actualParameters = ((YieldCurve) actual.getCurve(name)).getCurve().getYData();
+    assertEquals("Curve building - " + name, expectedParameters.length, actualParameters.length);
+    for (int loopp = 0; loopp < expectedParameters.length; loopp++) {
+      assertEquals("Curve building - " + name + " - parameter " + loopp, expectedParameters[loopp], actualParameters[loopp], tolerance);
+    }
+  }
+
+  private static void assertMatrix(final DoubleMatrix2D expected, final DoubleMatrix2D actual, final double tolerance) {
+    assertEquals("Curve building - inverse Jacobian", expected.getNumberOfRows(), actual.getNumberOfRows());
+    assertEquals("Curve building - inverse Jacobian", expected.getNumberOfColumns(), actual.getNumberOfColumns());
+    for (int loopr = 0; loopr < expected.getNumberOfRows(); loopr++) {
+      for (int loopc = 0; loopc < expected.getNumberOfColumns(); loopc++) {
+        assertEquals("Curve building - inverse Jacobian", expected.getEntry(loopr, loopc), actual.getEntry(loopr, loopc), tolerance);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MultiCurveBundle<GeneratorYDCurve>[] usdUnits(final double shift) {
+    return new MultiCurveBundle[] {
+      new MultiCurveBundle<>(new SingleCurveBundle[] {curve(CURVE_NAME_DSC_USD, DSC_USD_MARKET_QUOTES, DSC_USD_GENERATORS, DSC_USD_TENOR, shift) }),
+      new MultiCurveBundle<>(new SingleCurveBundle[] {curve(CURVE_NAME_FWD3_USD, FWD3_USD_MARKET_QUOTES, FWD3_USD_GENERATORS, FWD3_USD_TENOR, shift) }) };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MultiCurveBundle<GeneratorYDCurve>[] usdUnitsFwdQuoteShift(final int index, final double shift) {
+    final double[] fwdQuotes = FWD3_USD_MARKET_QUOTES.clone();
+    fwdQuotes[index] += shift;
+    return new MultiCurveBundle[] {
+      new MultiCurveBundle<>(new SingleCurveBundle[] {curve(CURVE_NAME_DSC_USD, DSC_USD_MARKET_QUOTES, DSC_USD_GENERATORS, DSC_USD_TENOR, 0.0) }),
+      new MultiCurveBundle<>(new SingleCurveBundle[] {curve(CURVE_NAME_FWD3_USD, fwdQuotes, FWD3_USD_GENERATORS, FWD3_USD_TENOR, 0.0) }) };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MultiCurveBundle<GeneratorYDCurve>[] eurUnits() {
+    return new MultiCurveBundle[] {
+      new MultiCurveBundle<>(new SingleCurveBundle[] {curve(CURVE_NAME_DSC_EUR, DSC_EUR_MARKET_QUOTES, DSC_EUR_GENERATORS, DSC_EUR_TENOR, 0.0) }) };
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked" })
+  private static SingleCurveBundle<GeneratorYDCurve> curve(final String name, final double[] marketQuotes, final GeneratorInstrument[] generators, final Period[] tenors,
+      final double shift) {
+    final int nbInstruments = marketQuotes.length;
+    final InstrumentDerivative[] derivatives = new InstrumentDerivative[nbInstruments];
+    final double[] initialGuess = new double[nbInstruments];
+    for (int loopins = 0; loopins < nbInstruments; loopins++) {
+      final InstrumentDefinition<?> definition = generators[loopins].generateInstrument(NOW, marketQuotes[loopins] + shift, NOTIONAL, new GeneratorAttributeIR(tenors[loopins]));
+      if (definition instanceof SwapFixedONDefinition) {
+        derivatives[loopins] = ((SwapFixedONDefinition) definition).toDerivative(NOW, TS_FIXED_OIS);
+        initialGuess[loopins] = ((SwapFixedONDefinition) definition).getFixedLeg().getNthPayment(0).getRate();
+      } else if (definition instanceof SwapFixedIborDefinition) {
+        derivatives[loopins] = ((SwapFixedIborDefinition) definition).toDerivative(NOW, TS_FIXED_IBOR_USD3M);
+        initialGuess[loopins] = ((SwapFixedIborDefinition) definition).getFixedLeg().getNthPayment(0).getRate();
+      } else {
+        derivatives[loopins] = definition.toDerivative(NOW);
+        initialGuess[loopins] = (definition instanceof CashDefinition) ? ((CashDefinition) definition).getRate() : 0.01;
+      }
+    }
+    return new SingleCurveBundle<>(name, derivatives, initialGuess, GENERATOR_INT_LIN.finalGenerator(derivatives));
+  }
+
+}
@@ -57,6 +57,25 @@ public class CholeskyDecompositionOpenGammaTest {
     ArrayAsserts.assertArrayEquals("Cholesky decomposition OpenGamma - solve", b, ax.getData(), 1.0E-10);
   }
 
+  @Test
+  /**
+   * Tests solve Ax = b from A and b as a matrix object.
+   */
+  public void solveVectorMatrixObject() {
+    final CholeskyDecompositionResult result = CDOG.evaluate(A5);
+    final double[] b = new double[] {1.0, 2.0, 3.0, 4.0, -1.0};
+    final DoubleMatrix1D x = result.solve(new DoubleMatrix1D(b));
+    ArrayAsserts.assertArrayEquals("Cholesky decomposition OpenGamma - solve", result.solve(b), x.getData(), 0.0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  /**
+   * Tests that a matrix whose reduced diagonal is below the positivity threshold is rejected.
+   */
+  public void positivityThreshold() {
+    CDOG.evaluate(A3, CholeskyDecompositionOpenGamma.DEFAULT_SYMMETRY_THRESHOLD, 10.5);
+  }
+
   @Test
   /**
    * Tests solve AX = B from A and B.
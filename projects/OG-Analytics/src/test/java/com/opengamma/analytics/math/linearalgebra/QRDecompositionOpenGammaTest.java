@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.linearalgebra;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.math.matrix.CommonsMatrixAlgebra;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.matrix.MatrixAlgebra;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class QRDecompositionOpenGammaTest {
+  private static final MatrixAlgebra ALGEBRA = new CommonsMatrixAlgebra();
+  private static final Decomposition<QRDecompositionResult> QR = new QRDecompositionOpenGamma();
+  private static final DoubleMatrix2D A = new DoubleMatrix2D(new double[][] {new double[] {1, 2, 3}, new double[] {4, 5, 6}, new double[] {7, 8, 9}});
+  private static final DoubleMatrix2D B = new DoubleMatrix2D(new double[][] {new double[] {1, 2, 3}, new double[] {4, -5, 6}, new double[] {7, 8, 10}, new double[] {-1, 0, 2}});
+  private static final double EPS = 1e-9;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNullObjectMatrix() {
+    QR.evaluate((DoubleMatrix2D) null);
+  }
+
+  @Test
+  public void testRecoverOrginal() {
+    final DecompositionResult result = QR.evaluate(A);
+    assertTrue(result instanceof QRDecompositionResult);
+    final QRDecompositionResult qr = (QRDecompositionResult) result;
+    final DoubleMatrix2D q = qr.getQ();
+    final DoubleMatrix2D r = qr.getR();
+    final DoubleMatrix2D a = (DoubleMatrix2D) ALGEBRA.multiply(q, r);
+    checkEquals(A, a);
+  }
+
+  @Test
+  public void testCommons() {
+    final QRDecompositionResult qr = QR.evaluate(B);
+    final QRDecompositionResult commons = new QRDecompositionCommons().evaluate(B);
+    checkEquals(commons.getQ(), qr.getQ());
+    checkEquals(commons.getQT(), qr.getQT());
+    checkEquals(commons.getR(), qr.getR());
+    checkEquals(commons.getH(), qr.getH());
+    final DoubleMatrix2D square = new DoubleMatrix2D(new double[][] {new double[] {1, 2, -1}, new double[] {4, 3, 1}, new double[] {2, 2, 3}});
+    final double[] b = new double[] {1, -2, 3};
+    final double[] x = QR.evaluate(square).solve(b);
+    final double[] expected = new QRDecompositionCommons().evaluate(square).solve(b);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(expected[i], x[i], EPS);
+    }
+  }
+
+  @Test
+  /**
+   * With more rows than columns, the solution is the least squares one.
+   */
+  public void testLeastSquares() {
+    final QRDecompositionResult qr = QR.evaluate(B);
+    checkEquals(B, (DoubleMatrix2D) ALGEBRA.multiply(qr.getQ(), qr.getR()));
+    final DoubleMatrix1D y = new DoubleMatrix1D(new double[] {1, 0, 2, -1});
+    final DoubleMatrix1D x = qr.solve(y);
+    final DoubleMatrix1D residual = (DoubleMatrix1D) ALGEBRA.subtract(ALGEBRA.multiply(B, x), y);
+    final DoubleMatrix1D normal = (DoubleMatrix1D) ALGEBRA.multiply(residual, B);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, normal.getEntry(i), EPS);
+    }
+  }
+
+  private void checkEquals(final DoubleMatrix2D x, final DoubleMatrix2D y) {
+    final int n = x.getNumberOfRows();
+    final int m = x.getNumberOfColumns();
+    assertEquals(n, y.getNumberOfRows());
+    assertEquals(m, y.getNumberOfColumns());
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        assertEquals(x.getEntry(i, j), y.getEntry(i, j), EPS);
+      }
+    }
+  }
+}
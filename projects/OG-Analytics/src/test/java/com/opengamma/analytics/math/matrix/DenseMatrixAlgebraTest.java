@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.apache.commons.lang.NotImplementedException;
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DenseMatrixAlgebraTest {
+  private static final MatrixAlgebra DENSE = MatrixAlgebraFactory.getMatrixAlgebra(MatrixAlgebraFactory.DENSE);
+  private static final MatrixAlgebra COMMONS = MatrixAlgebraFactory.COMMONS_ALGEBRA;
+  private static final MatrixAlgebra OG = MatrixAlgebraFactory.OG_ALGEBRA;
+  private static final DoubleMatrix2D A = new DoubleMatrix2D(new double[][] { {1., 2., 3. }, {-1., 1., 0. }, {-2., 1., -2. } });
+  private static final DoubleMatrix2D B = new DoubleMatrix2D(new double[][] { {1, 1 }, {2, -2 }, {3, 1 } });
+  private static final DoubleMatrix1D D = new DoubleMatrix1D(new double[] {1, -2, 3 });
+  private static final DoubleMatrix2D SINGULAR = new DoubleMatrix2D(new double[][] { {1, 2 }, {2, 4 } });
+  private static final double EPS = 1e-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNotSquareInverse() {
+    DENSE.getInverse(B);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testSingularInverse() {
+    DENSE.getInverse(SINGULAR);
+  }
+
+  @Test(expectedExceptions = NotImplementedException.class)
+  public void testCondition() {
+    DENSE.getCondition(A);
+  }
+
+  @Test(expectedExceptions = NotImplementedException.class)
+  public void testNorm2() {
+    DENSE.getNorm2(A);
+  }
+
+  @Test
+  public void testDeterminant() {
+    assertEquals(COMMONS.getDeterminant(A), DENSE.getDeterminant(A), EPS);
+    assertEquals(0, DENSE.getDeterminant(SINGULAR), EPS);
+  }
+
+  @Test
+  public void testInverse() {
+    checkEquals(COMMONS.getInverse(A), DENSE.getInverse(A));
+  }
+
+  @Test
+  public void testNorms() {
+    assertEquals(COMMONS.getNorm1(A), DENSE.getNorm1(A), EPS);
+    assertEquals(COMMONS.getNorm1(D), DENSE.getNorm1(D), EPS);
+    assertEquals(COMMONS.getNormInfinity(A), DENSE.getNormInfinity(A), EPS);
+    assertEquals(COMMONS.getNormInfinity(D), DENSE.getNormInfinity(D), EPS);
+  }
+
+  @Test
+  public void testPower() {
+    final DoubleMatrix2D a2 = (DoubleMatrix2D) OG.multiply(A, A);
+    final DoubleMatrix2D a5 = (DoubleMatrix2D) OG.multiply(a2, OG.multiply(a2, A));
+    checkEquals(a5, DENSE.getPower(A, 5));
+    checkEquals((DoubleMatrix2D) OG.multiply(DENSE.getInverse(A), DENSE.getInverse(A)), DENSE.getPower(A, -2));
+    checkEquals(DoubleMatrixUtils.getIdentityMatrix2D(3), DENSE.getPower(A, 0));
+  }
+
+  @Test
+  /**
+   * The products on DoubleMatrix2D are those of OGMatrixAlgebra; the products on FlatDoubleMatrix2D give the same numbers.
+   */
+  public void testMultiply() {
+    final DoubleMatrix2D ab = (DoubleMatrix2D) OG.multiply(A, B);
+    assertEquals(ab, DENSE.multiply(A, B));
+    final FlatDoubleMatrix2D abFlat = (FlatDoubleMatrix2D) DENSE.multiply(FlatDoubleMatrix2D.of(A), FlatDoubleMatrix2D.of(B));
+    assertEquals(ab, abFlat.toDoubleMatrix2D());
+    assertEquals(OG.multiply(A, D), DENSE.multiply(FlatDoubleMatrix2D.of(A), D));
+    assertEquals(OG.multiply(D, A), DENSE.multiply(D, A));
+  }
+
+  @Test
+  public void testFlatMatrix() {
+    final FlatDoubleMatrix2D flat = FlatDoubleMatrix2D.of(B);
+    assertEquals(3, flat.getNumberOfRows());
+    assertEquals(2, flat.getNumberOfColumns());
+    assertEquals(6, flat.getNumberOfElements());
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 2; j++) {
+        assertEquals(B.getEntry(i, j), flat.getEntry(i, j));
+        assertEquals(B.getEntry(i, j), flat.get(i, j), 0);
+      }
+    }
+    assertEquals(B, flat.toDoubleMatrix2D());
+    assertEquals(flat, new FlatDoubleMatrix2D(flat.getData(), 3, 2));
+    assertEquals(flat.hashCode(), new FlatDoubleMatrix2D(flat.getData(), 3, 2).hashCode());
+    final double[] data = new double[] {1, 2, 3, 4 };
+    FlatDoubleMatrix2D.wrap(data, 2, 2).set(1, 0, 5);
+    assertEquals(5, data[2], 0);
+  }
+
+  private void checkEquals(final DoubleMatrix2D x, final DoubleMatrix2D y) {
+    final int n = x.getNumberOfRows();
+    final int m = x.getNumberOfColumns();
+    assertEquals(n, y.getNumberOfRows());
+    assertEquals(m, y.getNumberOfColumns());
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        assertEquals(x.getEntry(i, j), y.getEntry(i, j), EPS);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.matrix;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+import cern.jet.random.engine.MersenneTwister;
+
+import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
+import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DenseMatrixKernelsTest {
+  private static final ProbabilityDistribution<Double> RANDOM = new NormalDistribution(0, 1, new MersenneTwister(MersenneTwister.DEFAULT_SEED));
+  private static final double EPS = 1e-10;
+
+  @Test
+  /**
+   * The blocked product accumulates in the same order as the naive loop, so the results are identical. The sizes are not multiples of the block size.
+   */
+  public void testMultiply() {
+    final int m = 150;
+    final int p = 130;
+    final int n = 70;
+    final double[] a = randomArray(m * p);
+    final double[] b = randomArray(p * n);
+    final double[] c = new double[m * n];
+    DenseMatrixKernels.multiply(a, b, c, m, p, n);
+    final double[][] c2 = new double[m][n];
+    DenseMatrixKernels.multiply(FlatDoubleMatrix2D.wrap(a, m, p).toDoubleMatrix2D().getData(), FlatDoubleMatrix2D.wrap(b, p, n).toDoubleMatrix2D().getData(), c2);
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < n; j++) {
+        double sum = 0.0;
+        for (int k = 0; k < p; k++) {
+          sum += a[i * p + k] * b[k * n + j];
+        }
+        assertEquals(sum, c[i * n + j], 0);
+        assertEquals(sum, c2[i][j], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testLU() {
+    final int n = 40;
+    final double[] a = randomArray(n * n);
+    final double[] b = randomArray(n * 3);
+    final double[] lu = a.clone();
+    final int[] pivot = new int[n];
+    DenseMatrixKernels.luDecompose(lu, n, pivot);
+    checkSolution(a, DenseMatrixKernels.luSolve(lu, n, pivot, b, 3), b, n, n, 3);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testLUSingular() {
+    final double[] lu = new double[] {1, 2, 2, 4 };
+    final int[] pivot = new int[2];
+    DenseMatrixKernels.luDecompose(lu, 2, pivot);
+    DenseMatrixKernels.luSolve(lu, 2, pivot, new double[] {1, 1 }, 1);
+  }
+
+  @Test
+  public void testCholesky() {
+    final int n = 40;
+    final double[] x = randomArray(n * n);
+    final double[] xT = FlatDoubleMatrix2D.of(DoubleMatrixUtils.getTranspose(FlatDoubleMatrix2D.wrap(x, n, n).toDoubleMatrix2D())).getData();
+    final double[] a = new double[n * n];
+    DenseMatrixKernels.multiply(xT, x, a, n, n, n);
+    for (int i = 0; i < n; i++) {
+      a[i * n + i] += n;
+    }
+    final double[] b = randomArray(n * 2);
+    final double[] l = a.clone();
+    DenseMatrixKernels.choleskyDecompose(l, n);
+    checkSolution(a, DenseMatrixKernels.choleskySolve(l, n, b, 2), b, n, n, 2);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testCholeskyNotPositive() {
+    DenseMatrixKernels.choleskyDecompose(new double[] {1, 2, 2, 1 }, 2);
+  }
+
+  @Test
+  /**
+   * The least squares solution satisfies the normal equations.
+   */
+  public void testQRLeastSquares() {
+    final int m = 60;
+    final int n = 5;
+    final double[] a = randomArray(m * n);
+    final double[] b = randomArray(m);
+    final double[] qr = a.clone();
+    final double[] rDiagonal = new double[n];
+    DenseMatrixKernels.qrDecompose(qr, m, n, rDiagonal);
+    final double[] x = DenseMatrixKernels.qrSolve(qr, m, n, rDiagonal, b, 1);
+    final double[] residual = new double[m];
+    DenseMatrixKernels.multiply(a, x, residual, m, n, 1);
+    for (int i = 0; i < m; i++) {
+      residual[i] -= b[i];
+    }
+    for (int j = 0; j < n; j++) {
+      double sum = 0.0;
+      for (int i = 0; i < m; i++) {
+        sum += a[i * n + j] * residual[i];
+      }
+      assertEquals(0, sum, EPS);
+    }
+  }
+
+  private static double[] randomArray(final int size) {
+    final double[] res = new double[size];
+    for (int i = 0; i < size; i++) {
+      res[i] = RANDOM.nextRandom();
+    }
+    return res;
+  }
+
+  private static void checkSolution(final double[] a, final double[] x, final double[] b, final int m, final int n, final int nbColumn) {
+    final double[] ax = new double[m * nbColumn];
+    DenseMatrixKernels.multiply(a, x, ax, m, n, nbColumn);
+    for (int i = 0; i < m * nbColumn; i++) {
+      assertEquals(b[i], ax[i], EPS);
+    }
+  }
+
+}
@@ -103,5 +103,7 @@ public class MatrixAlgebraFactoryTest {
     assertEquals(MatrixAlgebraFactory.getMatrixAlgebraName(MatrixAlgebraFactory.COLT_ALGEBRA), MatrixAlgebraFactory.COLT);
     assertEquals(MatrixAlgebraFactory.getMatrixAlgebraName(MatrixAlgebraFactory.COMMONS_ALGEBRA), MatrixAlgebraFactory.COMMONS);
     assertEquals(MatrixAlgebraFactory.getMatrixAlgebraName(MatrixAlgebraFactory.OG_ALGEBRA), MatrixAlgebraFactory.OG);
+    assertEquals(MatrixAlgebraFactory.getMatrixAlgebra(MatrixAlgebraFactory.DENSE), MatrixAlgebraFactory.DENSE_ALGEBRA);
+    assertEquals(MatrixAlgebraFactory.getMatrixAlgebraName(MatrixAlgebraFactory.DENSE_ALGEBRA), MatrixAlgebraFactory.DENSE);
   }
 }
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class BrownianBridgeTest {
+  private static final double TOLERANCE = 1.0E-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testEmpty() {
+    new BrownianBridge(new double[0]);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testDecreasing() {
+    new BrownianBridge(new double[] {1.0, 0.5 });
+  }
+
+  @Test
+  /**
+   * The paths are linear in the normal variables; constructing from unit vectors gives the square root of the covariance matrix, which must be that of a Brownian motion.
+   */
+  public void testCovariance() {
+    final double[][] times = { {1.0 }, {0.5, 1.0 }, {0.0, 0.0, 0.3, 0.7, 0.7, 1.2, 2.0 }, {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0, 1.1, 1.2, 1.3, 1.4, 1.5, 1.6, 1.7 } };
+    for (final double[] t : times) {
+      final int n = t.length;
+      final double[][] z = new double[n][n];
+      for (int i = 0; i < n; i++) {
+        z[i][i] = 1.0;
+      }
+      final double[][] w = new double[n][n];
+      final BrownianBridge bridge = new BrownianBridge(t);
+      assertEquals(n, bridge.getNbTimes());
+      bridge.construct(z, w);
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          double cov = 0;
+          for (int k = 0; k < n; k++) {
+            cov += w[i][k] * w[j][k];
+          }
+          assertEquals(Math.min(t[i], t[j]), cov, TOLERANCE);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTerminal() {
+    final double[] t = {0.25, 0.5, 0.75, 1.0 };
+    final double[][] z = { {2.0 }, {0.0 }, {0.0 }, {0.0 } };
+    final double[][] w = new double[4][1];
+    new BrownianBridge(t).construct(z, w);
+    for (int i = 0; i < t.length; i++) {
+      assertEquals(2.0 * t[i], w[i][0], TOLERANCE);
+    }
+  }
+
+}
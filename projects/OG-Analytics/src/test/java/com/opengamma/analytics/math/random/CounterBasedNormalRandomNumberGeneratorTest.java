@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class CounterBasedNormalRandomNumberGeneratorTest {
+  private static final CounterBasedNormalRandomNumberGenerator GENERATOR = new CounterBasedNormalRandomNumberGenerator(12345L);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadDimension() {
+    GENERATOR.getVectors(-1, 4);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadN() {
+    GENERATOR.getVectors(1, -5);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testFillBufferTooSmall() {
+    GENERATOR.fill(0, 0, new double[10], 5, 6);
+  }
+
+  @Test
+  public void test() {
+    final List<double[]> result = new CounterBasedNormalRandomNumberGenerator(1L).getVectors(10, 50);
+    assertEquals(result.size(), 50);
+    for (final double[] d : result) {
+      assertEquals(d.length, 10);
+    }
+  }
+
+  @Test
+  public void testReproducible() {
+    final CounterBasedNormalRandomNumberGenerator other = new CounterBasedNormalRandomNumberGenerator(12345L);
+    assertEquals(GENERATOR.getNormal(7, 3), other.getNormal(7, 3), 0);
+    assertTrue(GENERATOR.getNormal(7, 3) != GENERATOR.getNormal(3, 7));
+    assertTrue(GENERATOR.getNormal(7, 3) != new CounterBasedNormalRandomNumberGenerator(54321L).getNormal(7, 3));
+  }
+
+  @Test
+  public void testFill() {
+    final double[] buffer = new double[12];
+    GENERATOR.fill(100, 2, buffer, 2, 10);
+    assertEquals(buffer[0], 0, 0);
+    assertEquals(buffer[1], 0, 0);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(buffer[i + 2], GENERATOR.getNormal(100 + i, 2), 0);
+    }
+  }
+
+  @Test
+  public void testMoments() {
+    final int n = 100000;
+    double sum = 0;
+    double sum2 = 0;
+    for (int i = 0; i < n; i++) {
+      final double x = GENERATOR.getNormal(i, 0);
+      sum += x;
+      sum2 += x * x;
+    }
+    assertEquals(0, sum / n, 0.01);
+    assertEquals(1, sum2 / n, 0.01);
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Test.
+ */
+@Test(groups = TestGroup.UNIT)
+public class SobolNormalRandomNumberGeneratorTest {
+  private static final SobolNormalRandomNumberGenerator GENERATOR = new SobolNormalRandomNumberGenerator();
+  private static final double TOLERANCE = 1.0E-9;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadDimension() {
+    GENERATOR.getVectors(-1, 4);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadUniformDimension() {
+    GENERATOR.getUniform(0, SobolNormalRandomNumberGenerator.MAX_DIMENSION);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadPath() {
+    GENERATOR.getUniform(-1, 0);
+  }
+
+  @Test
+  /**
+   * Tests the first points against the Joe and Kuo sequence (without the origin).
+   */
+  public void testSequence() {
+    final double[][] expected = { {0.5, 0.75, 0.25, 0.375, 0.875, 0.625, 0.125 }, {0.5, 0.25, 0.75, 0.375, 0.875, 0.125, 0.625 },
+      {0.5, 0.25, 0.75, 0.625, 0.125, 0.875, 0.375 } };
+    for (int loopdim = 0; loopdim < expected.length; loopdim++) {
+      for (int looppath = 0; looppath < expected[loopdim].length; looppath++) {
+        assertEquals(expected[loopdim][looppath], GENERATOR.getUniform(looppath, loopdim), TOLERANCE);
+      }
+    }
+  }
+
+  @Test
+  public void testFill() {
+    final double[] buffer = new double[1001];
+    for (final int dimension : new int[] {0, 7, SobolNormalRandomNumberGenerator.MAX_DIMENSION - 1, SobolNormalRandomNumberGenerator.MAX_DIMENSION + 3 }) {
+      GENERATOR.fill(123, dimension, buffer, 1, 1000);
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(GENERATOR.getNormal(123 + i, dimension), buffer[i + 1], 0);
+      }
+    }
+  }
+
+  @Test
+  /**
+   * The first 2^k points of the sequence (with the origin) are stratified in each dimension.
+   */
+  public void testStratification() {
+    final int nbCell = 64;
+    for (int loopdim = 0; loopdim < SobolNormalRandomNumberGenerator.MAX_DIMENSION; loopdim++) {
+      final int[] count = new int[nbCell];
+      count[0]++;
+      for (int looppath = 0; looppath < 1023; looppath++) {
+        count[(int) (GENERATOR.getUniform(looppath, loopdim) * nbCell)]++;
+      }
+      for (int loopcell = 0; loopcell < nbCell; loopcell++) {
+        assertEquals(1024 / nbCell, count[loopcell]);
+      }
+    }
+  }
+
+  @Test
+  public void testShift() {
+    final SobolNormalRandomNumberGenerator shifted = new SobolNormalRandomNumberGenerator(42L);
+    assertEquals(shifted.getNormal(17, 3), new SobolNormalRandomNumberGenerator(42L).getNormal(17, 3), 0);
+    assertTrue(shifted.getNormal(17, 3) != GENERATOR.getNormal(17, 3));
+    final int nbCell = 16;
+    final int[] count = new int[nbCell];
+    for (int looppath = 0; looppath < 1023; looppath++) {
+      final double u = shifted.getUniform(looppath, 3);
+      assertTrue(u > 0 && u < 1);
+      count[(int) (u * nbCell)]++;
+    }
+    for (int loopcell = 0; loopcell < nbCell; loopcell++) {
+      assertTrue(count[loopcell] >= 1024 / nbCell - 1);
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.analytics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Period;
+import org.threeten.bp.ZonedDateTime;
+
+import cern.jet.random.engine.MersenneTwister64;
+
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor;
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swaption.SwaptionPhysicalFixedIborDefinition;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
+import com.opengamma.analytics.financial.interestrate.swaption.provider.SwaptionPhysicalFixedIborHullWhiteMethod;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
+import com.opengamma.analytics.financial.model.interestrate.definition.HullWhiteOneFactorPiecewiseConstantParameters;
+import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
+import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderDiscount;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
+import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.SobolNormalRandomNumberGenerator;
+import com.opengamma.financial.convention.businessday.BusinessDayConventions;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.MondayToFridayCalendar;
+import com.opengamma.financial.convention.daycount.DayCounts;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.time.DateUtils;
+
+/**
+ * Benchmarks the convergence of the Hull-White Monte Carlo pricing of a 5Yx5Y physical swaption with pseudo-random and Sobol numbers.
+ * <p>
+ * Each invocation prices with a new seed (a new digital shift for Sobol) and the root mean square error against the explicit formula is logged at the end of the trial, so the time
+ * and the error of the two generators can be compared at each number of paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MonteCarloConvergenceBenchmark {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(MonteCarloConvergenceBenchmark.class);
+
+  private static final Calendar CALENDAR = new MondayToFridayCalendar("EUR");
+  private static final Currency EUR = Currency.EUR;
+  private static final IborIndex EURIBOR6M = new IborIndex(EUR, Period.ofMonths(6), 2, DayCounts.ACT_360, BusinessDayConventions.MODIFIED_FOLLOWING, true, "EURIBOR6M");
+  private static final GeneratorSwapFixedIbor EUR1YEURIBOR6M = new GeneratorSwapFixedIbor("EUR1YEURIBOR6M", Period.ofMonths(12), DayCounts.THIRTY_U_360, EURIBOR6M, CALENDAR);
+  private static final ZonedDateTime REFERENCE_DATE = DateUtils.getUTCDate(2011, 7, 7);
+  private static final ZonedDateTime EXPIRY_DATE = DateUtils.getUTCDate(2016, 7, 7);
+  private static final double NOTIONAL = 100000000;
+  private static final double RATE = 0.0175;
+  private static final HullWhiteOneFactorPiecewiseConstantParameters HW_PARAMETERS = new HullWhiteOneFactorPiecewiseConstantParameters(0.01, new double[] {0.01, 0.011, 0.012, 0.013,
+    0.014 }, new double[] {0.5, 1.0, 2.0, 5.0 });
+
+  /**
+   * The number generator, "pseudo" or "sobol".
+   */
+  @Param({"pseudo", "sobol" })
+  private String _generator;
+  /**
+   * The number of paths.
+   */
+  @Param({"1000", "10000", "100000" })
+  private int _nbPath;
+
+  private HullWhiteOneFactorProviderDiscount _hwData;
+  private SwaptionPhysicalFixedIbor _swaption;
+  private double _explicit;
+  private long _seed;
+  private double _squaredError;
+
+  @Setup
+  public void setup() {
+    final MulticurveProviderDiscount multicurves = new MulticurveProviderDiscount();
+    multicurves.setCurve(EUR, YieldCurve.from(ConstantDoublesCurve.from(0.015, "EUR Dsc")));
+    multicurves.setCurve(EURIBOR6M, YieldCurve.from(ConstantDoublesCurve.from(0.0175, "EUR EURIBOR 6M")));
+    _hwData = new HullWhiteOneFactorProviderDiscount(multicurves, HW_PARAMETERS, EUR);
+    final ZonedDateTime settlementDate = ScheduleCalculator.getAdjustedDate(EXPIRY_DATE, EURIBOR6M.getSpotLag(), CALENDAR);
+    final SwapFixedIborDefinition swap = SwapFixedIborDefinition.from(settlementDate, Period.ofYears(5), EUR1YEURIBOR6M, NOTIONAL, RATE, true);
+    _swaption = SwaptionPhysicalFixedIborDefinition.from(EXPIRY_DATE, swap, true, true).toDerivative(REFERENCE_DATE);
+    _explicit = SwaptionPhysicalFixedIborHullWhiteMethod.getInstance().presentValue(_swaption, _hwData).getAmount(EUR);
+    _seed = 0;
+    _squaredError = 0;
+  }
+
+  @TearDown
+  public void tearDown() {
+    s_logger.info("{} generator, {} paths: RMS error {} over {} prices", _generator, _nbPath, Math.sqrt(_squaredError / _seed), _seed);
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public double presentValue() {
+    final RandomNumberGenerator generator;
+    if ("sobol".equals(_generator)) {
+      generator = new SobolNormalRandomNumberGenerator(++_seed);
+    } else {
+      generator = new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister64((int) ++_seed));
+    }
+    final double pv = new HullWhiteMonteCarloMethod(generator, _nbPath).presentValue(_swaption, EUR, _hwData).getAmount(EUR);
+    _squaredError += (pv - _explicit) * (pv - _explicit);
+    return pv;
+  }
+
+}
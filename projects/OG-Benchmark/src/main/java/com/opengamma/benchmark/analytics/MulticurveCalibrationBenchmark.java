@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.Period;
+import org.threeten.bp.ZonedDateTime;
+
+import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorCurveYieldInterpolated;
+import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorYDCurve;
+import com.opengamma.analytics.financial.forex.method.FXMatrix;
+import com.opengamma.analytics.financial.instrument.InstrumentDefinition;
+import com.opengamma.analytics.financial.instrument.cash.CashDefinition;
+import com.opengamma.analytics.financial.instrument.index.GeneratorAttributeIR;
+import com.opengamma.analytics.financial.instrument.index.GeneratorDepositIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorDepositON;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedON;
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedONDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.provider.calculator.discounting.ParSpreadMarketQuoteCurveSensitivityDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.discounting.ParSpreadMarketQuoteDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.generic.LastTimeCalculator;
+import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlockBundle;
+import com.opengamma.analytics.financial.provider.curve.MultiCurveBundle;
+import com.opengamma.analytics.financial.provider.curve.SingleCurveBundle;
+import com.opengamma.analytics.financial.provider.curve.multicurve.MulticurveDiscountBuildingCache;
+import com.opengamma.analytics.financial.provider.curve.multicurve.MulticurveDiscountBuildingRepository;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.math.interpolation.CombinedInterpolatorExtrapolatorFactory;
+import com.opengamma.analytics.math.interpolation.Interpolator1D;
+import com.opengamma.analytics.math.interpolation.Interpolator1DFactory;
+import com.opengamma.financial.convention.businessday.BusinessDayConventions;
+import com.opengamma.financial.convention.calendar.Calendar;
+import com.opengamma.financial.convention.calendar.MondayToFridayCalendar;
+import com.opengamma.financial.convention.daycount.DayCounts;
+import com.opengamma.timeseries.precise.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
+import com.opengamma.timeseries.precise.zdt.ZonedDateTimeDoubleTimeSeries;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.time.DateUtils;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Benchmarks calibration of a USD discounting (OIS) and 3M Libor forward curve pair with {@link MulticurveDiscountBuildingRepository}.
+ * <p>
+ * The curves are either calibrated as two sequential units, discounting first, or simultaneously as a single unit. Each calibration alternates between
+ * the quotes and the quotes shifted by 0.1bp, from the generators starting points (cold), from the previous calibration (warm) or skipping the units
+ * whose quotes moved by less than 1bp (unchanged).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MulticurveCalibrationBenchmark {
+
+  private static final Interpolator1D INTERPOLATOR_LINEAR = CombinedInterpolatorExtrapolatorFactory.getInterpolator(Interpolator1DFactory.LINEAR,
+      Interpolator1DFactory.FLAT_EXTRAPOLATOR, Interpolator1DFactory.FLAT_EXTRAPOLATOR);
+  private static final double TOLERANCE_ROOT = 1.0E-10;
+  private static final int STEP_MAX = 100;
+
+  private static final Calendar NYC = new MondayToFridayCalendar("NYC");
+  private static final Currency USD = Currency.USD;
+  private static final IndexON FED_FUND = new IndexON("FED FUND", USD, DayCounts.ACT_360, 1);
+  private static final IborIndex USDLIBOR3M = new IborIndex(USD, Period.ofMonths(3), 2, DayCounts.ACT_360, BusinessDayConventions.MODIFIED_FOLLOWING, true,
+      "USDLIBOR3M");
+  private static final GeneratorSwapFixedON GENERATOR_OIS_USD = new GeneratorSwapFixedON("USD1YFEDFUND", FED_FUND, Period.ofMonths(12), DayCounts.ACT_360,
+      BusinessDayConventions.MODIFIED_FOLLOWING, true, 2, 2, NYC);
+  private static final GeneratorDepositON GENERATOR_DEPOSIT_ON_USD = new GeneratorDepositON("USD Deposit ON", USD, NYC, FED_FUND.getDayCount());
+  private static final GeneratorSwapFixedIbor USD6MLIBOR3M = new GeneratorSwapFixedIbor("USD6MLIBOR3M", Period.ofMonths(6), DayCounts.THIRTY_U_360, USDLIBOR3M, NYC);
+  private static final GeneratorDepositIbor GENERATOR_USDLIBOR3M = new GeneratorDepositIbor("GENERATOR_USDLIBOR3M", USDLIBOR3M, NYC);
+
+  private static final ZonedDateTime NOW = DateUtils.getUTCDate(2011, 9, 28);
+  private static final ZonedDateTimeDoubleTimeSeries TS_EMPTY = ImmutableZonedDateTimeDoubleTimeSeries.ofEmptyUTC();
+  private static final ZonedDateTimeDoubleTimeSeries TS_ON_USD = ImmutableZonedDateTimeDoubleTimeSeries.ofUTC(new ZonedDateTime[] {DateUtils.getUTCDate(2011, 9, 27),
+    DateUtils.getUTCDate(2011, 9, 28) }, new double[] {0.07, 0.08 });
+  private static final ZonedDateTimeDoubleTimeSeries TS_IBOR_USD3M = ImmutableZonedDateTimeDoubleTimeSeries.ofUTC(new ZonedDateTime[] {DateUtils.getUTCDate(2011, 9, 27) },
+      new double[] {0.0035 });
+
+  private static final String CURVE_NAME_DSC_USD = "USD Dsc";
+  private static final String CURVE_NAME_FWD3_USD = "USD Fwd 3M";
+
+  private static final double[] DSC_USD_MARKET_QUOTES = new double[] {0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400, 0.0400 };
+  private static final Period[] DSC_USD_TENOR = new Period[] {Period.ofDays(0), Period.ofMonths(1), Period.ofMonths(2), Period.ofMonths(3), Period.ofMonths(6),
+    Period.ofMonths(9), Period.ofYears(1), Period.ofYears(2), Period.ofYears(3), Period.ofYears(4), Period.ofYears(5), Period.ofYears(10) };
+  private static final double[] FWD3_USD_MARKET_QUOTES = new double[] {0.0420, 0.0420, 0.0420, 0.0430, 0.0470, 0.0540, 0.0570, 0.0600 };
+  private static final Period[] FWD3_USD_TENOR = new Period[] {Period.ofMonths(0), Period.ofMonths(6), Period.ofYears(1), Period.ofYears(2), Period.ofYears(3),
+    Period.ofYears(5), Period.ofYears(7), Period.ofYears(10) };
+
+  /** The shift of the quotes between two calibrations, 0.1bp */
+  private static final double SHIFT = 1.0E-5;
+
+  private static final ParSpreadMarketQuoteDiscountingCalculator PSMQC = ParSpreadMarketQuoteDiscountingCalculator.getInstance();
+  private static final ParSpreadMarketQuoteCurveSensitivityDiscountingCalculator PSMQCSC = ParSpreadMarketQuoteCurveSensitivityDiscountingCalculator.getInstance();
+
+  /**
+   * The arrangement of the curves into calibration units.
+   */
+  @Param({"sequential", "simultaneous" })
+  private String _layout;
+  /**
+   * The starting point of the calibration.
+   */
+  @Param({"cold", "warm", "unchanged" })
+  private String _start;
+
+  private MulticurveDiscountBuildingRepository _repository;
+  private MultiCurveBundle<GeneratorYDCurve>[][] _curveBundles;
+  private MulticurveDiscountBuildingCache _cache;
+  private int _count;
+  private MulticurveProviderDiscount _knownData;
+  private LinkedHashMap<String, Currency> _dscMap;
+  private LinkedHashMap<String, IndexON[]> _fwdOnMap;
+  private LinkedHashMap<String, IborIndex[]> _fwdIborMap;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setup() {
+    _repository = new MulticurveDiscountBuildingRepository(TOLERANCE_ROOT, TOLERANCE_ROOT, STEP_MAX);
+    _knownData = new MulticurveProviderDiscount(new FXMatrix(USD));
+    _dscMap = new LinkedHashMap<>();
+    _dscMap.put(CURVE_NAME_DSC_USD, USD);
+    _fwdOnMap = new LinkedHashMap<>();
+    _fwdOnMap.put(CURVE_NAME_DSC_USD, new IndexON[] {FED_FUND });
+    _fwdIborMap = new LinkedHashMap<>();
+    _fwdIborMap.put(CURVE_NAME_FWD3_USD, new IborIndex[] {USDLIBOR3M });
+    final GeneratorYDCurve generator = new GeneratorCurveYieldInterpolated(LastTimeCalculator.getInstance(), INTERPOLATOR_LINEAR);
+    _curveBundles = new MultiCurveBundle[2][];
+    for (int i = 0; i < 2; i++) {
+      final SingleCurveBundle<GeneratorYDCurve> dsc = createCurve(CURVE_NAME_DSC_USD, generator, DSC_USD_MARKET_QUOTES, DSC_USD_TENOR, i * SHIFT, true);
+      final SingleCurveBundle<GeneratorYDCurve> fwd = createCurve(CURVE_NAME_FWD3_USD, generator, FWD3_USD_MARKET_QUOTES, FWD3_USD_TENOR, i * SHIFT, false);
+      if ("simultaneous".equals(_layout)) {
+        _curveBundles[i] = new MultiCurveBundle[] {new MultiCurveBundle<>(new SingleCurveBundle[] {dsc, fwd }) };
+      } else {
+        _curveBundles[i] = new MultiCurveBundle[] {new MultiCurveBundle<>(new SingleCurveBundle[] {dsc }), new MultiCurveBundle<>(new SingleCurveBundle[] {fwd }) };
+      }
+    }
+    if ("warm".equals(_start)) {
+      _cache = new MulticurveDiscountBuildingCache(0.0);
+    } else if ("unchanged".equals(_start)) {
+      _cache = new MulticurveDiscountBuildingCache(1.0E-4);
+    } else {
+      _cache = null;
+    }
+    _count = 0;
+  }
+
+  private static SingleCurveBundle<GeneratorYDCurve> createCurve(final String name, final GeneratorYDCurve generator, final double[] quotes, final Period[] tenors,
+      final double shift, final boolean discounting) {
+    final int n = quotes.length;
+    final InstrumentDerivative[] derivatives = new InstrumentDerivative[n];
+    final double[] initialGuess = new double[n];
+    for (int i = 0; i < n; i++) {
+      final GeneratorAttributeIR attribute = new GeneratorAttributeIR(tenors[i]);
+      final double quote = quotes[i] + shift;
+      final InstrumentDefinition<?> definition;
+      if (i == 0) {
+        definition = discounting ? GENERATOR_DEPOSIT_ON_USD.generateInstrument(NOW, quote, 1.0, attribute) : GENERATOR_USDLIBOR3M.generateInstrument(NOW, quote,
+            1.0, attribute);
+        initialGuess[i] = ((CashDefinition) definition).getRate();
+        derivatives[i] = definition.toDerivative(NOW);
+      } else if (discounting) {
+        final SwapFixedONDefinition swap = GENERATOR_OIS_USD.generateInstrument(NOW, quote, 1.0, attribute);
+        initialGuess[i] = swap.getFixedLeg().getNthPayment(0).getRate();
+        derivatives[i] = swap.toDerivative(NOW, new ZonedDateTimeDoubleTimeSeries[] {TS_EMPTY, TS_ON_USD });
+      } else {
+        final SwapFixedIborDefinition swap = USD6MLIBOR3M.generateInstrument(NOW, quote, 1.0, attribute);
+        initialGuess[i] = swap.getFixedLeg().getNthPayment(0).getRate();
+        derivatives[i] = swap.toDerivative(NOW, new ZonedDateTimeDoubleTimeSeries[] {TS_IBOR_USD3M });
+      }
+    }
+    return new SingleCurveBundle<>(name, derivatives, initialGuess, generator.finalGenerator(derivatives));
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> calibrate() {
+    _count = 1 - _count;
+    return _repository.makeCurvesFromDerivatives(_curveBundles[_count], _knownData, new CurveBuildingBlockBundle(), _dscMap, _fwdIborMap, _fwdOnMap, PSMQC, PSMQCSC,
+        _cache);
+  }
+
+}
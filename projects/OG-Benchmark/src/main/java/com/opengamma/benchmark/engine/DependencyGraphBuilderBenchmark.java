@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.MapComputationTargetResolver;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphBuilder;
+import com.opengamma.engine.function.CachingFunctionRepositoryCompiler;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.InMemoryFunctionRepository;
+import com.opengamma.engine.function.resolver.CompiledFunctionResolver;
+import com.opengamma.engine.function.resolver.DefaultFunctionResolver;
+import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityProvider;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * Benchmarks construction of a dependency graph for a {@link SyntheticPortfolio} with {@link DependencyGraphBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DependencyGraphBuilderBenchmark {
+
+  /**
+   * The number of positions in the portfolio.
+   */
+  @Param({"1000", "10000" })
+  private int _positions;
+
+  /**
+   * The number of additional threads the builder may use.
+   */
+  @Param({"0", "3" })
+  private int _additionalThreads;
+
+  private CompiledFunctionService _functions;
+  private FunctionCompilationContext _context;
+  private CompiledFunctionResolver _resolver;
+  private MarketDataAvailabilityProvider _marketData;
+  private List<ValueRequirement> _requirements;
+
+  @Setup
+  public void setup() {
+    final SyntheticPortfolio portfolio = new SyntheticPortfolio(_positions);
+    final InMemoryFunctionRepository repository = new InMemoryFunctionRepository();
+    repository.addFunction(new SyntheticPortfolio.ValueFunction());
+    repository.addFunction(new SyntheticPortfolio.CurveFunction());
+    final Instant now = Instant.now();
+    _context = new FunctionCompilationContext();
+    final MapComputationTargetResolver targetResolver = new MapComputationTargetResolver();
+    _context.setRawComputationTargetResolver(targetResolver);
+    _context.setComputationTargetResolver(targetResolver.atVersionCorrection(VersionCorrection.of(now, now)));
+    _functions = new CompiledFunctionService(repository, new CachingFunctionRepositoryCompiler(), _context);
+    _functions.initialize();
+    _resolver = new DefaultFunctionResolver(_functions).compile(now);
+    _marketData = portfolio.createMarketDataAvailabilityProvider();
+    _requirements = portfolio.getRequirements();
+  }
+
+  @TearDown
+  public void tearDown() {
+    _functions.stop();
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public DependencyGraph buildGraph() {
+    final DependencyGraphBuilder builder = new DependencyGraphBuilder();
+    builder.setCalculationConfigurationName("Default");
+    builder.setMarketDataAvailabilityProvider(_marketData);
+    builder.setCompilationContext(_context);
+    builder.setFunctionResolver(_resolver);
+    builder.setMaxAdditionalThreads(_additionalThreads);
+    builder.addTarget(_requirements);
+    return builder.getDependencyGraph();
+  }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.CachingIdentifierMap;
+import com.opengamma.engine.cache.ConcurrentIdentifierMap;
+import com.opengamma.engine.cache.IdentifierMap;
+import com.opengamma.engine.cache.InMemoryIdentifierMap;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Benchmarks the {@link IdentifierMap} implementations.
+ * <p>
+ * The lookups are shared between threads to show contention on a calculation node resolving the inputs of several concurrent jobs. The allocation benchmark assigns identifiers to a fresh batch of
+ * specifications, as happens when a newly compiled graph is first executed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(4)
+public class IdentifierMapBenchmark {
+
+  /**
+   * The implementation to test.
+   */
+  @Param({"InMemory", "Caching", "Concurrent" })
+  private String _implementation;
+
+  /**
+   * The number of specifications in each bulk operation.
+   */
+  @Param({"10", "5000" })
+  private int _batchSize;
+
+  private IdentifierMap _map;
+  private List<ValueSpecification> _specifications;
+  private ValueSpecification _single;
+
+  private IdentifierMap createMap() {
+    switch (_implementation) {
+      case "InMemory":
+        return new InMemoryIdentifierMap();
+      case "Caching":
+        return new CachingIdentifierMap(new InMemoryIdentifierMap());
+      case "Concurrent":
+        return new ConcurrentIdentifierMap();
+      default:
+        throw new IllegalArgumentException(_implementation);
+    }
+  }
+
+  private static List<ValueSpecification> createSpecifications(final String prefix, final int count) {
+    final List<ValueSpecification> specifications = new ArrayList<ValueSpecification>(count);
+    final ValueProperties properties = ValueProperties.with(ValuePropertyNames.FUNCTION, "Benchmark").get();
+    for (int i = 0; i < count; i++) {
+      specifications.add(new ValueSpecification("Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Benchmark", prefix + i)), properties));
+    }
+    return specifications;
+  }
+
+  @Setup
+  public void setup() {
+    _map = createMap();
+    _specifications = createSpecifications("Existing", _batchSize);
+    _single = _specifications.get(0);
+    _map.getIdentifiers(_specifications);
+  }
+
+  /**
+   * Per-thread state for the allocation benchmark.
+   */
+  @State(Scope.Thread)
+  public static class Allocation {
+
+    private List<ValueSpecification> _fresh;
+
+    @Setup
+    public void setup(final IdentifierMapBenchmark benchmark) {
+      _fresh = createSpecifications("Fresh", benchmark._batchSize);
+    }
+
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public long getIdentifier() {
+    return _map.getIdentifier(_single);
+  }
+
+  @Benchmark
+  public Object2LongMap<ValueSpecification> getIdentifiers() {
+    return _map.getIdentifiers(_specifications);
+  }
+
+  @Benchmark
+  public Object2LongMap<ValueSpecification> allocateIdentifiers(final Allocation allocation) {
+    return createMap().getIdentifiers(allocation._fresh);
+  }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.MapComputationTargetResolver;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphBuilder;
+import com.opengamma.engine.depgraph.DependencyGraphBuilderFactory;
+import com.opengamma.engine.depgraph.RunQueueFactory;
+import com.opengamma.engine.function.CachingFunctionRepositoryCompiler;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.InMemoryFunctionRepository;
+import com.opengamma.engine.function.resolver.CompiledFunctionResolver;
+import com.opengamma.engine.function.resolver.DefaultFunctionResolver;
+import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityProvider;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * Benchmarks how construction of a dependency graph for a very large {@link SyntheticPortfolio} scales with the number of graph building threads and the {@link RunQueueFactory} used.
+ * <p>
+ * Each build is a single shot as a graph for a million requirements takes seconds rather than milliseconds. Run with a heap of several gigabytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelDependencyGraphBuilderBenchmark {
+
+  /**
+   * The number of positions in the portfolio, each giving one terminal requirement.
+   */
+  @Param({"1000000" })
+  private int _positions;
+
+  /**
+   * The run queue implementation.
+   */
+  @Param({"ConcurrentLinkedQueue", "ConcurrentStack", "WorkStealing" })
+  private String _runQueue;
+
+  /**
+   * The number of additional threads the builder may use.
+   */
+  @Param({"3", "15", "63" })
+  private int _additionalThreads;
+
+  private DependencyGraphBuilderFactory _builderFactory;
+  private CompiledFunctionService _functions;
+  private FunctionCompilationContext _context;
+  private CompiledFunctionResolver _resolver;
+  private MarketDataAvailabilityProvider _marketData;
+  private List<ValueRequirement> _requirements;
+
+  private RunQueueFactory createRunQueueFactory() {
+    switch (_runQueue) {
+      case "ConcurrentLinkedQueue":
+        return RunQueueFactory.getConcurrentLinkedQueue();
+      case "ConcurrentStack":
+        return RunQueueFactory.getConcurrentStack();
+      case "WorkStealing":
+        return RunQueueFactory.getWorkStealing();
+      default:
+        throw new IllegalArgumentException(_runQueue);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    final SyntheticPortfolio portfolio = new SyntheticPortfolio(_positions);
+    final InMemoryFunctionRepository repository = new InMemoryFunctionRepository();
+    repository.addFunction(new SyntheticPortfolio.ValueFunction());
+    repository.addFunction(new SyntheticPortfolio.CurveFunction());
+    final Instant now = Instant.now();
+    _context = new FunctionCompilationContext();
+    final MapComputationTargetResolver targetResolver = new MapComputationTargetResolver();
+    _context.setRawComputationTargetResolver(targetResolver);
+    _context.setComputationTargetResolver(targetResolver.atVersionCorrection(VersionCorrection.of(now, now)));
+    _functions = new CompiledFunctionService(repository, new CachingFunctionRepositoryCompiler(), _context);
+    _functions.initialize();
+    _resolver = new DefaultFunctionResolver(_functions).compile(now);
+    _marketData = portfolio.createMarketDataAvailabilityProvider();
+    _requirements = portfolio.getRequirements();
+    _builderFactory = new DependencyGraphBuilderFactory();
+    _builderFactory.setRunQueueFactory(createRunQueueFactory());
+    _builderFactory.setMaxAdditionalThreads(_additionalThreads);
+    _builderFactory.setMaxAdditionalThreadsPerBuilder(_additionalThreads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _functions.stop();
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public DependencyGraph buildGraph() {
+    final DependencyGraphBuilder builder = _builderFactory.newInstance();
+    builder.setCalculationConfigurationName("Default");
+    builder.setMarketDataAvailabilityProvider(_marketData);
+    builder.setCompilationContext(_context);
+    builder.setFunctionResolver(_resolver);
+    builder.addTarget(_requirements);
+    return builder.getDependencyGraph();
+  }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.CacheSelectHint;
+import com.opengamma.engine.cache.ViewComputationCache;
+import com.opengamma.engine.calcnode.CalculationJob;
+import com.opengamma.engine.calcnode.CalculationJobItem;
+import com.opengamma.engine.calcnode.CalculationJobResult;
+import com.opengamma.engine.calcnode.CalculationJobSpecification;
+import com.opengamma.engine.calcnode.SimpleCalculationNode;
+import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.function.InMemoryFunctionRepository;
+import com.opengamma.engine.test.TestCalculationNode;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ExecutionLogMode;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * Benchmarks execution of a calculation job on a {@link SimpleCalculationNode}.
+ * <p>
+ * The job contains one item per position of a {@link SyntheticPortfolio}, each reading its market data and the shared curve from the cache
+ * and writing a single output. This measures the per-item overhead of the node; target resolution, input gathering, invocation and cache writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SimpleCalculationNodeBenchmark {
+
+  /**
+   * The number of items in the job.
+   */
+  @Param({"10", "1000" })
+  private int _jobItems;
+
+  private TestCalculationNode _node;
+  private CalculationJob _job;
+
+  @Setup
+  public void setup() {
+    _node = new TestCalculationNode();
+    final SyntheticPortfolio.ValueFunction function = new SyntheticPortfolio.ValueFunction();
+    final InMemoryFunctionRepository functionRepo = (InMemoryFunctionRepository) _node.getFunctionCompilationService().getFunctionRepositoryFactory()
+        .constructRepository(Instant.now());
+    functionRepo.addFunction(function);
+    _node.getFunctionCompilationService().initialize();
+    final CalculationJobSpecification jobSpec = new CalculationJobSpecification(UniqueId.of("Benchmark", "ViewProcess"), "Default", Instant.now(), 1L);
+    final ViewComputationCache cache = _node.getCache(jobSpec);
+    final ValueSpecification curve = new ValueSpecification(SyntheticPortfolio.CURVE, SyntheticPortfolio.getCurveTarget(),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Curve").get());
+    cache.putSharedValue(new ComputedValue(curve, 1d));
+    final List<CalculationJobItem> items = new ArrayList<CalculationJobItem>(_jobItems);
+    final ValueProperties outputProperties = ValueProperties.with(ValuePropertyNames.FUNCTION, function.getUniqueId()).get();
+    for (final ComputationTargetSpecification position : new SyntheticPortfolio(_jobItems).getPositions()) {
+      final ValueSpecification marketData = SyntheticPortfolio.getMarketDataSpecification(position);
+      cache.putSharedValue(new ComputedValue(marketData, 2d));
+      final ValueSpecification output = new ValueSpecification(SyntheticPortfolio.VALUE, position, outputProperties);
+      items.add(new CalculationJobItem(function.getUniqueId(), EmptyFunctionParameters.INSTANCE, position, Arrays.asList(marketData, curve),
+          Collections.singleton(output), ExecutionLogMode.INDICATORS));
+    }
+    _job = new CalculationJob(jobSpec, 0L, VersionCorrection.LATEST, null, items, CacheSelectHint.allShared());
+  }
+
+  @TearDown
+  public void tearDown() {
+    _node.stop();
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public CalculationJobResult executeJob() throws Exception {
+    return _node.executeJob(_job);
+  }
+
+}
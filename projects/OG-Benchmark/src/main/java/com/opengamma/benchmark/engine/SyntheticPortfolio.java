@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.function.AbstractFunction;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.FunctionExecutionContext;
+import com.opengamma.engine.function.FunctionInputs;
+import com.opengamma.engine.marketdata.availability.FixedMarketDataAvailabilityProvider;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+
+/**
+ * A synthetic portfolio of primitive targets used by the engine benchmarks.
+ * <p>
+ * Every position target requires a "Value" which is computed from market data on the position and from a "Curve" on a single shared target. This
+ * gives graphs with the usual shape of a large fan-in of per-trade nodes over a small shared sub-graph.
+ */
+public final class SyntheticPortfolio {
+
+  /**
+   * The identifier scheme of the synthetic targets.
+   */
+  public static final String SCHEME = "Benchmark";
+  /**
+   * The value name of the terminal output for each position.
+   */
+  public static final String VALUE = "Value";
+  /**
+   * The value name of the shared curve.
+   */
+  public static final String CURVE = "Curve";
+  /**
+   * The value name of the market data for each position and the curve.
+   */
+  public static final String MARKET_DATA = "MarketData";
+
+  private static final ComputationTargetSpecification CURVE_TARGET = new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of(SCHEME, CURVE));
+
+  private final List<ComputationTargetSpecification> _positions;
+
+  public SyntheticPortfolio(final int size) {
+    _positions = new ArrayList<ComputationTargetSpecification>(size);
+    for (int i = 0; i < size; i++) {
+      _positions.add(new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of(SCHEME, Integer.toString(i))));
+    }
+  }
+
+  public List<ComputationTargetSpecification> getPositions() {
+    return Collections.unmodifiableList(_positions);
+  }
+
+  public static ComputationTargetSpecification getCurveTarget() {
+    return CURVE_TARGET;
+  }
+
+  /**
+   * Returns the terminal output requirements for every position.
+   * 
+   * @return the requirements, not null
+   */
+  public List<ValueRequirement> getRequirements() {
+    final List<ValueRequirement> requirements = new ArrayList<ValueRequirement>(_positions.size());
+    for (final ComputationTargetSpecification position : _positions) {
+      requirements.add(new ValueRequirement(VALUE, position));
+    }
+    return requirements;
+  }
+
+  /**
+   * Creates a market data provider that makes the market data for every position, and the curve, available.
+   * 
+   * @return the provider, not null
+   */
+  public FixedMarketDataAvailabilityProvider createMarketDataAvailabilityProvider() {
+    final FixedMarketDataAvailabilityProvider provider = new FixedMarketDataAvailabilityProvider();
+    for (final ComputationTargetSpecification position : _positions) {
+      provider.addAvailableData(getMarketDataSpecification(position));
+    }
+    provider.addAvailableData(getMarketDataSpecification(CURVE_TARGET));
+    return provider;
+  }
+
+  public static ValueSpecification getMarketDataSpecification(final ComputationTargetSpecification target) {
+    return new ValueSpecification(MARKET_DATA, target, ValueProperties.with(ValuePropertyNames.FUNCTION, "MarketData").get());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Base class for the synthetic functions.
+   */
+  private abstract static class SyntheticFunction extends AbstractFunction.NonCompiledInvoker {
+
+    private final String _valueName;
+
+    protected SyntheticFunction(final String valueName) {
+      _valueName = valueName;
+    }
+
+    protected abstract boolean isCurveFunction();
+
+    @Override
+    public ComputationTargetType getTargetType() {
+      return ComputationTargetType.PRIMITIVE;
+    }
+
+    @Override
+    public boolean canApplyTo(final FunctionCompilationContext context, final ComputationTarget target) {
+      final UniqueId uid = target.getUniqueId();
+      return SCHEME.equals(uid.getScheme()) && (CURVE.equals(uid.getValue()) == isCurveFunction());
+    }
+
+    @Override
+    public Set<ValueSpecification> getResults(final FunctionCompilationContext context, final ComputationTarget target) {
+      return Collections.singleton(new ValueSpecification(_valueName, target.toSpecification(), createValueProperties().get()));
+    }
+
+    @Override
+    public Set<ValueRequirement> getRequirements(final FunctionCompilationContext context, final ComputationTarget target, final ValueRequirement desiredValue) {
+      final Set<ValueRequirement> requirements = new HashSet<ValueRequirement>();
+      requirements.add(new ValueRequirement(MARKET_DATA, target.toSpecification()));
+      if (!isCurveFunction()) {
+        requirements.add(new ValueRequirement(CURVE, CURVE_TARGET));
+      }
+      return requirements;
+    }
+
+    @Override
+    public Set<ComputedValue> execute(final FunctionExecutionContext executionContext, final FunctionInputs inputs, final ComputationTarget target,
+        final Set<ValueRequirement> desiredValues) {
+      double value = 0;
+      for (final ComputedValue input : inputs.getAllValues()) {
+        if (input.getValue() instanceof Double) {
+          value += (Double) input.getValue();
+        }
+      }
+      final Set<ComputedValue> results = new HashSet<ComputedValue>();
+      for (final ValueRequirement desiredValue : desiredValues) {
+        results.add(new ComputedValue(new ValueSpecification(_valueName, target.toSpecification(), desiredValue.getConstraints()), value));
+      }
+      return results;
+    }
+
+  }
+
+  /**
+   * Function producing the per-position value.
+   */
+  public static final class ValueFunction extends SyntheticFunction {
+
+    public ValueFunction() {
+      super(VALUE);
+    }
+
+    @Override
+    protected boolean isCurveFunction() {
+      return false;
+    }
+
+  }
+
+  /**
+   * Function producing the shared curve.
+   */
+  public static final class CurveFunction extends SyntheticFunction {
+
+    public CurveFunction() {
+      super(CURVE);
+    }
+
+    @Override
+    protected boolean isCurveFunction() {
+      return true;
+    }
+
+  }
+
+}
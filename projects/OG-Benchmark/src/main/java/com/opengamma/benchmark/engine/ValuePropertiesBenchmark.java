@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+
+/**
+ * Benchmarks the {@link ValueProperties} operations used heavily during dependency graph construction.
+ * <p>
+ * The property sets are modelled on those of a typical curve based present value; a strict function output, a loosely constrained requirement
+ * and a requirement with optional and wild-card properties.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ValuePropertiesBenchmark {
+
+  private ValueProperties _output;
+  private ValueProperties _requirement;
+  private ValueProperties _wildcard;
+  private ValueProperties _other;
+
+  @Setup
+  public void setup() {
+    _output = ValueProperties.with(ValuePropertyNames.FUNCTION, "DiscountingPVFunction").with(ValuePropertyNames.CURRENCY, "USD")
+        .with(ValuePropertyNames.CURVE_EXPOSURES, "Exposures").with(ValuePropertyNames.CALCULATION_METHOD, "Discounting")
+        .with(ValuePropertyNames.CURVE_CALCULATION_CONFIG, "DefaultTwoCurveUSDConfig").get();
+    _requirement = ValueProperties.with(ValuePropertyNames.CURRENCY, "USD").with(ValuePropertyNames.CALCULATION_METHOD, "Discounting").get();
+    _wildcard = ValueProperties.withAny(ValuePropertyNames.CURVE_EXPOSURES).with(ValuePropertyNames.CURRENCY, "USD", "EUR")
+        .withOptional(ValuePropertyNames.CURVE_CALCULATION_CONFIG).get();
+    _other = ValueProperties.with(ValuePropertyNames.FUNCTION, "DiscountingPVFunction").with(ValuePropertyNames.CURRENCY, "USD")
+        .with(ValuePropertyNames.CURVE_EXPOSURES, "OtherExposures").with(ValuePropertyNames.CALCULATION_METHOD, "Discounting").get();
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public boolean isSatisfiedBy() {
+    return _requirement.isSatisfiedBy(_output);
+  }
+
+  @Benchmark
+  public boolean isSatisfiedByWildcard() {
+    return _wildcard.isSatisfiedBy(_output);
+  }
+
+  @Benchmark
+  public boolean isSatisfiedByMismatch() {
+    return _output.isSatisfiedBy(_other);
+  }
+
+  @Benchmark
+  public ValueProperties compose() {
+    return _wildcard.compose(_output);
+  }
+
+  @Benchmark
+  public ValueProperties union() {
+    return _output.union(_other);
+  }
+
+  @Benchmark
+  public ValueProperties intersect() {
+    return _output.intersect(_other);
+  }
+
+  @Benchmark
+  public ValueProperties copyWith() {
+    return _output.copy().withoutAny(ValuePropertyNames.FUNCTION).with(ValuePropertyNames.FUNCTION, "Other").get();
+  }
+
+  @Benchmark
+  public int hashCodeAndEquals() {
+    return _output.hashCode() + (_output.equals(_other) ? 1 : 0);
+  }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.fudgemsg.FudgeContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.CacheSelectHint;
+import com.opengamma.engine.cache.DefaultFudgeMessageStore;
+import com.opengamma.engine.cache.DefaultViewComputationCache;
+import com.opengamma.engine.cache.InMemoryBinaryDataStore;
+import com.opengamma.engine.cache.InMemoryIdentifierMap;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Benchmarks get and put operations on {@link DefaultViewComputationCache} backed by in-memory stores.
+ * <p>
+ * The batch operations mirror the access pattern of a calculation node job; inputs are fetched in one call and outputs are written in one call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ViewComputationCacheBenchmark {
+
+  /**
+   * The number of values in each batch.
+   */
+  @Param({"10", "1000" })
+  private int _batchSize;
+
+  /**
+   * The number of points in each array value; zero for scalar doubles.
+   */
+  @Param({"0", "100" })
+  private int _valueSize;
+
+  private DefaultViewComputationCache _cache;
+  private List<ValueSpecification> _specifications;
+  private List<ComputedValue> _values;
+  private ValueSpecification _single;
+
+  @Setup
+  public void setup() {
+    final FudgeContext fudgeContext = OpenGammaFudgeContext.getInstance();
+    _cache = new DefaultViewComputationCache(new InMemoryIdentifierMap(), new DefaultFudgeMessageStore(new InMemoryBinaryDataStore(), fudgeContext),
+        new DefaultFudgeMessageStore(new InMemoryBinaryDataStore(), fudgeContext), fudgeContext);
+    _specifications = new ArrayList<ValueSpecification>(_batchSize);
+    _values = new ArrayList<ComputedValue>(_batchSize);
+    final ValueProperties properties = ValueProperties.with(ValuePropertyNames.FUNCTION, "Benchmark").get();
+    for (int i = 0; i < _batchSize; i++) {
+      final ValueSpecification specification = new ValueSpecification("Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE,
+          UniqueId.of("Benchmark", Integer.toString(i))), properties);
+      _specifications.add(specification);
+      _values.add(new ComputedValue(specification, createValue(i)));
+    }
+    _single = _specifications.get(0);
+    _cache.putSharedValues(_values);
+  }
+
+  private Object createValue(final int index) {
+    if (_valueSize == 0) {
+      return (double) index;
+    }
+    final double[] value = new double[_valueSize];
+    for (int i = 0; i < _valueSize; i++) {
+      value[i] = index + i * 0.01;
+    }
+    return value;
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public Object getValue() {
+    return _cache.getValue(_single);
+  }
+
+  @Benchmark
+  public Collection<Pair<ValueSpecification, Object>> getValues() {
+    return _cache.getValues(_specifications);
+  }
+
+  @Benchmark
+  public Collection<Pair<ValueSpecification, Object>> getValuesWithHint() {
+    return _cache.getValues(_specifications, CacheSelectHint.allShared());
+  }
+
+  @Benchmark
+  public void putSharedValues() {
+    _cache.putSharedValues(_values);
+  }
+
+  @Benchmark
+  public void putPrivateValues() {
+    _cache.putPrivateValues(_values);
+  }
+
+}
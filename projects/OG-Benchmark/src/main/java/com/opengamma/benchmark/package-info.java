@@ -0,0 +1,12 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+/**
+ * JMH micro-benchmarks for the engine, analytics and time-series hot paths.
+ * <p>
+ * Build with {@code mvn package} and run with {@code java -jar target/benchmarks.jar}, optionally
+ * passing a regular expression to select the benchmarks and {@code -prof gc} for allocation rates.
+ */
+package com.opengamma.benchmark;
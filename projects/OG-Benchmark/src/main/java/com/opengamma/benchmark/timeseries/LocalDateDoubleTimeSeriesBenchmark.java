@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.timeseries;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleTimeSeries;
+
+/**
+ * Benchmarks the operators of {@link ImmutableLocalDateDoubleTimeSeries}.
+ * <p>
+ * This replaces the wall-clock timings of {@code TimeSeriesPerformanceTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LocalDateDoubleTimeSeriesBenchmark {
+
+  /**
+   * The number of points in each series.
+   */
+  @Param({"10", "10000" })
+  private int _size;
+
+  private LocalDateDoubleTimeSeries _series1;
+  private LocalDateDoubleTimeSeries _series2;
+  private LocalDateDoubleTimeSeries _sparse;
+  private LocalDate _start;
+  private LocalDate _end;
+
+  @Setup
+  public void setup() {
+    final LocalDate base = LocalDate.of(2010, 1, 1);
+    final LocalDate[] dates = new LocalDate[_size];
+    final LocalDate[] sparseDates = new LocalDate[(_size + 1) / 2];
+    final double[] values1 = new double[_size];
+    final double[] values2 = new double[_size];
+    final double[] sparseValues = new double[sparseDates.length];
+    for (int i = 0; i < _size; i++) {
+      dates[i] = base.plusDays(i);
+      values1[i] = i * 1.2d;
+      values2[i] = i * 1.5d;
+      if ((i & 1) == 0) {
+        sparseDates[i >> 1] = base.plusDays(i);
+        sparseValues[i >> 1] = i * 0.5d;
+      }
+    }
+    _series1 = ImmutableLocalDateDoubleTimeSeries.of(dates, values1);
+    _series2 = ImmutableLocalDateDoubleTimeSeries.of(dates, values2);
+    _sparse = ImmutableLocalDateDoubleTimeSeries.of(sparseDates, sparseValues);
+    _start = dates[_size / 4];
+    _end = dates[(3 * _size) / 4];
+  }
+
+  //-------------------------------------------------------------------------
+  @Benchmark
+  public LocalDateDoubleTimeSeries addConstant() {
+    return _series1.add(1.5d);
+  }
+
+  @Benchmark
+  public LocalDateDoubleTimeSeries addSeries() {
+    return _series1.add(_series2);
+  }
+
+  @Benchmark
+  public LocalDateDoubleTimeSeries unionAddSparse() {
+    return _series1.unionAdd(_sparse);
+  }
+
+  @Benchmark
+  public LocalDateDoubleTimeSeries multiplySparse() {
+    return _series1.multiply(_sparse);
+  }
+
+  @Benchmark
+  public LocalDateDoubleTimeSeries intersectionFirstValue() {
+    return _series1.intersectionFirstValue(_sparse);
+  }
+
+  @Benchmark
+  public LocalDateDoubleTimeSeries subSeries() {
+    return _series1.subSeries(_start, _end);
+  }
+
+  @Benchmark
+  public LocalDateDoubleTimeSeries lag() {
+    return _series1.lag(1);
+  }
+
+  @Benchmark
+  public double getValue() {
+    return _series1.getValue(_end);
+  }
+
+}
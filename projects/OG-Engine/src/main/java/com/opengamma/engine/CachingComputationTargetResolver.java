@@ -6,6 +6,7 @@
 package com.opengamma.engine;
 
 import java.util.Collection;
+import java.util.Map;
 
 import com.opengamma.core.position.PortfolioNode;
 import com.opengamma.core.position.Position;
@@ -28,6 +29,14 @@ public interface CachingComputationTargetResolver extends ComputationTargetResol
 
     void cacheTargets(Collection<? extends UniqueIdentifiable> targets);
 
+    /**
+     * Resolves a collection of target specifications. Any that are not already cached are resolved with a single query to the underlying source of each type that supports it.
+     * 
+     * @param specifications the target specifications to resolve, not null and not containing null
+     * @return the resolved targets, not null. Any specifications that could not be resolved will be missing from the map
+     */
+    Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(Collection<ComputationTargetSpecification> specifications);
+
   }
 
   /**
@@ -74,6 +83,15 @@ public interface CachingComputationTargetResolver extends ComputationTargetResol
    */
   void cacheTargets(Collection<? extends UniqueIdentifiable> targets, VersionCorrection versionCorrection);
 
+  /**
+   * Resolves a collection of target specifications. Any that are not already cached are resolved with a single query to the underlying source of each type that supports it.
+   * 
+   * @param specifications the target specifications to resolve, not null and not containing null
+   * @param versionCorrection the version/correction time to perform any deep resolutions at, not null
+   * @return the resolved targets, not null. Any specifications that could not be resolved will be missing from the map
+   */
+  Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(Collection<ComputationTargetSpecification> specifications, VersionCorrection versionCorrection);
+
   @Override
   AtVersionCorrection atVersionCorrection(VersionCorrection versionCorrection);
 
@@ -5,26 +5,45 @@
  */
 package com.opengamma.engine;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.MapMaker;
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.position.PortfolioNode;
 import com.opengamma.core.position.Position;
 import com.opengamma.core.position.Trade;
+import com.opengamma.core.position.impl.SimplePortfolioNode;
+import com.opengamma.core.position.impl.SimplePosition;
 import com.opengamma.core.security.Security;
 import com.opengamma.engine.target.ComputationTargetResolverUtils;
 import com.opengamma.engine.target.ComputationTargetSpecificationResolver;
 import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.target.lazy.LazyResolveContext;
 import com.opengamma.engine.target.lazy.LazyResolver;
+import com.opengamma.engine.target.resolver.BulkObjectResolver;
 import com.opengamma.engine.target.resolver.ObjectResolver;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.UniqueIdentifiable;
@@ -45,9 +64,39 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
 
   // [PLAT-444]: move to com.opengamma.engine.target
 
+  private static final Logger s_logger = LoggerFactory.getLogger(DefaultCachingComputationTargetResolver.class);
+
   /** The cache key. */
   private static final String COMPUTATIONTARGET_CACHE = "computationTarget";
 
+  /**
+   * The default maximum weight of the recently resolved target cache.
+   */
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 100000L;
+
+  /**
+   * The maximum number of identifiers passed to a single bulk query when resolving targets.
+   */
+  private static final int BULK_CHUNK_SIZE = 500;
+
+  /**
+   * Weighs resolved targets by the number of objects they hold so that a few large portfolio nodes cannot displace all other entries. Only fully loaded structures are weighed by size; lazily
+   * resolved ones would have to resolve their content to be measured.
+   */
+  private static final Weigher<Object, UniqueIdentifiable> s_weigher = new Weigher<Object, UniqueIdentifiable>() {
+    @Override
+    public int weigh(final Object key, final UniqueIdentifiable value) {
+      if (value instanceof SimplePortfolioNode) {
+        final SimplePortfolioNode node = (SimplePortfolioNode) value;
+        return 1 + node.getChildNodes().size() + node.getPositions().size();
+      } else if (value instanceof SimplePosition) {
+        return 1 + ((SimplePosition) value).getTrades().size();
+      } else {
+        return 1;
+      }
+    }
+  };
+
   /**
    * The cache manager.
    */
@@ -57,6 +106,12 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
    */
   private final Cache _computationTarget;
 
+  /**
+   * The recently resolved targets, keyed as in the EHCache. This holds strong references, bounded by total weight, so that targets resolved during view compilation are still available to the
+   * calculation nodes when the view executes without querying EHCache, which may have spooled them to disk, or the underlying again.
+   */
+  private final com.google.common.cache.Cache<Object, UniqueIdentifiable> _recentTargets;
+
   /**
    * The cache of "live" target values that have already been resolved. These are keyed by unique identifier so that target specifications which specify different scopes can be satisfied by the same
    * object.
@@ -107,6 +162,8 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
 
   private final AtomicBoolean _cachePutLock = new AtomicBoolean();
 
+  private volatile ExecutorService _executorService;
+
   /**
    * Creates an instance using the specified cache manager.
    * 
@@ -114,9 +171,23 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
    * @param cacheManager the cache manager, not null
    */
   public DefaultCachingComputationTargetResolver(final ComputationTargetResolver underlying, final CacheManager cacheManager) {
+    this(underlying, cacheManager, DEFAULT_MAXIMUM_WEIGHT);
+  }
+
+  /**
+   * Creates an instance using the specified cache manager.
+   * 
+   * @param underlying the underlying resolver, not null
+   * @param cacheManager the cache manager, not null
+   * @param maximumWeight the maximum total weight of recently resolved targets to hold, where most targets weigh one and portfolio nodes and positions weigh one more than the number of objects they
+   *          contain
+   */
+  public DefaultCachingComputationTargetResolver(final ComputationTargetResolver underlying, final CacheManager cacheManager, final long maximumWeight) {
     super(underlying);
     ArgumentChecker.notNull(cacheManager, "cacheManager");
+    ArgumentChecker.notNegative(maximumWeight, "maximumWeight");
     _cacheManager = cacheManager;
+    _recentTargets = CacheBuilder.newBuilder().maximumWeight(maximumWeight).weigher(s_weigher).build();
     EHCacheUtils.addCache(cacheManager, COMPUTATIONTARGET_CACHE);
     _computationTarget = EHCacheUtils.getCacheFromManager(cacheManager, COMPUTATIONTARGET_CACHE);
     if (underlying instanceof LazyResolver) {
@@ -136,9 +207,29 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
   public void clear() {
     _frontObjectCacheDeep.clear();
     _frontTargetCacheDeep.clear();
+    _recentTargets.invalidateAll();
     _computationTarget.removeAll();
   }
 
+  /**
+   * Gets the executor used to run bulk queries in parallel.
+   * 
+   * @return the executor, null if bulk queries run on the calling thread
+   */
+  public ExecutorService getExecutorService() {
+    return _executorService;
+  }
+
+  /**
+   * Sets the executor used to run bulk queries in parallel. When set, {@link #resolveTargets} splits the misses for each bulk resolver into chunks of up to 500 identifiers and submits them to
+   * this executor.
+   * 
+   * @param executorService the executor, null to run bulk queries on the calling thread
+   */
+  public void setExecutorService(final ExecutorService executorService) {
+    _executorService = executorService;
+  }
+
   protected LazyResolveContext getLazyResolveContext() {
     return _lazyResolveContext;
   }
@@ -152,16 +243,15 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
     return _cacheManager;
   }
 
-  @Override
-  public ComputationTarget resolve(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection) {
-    if (specification == ComputationTargetSpecification.NULL) {
-      return ComputationTarget.NULL;
-    }
-    final ObjectResolver<?> resolver = getResolver(specification);
-    if (resolver == null) {
-      return null;
-    }
-    final boolean isDeep = resolver.deepResolver() != null;
+  /**
+   * Returns a previously resolved target from one of the caches.
+   * 
+   * @param specification the target specification, not null
+   * @param versionCorrection the version/correction time, not null
+   * @param isDeep true if the resolver for the target performs deep resolution, false otherwise
+   * @return the cached target, or null if there is none
+   */
+  private ComputationTarget getCachedTarget(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection, final boolean isDeep) {
     ComputationTarget result = isDeep ? _frontTargetCacheDeep.get(versionCorrection, specification) : _frontTargetCache.get(specification);
     if (result != null) {
       return result;
@@ -183,38 +273,191 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
       }
     }
     final Object key = isDeep ? Pairs.of(uid, versionCorrection) : uid;
-    final Element e = _computationTarget.get(key);
-    if (e != null) {
-      target = (UniqueIdentifiable) e.getObjectValue();
-      if (specification.getType().isCompatible(target)) {
-        final UniqueIdentifiable existing = isDeep ? _frontObjectCacheDeep.putIfAbsent(versionCorrection, uid, target) : _frontObjectCache.putIfAbsent(uid, target);
-        if (existing != null) {
-          result = ComputationTargetResolverUtils.createResolvedTarget(specification, existing);
-        } else {
-          result = ComputationTargetResolverUtils.createResolvedTarget(specification, target);
-        }
-        final ComputationTarget newResult = isDeep ? _frontTargetCacheDeep.putIfAbsent(versionCorrection, specification, result) : _frontTargetCache.put(specification, result);
-        if (newResult != null) {
-          return newResult;
-        } else {
-          return result;
-        }
+    target = _recentTargets.getIfPresent(key);
+    if (target == null) {
+      final Element e = _computationTarget.get(key);
+      if (e != null) {
+        target = (UniqueIdentifiable) e.getObjectValue();
+        _recentTargets.put(key, target);
+      }
+    }
+    if ((target != null) && specification.getType().isCompatible(target)) {
+      final UniqueIdentifiable existing = isDeep ? _frontObjectCacheDeep.putIfAbsent(versionCorrection, uid, target) : _frontObjectCache.putIfAbsent(uid, target);
+      if (existing != null) {
+        result = ComputationTargetResolverUtils.createResolvedTarget(specification, existing);
+      } else {
+        result = ComputationTargetResolverUtils.createResolvedTarget(specification, target);
+      }
+      final ComputationTarget newResult = isDeep ? _frontTargetCacheDeep.putIfAbsent(versionCorrection, specification, result) : _frontTargetCache.put(specification, result);
+      if (newResult != null) {
+        return newResult;
+      } else {
+        return result;
       }
     }
+    return null;
+  }
+
+  /**
+   * Adds a target resolved by the underlying to the caches.
+   * 
+   * @param specification the target specification, not null
+   * @param versionCorrection the version/correction time, not null
+   * @param isDeep true if the resolver for the target performs deep resolution, false otherwise
+   * @param result the resolved target, not null
+   * @return the target to return to the caller, either the one passed in or an equivalent one already cached
+   */
+  private ComputationTarget cacheResolvedTarget(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection, final boolean isDeep,
+      final ComputationTarget result) {
+    final UniqueId uid = specification.getUniqueId();
+    final UniqueIdentifiable existing = isDeep ? _frontObjectCacheDeep.putIfAbsent(versionCorrection, uid, result.getValue()) : _frontObjectCache.putIfAbsent(uid, result.getValue());
+    if (existing == null) {
+      addToCacheImpl(isDeep ? Pairs.of(uid, versionCorrection) : uid, result.getValue());
+    }
+    final ComputationTarget newResult = isDeep ? _frontTargetCacheDeep.putIfAbsent(versionCorrection, specification, result) : _frontTargetCache.putIfAbsent(specification, result);
+    return (newResult != null) ? newResult : result;
+  }
+
+  @Override
+  public ComputationTarget resolve(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection) {
+    if (specification == ComputationTargetSpecification.NULL) {
+      return ComputationTarget.NULL;
+    }
+    final ObjectResolver<?> resolver = getResolver(specification);
+    if (resolver == null) {
+      return null;
+    }
+    final boolean isDeep = resolver.deepResolver() != null;
+    ComputationTarget result = getCachedTarget(specification, versionCorrection, isDeep);
+    if (result != null) {
+      return result;
+    }
     result = super.resolve(specification, versionCorrection);
     if (result != null) {
-      final UniqueIdentifiable existing = isDeep ? _frontObjectCacheDeep.putIfAbsent(versionCorrection, uid, result.getValue()) : _frontObjectCache.putIfAbsent(uid, result.getValue());
-      if (existing == null) {
-        addToCacheImpl(key, result.getValue());
+      result = cacheResolvedTarget(specification, versionCorrection, isDeep, result);
+    }
+    return result;
+  }
+
+  @Override
+  public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications, final VersionCorrection versionCorrection) {
+    final Map<ComputationTargetSpecification, ComputationTarget> result = new HashMap<ComputationTargetSpecification, ComputationTarget>();
+    final Map<ObjectResolver<?>, List<ComputationTargetSpecification>> misses = new LinkedHashMap<ObjectResolver<?>, List<ComputationTargetSpecification>>();
+    for (ComputationTargetSpecification specification : specifications) {
+      if (specification == ComputationTargetSpecification.NULL) {
+        result.put(specification, ComputationTarget.NULL);
+        continue;
       }
-      final ComputationTarget newResult = isDeep ? _frontTargetCacheDeep.putIfAbsent(versionCorrection, specification, result) : _frontTargetCache.putIfAbsent(specification, result);
-      if (newResult != null) {
-        result = newResult;
+      final ObjectResolver<?> resolver = getResolver(specification);
+      if (resolver == null) {
+        continue;
+      }
+      final ComputationTarget cached = getCachedTarget(specification, versionCorrection, resolver.deepResolver() != null);
+      if (cached != null) {
+        result.put(specification, cached);
+        continue;
+      }
+      List<ComputationTargetSpecification> resolverMisses = misses.get(resolver);
+      if (resolverMisses == null) {
+        resolverMisses = new ArrayList<ComputationTargetSpecification>();
+        misses.put(resolver, resolverMisses);
+      }
+      resolverMisses.add(specification);
+    }
+    final List<List<ComputationTargetSpecification>> bulkChunks = new ArrayList<List<ComputationTargetSpecification>>();
+    final List<BulkObjectResolver<?>> bulkResolvers = new ArrayList<BulkObjectResolver<?>>();
+    final List<ComputationTargetSpecification> singles = new ArrayList<ComputationTargetSpecification>();
+    for (Map.Entry<ObjectResolver<?>, List<ComputationTargetSpecification>> resolverMisses : misses.entrySet()) {
+      final ObjectResolver<?> resolver = resolverMisses.getKey();
+      final List<ComputationTargetSpecification> specs = resolverMisses.getValue();
+      if ((resolver instanceof BulkObjectResolver) && (resolver.deepResolver() == null) && (specs.size() > 1)) {
+        for (int i = 0; i < specs.size(); i += BULK_CHUNK_SIZE) {
+          bulkChunks.add(specs.subList(i, Math.min(i + BULK_CHUNK_SIZE, specs.size())));
+          bulkResolvers.add((BulkObjectResolver<?>) resolver);
+        }
+      } else {
+        singles.addAll(specs);
+      }
+    }
+    final ExecutorService executor = getExecutorService();
+    if ((executor == null) || (bulkChunks.size() < 2)) {
+      for (int i = 0; i < bulkChunks.size(); i++) {
+        result.putAll(resolveBulk(bulkResolvers.get(i), bulkChunks.get(i), versionCorrection));
+      }
+      resolveSingles(singles, versionCorrection, result);
+    } else {
+      final ExecutorCompletionService<Map<ComputationTargetSpecification, ComputationTarget>> completionService =
+          new ExecutorCompletionService<Map<ComputationTargetSpecification, ComputationTarget>>(executor);
+      final List<Future<Map<ComputationTargetSpecification, ComputationTarget>>> jobs = new ArrayList<Future<Map<ComputationTargetSpecification, ComputationTarget>>>(bulkChunks.size());
+      for (int i = 0; i < bulkChunks.size(); i++) {
+        final BulkObjectResolver<?> resolver = bulkResolvers.get(i);
+        final List<ComputationTargetSpecification> chunk = bulkChunks.get(i);
+        jobs.add(completionService.submit(new Callable<Map<ComputationTargetSpecification, ComputationTarget>>() {
+          @Override
+          public Map<ComputationTargetSpecification, ComputationTarget> call() {
+            return resolveBulk(resolver, chunk, versionCorrection);
+          }
+        }));
+      }
+      s_logger.debug("Submitted {} bulk queries for {} targets", jobs.size(), specifications.size());
+      try {
+        // Resolve the remaining targets individually while the bulk queries run
+        resolveSingles(singles, versionCorrection, result);
+        for (int i = 0; i < jobs.size(); i++) {
+          result.putAll(completionService.take().get());
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new OpenGammaRuntimeException("Interrupted while resolving targets", ex);
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ex.getCause();
+        }
+        throw new OpenGammaRuntimeException("Unable to resolve targets", ex.getCause());
+      } finally {
+        for (Future<?> job : jobs) {
+          job.cancel(true);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Resolves a set of targets with a single query to a bulk resolver and adds them to the caches.
+   * 
+   * @param resolver the bulk resolver, not null
+   * @param specifications the target specifications, not null
+   * @param versionCorrection the version/correction time, not null
+   * @return the resolved targets, not null
+   */
+  private Map<ComputationTargetSpecification, ComputationTarget> resolveBulk(final BulkObjectResolver<?> resolver, final List<ComputationTargetSpecification> specifications,
+      final VersionCorrection versionCorrection) {
+    final List<UniqueId> uids = new ArrayList<UniqueId>(specifications.size());
+    for (ComputationTargetSpecification specification : specifications) {
+      uids.add(specification.getUniqueId());
+    }
+    final Map<UniqueId, ? extends UniqueIdentifiable> objects = resolver.resolveObjects(uids, versionCorrection);
+    final Map<ComputationTargetSpecification, ComputationTarget> result = new HashMap<ComputationTargetSpecification, ComputationTarget>();
+    for (ComputationTargetSpecification specification : specifications) {
+      final UniqueIdentifiable object = objects.get(specification.getUniqueId());
+      if (object != null) {
+        result.put(specification, cacheResolvedTarget(specification, versionCorrection, false, ComputationTargetResolverUtils.createResolvedTarget(specification, object)));
       }
     }
     return result;
   }
 
+  private void resolveSingles(final List<ComputationTargetSpecification> specifications, final VersionCorrection versionCorrection,
+      final Map<ComputationTargetSpecification, ComputationTarget> result) {
+    for (ComputationTargetSpecification specification : specifications) {
+      final ComputationTarget target = resolve(specification, versionCorrection);
+      if (target != null) {
+        result.put(specification, target);
+      }
+    }
+  }
+
   @Override
   public CachingComputationTargetResolver.AtVersionCorrection atVersionCorrection(final VersionCorrection versionCorrection) {
     final ComputationTargetSpecificationResolver.AtVersionCorrection specificationResolver = getSpecificationResolver().atVersionCorrection(versionCorrection);
@@ -245,6 +488,11 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
         DefaultCachingComputationTargetResolver.this.cacheTargets(targets, versionCorrection);
       }
 
+      @Override
+      public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications) {
+        return DefaultCachingComputationTargetResolver.this.resolveTargets(specifications, versionCorrection);
+      }
+
       @Override
       public VersionCorrection getVersionCorrection() {
         return versionCorrection;
@@ -294,6 +542,7 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
   }
 
   private void addToCacheImpl(final Object key, final UniqueIdentifiable target) {
+    _recentTargets.put(key, target);
     // Don't allow re-entrance to the cache; serialization of a LazyResolver can try to write entries to the
     // cache. Put them into the frontCache only so that we can do a quick lookup if they stay in memory. The
     // problem is that spooling a big root portfolio node to disk can try to resolve and cache all of the
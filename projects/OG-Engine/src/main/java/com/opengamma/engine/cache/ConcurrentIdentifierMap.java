@@ -0,0 +1,338 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * An in-memory implementation of {@link IdentifierMap} built on an open-addressing hash table with primitive identifier values.
+ * <p>
+ * Lookups of existing specifications, in either direction, are lock-free. New specifications are claimed in the table with a compare-and-set so concurrent allocations do not block each other; only
+ * growing the table excludes them. Identifiers are allocated from a counter, with the bulk operation reserving a contiguous range for all of the new specifications in a single step. As identifiers
+ * are dense the reverse lookup is a chunked array rather than a second hash table.
+ * <p>
+ * Like {@link InMemoryIdentifierMap} this has no facilities for persistence and entries are never removed.
+ */
+public class ConcurrentIdentifierMap extends AbstractIdentifierMap implements IdentifierMap {
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+  private static final int CHUNK_BITS = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  /**
+   * The open-addressed table. A slot is claimed by setting its key; the identifier is written afterwards so a reader that finds the key with a zero identifier must wait for the claiming thread.
+   */
+  private static final class Table {
+
+    private final AtomicReferenceArray<ValueSpecification> _keys;
+    private final AtomicLongArray _values;
+    private final int _mask;
+    private final int _threshold;
+    private final AtomicInteger _size = new AtomicInteger();
+    private final AtomicInteger _reserved = new AtomicInteger();
+
+    public Table(final int capacity) {
+      _keys = new AtomicReferenceArray<ValueSpecification>(capacity);
+      _values = new AtomicLongArray(capacity);
+      _mask = capacity - 1;
+      _threshold = (capacity >> 1) + (capacity >> 2);
+    }
+
+    public int capacity() {
+      return _mask + 1;
+    }
+
+  }
+
+  private final AtomicLong _nextIdentifier = new AtomicLong(1L);
+  private final ReadWriteLock _resizeLock = new ReentrantReadWriteLock();
+  private volatile Table _table;
+  private volatile AtomicReferenceArray<ValueSpecification>[] _specifications;
+
+  public ConcurrentIdentifierMap() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * Creates a new identifier map.
+   *
+   * @param expectedSize the number of specifications expected, used to size the table
+   */
+  public ConcurrentIdentifierMap(final int expectedSize) {
+    ArgumentChecker.notNegative(expectedSize, "expectedSize");
+    int capacity = 16;
+    while ((capacity >> 1) + (capacity >> 2) < expectedSize) {
+      capacity <<= 1;
+    }
+    _table = new Table(capacity);
+    _specifications = newChunks(1);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AtomicReferenceArray<ValueSpecification>[] newChunks(final int count) {
+    return new AtomicReferenceArray[count];
+  }
+
+  private static int slot(final ValueSpecification spec, final int mask) {
+    final int h = spec.hashCode() * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * Searches the table for the specification.
+   *
+   * @param table the table to search
+   * @param spec the specification to find
+   * @return the identifier, or zero if the specification is not in the table
+   */
+  private static long find(final Table table, final ValueSpecification spec) {
+    int i = slot(spec, table._mask);
+    ValueSpecification key;
+    while ((key = table._keys.get(i)) != null) {
+      if ((key == spec) || key.equals(spec)) {
+        return awaitValue(table, i);
+      }
+      i = (i + 1) & table._mask;
+    }
+    return 0;
+  }
+
+  private static long awaitValue(final Table table, final int i) {
+    long value = table._values.get(i);
+    while (value == 0) {
+      // Another thread has claimed the slot but not yet written the identifier
+      Thread.yield();
+      value = table._values.get(i);
+    }
+    return value;
+  }
+
+  /**
+   * Inserts the specification into the table, using the supplied identifier if it is not already present. The caller must hold the read lock and have reserved space in the table.
+   * <p>
+   * A new identifier is written to the reverse lookup before it is published in the table so that any thread which can see it can also resolve it.
+   *
+   * @param table the table to insert into
+   * @param spec the specification to insert
+   * @param identifier the identifier to use if the specification is new
+   * @param isNew true if the identifier is newly allocated and must be written to the reverse lookup, false if it is already there
+   * @return the identifier of the specification - if not the supplied value then the specification was already present
+   */
+  private long insert(final Table table, final ValueSpecification spec, final long identifier, final boolean isNew) {
+    int i = slot(spec, table._mask);
+    do {
+      final ValueSpecification key = table._keys.get(i);
+      if (key == null) {
+        if (table._keys.compareAndSet(i, null, spec)) {
+          if (isNew) {
+            storeSpecification(identifier, spec);
+          }
+          table._values.set(i, identifier);
+          table._size.incrementAndGet();
+          return identifier;
+        }
+        // Lost the slot; retry it as it might have been claimed by the same specification
+        continue;
+      }
+      if ((key == spec) || key.equals(spec)) {
+        return awaitValue(table, i);
+      }
+      i = (i + 1) & table._mask;
+    } while (true);
+  }
+
+  /**
+   * Reserves space for a number of insertions, growing the table if necessary. On return the caller holds the read lock and must release it after the insertions.
+   *
+   * @param count the number of insertions that may be made
+   * @return the table to insert into
+   */
+  private Table reserveSlots(final int count) {
+    do {
+      _resizeLock.readLock().lock();
+      final Table table = _table;
+      if (table._reserved.addAndGet(count) <= table._threshold) {
+        return table;
+      }
+      table._reserved.addAndGet(-count);
+      _resizeLock.readLock().unlock();
+      resize(table, count);
+    } while (true);
+  }
+
+  private void resize(final Table table, final int additional) {
+    _resizeLock.writeLock().lock();
+    try {
+      if (_table != table) {
+        // Another thread has already grown it
+        return;
+      }
+      final int required = table._size.get() + additional;
+      int capacity = table.capacity() << 1;
+      while ((capacity >> 1) + (capacity >> 2) < required) {
+        capacity <<= 1;
+      }
+      final Table newTable = new Table(capacity);
+      for (int i = 0; i < table.capacity(); i++) {
+        final ValueSpecification key = table._keys.get(i);
+        if (key != null) {
+          insert(newTable, key, table._values.get(i), false);
+        }
+      }
+      newTable._reserved.set(newTable._size.get());
+      _table = newTable;
+    } finally {
+      _resizeLock.writeLock().unlock();
+    }
+  }
+
+  private void storeSpecification(final long identifier, final ValueSpecification spec) {
+    final int chunk = (int) (identifier >>> CHUNK_BITS);
+    AtomicReferenceArray<ValueSpecification>[] chunks = _specifications;
+    if ((chunk >= chunks.length) || (chunks[chunk] == null)) {
+      synchronized (this) {
+        chunks = _specifications;
+        if (chunk >= chunks.length) {
+          final AtomicReferenceArray<ValueSpecification>[] newChunks = newChunks(Math.max(chunk + 1, chunks.length << 1));
+          System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+          chunks = newChunks;
+        }
+        if (chunks[chunk] == null) {
+          chunks[chunk] = new AtomicReferenceArray<ValueSpecification>(CHUNK_SIZE);
+        }
+        _specifications = chunks;
+      }
+    }
+    chunks[chunk].set((int) identifier & CHUNK_MASK, spec);
+  }
+
+  /**
+   * Reserves a contiguous range of identifiers.
+   *
+   * @param count the number of identifiers to reserve
+   * @return the first identifier of the range
+   */
+  protected long reserveIdentifiers(final int count) {
+    return _nextIdentifier.getAndAdd(count);
+  }
+
+  /**
+   * Allocates identifiers for the specifications starting from a reserved range.
+   *
+   * @param specifications the specifications that were not found in the table
+   * @param result the map to write the identifiers to
+   */
+  private void allocate(final List<ValueSpecification> specifications, final Object2LongMap<ValueSpecification> result) {
+    long identifier = reserveIdentifiers(specifications.size());
+    final Table table = reserveSlots(specifications.size());
+    try {
+      for (ValueSpecification specification : specifications) {
+        final long allocated = insert(table, specification, identifier, true);
+        // If the specification was added by another thread the identifier from the range is wasted; this is harmless
+        identifier++;
+        result.put(specification, allocated);
+      }
+    } finally {
+      _resizeLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long getIdentifier(final ValueSpecification spec) {
+    ArgumentChecker.notNull(spec, "spec");
+    long identifier = find(_table, spec);
+    if (identifier != 0) {
+      return identifier;
+    }
+    final long freshIdentifier = reserveIdentifiers(1);
+    final Table table = reserveSlots(1);
+    try {
+      identifier = insert(table, spec, freshIdentifier, true);
+    } finally {
+      _resizeLock.readLock().unlock();
+    }
+    return identifier;
+  }
+
+  @Override
+  public Object2LongMap<ValueSpecification> getIdentifiers(final Collection<ValueSpecification> specs) {
+    final Object2LongMap<ValueSpecification> result = new Object2LongOpenHashMap<ValueSpecification>(specs.size());
+    final Table table = _table;
+    List<ValueSpecification> missing = null;
+    for (ValueSpecification spec : specs) {
+      final long identifier = find(table, spec);
+      if (identifier != 0) {
+        result.put(spec, identifier);
+      } else {
+        if (missing == null) {
+          missing = new ArrayList<ValueSpecification>(specs.size() - result.size());
+        }
+        missing.add(spec);
+      }
+    }
+    if (missing != null) {
+      allocate(missing, result);
+    }
+    return result;
+  }
+
+  @Override
+  public ValueSpecification getValueSpecification(final long identifier) {
+    if (identifier <= 0) {
+      return null;
+    }
+    final AtomicReferenceArray<ValueSpecification>[] chunks = _specifications;
+    final long chunk = identifier >>> CHUNK_BITS;
+    if (chunk >= chunks.length) {
+      return null;
+    }
+    final AtomicReferenceArray<ValueSpecification> specifications = chunks[(int) chunk];
+    if (specifications == null) {
+      return null;
+    }
+    return specifications.get((int) identifier & CHUNK_MASK);
+  }
+
+  @Override
+  public Long2ObjectMap<ValueSpecification> getValueSpecifications(final LongCollection identifiers) {
+    final Long2ObjectMap<ValueSpecification> result = new Long2ObjectOpenHashMap<ValueSpecification>(identifiers.size());
+    final LongIterator itr = identifiers.iterator();
+    while (itr.hasNext()) {
+      final long identifier = itr.nextLong();
+      result.put(identifier, getValueSpecification(identifier));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of specifications in the map.
+   *
+   * @return the number of specifications
+   */
+  public int size() {
+    return _table._size.get();
+  }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * An implementation of {@link BinaryDataStore} that holds the data outside of the Java heap in {@link ByteBuffer} slabs.
+ * <p>
+ * Values are appended to the current slab, with a new slab started when it is full. Each value is prefixed with its length and located through an index keyed by the long identifiers from the
+ * {@link IdentifierMap}. Values larger than the slab size are held in a dedicated buffer. When the store is deleted (typically when the view cycle's caches are released) all of its slabs are handed
+ * back to the {@link SlabSource} which may reuse them for another store.
+ * <p>
+ * This class is internally synchronized.
+ */
+public class DirectBinaryDataStore extends AbstractBinaryDataStore {
+
+  /**
+   * Source of the slabs used by the store.
+   */
+  public interface SlabSource {
+
+    /**
+     * Returns a buffer with at least the requested capacity, positioned at zero.
+     *
+     * @param capacity the minimum capacity required
+     * @return the buffer, not null
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Returns a buffer previously obtained from {@link #allocate} that is no longer needed by the store.
+     *
+     * @param buffer the buffer to release, not null
+     */
+    void release(ByteBuffer buffer);
+
+  }
+
+  /**
+   * Slab source that allocates direct buffers and leaves the garbage collector to reclaim them.
+   */
+  private static final SlabSource DIRECT = new SlabSource() {
+
+    @Override
+    public ByteBuffer allocate(final int capacity) {
+      return ByteBuffer.allocateDirect(capacity);
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+      // No-op
+    }
+
+  };
+
+  private static final int LENGTH_PREFIX = 4;
+  private static final int OFFSET_BITS = 32;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+  private final SlabSource _slabSource;
+  private final int _slabSize;
+  private final ReadWriteLock _lock = new ReentrantReadWriteLock();
+  private final Long2LongMap _index = new Long2LongOpenHashMap();
+  private final List<ByteBuffer> _slabs = new ArrayList<ByteBuffer>();
+  private ByteBuffer _current;
+  private int _currentSlab = -1;
+
+  /**
+   * Creates a store allocating its own direct buffers.
+   *
+   * @param slabSize the size of each slab in bytes
+   */
+  public DirectBinaryDataStore(final int slabSize) {
+    this(DIRECT, slabSize);
+  }
+
+  /**
+   * Creates a store taking its slabs from the given source.
+   *
+   * @param slabSource the source of slabs, not null
+   * @param slabSize the size of each slab in bytes
+   */
+  public DirectBinaryDataStore(final SlabSource slabSource, final int slabSize) {
+    ArgumentChecker.notNull(slabSource, "slabSource");
+    ArgumentChecker.isTrue(slabSize > LENGTH_PREFIX, "slabSize");
+    _slabSource = slabSource;
+    _slabSize = slabSize;
+    _index.defaultReturnValue(-1);
+  }
+
+  private int addSlab(final ByteBuffer slab) {
+    _slabs.add(slab);
+    return _slabs.size() - 1;
+  }
+
+  private static long location(final int slab, final int offset) {
+    return ((long) slab << OFFSET_BITS) | offset;
+  }
+
+  /**
+   * Returns a read-only view of the data stored against the identifier. The buffer is only valid until the store is deleted; after that the underlying memory may be reused by another store.
+   *
+   * @param identifier the identifier to obtain data for
+   * @return the data, positioned at zero with its limit at the end of the value, or null if there is none
+   */
+  public ByteBuffer getBuffer(final long identifier) {
+    _lock.readLock().lock();
+    try {
+      final long location = _index.get(identifier);
+      if (location < 0) {
+        return null;
+      }
+      final ByteBuffer slab = _slabs.get((int) (location >>> OFFSET_BITS)).duplicate();
+      final int offset = (int) (location & OFFSET_MASK);
+      final int length = slab.getInt(offset);
+      slab.limit(offset + LENGTH_PREFIX + length).position(offset + LENGTH_PREFIX);
+      return slab.slice().asReadOnlyBuffer();
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public byte[] get(final long identifier) {
+    final ByteBuffer buffer = getBuffer(identifier);
+    if (buffer == null) {
+      return null;
+    }
+    final byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    return data;
+  }
+
+  @Override
+  public void put(final long identifier, final byte[] data) {
+    final int required = data.length + LENGTH_PREFIX;
+    _lock.writeLock().lock();
+    try {
+      final long location;
+      if (required > _slabSize) {
+        // Too big for a slab; give it a buffer of its own
+        final ByteBuffer buffer = _slabSource.allocate(required);
+        buffer.putInt(data.length).put(data);
+        location = location(addSlab(buffer), 0);
+      } else {
+        if ((_current == null) || (_current.remaining() < required)) {
+          _current = _slabSource.allocate(_slabSize);
+          _currentSlab = addSlab(_current);
+        }
+        final int offset = _current.position();
+        _current.putInt(data.length).put(data);
+        location = location(_currentSlab, offset);
+      }
+      // Any previous value is left in its slab; it will be reclaimed when the store is deleted
+      _index.put(identifier, location);
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void delete() {
+    _lock.writeLock().lock();
+    try {
+      _index.clear();
+      for (ByteBuffer slab : _slabs) {
+        _slabSource.release(slab);
+      }
+      _slabs.clear();
+      _current = null;
+      _currentSlab = -1;
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of bytes of slab memory held by the store.
+   *
+   * @return the allocated size
+   */
+  public long getAllocatedSize() {
+    _lock.readLock().lock();
+    try {
+      long size = 0;
+      for (ByteBuffer slab : _slabs) {
+        size += slab.capacity();
+      }
+      return size;
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+}
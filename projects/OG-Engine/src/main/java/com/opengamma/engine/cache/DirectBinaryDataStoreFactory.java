@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Creates {@link DirectBinaryDataStore} instances that share a pool of slabs.
+ * <p>
+ * Slabs released when a store is deleted at the end of a view cycle are kept for the stores of later cycles, up to the configured maximum, so the steady state does not allocate. If a directory is
+ * set, the slabs are memory-mapped from files in that directory rather than being allocated as direct buffers, allowing the operating system to page out cache data that is not being used.
+ */
+public class DirectBinaryDataStoreFactory implements BinaryDataStoreFactory, DirectBinaryDataStore.SlabSource {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(DirectBinaryDataStoreFactory.class);
+
+  /**
+   * The default slab size, 1Mb.
+   */
+  public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+  /**
+   * The default number of free slabs to hold in the pool.
+   */
+  public static final int DEFAULT_MAX_POOLED_SLABS = 256;
+
+  private final Queue<ByteBuffer> _pool = new ConcurrentLinkedQueue<ByteBuffer>();
+  private final AtomicInteger _pooled = new AtomicInteger();
+  private int _slabSize = DEFAULT_SLAB_SIZE;
+  private int _maxPooledSlabs = DEFAULT_MAX_POOLED_SLABS;
+  private File _directory;
+
+  public int getSlabSize() {
+    return _slabSize;
+  }
+
+  public void setSlabSize(final int slabSize) {
+    ArgumentChecker.isTrue(slabSize > 0, "slabSize");
+    _slabSize = slabSize;
+  }
+
+  public int getMaxPooledSlabs() {
+    return _maxPooledSlabs;
+  }
+
+  public void setMaxPooledSlabs(final int maxPooledSlabs) {
+    ArgumentChecker.isTrue(maxPooledSlabs >= 0, "maxPooledSlabs");
+    _maxPooledSlabs = maxPooledSlabs;
+  }
+
+  public File getDirectory() {
+    return _directory;
+  }
+
+  /**
+   * Sets the folder to hold memory-mapped slab files. If not set, direct buffers are used.
+   *
+   * @param directory the folder, or null for direct buffers
+   */
+  public void setDirectory(final File directory) {
+    _directory = directory;
+  }
+
+  // BinaryDataStoreFactory
+
+  @Override
+  public BinaryDataStore createDataStore(final ViewComputationCacheKey cacheKey) {
+    return new DirectBinaryDataStore(this, getSlabSize());
+  }
+
+  // DirectBinaryDataStore.SlabSource
+
+  @Override
+  public ByteBuffer allocate(final int capacity) {
+    if (capacity <= getSlabSize()) {
+      final ByteBuffer slab = _pool.poll();
+      if (slab != null) {
+        _pooled.decrementAndGet();
+        if (slab.capacity() >= capacity) {
+          slab.clear();
+          return slab;
+        }
+        // Slab size has been reduced since this was pooled; let it go
+      }
+      return createSlab(getSlabSize());
+    } else {
+      return createSlab(capacity);
+    }
+  }
+
+  @Override
+  public void release(final ByteBuffer buffer) {
+    if ((buffer.capacity() == getSlabSize()) && (_pooled.incrementAndGet() <= getMaxPooledSlabs())) {
+      _pool.add(buffer);
+    } else {
+      // Oversize buffer, or the pool is full; leave it for the garbage collector
+      if (buffer.capacity() == getSlabSize()) {
+        _pooled.decrementAndGet();
+      }
+    }
+  }
+
+  protected ByteBuffer createSlab(final int capacity) {
+    final File directory = getDirectory();
+    if (directory == null) {
+      return ByteBuffer.allocateDirect(capacity);
+    }
+    try {
+      final File file = File.createTempFile("slab", ".bin", directory);
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(capacity);
+        return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      } finally {
+        // The mapping remains valid after the file is closed; remove the name so the space is reclaimed when the mapping is collected
+        if (!file.delete()) {
+          s_logger.debug("Couldn't delete {}; marking for deletion on exit", file);
+          file.deleteOnExit();
+        }
+      }
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't create memory-mapped slab in " + directory, e);
+    }
+  }
+
+}
@@ -93,6 +93,7 @@ public class FudgeMessageStoreServer implements FudgeConnectionReceiver, Release
   private final Map<ViewComputationCacheKey, ValueSearch> _searching = new HashMap<ViewComputationCacheKey, ValueSearch>();
 
   private long _findValueTimeout = 5000L; // 5s default timeout
+  private boolean _passThroughValues;
 
   public FudgeMessageStoreServer(final DefaultViewComputationCacheSource underlying) {
     ArgumentChecker.notNull(underlying, "underlying");
@@ -148,6 +149,32 @@ public class FudgeMessageStoreServer implements FudgeConnectionReceiver, Release
     _findValueTimeout = findValueTimeout;
   }
 
+  public boolean isPassThroughValues() {
+    return _passThroughValues;
+  }
+
+  /**
+   * Sets whether values returned to clients are sent as opaque encoded blocks. The clients should be configured to match, see {@link RemoteCacheClient#setPassThroughValues}. Values received from
+   * clients as encoded blocks are stored without being decoded regardless of this setting.
+   * 
+   * @param passThroughValues true to send values as encoded blocks, false to send them as sub-messages
+   */
+  public void setPassThroughValues(final boolean passThroughValues) {
+    _passThroughValues = passThroughValues;
+  }
+
+  private FudgeMsg send(final FudgeMsg data) {
+    if (isPassThroughValues()) {
+      return PassThroughValues.wrap(getUnderlying().getFudgeContext(), data);
+    } else {
+      return data;
+    }
+  }
+
+  private FudgeMsg receive(final FudgeMsg data) {
+    return PassThroughValues.unwrap(getUnderlying().getFudgeContext(), data);
+  }
+
   @Override
   public FudgeMsg findMissingValue(final ViewComputationCacheKey cacheKey, final long identifier) {
     s_logger.debug("findMissing value {}", identifier);
@@ -285,7 +312,7 @@ public class FudgeMessageStoreServer implements FudgeConnectionReceiver, Release
           if (data == null) {
             data = FudgeContext.EMPTY_MESSAGE;
           }
-          response = Collections.singleton(data);
+          response = Collections.singleton(send(data));
         } else {
           response = new ArrayList<FudgeMsg>(identifiers.size());
           final Map<Long, FudgeMsg> data = store.get(identifiers);
@@ -294,7 +321,7 @@ public class FudgeMessageStoreServer implements FudgeConnectionReceiver, Release
             if (value == null) {
               value = FudgeContext.EMPTY_MESSAGE;
             }
-            response.add(value);
+            response.add(send(value));
           }
         }
       }
@@ -309,13 +336,13 @@ public class FudgeMessageStoreServer implements FudgeConnectionReceiver, Release
       // Review 2010-10-19 Andrew -- This causes cache creation. This is bad if messages were delayed and the cache has already been released.
       final FudgeMessageStore store = getUnderlying().getCache(key).getSharedDataStore();
       if (identifiers.size() == 1) {
-        store.put(identifiers.get(0), data.get(0));
+        store.put(identifiers.get(0), receive(data.get(0)));
       } else {
         final Map<Long, FudgeMsg> map = new HashMap<Long, FudgeMsg>();
         final Iterator<Long> i = identifiers.iterator();
         final Iterator<FudgeMsg> j = data.iterator();
         while (i.hasNext()) {
-          map.put(i.next(), j.next());
+          map.put(i.next(), receive(j.next()));
         }
         store.put(map);
       }
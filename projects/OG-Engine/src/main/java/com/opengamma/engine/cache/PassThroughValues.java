@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import java.io.ByteArrayOutputStream;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeField;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.wire.EncodedFudgeMsg;
+import org.fudgemsg.wire.FudgeDataOutputStreamWriter;
+import org.fudgemsg.wire.FudgeEncoded;
+
+/**
+ * Utility for sending shared cache values between the remote cache clients and server as opaque encoded blocks.
+ * <p>
+ * A value is wrapped as a message containing a single byte array field holding the encoded form of the original message. Writing the wrapper is a plain copy of the bytes, as is reading it back at
+ * the other end. Unwrapping gives an {@link EncodedFudgeMsg} so the value is only decoded if, and when, it is actually consumed. Values that are relayed through the shared cache server are never
+ * decoded there.
+ */
+/* package */final class PassThroughValues {
+
+  /**
+   * The ordinal of the field holding the encoded value.
+   */
+  private static final int ENCODED_ORDINAL = Short.MIN_VALUE;
+
+  private PassThroughValues() {
+  }
+
+  /**
+   * Returns the encoded form of a message, avoiding any work if it is already available.
+   *
+   * @param fudgeContext the Fudge context, not null
+   * @param message the message to encode, not null
+   * @return the encoded message fields
+   */
+  public static byte[] encode(final FudgeContext fudgeContext, final FudgeMsg message) {
+    if (message instanceof FudgeEncoded) {
+      return ((FudgeEncoded) message).getFudgeEncoded();
+    }
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final FudgeDataOutputStreamWriter writer = new FudgeDataOutputStreamWriter(fudgeContext, baos);
+    writer.writeFields(message);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Wraps a value for transmission. Empty messages, used to indicate a missing value, are not wrapped.
+   *
+   * @param fudgeContext the Fudge context, not null
+   * @param message the message to wrap, not null
+   * @return the wrapped message
+   */
+  public static FudgeMsg wrap(final FudgeContext fudgeContext, final FudgeMsg message) {
+    if (message.isEmpty()) {
+      return message;
+    }
+    final MutableFudgeMsg wrapper = fudgeContext.newMessage();
+    wrapper.add(null, ENCODED_ORDINAL, encode(fudgeContext, message));
+    return wrapper;
+  }
+
+  /**
+   * Unwraps a received value. Messages that were not wrapped are returned unchanged.
+   *
+   * @param fudgeContext the Fudge context, not null
+   * @param message the received message, not null
+   * @return the original message, possibly still in its encoded form
+   */
+  public static FudgeMsg unwrap(final FudgeContext fudgeContext, final FudgeMsg message) {
+    if (message.getNumFields() != 1) {
+      return message;
+    }
+    final FudgeField field = message.getByOrdinal(ENCODED_ORDINAL);
+    if ((field == null) || !(field.getValue() instanceof byte[])) {
+      return message;
+    }
+    return new EncodedFudgeMsg((byte[]) field.getValue(), fudgeContext);
+  }
+
+}
@@ -59,6 +59,7 @@ public class RemoteCacheClient {
 
   private final FudgeClient _fudgeGets;
   private final FudgeClient _fudgePuts;
+  private boolean _passThroughValues;
 
   /**
    * Creates a new client using a single underlying transport.
@@ -105,4 +106,18 @@ public class RemoteCacheClient {
     return _fudgeGets.getMessageSender().getFudgeContext();
   }
 
+  /**
+   * Sets whether values written to the shared cache are sent as opaque encoded blocks. The server should be configured to match, see {@link FudgeMessageStoreServer#setPassThroughValues}, so
+   * that values fetched are also returned in that form. Values fetched that were returned as encoded blocks are only decoded when consumed, regardless of this setting.
+   * 
+   * @param passThroughValues true to send values as encoded blocks, false to send them as sub-messages
+   */
+  public void setPassThroughValues(final boolean passThroughValues) {
+    _passThroughValues = passThroughValues;
+  }
+
+  public boolean isPassThroughValues() {
+    return _passThroughValues;
+  }
+
 }
@@ -41,6 +41,18 @@ public class RemoteFudgeMessageStore implements FudgeMessageStore {
     return _cacheKey;
   }
 
+  private FudgeMsg receive(final FudgeMsg data) {
+    return PassThroughValues.unwrap(getRemoteCacheClient().getFudgeContext(), data);
+  }
+
+  private FudgeMsg send(final FudgeMsg data) {
+    if (getRemoteCacheClient().isPassThroughValues()) {
+      return PassThroughValues.wrap(getRemoteCacheClient().getFudgeContext(), data);
+    } else {
+      return data;
+    }
+  }
+
   @Override
   public void delete() {
     // [ENG-256] Don't need the delete messages if we propogate at the releaseCaches level
@@ -54,7 +66,7 @@ public class RemoteFudgeMessageStore implements FudgeMessageStore {
         .getCalculationConfigurationName(), Collections.singleton(identifier));
     final GetResponse response = getRemoteCacheClient().sendGetMessage(request, GetResponse.class);
     final FudgeMsg data = response.getData().get(0);
-    return data.isEmpty() ? null : data;
+    return data.isEmpty() ? null : receive(data);
   }
 
   @Override
@@ -72,7 +84,7 @@ public class RemoteFudgeMessageStore implements FudgeMessageStore {
     for (Long identifier : request.getIdentifier()) {
       final FudgeMsg value = values.get(i++);
       if (!value.isEmpty()) {
-        result.put(identifier, value);
+        result.put(identifier, receive(value));
       }
     }
     return result;
@@ -82,7 +94,7 @@ public class RemoteFudgeMessageStore implements FudgeMessageStore {
   public void put(long identifier, FudgeMsg data) {
     final PutRequest request = new PutRequest(getCacheKey().getViewCycleId(), getCacheKey()
         .getCalculationConfigurationName(), Collections.singleton(identifier),
-        Collections.singleton(data));
+        Collections.singleton(send(data)));
     getRemoteCacheClient().sendPutMessage(request, CacheMessage.class);
   }
 
@@ -92,7 +104,7 @@ public class RemoteFudgeMessageStore implements FudgeMessageStore {
     final List<FudgeMsg> values = new ArrayList<FudgeMsg>(data.size());
     for (Map.Entry<Long, FudgeMsg> entry : data.entrySet()) {
       identifiers.add(entry.getKey());
-      values.add(entry.getValue());
+      values.add(send(entry.getValue()));
     }
     final PutRequest request = new PutRequest(getCacheKey().getViewCycleId(), getCacheKey()
         .getCalculationConfigurationName(), identifiers, values);
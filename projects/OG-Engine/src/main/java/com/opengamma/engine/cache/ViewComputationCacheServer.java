@@ -48,6 +48,16 @@ public class ViewComputationCacheServer implements FudgeConnectionReceiver, Fudg
     return _binaryDataStore;
   }
 
+  /**
+   * Sets whether shared cache values are returned to clients as opaque encoded blocks.
+   * 
+   * @param passThroughValues true to send values as encoded blocks, false to send them as sub-messages
+   * @see FudgeMessageStoreServer#setPassThroughValues
+   */
+  public void setPassThroughValues(final boolean passThroughValues) {
+    getBinaryDataStore().setPassThroughValues(passThroughValues);
+  }
+
   private class MessageHandler extends CacheMessageVisitor implements FudgeMessageReceiver {
 
     private final FudgeConnection _connection;
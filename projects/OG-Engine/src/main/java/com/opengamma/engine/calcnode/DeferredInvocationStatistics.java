@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.calcnode;
 
+import java.util.concurrent.TimeUnit;
+
 import com.codahale.metrics.Timer;
 import com.opengamma.engine.cache.DeferredStatistics;
 import com.opengamma.engine.calcnode.stats.FunctionInvocationStatisticsGatherer;
@@ -23,6 +25,8 @@ import com.opengamma.util.metric.OpenGammaMetricRegistry;
   private int _dataOutputBytes;
   private int _dataOutputSamples;
   private int _expectedDataOutputSamples;
+  private int _invocationCount = 1;
+  private long _invocationStart;
   private Timer _timer;
   private Timer.Context _context;
   //TODO: Look at replacing (or simply exposing) IO metrics
@@ -35,6 +39,7 @@ import com.opengamma.util.metric.OpenGammaMetricRegistry;
   }
 
   protected void beginInvocation() {
+    _invocationStart = System.nanoTime();
     _context = _timer.time();
   }
 
@@ -42,6 +47,19 @@ import com.opengamma.util.metric.OpenGammaMetricRegistry;
     _context.close();
   }
 
+  /**
+   * Ends an invocation that executed the function on several targets at once. The time is recorded as if it were spent equally on each.
+   * 
+   * @param invocationCount the number of targets executed
+   */
+  protected void endInvocation(final int invocationCount) {
+    final long nanos = (System.nanoTime() - _invocationStart) / invocationCount;
+    for (int i = 0; i < invocationCount; i++) {
+      _timer.update(nanos, TimeUnit.NANOSECONDS);
+    }
+    _invocationCount = invocationCount;
+  }
+
   protected void setDataInputBytes(final int bytes, final int samples) {
     if (samples > 0) {
       _dataInputBytes = (double) bytes / (double) samples;
@@ -62,7 +80,7 @@ import com.opengamma.util.metric.OpenGammaMetricRegistry;
     }
     _expectedDataOutputSamples--;
     if (_expectedDataOutputSamples == 0) {
-      _gatherer.functionInvoked(_configuration, _functionIdentifier, 1, _timer.getSnapshot().getMean(), _dataInputBytes, (_dataOutputSamples > 0) ? _dataOutputBytes / _dataOutputSamples : Double.NaN);
+      _gatherer.functionInvoked(_configuration, _functionIdentifier, _invocationCount, _timer.getSnapshot().getMean() * _invocationCount, _dataInputBytes, (_dataOutputSamples > 0) ? _dataOutputBytes / _dataOutputSamples : Double.NaN);
     }
   }
 
@@ -28,7 +28,7 @@ import com.opengamma.util.async.Cancelable;
  * shared cache for values. The first will then be resubmitted with a job result receiver that will submit the second part of the job on first part completion. When the second part of the job
  * completed the original callback will be notified.
  */
-/* package */abstract class DispatchableJob implements JobInvocationReceiver {
+/* package */abstract class DispatchableJob implements JobInvocationReceiver, PartialJobResultReceiver {
 
   private static final Logger s_logger = LoggerFactory.getLogger(DispatchableJob.class);
 
@@ -88,6 +88,7 @@ import com.opengamma.util.async.Cancelable;
   private final CapabilityRequirements _capabilityRequirements;
   private final AtomicReference<DispatchableJobTimeout> _timeout = new AtomicReference<DispatchableJobTimeout>();
   private final CancelHandle _cancelHandle;
+  private volatile long _priority;
 
   /**
    * Creates a new dispatchable job for submission to the invokers.
@@ -116,6 +117,7 @@ import com.opengamma.util.async.Cancelable;
     _capabilityRequirements = _dispatcher.getCapabilityRequirementsProvider().getCapabilityRequirements(job);
     _cancelHandle = creater.getCancelHandle();
     _cancelHandle.addCallback(this);
+    _priority = creater.getPriority();
   }
 
   protected long getDurationNanos() {
@@ -138,6 +140,16 @@ import com.opengamma.util.async.Cancelable;
 
   protected abstract boolean isLastResult();
 
+  /**
+   * Returns the receiver for partial results of the given job without consuming it. Partial results are discarded by default.
+   *
+   * @param specification the job specification, not null
+   * @return the receiver, or null if partial results for this job should be discarded
+   */
+  protected JobResultReceiver getPartialResultReceiver(final CalculationJobSpecification specification) {
+    return null;
+  }
+
   @Override
   public void jobCompleted(final CalculationJobResult result) {
     final JobResultReceiver resultReceiver = getResultReceiver(result);
@@ -165,6 +177,20 @@ import com.opengamma.util.async.Cancelable;
     }
   }
 
+  @Override
+  public void partialResultReceived(final CalculationJobResult result, final int fromItem) {
+    if (isCompleted()) {
+      return;
+    }
+    // Progress is being made so the job is still alive
+    extendTimeout(getDispatcher().getMaxJobExecutionTime(), true);
+    final JobResultReceiver resultReceiver = getPartialResultReceiver(result.getSpecification());
+    if (resultReceiver instanceof PartialJobResultReceiver) {
+      s_logger.debug("Job {} partially completed on node {}", this, result.getComputeNodeId());
+      ((PartialJobResultReceiver) resultReceiver).partialResultReceived(result, fromItem);
+    }
+  }
+
   protected abstract DispatchableJob prepareRetryJob(JobInvoker jobInvoker);
 
   @Override
@@ -277,6 +303,20 @@ import com.opengamma.util.async.Cancelable;
     return _jobCreationTime;
   }
 
+  /**
+   * Returns the dispatch priority. If there are no invokers available, pending jobs with a higher priority will be dispatched before those with a lower one. Jobs of equal priority are dispatched
+   * in the order they were submitted.
+   * 
+   * @return the priority
+   */
+  public long getPriority() {
+    return _priority;
+  }
+
+  protected void setPriority(final long priority) {
+    _priority = priority;
+  }
+
   public boolean canRunOn(final JobInvoker jobInvoker) {
     // TODO: aiwg -- not happy with this approach for capabilities
     return getRequirements().satisfiedBy(jobInvoker.getCapabilities());
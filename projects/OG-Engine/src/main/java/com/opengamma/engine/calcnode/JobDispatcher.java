@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -37,7 +38,7 @@ public class JobDispatcher implements JobInvokerRegister {
   /* package */static final long DEFAULT_MAX_JOB_EXECUTION_QUERY_TIMEOUT = 5000;
   /* package */static final String DEFAULT_JOB_FAILURE_NODE_ID = "NOT EXECUTED";
 
-  private final Queue<DispatchableJob> _pending = new LinkedList<DispatchableJob>();
+  private final LinkedList<DispatchableJob> _pending = new LinkedList<DispatchableJob>();
   private final Queue<JobInvoker> _invokers = new ConcurrentLinkedQueue<JobInvoker>();
   private final Map<JobInvoker, Collection<Capability>> _capabilityCache = new ConcurrentHashMap<JobInvoker, Collection<Capability>>();
 
@@ -241,10 +242,23 @@ public class JobDispatcher implements JobInvokerRegister {
     return false;
   }
 
+  // caller must already own monitor
+  private void addPending(final DispatchableJob job) {
+    // Jobs are typically all of the same priority, or arrive in descending order, so search from the end
+    final ListIterator<DispatchableJob> iterator = _pending.listIterator(_pending.size());
+    while (iterator.hasPrevious()) {
+      if (iterator.previous().getPriority() >= job.getPriority()) {
+        iterator.next();
+        break;
+      }
+    }
+    iterator.add(job);
+  }
+
   protected synchronized void dispatchJobImpl(final DispatchableJob job) {
     if (!invoke(job)) {
       s_logger.debug("Adding job to pending set");
-      getPending().add(job);
+      addPending(job);
       if (getInvokers() != null) {
         retryPending(0L);
       }
@@ -263,10 +277,27 @@ public class JobDispatcher implements JobInvokerRegister {
    * @return A {@link Cancellable} callback to attempt to abort the job
    */
   public Cancelable dispatchJob(final CalculationJob job, final JobResultReceiver resultReceiver) {
+    return dispatchJob(job, resultReceiver, 0);
+  }
+
+  /**
+   * Puts the job into the ready queue, as {@link #dispatchJob(CalculationJob,JobResultReceiver)}, with a priority. If no invokers are available then the job will be sent after any pending jobs
+   * of the same or higher priority but before those of lower priority.
+   * <p>
+   * Priorities from all callers are compared directly, so callers sharing a dispatcher should use a common scale. Jobs from an {@link com.opengamma.engine.exec.plan.ExecutingGraph} are
+   * normalized against the critical path of their own graph.
+   * 
+   * @param job The job to dispatch
+   * @param resultReceiver callback to receive the results
+   * @param priority the dispatch priority, higher values to be dispatched first
+   * @return A {@link Cancellable} callback to attempt to abort the job
+   */
+  public Cancelable dispatchJob(final CalculationJob job, final JobResultReceiver resultReceiver, final long priority) {
     ArgumentChecker.notNull(job, "job");
     ArgumentChecker.notNull(resultReceiver, "resultReceiver");
     s_logger.info("Dispatching job {}", job.getSpecification().getJobId());
     final DispatchableJob dispatchJob = new StandardJob(this, job, resultReceiver);
+    dispatchJob.setPriority(priority);
     dispatchJobImpl(dispatchJob);
     return dispatchJob.getCancelHandle();
   }
@@ -87,26 +87,57 @@ public class LocalNodeJobInvoker extends SimpleCalculationNodeInvocationContaine
     }
   }
 
+  /**
+   * Passes the outcome of a job executed on a local node to its invocation receiver.
+   */
+  private class InvocationExecutionReceiver implements ExecutionReceiver {
+
+    private final JobInvocationReceiver _receiver;
+
+    public InvocationExecutionReceiver(final JobInvocationReceiver receiver) {
+      _receiver = receiver;
+    }
+
+    protected JobInvocationReceiver getReceiver() {
+      return _receiver;
+    }
+
+    @Override
+    public void executionComplete(CalculationJobResult result) {
+      getReceiver().jobCompleted(result);
+    }
+
+    @Override
+    public void executionFailed(SimpleCalculationNode node, Exception exception) {
+      s_logger.warn("Exception thrown by job execution", exception);
+      getReceiver().jobFailed(LocalNodeJobInvoker.this, node.getNodeId(), exception);
+    }
+
+  }
+
+  /**
+   * Passes the outcome of a job executed on a local node to an invocation receiver that also accepts partial results.
+   */
+  private final class StreamingExecutionReceiver extends InvocationExecutionReceiver implements PartialJobResultReceiver {
+
+    public StreamingExecutionReceiver(final JobInvocationReceiver receiver) {
+      super(receiver);
+    }
+
+    @Override
+    public void partialResultReceived(final CalculationJobResult result, final int fromItem) {
+      ((PartialJobResultReceiver) getReceiver()).partialResultReceived(result, fromItem);
+    }
+
+  }
+
   @Override
   public boolean invoke(final CalculationJob job, final JobInvocationReceiver receiver) {
     final SimpleCalculationNode node = getNodes().poll();
     if (node == null) {
       return false;
     }
-    final ExecutionReceiver executionReceiver = new ExecutionReceiver() {
-
-      @Override
-      public void executionComplete(CalculationJobResult result) {
-        receiver.jobCompleted(result);
-      }
-
-      @Override
-      public void executionFailed(SimpleCalculationNode node, Exception exception) {
-        s_logger.warn("Exception thrown by job execution", exception);
-        receiver.jobFailed(LocalNodeJobInvoker.this, node.getNodeId(), exception);
-      }
-
-    };
+    final ExecutionReceiver executionReceiver = (receiver instanceof PartialJobResultReceiver) ? new StreamingExecutionReceiver(receiver) : new InvocationExecutionReceiver(receiver);
     addJob(job, executionReceiver, node);
     addTail(job.getTail(), executionReceiver);
     return true;
@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.calcnode;
+
+/**
+ * Callback interface to receive the results of some of the items of a job before the whole job has completed. A {@link JobResultReceiver} or {@link JobInvocationReceiver} may also implement this to
+ * have results streamed to it from nodes that support it.
+ * <p>
+ * Each partial result holds the results for a consecutive run of items, in the same order as in the original job, starting at the given item index. The outputs of those items are available from the
+ * shared value cache before the notification is made. The final result for the job will still contain all of the items.
+ * <p>
+ * A job that is retried, or duplicated onto another node, streams its partial results from the first item again. A receiver must therefore use the item index to discard runs it has already seen,
+ * and runs that do not follow on from them.
+ */
+public interface PartialJobResultReceiver {
+
+  /**
+   * Receives the results of some of the items of a job that is still executing.
+   *
+   * @param result the result items completed since the last notification, not null
+   * @param fromItem the index in the original job of the first item in the result
+   */
+  void partialResultReceived(CalculationJobResult result, int fromItem);
+
+}
@@ -8,8 +8,11 @@ package com.opengamma.engine.calcnode;
 import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
@@ -23,6 +26,7 @@ import org.slf4j.MDC;
 
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
+import com.opengamma.engine.CachingComputationTargetResolver;
 import com.opengamma.engine.ComputationTarget;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.ComputationTargetSpecification;
@@ -33,6 +37,7 @@ import com.opengamma.engine.cache.ViewComputationCache;
 import com.opengamma.engine.cache.ViewComputationCacheSource;
 import com.opengamma.engine.cache.WriteBehindViewComputationCache;
 import com.opengamma.engine.calcnode.stats.FunctionInvocationStatisticsGatherer;
+import com.opengamma.engine.function.BatchFunctionInvoker;
 import com.opengamma.engine.function.CompiledFunctionService;
 import com.opengamma.engine.function.FunctionExecutionContext;
 import com.opengamma.engine.function.FunctionInputs;
@@ -142,6 +147,7 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
   private boolean _writeBehindSharedCache;
   private boolean _writeBehindPrivateCache;
   private boolean _asynchronousTargetResolve;
+  private int _partialResultBatchSize;
   private FunctionBlacklistQuery _blacklistQuery = new DummyFunctionBlacklistQuery();
   private FunctionBlacklistMaintainer _blacklistUpdate = new DummyFunctionBlacklistMaintainer();
   private MaximumJobItemExecutionWatchdog _maxJobItemExecution = new MaximumJobItemExecutionWatchdog();
@@ -283,6 +289,21 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     return _maxJobItemExecution;
   }
 
+  /**
+   * Sets the number of job items to complete before publishing their results to a {@link PartialJobResultReceiver}, if the job has one. Publishing a batch flushes the values produced so far to the
+   * cache so that they can be used by other jobs. A value of zero, the default, disables streaming and only reports results when the whole job has completed.
+   *
+   * @param partialResultBatchSize the number of items in each partial result, or zero to disable streaming
+   */
+  public void setPartialResultBatchSize(final int partialResultBatchSize) {
+    ArgumentChecker.notNegative(partialResultBatchSize, "partialResultBatchSize");
+    _partialResultBatchSize = partialResultBatchSize;
+  }
+
+  public int getPartialResultBatchSize() {
+    return _partialResultBatchSize;
+  }
+
   public CalculationNodeLogEventListener getLogListener() {
     return _logListener;
   }
@@ -356,6 +377,7 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     setCache(getDeferredViewComputationCache(getCache(spec)));
     setExecutionStartTime(System.nanoTime());
     setConfiguration(spec.getCalcConfigName());
+    setPartialResultCount(0);
     List<CalculationJobResultItem> jobItems;
     try {
       jobItems = executeJobItems();
@@ -413,6 +435,44 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
 
   }
 
+  /**
+   * Publishes the results of the items completed since the last partial result if there are enough of them to form a batch. Nothing is published if the job is about to finish as the final result
+   * will follow immediately.
+   *
+   * @param resultItems the results of the items completed so far, not null
+   */
+  private void publishPartialResults(final List<CalculationJobResultItem> resultItems) {
+    final PartialJobResultReceiver receiver = getPartialResultReceiver();
+    if ((receiver == null) || (_partialResultBatchSize <= 0)) {
+      return;
+    }
+    final int published = getPartialResultCount();
+    final int completed = resultItems.size();
+    if ((completed - published < _partialResultBatchSize) || (completed >= getJob().getJobItems().size())) {
+      return;
+    }
+    // The values must be in the cache before other jobs can be released against them
+    try {
+      getCache().flush();
+    } catch (final AsynchronousExecution e) {
+      try {
+        e.getResult();
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    final CalculationJobResult partialResult = new CalculationJobResult(getJob().getSpecification(), System.nanoTime() - getExecutionStartTime(), new ArrayList<CalculationJobResultItem>(
+        resultItems.subList(published, completed)), getNodeId());
+    setPartialResultCount(completed);
+    s_logger.debug("Publishing {} partial results of {}", completed - published, getJob());
+    try {
+      receiver.partialResultReceived(partialResult, published);
+    } catch (final RuntimeException e) {
+      s_logger.warn("Partial result receiver failed for {} - {}", getJob(), e.getMessage());
+    }
+  }
+
   private void postEvaluationErrors(final ValueSpecification[] outputs, final MissingOutput type) {
     final Collection<ComputedValue> results = new ArrayList<ComputedValue>(outputs.length);
     for (final ValueSpecification output : outputs) {
@@ -445,11 +505,13 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
   /**
    * Executes one or more items from the supplied iterator, populating the supplied list. If a job item starts running asynchronously, an exception will be thrown. At resumption of the operation,
    * another call to this method will occur with the same parameters allowing it to continue with the remaining items the iterator has.
+   * <p>
+   * Consecutive items for a function with a {@link BatchFunctionInvoker} are executed together; see {@link #executeBatch}.
    * 
    * @param jobItemItr the job items to execute, not null
    * @param resultItems the list to populate with results, not null
    */
-  private void executeJobItems(final Iterator<CalculationJobItem> jobItemItr, final List<CalculationJobResultItem> resultItems) throws AsynchronousExecution {
+  private void executeJobItems(final ListIterator<CalculationJobItem> jobItemItr, final List<CalculationJobResultItem> resultItems) throws AsynchronousExecution {
     while (jobItemItr.hasNext()) {
       if (getJob().isCancelled()) {
         throw new CancellationException();
@@ -460,6 +522,8 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
       final CalculationJobResultItemBuilder resultItemBuilder = CalculationJobResultItemBuilder.of(executionLog);
       if (getFunctionBlacklistQuery().isBlacklisted(jobItem)) {
         invocationBlacklisted(jobItem, resultItemBuilder);
+      } else if (executeBatch(jobItem, executionLog, resultItemBuilder, jobItemItr, resultItems)) {
+        continue;
       } else {
         getMaxJobItemExecution().jobExecutionStarted(jobItem);
         attachLog(executionLog);
@@ -500,6 +564,7 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
         }
       }
       resultItems.add(resultItemBuilder.toResultItem());
+      publishPartialResults(resultItems);
     }
   }
 
@@ -548,10 +613,10 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     private final List<CalculationJobResultItem> _resultItems;
     private ExecuteJobItemsInvoke _invoke;
     private Deferred<Void> _deferredInvoke;
-    private final Iterator<CalculationJobItem> _jobItemItr;
+    private final ListIterator<CalculationJobItem> _jobItemItr;
 
     public ExecuteJobItemsResume(final List<CalculationJobResultItem> resultItems, final ExecuteJobItemsInvoke invoke, final Deferred<Void> deferredInvoke,
-        final Iterator<CalculationJobItem> jobItemItr) {
+        final ListIterator<CalculationJobItem> jobItemItr) {
       _resultItems = resultItems;
       _invoke = invoke;
       _deferredInvoke = deferredInvoke;
@@ -562,6 +627,7 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     public Void call(final SimpleCalculationNode self) throws AsynchronousExecution {
       s_logger.debug("Asynchronous job item result at {}", self._nodeId);
       _resultItems.add(_invoke.call(self, _deferredInvoke));
+      self.publishPartialResults(_resultItems);
       if (!_invoke.isInline()) {
         _invoke = null;
         _deferredInvoke = null;
@@ -572,11 +638,210 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
 
   }
 
+  private static boolean consumesAny(final CalculationJobItem jobItem, final Set<ValueSpecification> values) {
+    for (ValueSpecification input : jobItem.getInputs()) {
+      if (values.contains(input)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Executes a job item together with any following items for the same function and parameters, if the function has a {@link BatchFunctionInvoker}. The items are taken from the iterator, leaving
+   * it positioned at the first item that could not be included. The batch ends before any item that consumes an output of an earlier item in the batch, as all of the inputs are fetched before the
+   * single invocation.
+   * 
+   * @param jobItem the first item of the batch, not null
+   * @param executionLog the log for the first item, not null
+   * @param resultItemBuilder the result builder for the first item, not null
+   * @param jobItemItr the remaining job items, not null
+   * @param resultItems the list to populate with results, not null
+   * @return true if the items were executed as a batch, false if the first item must be executed normally
+   */
+  private boolean executeBatch(final CalculationJobItem jobItem, final MutableExecutionLog executionLog, final CalculationJobResultItemBuilder resultItemBuilder,
+      final ListIterator<CalculationJobItem> jobItemItr, final List<CalculationJobResultItem> resultItems) {
+    final FunctionInvoker invoker = getFunctions().getInvoker(jobItem.getFunctionUniqueIdentifier());
+    if (!(invoker instanceof BatchFunctionInvoker) || !jobItemItr.hasNext()) {
+      return false;
+    }
+    final List<CalculationJobItem> batch = new ArrayList<CalculationJobItem>();
+    batch.add(jobItem);
+    final Set<ValueSpecification> batchOutputs = new HashSet<ValueSpecification>();
+    Collections.addAll(batchOutputs, jobItem.getOutputs());
+    while (jobItemItr.hasNext()) {
+      final CalculationJobItem nextItem = jobItemItr.next();
+      if (!jobItem.getFunctionUniqueIdentifier().equals(nextItem.getFunctionUniqueIdentifier()) || !jobItem.getFunctionParameters().equals(nextItem.getFunctionParameters())
+          || getFunctionBlacklistQuery().isBlacklisted(nextItem) || consumesAny(nextItem, batchOutputs)) {
+        jobItemItr.previous();
+        break;
+      }
+      batch.add(nextItem);
+      Collections.addAll(batchOutputs, nextItem.getOutputs());
+    }
+    if (batch.size() == 1) {
+      return false;
+    }
+    s_logger.debug("Executing batch of {} items for {}", batch.size(), invoker);
+    final int size = batch.size();
+    final MutableExecutionLog[] executionLogs = new MutableExecutionLog[size];
+    final CalculationJobResultItemBuilder[] resultItemBuilders = new CalculationJobResultItemBuilder[size];
+    executionLogs[0] = executionLog;
+    resultItemBuilders[0] = resultItemBuilder;
+    for (int i = 1; i < size; i++) {
+      executionLogs[i] = new MutableExecutionLog(batch.get(i).getLogMode());
+      resultItemBuilders[i] = CalculationJobResultItemBuilder.of(executionLogs[i]);
+    }
+    getFunctionExecutionContext().setFunctionParameters(jobItem.getFunctionParameters());
+    final DeferredInvocationStatistics statistics = new DeferredInvocationStatistics(getFunctionInvocationStatistics(), getConfiguration(), jobItem.getFunctionUniqueIdentifier());
+    final DeferredViewComputationCache cache = getCache();
+    // Gather the inputs of each item, dropping any that can't be executed
+    final List<Integer> invoked = new ArrayList<Integer>(size);
+    final List<Set<ValueSpecification>> missingInputs = new ArrayList<Set<ValueSpecification>>(size);
+    final List<FunctionInputs> functionInputs = new ArrayList<FunctionInputs>(size);
+    final List<ComputationTarget> targets = new ArrayList<ComputationTarget>(size);
+    final List<Set<ValueRequirement>> desiredValues = new ArrayList<Set<ValueRequirement>>(size);
+    int inputBytes = 0;
+    int inputSamples = 0;
+    for (int i = 0; i < size; i++) {
+      final CalculationJobItem item = batch.get(i);
+      attachLog(executionLogs[i]);
+      try {
+        final ComputationTarget target = LazyComputationTargetResolver.resolve(getTargetResolver(), item.getComputationTargetSpecification());
+        final Set<ValueSpecification> missing = Sets.newHashSetWithExpectedSize(item.getInputs().length);
+        if (target == null) {
+          if (invoker.canHandleMissingInputs()) {
+            missing.add(TargetSourcingFunction.createSpecification(item.getComputationTargetSpecification()));
+          } else {
+            postEvaluationErrors(item.getOutputs(), MissingOutput.EVALUATION_ERROR);
+            resultItemBuilders[i].withException(ERROR_CANT_RESOLVE, "Unable to resolve target " + item.getComputationTargetSpecification());
+            continue;
+          }
+        }
+        final Collection<ComputedValue> inputs = new ArrayList<ComputedValue>(item.getInputs().length);
+        _inputs._inputs = item.getInputs();
+        for (final Pair<ValueSpecification, Object> input : cache.getValues(_inputs, getJob().getCacheSelectHint())) {
+          if ((input.getSecond() == null) || (input.getSecond() instanceof MissingValue)) {
+            missing.add(input.getFirst());
+          } else {
+            final ComputedValue value = new ComputedValue(input.getFirst(), input.getSecond());
+            inputs.add(value);
+            final Integer bytes = cache.estimateValueSize(value);
+            if (bytes != null) {
+              inputBytes += bytes;
+              inputSamples++;
+            }
+          }
+        }
+        if (!missing.isEmpty()) {
+          if (invoker.canHandleMissingInputs()) {
+            s_logger.debug("Executing even with missing inputs {}", missing);
+            resultItemBuilders[i].withPartialInputs(missing);
+          } else {
+            s_logger.info("Not able to execute as missing inputs {}", missing);
+            postEvaluationErrors(item.getOutputs(), MissingOutput.MISSING_INPUTS);
+            resultItemBuilders[i].withMissingInputs(missing);
+            continue;
+          }
+        }
+        invoked.add(i);
+        missingInputs.add(missing);
+        functionInputs.add(new FunctionInputsImpl(getTargetResolver().getSpecificationResolver(), inputs, missing));
+        targets.add(target);
+        desiredValues.add(plat2290(item.getOutputs()));
+      } catch (final Throwable t) {
+        invocationFailure(t, item, resultItemBuilders[i]);
+      } finally {
+        detachLog();
+      }
+    }
+    statistics.setDataInputBytes(inputBytes, inputSamples);
+    if (!invoked.isEmpty()) {
+      // Log events raised by the batch invocation are recorded against its first item
+      final CalculationJobItem firstItem = batch.get(invoked.get(0));
+      getMaxJobItemExecution().jobExecutionStarted(firstItem);
+      attachLog(executionLogs[invoked.get(0)]);
+      try {
+        statistics.beginInvocation();
+        List<Set<ComputedValue>> results;
+        try {
+          results = ((BatchFunctionInvoker) invoker).executeBatch(getFunctionExecutionContext(), functionInputs, targets, desiredValues);
+          if (results.size() != invoked.size()) {
+            throw new IllegalStateException("Expected " + invoked.size() + " results from " + invoker + ", got " + results.size());
+          }
+        } catch (final FunctionBlacklistedException e) {
+          for (Integer i : invoked) {
+            invocationBlacklisted(batch.get(i), resultItemBuilders[i]);
+          }
+          results = null;
+        } catch (final Throwable t) {
+          for (Integer i : invoked) {
+            invokeException(batch.get(i).getOutputs(), t, resultItemBuilders[i]);
+          }
+          results = null;
+        }
+        if (results != null) {
+          statistics.endInvocation(invoked.size());
+          final Collection<ComputedValue> newResults = new ArrayList<ComputedValue>();
+          for (int j = 0; j < results.size(); j++) {
+            final int i = invoked.get(j);
+            final ValueSpecification[] outputs = batch.get(i).getOutputs();
+            if (results.get(j) == null) {
+              postEvaluationErrors(outputs, MissingOutput.EVALUATION_ERROR);
+              resultItemBuilders[i].withException(ERROR_INVOKING, "No results returned by invoker " + invoker);
+            } else {
+              checkResults(invoker, missingInputs.get(j), outputs, results.get(j), resultItemBuilders[i], newResults);
+            }
+          }
+          statistics.setExpectedDataOutputSamples(newResults.size());
+          cache.putValues(newResults, getJob().getCacheSelectHint(), statistics);
+        }
+      } finally {
+        detachLog();
+        getMaxJobItemExecution().jobExecutionStopped();
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      resultItems.add(resultItemBuilders[i].toResultItem());
+    }
+    publishPartialResults(resultItems);
+    return true;
+  }
+
+  /**
+   * Resolves the targets of the job items with bulk queries, if the target resolver supports them, so that each item finds its target already cached. Targets that will be resolved lazily are left
+   * alone.
+   * 
+   * @param jobItems the job items, not null
+   */
+  private void prefetchTargets(final List<CalculationJobItem> jobItems) {
+    final ComputationTargetResolver.AtVersionCorrection resolver = getTargetResolver();
+    if ((jobItems.size() < 2) || !(resolver instanceof CachingComputationTargetResolver.AtVersionCorrection)) {
+      return;
+    }
+    final Set<ComputationTargetSpecification> targets = new HashSet<ComputationTargetSpecification>();
+    for (CalculationJobItem jobItem : jobItems) {
+      final ComputationTargetSpecification target = jobItem.getComputationTargetSpecification();
+      if (!LazyComputationTargetResolver.isLazilyResolvable(target)) {
+        targets.add(target);
+      }
+    }
+    if (targets.size() > 1) {
+      try {
+        ((CachingComputationTargetResolver.AtVersionCorrection) resolver).resolveTargets(targets);
+      } catch (final RuntimeException e) {
+        // Any targets not resolved here will be resolved, and failures reported, as each item is executed
+        s_logger.warn("Couldn't resolve job targets in bulk - {}", e.toString());
+      }
+    }
+  }
+
   private List<CalculationJobResultItem> executeJobItems() throws AsynchronousExecution {
     final List<CalculationJobItem> jobItems = getJob().getJobItems();
+    prefetchTargets(jobItems);
     final List<CalculationJobResultItem> resultItems = new ArrayList<CalculationJobResultItem>(jobItems.size());
     try {
-      executeJobItems(jobItems.iterator(), resultItems);
+      executeJobItems(jobItems.listIterator(), resultItems);
       return resultItems;
     } catch (final AsynchronousExecution e) {
       s_logger.debug("Asynchronous execution of remaining job items at {}", _nodeId);
@@ -674,11 +939,27 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     statistics.setExpectedDataOutputSamples(results.size());
     removeInvocationLoggingInfo();
     // store results
+    final Collection<ComputedValue> newResults = new ArrayList<ComputedValue>(outputs.length);
+    checkResults(invoker, missing, outputs, results, resultItemBuilder, newResults);
+    getCache().putValues(newResults, getJob().getCacheSelectHint(), statistics);
+  }
+
+  /**
+   * Matches the values returned by a function against the outputs expected from it, adding errors for any that are missing.
+   * 
+   * @param invoker the function invoker, not null
+   * @param missing a set to use as a buffer, any content will be replaced, not null
+   * @param outputs the expected outputs, not null
+   * @param results the values returned by the function, not null
+   * @param resultItemBuilder the result builder for the job item, not null
+   * @param newResults the collection to add the values to store to, not null
+   */
+  private void checkResults(final FunctionInvoker invoker, final Set<ValueSpecification> missing, final ValueSpecification[] outputs, final Collection<ComputedValue> results,
+      final CalculationJobResultItemBuilder resultItemBuilder, final Collection<ComputedValue> newResults) {
     missing.clear();
     for (ValueSpecification output : outputs) {
       missing.add(output);
     }
-    final Collection<ComputedValue> newResults = new ArrayList<ComputedValue>(outputs.length);
     for (ComputedValue result : results) {
       ValueSpecification resultSpec = result.getSpecification();
       final ComputationTargetSpecification targetSpec = ComputationTargetResolverUtils.simplifyType(resultSpec.getTargetSpecification(), getRawTargetResolver());
@@ -699,7 +980,6 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
       }
       resultItemBuilder.withMissingOutputs(missing);
     }
-    getCache().putValues(newResults, getJob().getCacheSelectHint(), statistics);
   }
 
   private void invokeException(final ValueSpecification[] outputs, final Throwable t, final CalculationJobResultItemBuilder resultItemBuilder) {
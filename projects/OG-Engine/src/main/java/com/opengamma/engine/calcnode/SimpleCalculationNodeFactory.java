@@ -34,6 +34,7 @@ public class SimpleCalculationNodeFactory implements InitializingBean {
   private boolean _useWriteBehindSharedCache;
   private boolean _useWriteBehindPrivateCache;
   private boolean _useAsynchronousTargetResolve;
+  private int _partialResultBatchSize;
   private FunctionBlacklistQuery _blacklistQuery;
   private FunctionBlacklistMaintainer _blacklistUpdate;
   private MaximumJobItemExecutionWatchdog _maxJobItemExecution;
@@ -105,6 +106,19 @@ public class SimpleCalculationNodeFactory implements InitializingBean {
     _useAsynchronousTargetResolve = useAsynchronousTargetResolve;
   }
 
+  public int getPartialResultBatchSize() {
+    return _partialResultBatchSize;
+  }
+
+  /**
+   * Sets the number of job items each node completes before publishing their results early, see {@link SimpleCalculationNode#setPartialResultBatchSize}.
+   *
+   * @param partialResultBatchSize the number of items in each partial result, or zero to disable streaming
+   */
+  public void setPartialResultBatchSize(final int partialResultBatchSize) {
+    _partialResultBatchSize = partialResultBatchSize;
+  }
+
   public void setNodeIdentifier(final String nodeIdentifier) {
     _nodeIdentifier = nodeIdentifier;
   }
@@ -159,6 +173,7 @@ public class SimpleCalculationNodeFactory implements InitializingBean {
     node.setUseWriteBehindSharedCache(isUseWriteBehindSharedCache());
     node.setUseWriteBehindPrivateCache(isUseWriteBehindPrivateCache());
     node.setUseAsynchronousTargetResolve(isUseAsynchronousTargetResolve());
+    node.setPartialResultBatchSize(getPartialResultBatchSize());
     if (getFunctionBlacklistQuery() != null) {
       node.setFunctionBlacklistQuery(getFunctionBlacklistQuery());
     }
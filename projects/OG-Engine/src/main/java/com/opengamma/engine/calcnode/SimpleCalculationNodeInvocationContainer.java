@@ -592,6 +592,8 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
       if (job.getExecution().threadBusy(job.getJob())) {
         try {
           if (resumeJob == null) {
+            // A resumed job restores its partial result receiver with the rest of the node state
+            node.setPartialResultReceiver((job.getReceiver() instanceof PartialJobResultReceiver) ? (PartialJobResultReceiver) job.getReceiver() : null);
             result = node.executeJob(job.getJob());
           } else {
             node.restoreState(resumeJob.getNodeState());
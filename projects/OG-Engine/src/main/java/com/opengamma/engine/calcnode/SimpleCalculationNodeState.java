@@ -20,6 +20,8 @@ import com.opengamma.engine.function.FunctionExecutionContext;
   private DeferredViewComputationCache _cache;
   private String _calculationConfiguration;
   private long _executionTime;
+  private PartialJobResultReceiver _partialResultReceiver;
+  private int _partialResultCount;
 
   private SimpleCalculationNodeState(final SimpleCalculationNodeState copyFrom) {
     restoreState(copyFrom);
@@ -42,6 +44,8 @@ import com.opengamma.engine.function.FunctionExecutionContext;
     setCache(state.getCache());
     setConfiguration(state.getConfiguration());
     setExecutionStartTime(state.getExecutionStartTime());
+    setPartialResultReceiver(state.getPartialResultReceiver());
+    setPartialResultCount(state.getPartialResultCount());
   }
 
   protected void setFunctionExecutionContext(FunctionExecutionContext functionExecutionContext) {
@@ -92,4 +96,20 @@ import com.opengamma.engine.function.FunctionExecutionContext;
     _executionTime = executionTime;
   }
 
+  protected PartialJobResultReceiver getPartialResultReceiver() {
+    return _partialResultReceiver;
+  }
+
+  protected void setPartialResultReceiver(final PartialJobResultReceiver partialResultReceiver) {
+    _partialResultReceiver = partialResultReceiver;
+  }
+
+  protected int getPartialResultCount() {
+    return _partialResultCount;
+  }
+
+  protected void setPartialResultCount(final int partialResultCount) {
+    _partialResultCount = partialResultCount;
+  }
+
 }
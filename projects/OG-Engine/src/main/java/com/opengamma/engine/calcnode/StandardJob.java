@@ -74,6 +74,11 @@ import com.opengamma.util.tuple.Triple;
     return _resultReceivers.remove(result.getSpecification());
   }
 
+  @Override
+  protected JobResultReceiver getPartialResultReceiver(final CalculationJobSpecification specification) {
+    return _resultReceivers.get(specification);
+  }
+
   @Override
   protected boolean isLastResult() {
     return _resultReceivers.isEmpty();
@@ -102,6 +102,14 @@ public final class DependencyGraphBuilder implements Cancelable {
    */
   private static final boolean DEBUG_DUMP_GZIP = System.getProperty("DependencyGraphBuilder.dumpGZIP", "FALSE").equalsIgnoreCase("TRUE");
 
+  /**
+   * The concurrency level hint given to the concurrent resolution caches, which are updated by every graph building thread. On Java 7 this is the number of lock segments in a
+   * {@link ConcurrentHashMap} so the default of 16 makes the threads contend with each other when many are used. Later Java versions lock individual bins and only use the value to size the map.
+   * This is four per processor core (or 16 if that is higher) by default but can be controlled by the {@code DependencyGraphBuilder.resolutionCacheConcurrency} property.
+   */
+  private static final int RESOLUTION_CACHE_CONCURRENCY = Integer.parseInt(System.getProperty("DependencyGraphBuilder.resolutionCacheConcurrency",
+      Integer.toString(Math.max(16, Runtime.getRuntime().availableProcessors() << 2))));
+
   /** Profiler for monitoring the {@link #abortLoops} operation. */
   private static final Profiler s_abortLoops = Profiler.create(DependencyGraphBuilder.class, "abortLoops");
 
@@ -146,13 +154,13 @@ public final class DependencyGraphBuilder implements Cancelable {
   private FunctionExclusionGroups _functionExclusionGroups;
 
   // The resolve task is ref-counted once for the map (it is being used as a set)
-  private final ConcurrentMap<ValueRequirement, Map<ResolveTask, ResolveTask>> _requirements = new ConcurrentHashMap<ValueRequirement, Map<ResolveTask, ResolveTask>>();
+  private final ConcurrentMap<ValueRequirement, Map<ResolveTask, ResolveTask>> _requirements = newResolutionCache();
 
   /** The number of active resolve tasks for this instance of DependencyGraphBuilder */
   private final AtomicInteger _activeResolveTasks = new AtomicInteger();
 
   // The resolve task is NOT ref-counted (it is only used for parent comparisons), but the value producer is
-  private final ConcurrentMap<ValueSpecification, MapEx<ResolveTask, ResolvedValueProducer>> _specifications = new ConcurrentHashMap<ValueSpecification, MapEx<ResolveTask, ResolvedValueProducer>>();
+  private final ConcurrentMap<ValueSpecification, MapEx<ResolveTask, ResolvedValueProducer>> _specifications = newResolutionCache();
 
   /**
    * Number of additional threads to launch while requirements are being added or the graph is being built. The total number of threads used for graph construction may be up to this value or may be
@@ -176,7 +184,28 @@ public final class DependencyGraphBuilder implements Cancelable {
     return NO_BACKGROUND_THREADS ? 0 : (MAX_ADDITIONAL_THREADS >= 0) ? MAX_ADDITIONAL_THREADS : Runtime.getRuntime().availableProcessors();
   }
 
+  /**
+   * Creates a concurrent map for state that is shared by all of the graph building threads, with the concurrency level {@link #RESOLUTION_CACHE_CONCURRENCY}.
+   * 
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return the new map
+   */
+  /* package */static <K, V> ConcurrentMap<K, V> newResolutionCache() {
+    return new ConcurrentHashMap<K, V>(16, 0.75f, RESOLUTION_CACHE_CONCURRENCY);
+  }
+
+  /**
+   * Returns the default source of run queues. This is {@link RunQueueFactory#getConcurrentLinkedQueue} unless another is named by the {@code DependencyGraphBuilder.runQueue} property, see
+   * {@link RunQueueFactory#of}.
+   * 
+   * @return the run queue factory, not null
+   */
   public static RunQueueFactory getDefaultRunQueueFactory() {
+    final String runQueue = System.getProperty("DependencyGraphBuilder.runQueue");
+    if (runQueue != null) {
+      return RunQueueFactory.of(runQueue);
+    }
     return RunQueueFactory.getConcurrentLinkedQueue();
   }
 
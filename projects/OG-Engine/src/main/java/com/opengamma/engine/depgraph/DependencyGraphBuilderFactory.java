@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import com.opengamma.engine.function.exclusion.FunctionExclusionGroups;
 import com.opengamma.engine.target.digest.TargetDigests;
+import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.MdcAwareThreadPoolExecutor;
 
 /**
@@ -53,6 +54,7 @@ public class DependencyGraphBuilderFactory {
   private RunQueueFactory _runQueue = DependencyGraphBuilder.getDefaultRunQueueFactory();
   private FunctionExclusionGroups _functionExclusionGroups;
   private TargetDigests _targetDigests;
+  private boolean _targetDigestFunctionResolution;
   private ComputationTargetCollapser _computationTargetCollapser;
   private final Executor _executor = createExecutor();
 
@@ -90,10 +92,26 @@ public class DependencyGraphBuilderFactory {
     return _enableFailureReporting;
   }
 
+  /**
+   * Sets the source of run queues for the builders. The default is {@link DependencyGraphBuilder#getDefaultRunQueueFactory}. When a large number of additional threads is allowed,
+   * {@link RunQueueFactory#getWorkStealing} may keep more of them busy.
+   * 
+   * @param runQueue the run queue factory, not null
+   */
   public void setRunQueueFactory(final RunQueueFactory runQueue) {
+    ArgumentChecker.notNull(runQueue, "runQueue");
     _runQueue = runQueue;
   }
 
+  /**
+   * Sets the source of run queues for the builders by name, for example {@code WorkStealing}, so that it can be chosen in the configuration. See {@link RunQueueFactory#of} for the names.
+   * 
+   * @param runQueue the run queue factory name, not null
+   */
+  public void setRunQueue(final String runQueue) {
+    setRunQueueFactory(RunQueueFactory.of(runQueue));
+  }
+
   public RunQueueFactory getRunQueueFactory() {
     return _runQueue;
   }
@@ -114,6 +132,20 @@ public class DependencyGraphBuilderFactory {
     return _targetDigests;
   }
 
+  /**
+   * Sets whether the function resolvers used with the builders should skip rules that have already produced no results for a target with the same digest. This can substantially reduce the number
+   * of functions probed when building graphs for large portfolios but is only safe if the target digests capture everything that affects whether a function applies to a target. The default is off.
+   * 
+   * @param targetDigestFunctionResolution true to enable, false to disable
+   */
+  public void setTargetDigestFunctionResolution(final boolean targetDigestFunctionResolution) {
+    _targetDigestFunctionResolution = targetDigestFunctionResolution;
+  }
+
+  public boolean isTargetDigestFunctionResolution() {
+    return _targetDigestFunctionResolution;
+  }
+
   public void setComputationTargetCollapser(final ComputationTargetCollapser computationTargetCollapser) {
     _computationTargetCollapser = computationTargetCollapser;
   }
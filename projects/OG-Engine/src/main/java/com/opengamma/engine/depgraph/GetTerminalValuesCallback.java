@@ -98,12 +98,12 @@ import com.opengamma.util.tuple.Pairs;
    * Buffer of resolved value specifications. For any entries in here, all input values have been previously resolved and are in this buffer or the partially constructed graph. Information here gets
    * used to construct dependency graph fragments whenever a terminal item can be resolved.
    */
-  private final ConcurrentMap<ValueSpecification, ResolvedValue> _resolvedBuffer = new ConcurrentHashMap<ValueSpecification, ResolvedValue>();
+  private final ConcurrentMap<ValueSpecification, ResolvedValue> _resolvedBuffer = DependencyGraphBuilder.newResolutionCache();
 
   /**
    * Index into the dependency graph nodes, keyed by their output specifications.
    */
-  private final Map<ValueSpecification, DependencyNode> _spec2Node = new ConcurrentHashMap<ValueSpecification, DependencyNode>();
+  private final Map<ValueSpecification, DependencyNode> _spec2Node = DependencyGraphBuilder.newResolutionCache();
 
   /**
    * Index into collapsed nodes. Target collapses may be chained so it might be necessary for follow a number of steps through this structure to get from a resolved value specification to the one that
@@ -174,7 +174,7 @@ import com.opengamma.util.tuple.Pairs;
    * The pair elements either contains the values, or arrays of the values. The first is either ValueProperties (or an array of them). The second is either DependencyNodeFunction (or an array of
    * them).
    */
-  private final ConcurrentMap<Object, ConcurrentMap<String, Pair<?, ?>>> _targetDigestInfo = new ConcurrentHashMap<Object, ConcurrentMap<String, Pair<?, ?>>>();
+  private final ConcurrentMap<Object, ConcurrentMap<String, Pair<?, ?>>> _targetDigestInfo = DependencyGraphBuilder.newResolutionCache();
 
   public GetTerminalValuesCallback(final ResolutionFailureListener failureListener) {
     _failureListener = failureListener;
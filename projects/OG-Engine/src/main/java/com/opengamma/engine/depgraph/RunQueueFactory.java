@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.depgraph;
 
+import com.opengamma.util.ArgumentChecker;
+
 /**
  * The source of run queues used by the graph building algorithm to track pending actions.
  */
@@ -15,6 +17,32 @@ public abstract class RunQueueFactory {
 
   /* package */abstract RunQueue createRunQueue();
 
+  /**
+   * Returns the factory with the given name, for selection from configuration. The names are {@code FifoLinkedList}, {@code LifoLinkedList}, {@code ConcurrentLinkedQueue}, {@code Ordered},
+   * {@code ConcurrentStack} and {@code WorkStealing}, matching the static factory methods which are called with their default parameters.
+   * 
+   * @param name the factory name, not null
+   * @return the factory instance, not null
+   * @throws IllegalArgumentException if the name is not recognized
+   */
+  public static RunQueueFactory of(final String name) {
+    ArgumentChecker.notNull(name, "name");
+    if ("FifoLinkedList".equals(name)) {
+      return getFifoLinkedList();
+    } else if ("LifoLinkedList".equals(name)) {
+      return getLifoLinkedList();
+    } else if ("ConcurrentLinkedQueue".equals(name)) {
+      return getConcurrentLinkedQueue();
+    } else if ("Ordered".equals(name)) {
+      return getOrdered();
+    } else if ("ConcurrentStack".equals(name)) {
+      return getConcurrentStack();
+    } else if ("WorkStealing".equals(name)) {
+      return getWorkStealing();
+    }
+    throw new IllegalArgumentException("Unknown run queue " + name);
+  }
+
   /**
    * Creates FIFO queues based on linked lists. The list can perform well when a single thread is used for graph building. Multi-threaded graph building may perform better with
    * {@link #getConcurrentLinkedQueue}.
@@ -111,4 +139,19 @@ public abstract class RunQueueFactory {
     };
   }
 
+  /**
+   * Creates work-stealing queues with a deque for each graph building thread. Each thread works through the tasks it has spawned in LIFO order, giving the caching benefits of
+   * {@link #getConcurrentStack}, and only touches the other threads' deques when it has run out of work. This can scale better than the shared queues when many threads are used for graph building.
+   * 
+   * @return the factory instance
+   */
+  public static RunQueueFactory getWorkStealing() {
+    return new RunQueueFactory() {
+      @Override
+      protected RunQueue createRunQueue() {
+        return new WorkStealingRunQueue();
+      }
+    };
+  }
+
 }
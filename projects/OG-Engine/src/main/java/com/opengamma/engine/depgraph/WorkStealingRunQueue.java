@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Run queue implementation with a deque for each worker thread, in the style of a fork-join pool.
+ * <p>
+ * A thread that takes from the queue is treated as a worker and given its own deque. Tasks added by a worker go onto its own deque and are taken back in LIFO order, so a worker tends to continue
+ * with the resolutions it has just spawned and the computation targets it has just resolved. Tasks added by any other thread, for example the requirements passed to
+ * {@link DependencyGraphBuilder#addTarget}, go onto a shared FIFO queue. A worker with an empty deque takes from the shared queue and then steals the oldest task from another worker's deque. Workers
+ * only contend with each other when stealing, rather than on every add and take as with a single shared queue.
+ * <p>
+ * A worker that finds no task to take is unregistered, discarding its thread local state, as the graph building threads are pooled and will go on to work for other builders. It is registered
+ * again if it takes from the queue later.
+ */
+/* package */final class WorkStealingRunQueue implements RunQueue {
+
+  private static final ConcurrentLinkedDeque<?>[] NO_WORKERS = new ConcurrentLinkedDeque<?>[0];
+
+  /**
+   * Per-worker state.
+   */
+  private static final class Worker {
+
+    private final ConcurrentLinkedDeque<ContextRunnable> _deque = new ConcurrentLinkedDeque<ContextRunnable>();
+
+    private final int _index;
+
+    public Worker(final int index) {
+      _index = index;
+    }
+
+  }
+
+  private final ConcurrentLinkedQueue<ContextRunnable> _shared = new ConcurrentLinkedQueue<ContextRunnable>();
+
+  private final ThreadLocal<Worker> _worker = new ThreadLocal<Worker>();
+
+  /**
+   * The deques of all of the workers, in the order they registered. This is replaced whenever a new worker registers, which only happens when a thread first takes from the queue.
+   */
+  private volatile ConcurrentLinkedDeque<ContextRunnable>[] _deques = deques(NO_WORKERS);
+
+  @SuppressWarnings("unchecked")
+  private static ConcurrentLinkedDeque<ContextRunnable>[] deques(final ConcurrentLinkedDeque<?>[] deques) {
+    return (ConcurrentLinkedDeque<ContextRunnable>[]) deques;
+  }
+
+  private synchronized void unregister(final Worker worker) {
+    _worker.remove();
+    final ConcurrentLinkedDeque<ContextRunnable>[] deques = _deques;
+    for (int i = 0; i < deques.length; i++) {
+      if (deques[i] == worker._deque) {
+        final ConcurrentLinkedDeque<?>[] newDeques = new ConcurrentLinkedDeque<?>[deques.length - 1];
+        System.arraycopy(deques, 0, newDeques, 0, i);
+        System.arraycopy(deques, i + 1, newDeques, i, newDeques.length - i);
+        _deques = deques(newDeques);
+        return;
+      }
+    }
+  }
+
+  private synchronized Worker register() {
+    final ConcurrentLinkedDeque<ContextRunnable>[] deques = _deques;
+    final Worker worker = new Worker(deques.length);
+    final ConcurrentLinkedDeque<?>[] newDeques = new ConcurrentLinkedDeque<?>[deques.length + 1];
+    System.arraycopy(deques, 0, newDeques, 0, deques.length);
+    newDeques[deques.length] = worker._deque;
+    _deques = deques(newDeques);
+    _worker.set(worker);
+    return worker;
+  }
+
+  /**
+   * Steals the oldest task from another worker. Victims are visited starting from the thief's neighbour so that concurrent thieves do not all converge on the same deque. The thief's index is
+   * only a starting hint as the deques are renumbered when workers unregister; its own deque is empty so visiting it is harmless.
+   *
+   * @param worker the thief
+   * @return the task, or null if there was nothing to steal
+   */
+  private ContextRunnable steal(final Worker worker) {
+    final ConcurrentLinkedDeque<ContextRunnable>[] deques = _deques;
+    final int count = deques.length;
+    if (count == 0) {
+      return null;
+    }
+    int index = worker._index % count;
+    for (int i = 0; i < count; i++) {
+      if (++index >= count) {
+        index = 0;
+      }
+      final ContextRunnable task = deques[index].pollFirst();
+      if (task != null) {
+        return task;
+      }
+    }
+    return null;
+  }
+
+  // RunQueue
+
+  @Override
+  public boolean isEmpty() {
+    if (!_shared.isEmpty()) {
+      return false;
+    }
+    for (ConcurrentLinkedDeque<ContextRunnable> deque : _deques) {
+      if (!deque.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int size() {
+    int size = _shared.size();
+    for (ConcurrentLinkedDeque<ContextRunnable> deque : _deques) {
+      size += deque.size();
+    }
+    return size;
+  }
+
+  @Override
+  public Iterator<ContextRunnable> iterator() {
+    final ConcurrentLinkedDeque<ContextRunnable>[] deques = _deques;
+    final List<ContextRunnable> tasks = new ArrayList<ContextRunnable>(_shared);
+    for (Collection<ContextRunnable> deque : deques) {
+      tasks.addAll(deque);
+    }
+    return tasks.iterator();
+  }
+
+  @Override
+  public void add(final ContextRunnable runnable) {
+    final Worker worker = _worker.get();
+    if (worker != null) {
+      worker._deque.addLast(runnable);
+    } else {
+      _shared.add(runnable);
+    }
+  }
+
+  @Override
+  public ContextRunnable take() {
+    Worker worker = _worker.get();
+    if (worker == null) {
+      worker = register();
+    }
+    ContextRunnable task = worker._deque.pollLast();
+    if (task != null) {
+      return task;
+    }
+    task = _shared.poll();
+    if (task != null) {
+      return task;
+    }
+    task = steal(worker);
+    if (task == null) {
+      // Only this thread adds to its deque so it is still empty and can be discarded
+      unregister(worker);
+    }
+    return task;
+  }
+
+  @Override
+  public String toString() {
+    return "WorkStealingRunQueue[" + _deques.length + " workers]";
+  }
+
+}
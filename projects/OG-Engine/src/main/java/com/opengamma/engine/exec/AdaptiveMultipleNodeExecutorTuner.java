@@ -0,0 +1,701 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.exec;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.engine.calcnode.stats.CalculationNodeStatistics;
+import com.opengamma.engine.calcnode.stats.TotallingNodeStatisticsGatherer;
+import com.opengamma.engine.exec.plan.MultipleNodeExecutionPlanner;
+import com.opengamma.engine.exec.stats.GraphExecutionStatistics;
+import com.opengamma.engine.exec.stats.TotallingGraphStatisticsGathererProvider;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Tunes the job partitioning parameters of a {@link MultipleNodeExecutorFactory} for each view by running controlled experiments across view cycles. Schedule this to run periodically.
+ * <p>
+ * Each view is given its own planner from the factory. One parameter at a time is scaled up or down and the graph executions that follow are measured. A change is kept if it reduces the execution
+ * time per dependency graph node by more than the tolerance, otherwise it is reverted and the next direction or parameter is tried. When no change to any parameter helps, the scaling step is reduced.
+ * Once the step falls below the minimum the view's settings are considered converged and are written to the persistence file, if one is set. Exploration restarts if the size of the view's graphs or
+ * their execution time drifts from the converged state, for example as a portfolio grows.
+ * <p>
+ * The tuned parameters are the minimum and maximum job items, the maximum job cost and the maximum tail concurrency. If calculation node statistics are available, a high dispatch overhead relative to
+ * execution time makes the tuner try larger jobs first.
+ * <p>
+ * Measurements are taken from differences between the totals held by the statistics gatherers. If a {@link MultipleNodeExecutorTuner} is also running against the same gatherers it should not decay
+ * the statistics.
+ */
+public class AdaptiveMultipleNodeExecutorTuner implements Runnable {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(AdaptiveMultipleNodeExecutorTuner.class);
+
+  /**
+   * The tuned parameters.
+   */
+  /* package */enum Parameter {
+    /**
+     * The minimum number of job items.
+     */
+    MINIMUM_JOB_ITEMS("minimumJobItems"),
+    /**
+     * The maximum number of job items.
+     */
+    MAXIMUM_JOB_ITEMS("maximumJobItems"),
+    /**
+     * The maximum job cost.
+     */
+    MAXIMUM_JOB_COST("maximumJobCost"),
+    /**
+     * The maximum tail concurrency.
+     */
+    MAXIMUM_CONCURRENCY("maximumConcurrency");
+
+    private final String _key;
+
+    private Parameter(final String key) {
+      _key = key;
+    }
+
+    public String getKey() {
+      return _key;
+    }
+
+  }
+
+  private static final Parameter[] PARAMETERS = Parameter.values();
+
+  /**
+   * An immutable set of parameter values.
+   */
+  /* package */static final class Settings {
+
+    private final long[] _values;
+
+    private Settings(final long[] values) {
+      _values = values;
+    }
+
+    public static Settings of(final MultipleNodeExecutionPlanner planner) {
+      final long[] values = new long[PARAMETERS.length];
+      values[Parameter.MINIMUM_JOB_ITEMS.ordinal()] = planner.getMinimumJobItems();
+      values[Parameter.MAXIMUM_JOB_ITEMS.ordinal()] = planner.getMaximumJobItems();
+      values[Parameter.MAXIMUM_JOB_COST.ordinal()] = planner.getMaximumJobCost();
+      values[Parameter.MAXIMUM_CONCURRENCY.ordinal()] = planner.getMaximumConcurrency();
+      return new Settings(values);
+    }
+
+    public long get(final Parameter parameter) {
+      return _values[parameter.ordinal()];
+    }
+
+    public Settings with(final Parameter parameter, final long value) {
+      final long[] values = _values.clone();
+      values[parameter.ordinal()] = value;
+      return new Settings(values);
+    }
+
+    public void applyTo(final MultipleNodeExecutionPlanner planner) {
+      planner.setMininumJobItems((int) get(Parameter.MINIMUM_JOB_ITEMS));
+      planner.setMaximimJobItems((int) get(Parameter.MAXIMUM_JOB_ITEMS));
+      planner.setMaximumJobCost(get(Parameter.MAXIMUM_JOB_COST));
+      planner.setMaximumConcurrency((int) get(Parameter.MAXIMUM_CONCURRENCY));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Settings)) {
+        return false;
+      }
+      return Arrays.equals(_values, ((Settings) o)._values);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(_values);
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder sb = new StringBuilder();
+      for (Parameter parameter : PARAMETERS) {
+        if (sb.length() > 0) {
+          sb.append(", ");
+        }
+        sb.append(parameter.getKey()).append('=').append(get(parameter));
+      }
+      return sb.toString();
+    }
+
+  }
+
+  /**
+   * Totals from the graph execution statistics of all processes of a view, and from the calculation node statistics at the same time.
+   */
+  private static final class Totals {
+
+    private long _graphs;
+    private long _nodes;
+    private long _actualTime;
+    private long _executionTime;
+    private long _nonExecutionTime;
+
+    public void add(final GraphExecutionStatistics statistics) {
+      _graphs += statistics.getExecutedGraphs();
+      _nodes += statistics.getExecutedNodes();
+      _actualTime += statistics.getActualTime();
+    }
+
+  }
+
+  /**
+   * The tuning state of a view.
+   */
+  private final class ViewState {
+
+    private final String _viewName;
+    private Settings _best;
+    private double _bestScore = Double.NaN;
+    private Settings _trial;
+    private int _parameter;
+    private int _direction;
+    private boolean _directionFlipped;
+    private int _failures;
+    private double _step;
+    private boolean _converged;
+    private double _convergedGraphSize = Double.NaN;
+    private Totals _baseline;
+    private boolean _warming;
+
+    public ViewState(final String viewName, final Settings best, final boolean converged) {
+      _viewName = viewName;
+      _best = best;
+      _converged = converged;
+      _step = getInitialStep();
+    }
+
+    private void restartExploration(final double score, final double overhead) {
+      _converged = false;
+      _convergedGraphSize = Double.NaN;
+      _bestScore = score;
+      _step = getInitialStep();
+      _failures = 0;
+      _parameter = 0;
+      startParameter(overhead);
+    }
+
+    private void startParameter(final double overhead) {
+      _directionFlipped = false;
+      if (PARAMETERS[_parameter] == Parameter.MAXIMUM_CONCURRENCY) {
+        _direction = 1;
+      } else {
+        // Larger jobs reduce dispatch overhead; smaller jobs give more parallelism
+        _direction = (overhead > getOverheadThreshold()) ? 1 : -1;
+      }
+    }
+
+    /**
+     * Moves on to the next experiment after the current one failed, or could not be made.
+     *
+     * @return false if the settings have converged, true to continue
+     */
+    private boolean nextExperiment(final double overhead) {
+      _failures++;
+      if (_failures >= PARAMETERS.length * 2) {
+        _failures = 0;
+        _step = Math.sqrt(_step);
+        if (_step < getMinimumStep()) {
+          return false;
+        }
+      }
+      if (_directionFlipped) {
+        _parameter = (_parameter + 1) % PARAMETERS.length;
+        startParameter(overhead);
+      } else {
+        _direction = -_direction;
+        _directionFlipped = true;
+      }
+      return true;
+    }
+
+    /**
+     * Chooses the next trial settings.
+     *
+     * @return the settings to apply, or null if the tuning has converged
+     */
+    private Settings proposeTrial(final double graphSize, final double graphTime, final int nodeCount, final double overhead) {
+      do {
+        final Settings trial = scale(_best, PARAMETERS[_parameter], _direction, _step, graphSize, graphTime, nodeCount);
+        if (trial != null) {
+          return trial;
+        }
+        if (!nextExperiment(overhead)) {
+          return null;
+        }
+      } while (true);
+    }
+
+    /**
+     * Processes a measurement of the current settings.
+     *
+     * @param score the execution time per node, in nanoseconds
+     * @param graphSize the mean number of nodes in each graph
+     * @param graphTime the mean execution time of each graph, in nanoseconds
+     * @param nodeCount the number of calculation nodes with statistics
+     * @param overhead the ratio of dispatch overhead to execution time at the calculation nodes
+     * @return the settings to apply, or null for no change
+     */
+    public Settings measured(final double score, final double graphSize, final double graphTime, final int nodeCount, final double overhead) {
+      if (_trial == null) {
+        if (_converged) {
+          if (Double.isNaN(_convergedGraphSize)) {
+            _convergedGraphSize = graphSize;
+          }
+          if (Double.isNaN(_bestScore)) {
+            _bestScore = score;
+            return null;
+          }
+          final double drift = getDriftThreshold();
+          if ((Math.abs(graphSize - _convergedGraphSize) <= _convergedGraphSize * drift) && (score <= _bestScore * (1 + drift))) {
+            return null;
+          }
+          s_logger.info("Restarting tuning of {}; mean graph size {}, time per node {}ns", new Object[] {_viewName, graphSize, score });
+          restartExploration(score, overhead);
+        } else if (Double.isNaN(_bestScore)) {
+          s_logger.info("Starting tuning of {} from {}; time per node {}ns", new Object[] {_viewName, _best, score });
+          restartExploration(score, overhead);
+        }
+      } else {
+        if (score < _bestScore * (1 - getTolerance())) {
+          s_logger.info("Accepting {} for {}; time per node {}ns from {}ns", new Object[] {_trial, _viewName, score, _bestScore });
+          _best = _trial;
+          _bestScore = score;
+          _failures = 0;
+          _directionFlipped = true;
+        } else {
+          s_logger.debug("Rejecting {} for {}; time per node {}ns against {}ns", new Object[] {_trial, _viewName, score, _bestScore });
+          if (!nextExperiment(overhead)) {
+            return converge(graphSize);
+          }
+        }
+      }
+      _trial = proposeTrial(graphSize, graphTime, nodeCount, overhead);
+      if (_trial == null) {
+        return converge(graphSize);
+      }
+      return _trial;
+    }
+
+    private Settings converge(final double graphSize) {
+      s_logger.info("Tuning of {} converged on {}; time per node {}ns", new Object[] {_viewName, _best, _bestScore });
+      _trial = null;
+      _converged = true;
+      _convergedGraphSize = graphSize;
+      save();
+      return _best;
+    }
+
+  }
+
+  private final MultipleNodeExecutorFactory _factory;
+  private final Map<String, ViewState> _views = new HashMap<String, ViewState>();
+
+  private TotallingGraphStatisticsGathererProvider _graphExecutionStatistics;
+  private TotallingNodeStatisticsGatherer _jobDispatchStatistics;
+  private File _persistenceFile;
+  private boolean _loaded;
+  private int _sampleGraphs = 10;
+  private int _warmupGraphs = 2;
+  private double _tolerance = 0.05;
+  private double _initialStep = 2;
+  private double _minimumStep = 1.1;
+  private double _driftThreshold = 0.25;
+  private double _overheadThreshold = 0.25;
+
+  /**
+   * Creates a new tuner.
+   *
+   * @param factory the factory to tune, not null
+   */
+  public AdaptiveMultipleNodeExecutorTuner(final MultipleNodeExecutorFactory factory) {
+    ArgumentChecker.notNull(factory, "factory");
+    _factory = factory;
+  }
+
+  protected MultipleNodeExecutorFactory getFactory() {
+    return _factory;
+  }
+
+  public void setGraphExecutionStatistics(final TotallingGraphStatisticsGathererProvider graphExecutionStatistics) {
+    _graphExecutionStatistics = graphExecutionStatistics;
+  }
+
+  protected TotallingGraphStatisticsGathererProvider getGraphExecutionStatistics() {
+    return _graphExecutionStatistics;
+  }
+
+  public void setJobDispatchStatistics(final TotallingNodeStatisticsGatherer jobDispatchStatistics) {
+    _jobDispatchStatistics = jobDispatchStatistics;
+  }
+
+  protected TotallingNodeStatisticsGatherer getJobDispatchStatistics() {
+    return _jobDispatchStatistics;
+  }
+
+  /**
+   * Sets the file the tuned settings are written to, and loaded from on the first run.
+   *
+   * @param persistenceFile the file, or null to not persist the settings
+   */
+  public void setPersistenceFile(final File persistenceFile) {
+    _persistenceFile = persistenceFile;
+  }
+
+  public File getPersistenceFile() {
+    return _persistenceFile;
+  }
+
+  /**
+   * Sets the number of graph executions that make up a measurement.
+   *
+   * @param sampleGraphs the number of graph executions, at least 1
+   */
+  public void setSampleGraphs(final int sampleGraphs) {
+    ArgumentChecker.isTrue(sampleGraphs > 0, "sampleGraphs");
+    _sampleGraphs = sampleGraphs;
+  }
+
+  public int getSampleGraphs() {
+    return _sampleGraphs;
+  }
+
+  /**
+   * Sets the number of graph executions to ignore after a change, while new execution plans are built.
+   *
+   * @param warmupGraphs the number of graph executions, at least 0
+   */
+  public void setWarmupGraphs(final int warmupGraphs) {
+    ArgumentChecker.notNegative(warmupGraphs, "warmupGraphs");
+    _warmupGraphs = warmupGraphs;
+  }
+
+  public int getWarmupGraphs() {
+    return _warmupGraphs;
+  }
+
+  /**
+   * Sets the fractional improvement in execution time needed to accept a change.
+   *
+   * @param tolerance the improvement, for example 0.05 for 5%
+   */
+  public void setTolerance(final double tolerance) {
+    ArgumentChecker.isTrue(tolerance >= 0 && tolerance < 1, "tolerance");
+    _tolerance = tolerance;
+  }
+
+  public double getTolerance() {
+    return _tolerance;
+  }
+
+  /**
+   * Sets the factor parameters are first scaled by.
+   *
+   * @param initialStep the factor, greater than the minimum step
+   */
+  public void setInitialStep(final double initialStep) {
+    ArgumentChecker.isTrue(initialStep > 1, "initialStep");
+    _initialStep = initialStep;
+  }
+
+  public double getInitialStep() {
+    return _initialStep;
+  }
+
+  /**
+   * Sets the scaling factor below which the settings are considered converged.
+   *
+   * @param minimumStep the factor, greater than 1
+   */
+  public void setMinimumStep(final double minimumStep) {
+    ArgumentChecker.isTrue(minimumStep > 1, "minimumStep");
+    _minimumStep = minimumStep;
+  }
+
+  public double getMinimumStep() {
+    return _minimumStep;
+  }
+
+  /**
+   * Sets the fractional change in graph size, or increase in execution time, that restarts tuning of a converged view.
+   *
+   * @param driftThreshold the fractional change, for example 0.25 for 25%
+   */
+  public void setDriftThreshold(final double driftThreshold) {
+    ArgumentChecker.isTrue(driftThreshold > 0, "driftThreshold");
+    _driftThreshold = driftThreshold;
+  }
+
+  public double getDriftThreshold() {
+    return _driftThreshold;
+  }
+
+  /**
+   * Sets the ratio of calculation node dispatch overhead to execution time above which larger jobs are tried first.
+   *
+   * @param overheadThreshold the ratio
+   */
+  public void setOverheadThreshold(final double overheadThreshold) {
+    ArgumentChecker.isTrue(overheadThreshold >= 0, "overheadThreshold");
+    _overheadThreshold = overheadThreshold;
+  }
+
+  public double getOverheadThreshold() {
+    return _overheadThreshold;
+  }
+
+  /**
+   * Scales one of the parameters, limiting it to sensible bounds. Unbounded limits are first replaced by the largest value that could have an effect.
+   *
+   * @return the new settings, or null if the parameter cannot be changed in that direction
+   */
+  /* package */static Settings scale(final Settings settings, final Parameter parameter, final int direction, final double step, final double graphSize, final double graphTime,
+      final int nodeCount) {
+    long value = settings.get(parameter);
+    boolean unbounded = false;
+    final long lower;
+    final long upper;
+    switch (parameter) {
+      case MINIMUM_JOB_ITEMS:
+        lower = 1;
+        upper = Math.min(settings.get(Parameter.MAXIMUM_JOB_ITEMS), Integer.MAX_VALUE);
+        break;
+      case MAXIMUM_JOB_ITEMS:
+        lower = settings.get(Parameter.MINIMUM_JOB_ITEMS);
+        upper = Integer.MAX_VALUE;
+        if (value == Integer.MAX_VALUE) {
+          // A job can't have more items than the graph
+          unbounded = true;
+          value = Math.max((long) Math.ceil(graphSize), lower);
+        }
+        break;
+      case MAXIMUM_JOB_COST:
+        lower = 1;
+        upper = Long.MAX_VALUE;
+        if (value == Long.MAX_VALUE) {
+          // A job can't cost more than the graph takes to execute
+          unbounded = true;
+          value = Math.max((long) graphTime, lower);
+        }
+        break;
+      case MAXIMUM_CONCURRENCY:
+        lower = 1;
+        upper = Integer.MAX_VALUE;
+        if (value == Integer.MAX_VALUE) {
+          if (nodeCount <= 0) {
+            return null;
+          }
+          unbounded = true;
+          value = nodeCount;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException(parameter.toString());
+    }
+    if ((direction > 0) && (unbounded || (value >= upper))) {
+      return null;
+    }
+    long scaled = (direction > 0) ? (long) Math.ceil(value * step) : (long) Math.floor(value / step);
+    if (scaled == value) {
+      scaled += direction;
+    }
+    if (scaled > upper) {
+      scaled = upper;
+    } else if (scaled < lower) {
+      scaled = lower;
+    }
+    if (scaled == settings.get(parameter)) {
+      return null;
+    }
+    return settings.with(parameter, scaled);
+  }
+
+  private void apply(final String viewName, final Settings settings) {
+    settings.applyTo(getFactory().getViewPlanner(viewName));
+    getFactory().invalidateCache(viewName);
+  }
+
+  private ViewState getOrCreateViewState(final String viewName) {
+    ViewState state = _views.get(viewName);
+    if (state == null) {
+      state = new ViewState(viewName, Settings.of(getFactory().getViewPlanner(viewName)), false);
+      _views.put(viewName, state);
+    }
+    return state;
+  }
+
+  /**
+   * Loads previously tuned settings from the persistence file and applies them to the factory.
+   */
+  public synchronized void load() {
+    _loaded = true;
+    final File file = getPersistenceFile();
+    if ((file == null) || !file.exists()) {
+      return;
+    }
+    final Properties properties = new Properties();
+    try (InputStream in = new FileInputStream(file)) {
+      properties.load(in);
+    } catch (IOException e) {
+      s_logger.warn("Couldn't read tuned settings from {}: {}", file, e.getMessage());
+      return;
+    }
+    final Map<String, Settings> views = new HashMap<String, Settings>();
+    for (String key : properties.stringPropertyNames()) {
+      final int separator = key.lastIndexOf('.');
+      if (separator <= 0) {
+        continue;
+      }
+      final String viewName = key.substring(0, separator);
+      final String parameterKey = key.substring(separator + 1);
+      for (Parameter parameter : PARAMETERS) {
+        if (parameter.getKey().equals(parameterKey)) {
+          Settings settings = views.get(viewName);
+          if (settings == null) {
+            settings = Settings.of(getFactory().getViewPlanner(viewName));
+          }
+          try {
+            views.put(viewName, settings.with(parameter, Long.parseLong(properties.getProperty(key))));
+          } catch (NumberFormatException e) {
+            s_logger.warn("Invalid value for {} in {}", key, file);
+          }
+          break;
+        }
+      }
+    }
+    for (Map.Entry<String, Settings> view : views.entrySet()) {
+      s_logger.info("Loaded {} for {}", view.getValue(), view.getKey());
+      view.getValue().applyTo(getFactory().getViewPlanner(view.getKey()));
+      _views.put(view.getKey(), new ViewState(view.getKey(), view.getValue(), true));
+    }
+    if (!views.isEmpty()) {
+      getFactory().invalidateCache();
+    }
+  }
+
+  /**
+   * Writes the best settings found for each view to the persistence file.
+   */
+  public synchronized void save() {
+    final File file = getPersistenceFile();
+    if (file == null) {
+      return;
+    }
+    final Properties properties = new Properties();
+    for (ViewState view : _views.values()) {
+      for (Parameter parameter : PARAMETERS) {
+        properties.setProperty(view._viewName + "." + parameter.getKey(), Long.toString(view._best.get(parameter)));
+      }
+    }
+    try (OutputStream out = new FileOutputStream(file)) {
+      properties.store(out, "Tuned " + MultipleNodeExecutorFactory.class.getSimpleName() + " settings");
+    } catch (IOException e) {
+      s_logger.warn("Couldn't write tuned settings to {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Makes one tuning step for each view with new graph execution statistics.
+   */
+  @Override
+  public synchronized void run() {
+    if (!_loaded) {
+      load();
+    }
+    if (getGraphExecutionStatistics() == null) {
+      return;
+    }
+    int nodeCount = 0;
+    long executionTime = 0;
+    long nonExecutionTime = 0;
+    if (getJobDispatchStatistics() != null) {
+      for (CalculationNodeStatistics statistics : getJobDispatchStatistics().getNodeStatistics()) {
+        nodeCount++;
+        executionTime += statistics.getExecutionTime();
+        nonExecutionTime += statistics.getNonExecutionTime();
+      }
+    }
+    final Map<String, Totals> views = new HashMap<String, Totals>();
+    for (TotallingGraphStatisticsGathererProvider.Statistics gatherer : getGraphExecutionStatistics().getViewStatistics()) {
+      final String viewName = getFactory().getViewName(gatherer.getViewProcessId());
+      if (viewName == null) {
+        continue;
+      }
+      Totals totals = views.get(viewName);
+      if (totals == null) {
+        totals = new Totals();
+        totals._executionTime = executionTime;
+        totals._nonExecutionTime = nonExecutionTime;
+        views.put(viewName, totals);
+      }
+      for (GraphExecutionStatistics statistics : gatherer.getExecutionStatistics()) {
+        totals.add(statistics);
+      }
+    }
+    for (Map.Entry<String, Totals> view : views.entrySet()) {
+      final ViewState state = getOrCreateViewState(view.getKey());
+      final Totals totals = view.getValue();
+      final Totals baseline = state._baseline;
+      state._baseline = totals;
+      if (baseline == null) {
+        continue;
+      }
+      final long graphs = totals._graphs - baseline._graphs;
+      final long nodes = totals._nodes - baseline._nodes;
+      final long actualTime = totals._actualTime - baseline._actualTime;
+      if ((graphs < 0) || (nodes < 0) || (actualTime < 0)) {
+        // Statistics have been reset or dropped; start a new measurement
+        continue;
+      }
+      if (state._warming) {
+        if (graphs >= getWarmupGraphs()) {
+          state._warming = false;
+        } else {
+          state._baseline = baseline;
+        }
+        continue;
+      }
+      if ((graphs < getSampleGraphs()) || (nodes == 0)) {
+        state._baseline = baseline;
+        continue;
+      }
+      final double score = (double) actualTime / (double) nodes;
+      // The node statistics are cumulative so use the change over the same window as the graph statistics
+      final long executionDelta = totals._executionTime - baseline._executionTime;
+      final long nonExecutionDelta = totals._nonExecutionTime - baseline._nonExecutionTime;
+      final double overhead = ((executionDelta > 0) && (nonExecutionDelta >= 0)) ? (double) nonExecutionDelta / (double) executionDelta : 0;
+      final Settings settings = state.measured(score, (double) nodes / (double) graphs, (double) actualTime / (double) graphs, nodeCount, overhead);
+      if (settings != null) {
+        apply(view.getKey(), settings);
+        state._warming = getWarmupGraphs() > 0;
+      }
+    }
+  }
+
+}
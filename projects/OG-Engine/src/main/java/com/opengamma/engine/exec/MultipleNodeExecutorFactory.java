@@ -5,20 +5,68 @@
  */
 package com.opengamma.engine.exec;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import net.sf.ehcache.CacheManager;
 
 import org.springframework.beans.factory.InitializingBean;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.engine.calcnode.stats.FunctionCosts;
 import com.opengamma.engine.exec.plan.CachingExecutionPlanner;
+import com.opengamma.engine.exec.plan.GraphExecutionPlanner;
 import com.opengamma.engine.exec.plan.MultipleNodeExecutionPlanner;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.cycle.SingleComputationCycle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.ArgumentChecker;
 
 /**
- * 
+ * Creates graph executors that partition each graph into jobs for execution across multiple calculation nodes.
+ * <p>
+ * The parameters set on the factory apply to all views. Individual views may be given their own parameters, for example by a tuner, with {@link #getViewPlanner}.
  */
 public class MultipleNodeExecutorFactory extends PlanBasedGraphExecutorFactory implements InitializingBean {
 
+  /**
+   * The planner used for a view with its own parameters.
+   */
+  private static final class ViewPlanner {
+
+    private final MultipleNodeExecutionPlanner _base;
+    private final GraphExecutionPlanner _planner;
+    private final CachingExecutionPlanner _cache;
+
+    public ViewPlanner(final MultipleNodeExecutionPlanner base, final CachingExecutionPlanner cache) {
+      _base = base;
+      _planner = (cache != null) ? cache : base;
+      _cache = cache;
+    }
+
+    public void invalidateCache() {
+      if (_cache != null) {
+        _cache.invalidate();
+      }
+    }
+
+  }
+
+  /**
+   * The maximum number of view processes to remember the view names of.
+   */
+  private static final int MAX_VIEW_PROCESSES = 1000;
+
   private final MultipleNodeExecutionPlanner _basePlanner;
+  private final ConcurrentMap<String, ViewPlanner> _viewPlanners = new ConcurrentHashMap<String, ViewPlanner>();
+  /**
+   * The view names of the processes that have executed cycles. An entry is replaced when the process executes a cycle of a different view definition and is otherwise kept until it is removed
+   * explicitly or, for processes that are no longer running, evicted by the size bound.
+   */
+  private final Cache<UniqueId, String> _viewProcesses = CacheBuilder.newBuilder().maximumSize(MAX_VIEW_PROCESSES).build();
   private CachingExecutionPlanner _cachingPlanner;
   private CacheManager _cacheManager;
 
@@ -137,6 +185,25 @@ public class MultipleNodeExecutorFactory extends PlanBasedGraphExecutorFactory i
     return _basePlanner.getMaximumConcurrency();
   }
 
+  /**
+   * Sets whether executable jobs are dispatched in order of least slack against the estimated critical path.
+   * 
+   * @param criticalPathScheduling true to prioritize jobs by slack, false otherwise
+   * @see MultipleNodeExecutionPlanner#setCriticalPathScheduling
+   */
+  public void setCriticalPathScheduling(final boolean criticalPathScheduling) {
+    _basePlanner.setCriticalPathScheduling(criticalPathScheduling);
+  }
+
+  /**
+   * Returns whether executable jobs are dispatched in order of least slack against the estimated critical path.
+   * 
+   * @return true if jobs are prioritized by slack, false otherwise
+   */
+  public boolean isCriticalPathScheduling() {
+    return _basePlanner.isCriticalPathScheduling();
+  }
+
   public void setFunctionCosts(final FunctionCosts functionCosts) {
     _basePlanner.setFunctionCosts(functionCosts);
   }
@@ -145,6 +212,80 @@ public class MultipleNodeExecutorFactory extends PlanBasedGraphExecutorFactory i
     return _basePlanner.getFunctionCosts();
   }
 
+  /**
+   * Returns the planner used for cycles of the named view, creating one with a copy of the current default parameters if the view does not already have its own.
+   * <p>
+   * Changes to the planner's parameters will only affect the named view. If plan caching is enabled then {@link #invalidateCache(String)} must be called for any changes to take effect. Each view
+   * planner caches its plans in its own region as the planner parameters are not part of the cache key.
+   * 
+   * @param viewName the view definition name, not null
+   * @return the planner for the view, not null
+   */
+  public MultipleNodeExecutionPlanner getViewPlanner(final String viewName) {
+    ArgumentChecker.notNull(viewName, "viewName");
+    ViewPlanner viewPlanner = _viewPlanners.get(viewName);
+    if (viewPlanner == null) {
+      final MultipleNodeExecutionPlanner base = new MultipleNodeExecutionPlanner();
+      base.setMininumJobItems(getMinimumJobItems());
+      base.setMaximimJobItems(getMaximumJobItems());
+      base.setMinimumJobCost(getMinimumJobCost());
+      base.setMaximumJobCost(getMaximumJobCost());
+      base.setMaximumConcurrency(getMaximumConcurrency());
+      base.setCriticalPathScheduling(isCriticalPathScheduling());
+      base.setFunctionCosts(getFunctionCosts());
+      final CacheManager cacheManager = getCacheManager();
+      viewPlanner = new ViewPlanner(base, (cacheManager != null) ? new CachingExecutionPlanner(base, cacheManager, viewName) : null);
+      final ViewPlanner existing = _viewPlanners.putIfAbsent(viewName, viewPlanner);
+      if (existing != null) {
+        viewPlanner = existing;
+      }
+    }
+    return viewPlanner._base;
+  }
+
+  /**
+   * Removes any parameters specific to the named view; cycles of the view will use the default parameters.
+   * 
+   * @param viewName the view definition name, not null
+   */
+  public void removeViewPlanner(final String viewName) {
+    ArgumentChecker.notNull(viewName, "viewName");
+    final ViewPlanner viewPlanner = _viewPlanners.remove(viewName);
+    if (viewPlanner != null) {
+      viewPlanner.invalidateCache();
+    }
+  }
+
+  /**
+   * Returns the names of the views that have their own parameters.
+   * 
+   * @return the view definition names, not null
+   */
+  public Set<String> getViewPlannerNames() {
+    return new HashSet<String>(_viewPlanners.keySet());
+  }
+
+  /**
+   * Returns the name of the view definition that a view process has executed cycles for.
+   * 
+   * @param viewProcessId the view process identifier, not null
+   * @return the view definition name, or null if no cycles have been executed for the process
+   */
+  public String getViewName(final UniqueId viewProcessId) {
+    return _viewProcesses.getIfPresent(viewProcessId);
+  }
+
+  /**
+   * Discards the view definition name recorded for a view process, for example when the process has terminated. Entries for processes that are not removed are eventually evicted once the
+   * names of more recent processes have been recorded.
+   * 
+   * @param viewProcessId the view process identifier, not null
+   */
+  public void removeViewProcess(final UniqueId viewProcessId) {
+    ArgumentChecker.notNull(viewProcessId, "viewProcessId");
+    _viewProcesses.invalidate(viewProcessId);
+  }
+
   /**
    * Invalidates any cached execution plans (if caching is enabled). If any of the parameters have been changed then this should be called so that they will take effect instead of any previously
    * cached plans being used.
@@ -154,6 +295,40 @@ public class MultipleNodeExecutorFactory extends PlanBasedGraphExecutorFactory i
     if (planner != null) {
       planner.invalidate();
     }
+    for (final ViewPlanner viewPlanner : _viewPlanners.values()) {
+      viewPlanner.invalidateCache();
+    }
+  }
+
+  /**
+   * Invalidates any cached execution plans (if caching is enabled) of a view that has its own parameters. If the view's parameters have been changed then this should be called so that they will
+   * take effect; plans cached for other views are not affected.
+   * 
+   * @param viewName the view definition name, not null
+   */
+  public void invalidateCache(final String viewName) {
+    ArgumentChecker.notNull(viewName, "viewName");
+    final ViewPlanner viewPlanner = _viewPlanners.get(viewName);
+    if (viewPlanner != null) {
+      viewPlanner.invalidateCache();
+    }
+  }
+
+  // PlanBasedGraphExecutorFactory
+
+  @Override
+  public DependencyGraphExecutor createExecutor(final SingleComputationCycle cycle) {
+    final ViewDefinition viewDefinition = cycle.getViewDefinition();
+    if ((viewDefinition != null) && (viewDefinition.getName() != null)) {
+      if (cycle.getViewProcessId() != null) {
+        _viewProcesses.put(cycle.getViewProcessId(), viewDefinition.getName());
+      }
+      final ViewPlanner viewPlanner = _viewPlanners.get(viewDefinition.getName());
+      if (viewPlanner != null) {
+        return new PlanBasedGraphExecutor(viewPlanner._planner, cycle);
+      }
+    }
+    return super.createExecutor(cycle);
   }
 
   // InitializingBean
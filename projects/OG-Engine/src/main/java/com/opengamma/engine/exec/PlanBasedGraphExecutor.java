@@ -8,9 +8,13 @@ package com.opengamma.engine.exec;
 import java.util.Map;
 import java.util.Set;
 
+import org.threeten.bp.Instant;
+
 import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.exec.plan.GraphExecutionPlan;
 import com.opengamma.engine.exec.plan.GraphExecutionPlanner;
+import com.opengamma.engine.function.CompiledFunctionRepository;
+import com.opengamma.engine.function.CompiledFunctionService;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.cycle.SingleComputationCycle;
@@ -39,11 +43,26 @@ public class PlanBasedGraphExecutor implements DependencyGraphExecutor {
     return _cycle;
   }
 
+  /**
+   * Returns the functions that the cycle will be executed with, so that the planner can order job items for batch invocation.
+   * 
+   * @return the functions, or null if they are not available
+   */
+  protected CompiledFunctionRepository getFunctions() {
+    final CompiledFunctionService functions = getCycle().getViewProcessContext().getFunctionCompilationService();
+    final Instant valuationTime = getCycle().getValuationTime();
+    if ((functions == null) || (valuationTime == null)) {
+      return null;
+    }
+    return functions.compileFunctionRepository(valuationTime);
+  }
+
   // DependencyGraphExecutor
 
   @Override
   public DependencyGraphExecutionFuture execute(final DependencyGraph graph, final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
-    final GraphExecutionPlan plan = getPlanner().createPlan(graph, getCycle().getViewProcessContext().getExecutionLogModeSource(), getCycle().getFunctionInitId(), sharedValues, parameters);
+    final GraphExecutionPlan plan = getPlanner().createPlan(graph, getCycle().getViewProcessContext().getExecutionLogModeSource(), getCycle().getFunctionInitId(), getFunctions(), sharedValues,
+        parameters);
     final PlanExecutor executor = new PlanExecutor(getCycle(), plan);
     executor.start();
     return executor;
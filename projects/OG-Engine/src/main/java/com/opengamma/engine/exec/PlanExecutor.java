@@ -7,6 +7,7 @@ package com.opengamma.engine.exec;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -19,8 +20,11 @@ import org.slf4j.LoggerFactory;
 
 import com.opengamma.engine.calcnode.CalculationJob;
 import com.opengamma.engine.calcnode.CalculationJobResult;
+import com.opengamma.engine.calcnode.CalculationJobResultItem;
 import com.opengamma.engine.calcnode.CalculationJobSpecification;
+import com.opengamma.engine.calcnode.JobDispatcher;
 import com.opengamma.engine.calcnode.JobResultReceiver;
+import com.opengamma.engine.calcnode.PartialJobResultReceiver;
 import com.opengamma.engine.exec.plan.ExecutingGraph;
 import com.opengamma.engine.exec.plan.GraphExecutionPlan;
 import com.opengamma.engine.exec.stats.GraphExecutorStatisticsGatherer;
@@ -30,8 +34,10 @@ import com.opengamma.util.async.Cancelable;
 
 /**
  * Executes a {@link GraphExecutionPlan} by forming jobs and submitting them to the available calculation nodes.
+ * <p>
+ * Calculation nodes that stream partial results allow dependent jobs to be released, and results to be passed to the cycle, before the whole of a job has completed.
  */
-public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGraphExecutionFuture {
+public class PlanExecutor implements JobResultReceiver, PartialJobResultReceiver, Cancelable, DependencyGraphExecutionFuture {
 
   private static final Logger s_logger = LoggerFactory.getLogger(PlanExecutor.class);
 
@@ -39,6 +45,7 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
 
     private final CalculationJob _job;
     private volatile Cancelable _cancel;
+    private int _delivered;
 
     public ExecutingJob(final CalculationJob job) {
       _job = job;
@@ -56,6 +63,21 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
       return _cancel;
     }
 
+    /**
+     * Returns the number of leading job items already passed to the cycle from partial results.
+     * <p>
+     * The caller must hold the executor's lock.
+     *
+     * @return the number of items delivered
+     */
+    public int getDelivered() {
+      return _delivered;
+    }
+
+    public void setDelivered(final int delivered) {
+      _delivered = delivered;
+    }
+
     // Cancelable
 
     @Override
@@ -128,6 +150,7 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
   }
 
   protected void submit(final CalculationJob job) {
+    final long priority = getGraph().getDispatchPriority(job.getSpecification());
     final ExecutingJob executing;
     synchronized (this) {
       if (_executing == null) {
@@ -142,7 +165,13 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
         storeTailJobs(job);
       }
     }
-    final Cancelable handle = getCycle().getViewProcessContext().getComputationJobDispatcher().dispatchJob(job, this);
+    final JobDispatcher dispatcher = getCycle().getViewProcessContext().getComputationJobDispatcher();
+    final Cancelable handle;
+    if (priority != 0) {
+      handle = dispatcher.dispatchJob(job, this, priority);
+    } else {
+      handle = dispatcher.dispatchJob(job, this);
+    }
     executing.setCancel(handle);
     synchronized (this) {
       if (_executing == null) {
@@ -230,11 +259,53 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
     return true;
   }
 
+  /**
+   * Creates a job containing a consecutive run of the items from an original job, for reporting part of that job's results to the cycle.
+   *
+   * @param job the original job, not null
+   * @param fromIndex the index of the first item to include
+   * @param toIndex the index after the last item to include
+   * @return the job, not null
+   */
+  protected static CalculationJob subJob(final CalculationJob job, final int fromIndex, final int toIndex) {
+    if ((fromIndex == 0) && (toIndex == job.getJobItems().size())) {
+      return job;
+    }
+    return new CalculationJob(job.getSpecification(), job.getFunctionInitializationIdentifier(), job.getResolverVersionCorrection(), job.getRequiredJobIds(), job.getJobItems().subList(fromIndex,
+        toIndex), job.getCacheSelectHint());
+  }
+
+  /**
+   * Notifies completion of the whole graph if this was the last outstanding notification.
+   *
+   * @param graph the executing graph, not null
+   */
+  private void notifyIfFinished(final ExecutingGraph graph) {
+    if (_notifyLock.decrementAndGet() == 0) {
+      if (graph.isFinished()) {
+        // If the lock count is still 0, then we will notify completion. If another thread caused graph completion, and is still notifying
+        // the job completion, the count will be positive. If another thread caused graph completion and got here before us then the count
+        // will already be -1.
+        if (_notifyLock.compareAndSet(0, -1)) {
+          final long duration = notifyComplete();
+          final GraphExecutorStatisticsGatherer statistics = getStatisticsGatherer();
+          statistics.graphExecuted(graph.getCalculationConfiguration(), _nodeCount, _executionTime, duration);
+          final long criticalPath = graph.getCriticalPathCost();
+          if (criticalPath > 0) {
+            s_logger.info("Executed {} in {}ms against estimated critical path of {}ms", new Object[] {this, duration / 1000000, criticalPath / 1000000 });
+            statistics.graphCriticalPath(graph.getCalculationConfiguration(), criticalPath, duration);
+          }
+        }
+      }
+    }
+  }
+
   // JobResultReceiver
 
   @Override
   public void resultReceived(final CalculationJobResult result) {
     final ExecutingJob job;
+    final int delivered;
     synchronized (this) {
       if (_executing == null) {
         // Already cancelled (or complete)
@@ -246,6 +317,7 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
         s_logger.warn("Unexpected (or duplicate completion of) {} for {}", result, this);
         return;
       }
+      delivered = job.getDelivered();
       _nodeCount += result.getResultItems().size();
       _executionTime += result.getDuration();
     }
@@ -254,18 +326,69 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
     graph.jobCompleted(result.getSpecification());
     s_logger.debug("{} completed for {}", result, this);
     submitExecutableJobs();
-    getCycle().jobCompleted(job.getJob(), result);
-    if (_notifyLock.decrementAndGet() == 0) {
-      if (graph.isFinished()) {
-        // If the lock count is still 0, then we will notify completion. If another thread caused graph completion, and is still notifying
-        // the job completion, the count will be positive. If another thread caused graph completion and got here before us then the count
-        // will already be -1.
-        if (_notifyLock.compareAndSet(0, -1)) {
-          final long duration = notifyComplete();
-          getStatisticsGatherer().graphExecuted(graph.getCalculationConfiguration(), _nodeCount, _executionTime, duration);
-        }
+    if (delivered == 0) {
+      getCycle().jobCompleted(job.getJob(), result);
+    } else {
+      // Only report the items that were not in any partial results
+      final List<CalculationJobResultItem> items = result.getResultItems();
+      if (delivered < items.size()) {
+        getCycle().jobCompleted(subJob(job.getJob(), delivered, items.size()),
+            new CalculationJobResult(result.getSpecification(), result.getDuration(), items.subList(delivered, items.size()), result.getComputeNodeId()));
+      }
+    }
+    notifyIfFinished(graph);
+  }
+
+  // PartialJobResultReceiver
+
+  @Override
+  public void partialResultReceived(final CalculationJobResult result, final int fromItem) {
+    final ExecutingJob job;
+    final int from;
+    final int to;
+    synchronized (this) {
+      if (_executing == null) {
+        return;
       }
+      job = _executing.get(result.getSpecification());
+      if (job == null) {
+        // Whole result already received
+        return;
+      }
+      from = job.getDelivered();
+      if (fromItem > from) {
+        // Out of sequence; the items before these have not been delivered so they will all come from the final result
+        s_logger.debug("Ignoring partial result from item {} of {}; only {} delivered", new Object[] {fromItem, job.getJob(), from });
+        return;
+      }
+      to = fromItem + result.getResultItems().size();
+      if (to <= from) {
+        // Stale or duplicate, for example from a retried attempt that has started again from the first item
+        s_logger.debug("Ignoring partial result to item {} of {}; already delivered {}", new Object[] {to, job.getJob(), from });
+        return;
+      }
+      if (to >= job.getJob().getJobItems().size()) {
+        // Leave the last items to the final result
+        return;
+      }
+      job.setDelivered(to);
+      // Hold off completion notification until the cycle has these results; the whole result can't be processed before this point
+      _notifyLock.incrementAndGet();
+    }
+    final ExecutingGraph graph = getGraph();
+    if (graph.jobPartiallyCompleted(job.getJob(), to)) {
+      s_logger.debug("{} items of {} released dependent jobs", to, job.getJob());
+      submitExecutableJobs();
+    }
+    if (fromItem == from) {
+      getCycle().jobCompleted(subJob(job.getJob(), from, to), result);
+    } else {
+      // Only report the items after those already delivered
+      final List<CalculationJobResultItem> items = result.getResultItems();
+      getCycle().jobCompleted(subJob(job.getJob(), from, to),
+          new CalculationJobResult(result.getSpecification(), result.getDuration(), items.subList(from - fromItem, items.size()), result.getComputeNodeId()));
     }
+    notifyIfFinished(graph);
   }
 
   // Future
@@ -49,6 +49,11 @@ public final class MultipleNodeExecutor implements MultipleNodeExecutorMBean {
     return getUnderlying().getMaximumConcurrency();
   }
 
+  @Override
+  public boolean isCriticalPathScheduling() {
+    return getUnderlying().isCriticalPathScheduling();
+  }
+
   @Override
   public long getMaximumJobCost() {
     return getUnderlying().getMaximumJobCost();
@@ -75,6 +80,12 @@ public final class MultipleNodeExecutor implements MultipleNodeExecutorMBean {
     getUnderlying().invalidateCache();
   }
 
+  @Override
+  public void setCriticalPathScheduling(boolean criticalPathScheduling) {
+    getUnderlying().setCriticalPathScheduling(criticalPathScheduling);
+    getUnderlying().invalidateCache();
+  }
+
   @Override
   public void setMaximumJobCost(long maximumJobCost) {
     getUnderlying().setMaximumJobCost(maximumJobCost);
@@ -21,5 +21,7 @@ public interface MultipleNodeExecutorMBean {
   long getMaximumJobCost();
   void setMaximumConcurrency(int maximumConcurrency);
   int getMaximumConcurrency();
+  void setCriticalPathScheduling(boolean criticalPathScheduling);
+  boolean isCriticalPathScheduling();
 
 }
@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.function.CompiledFunctionRepository;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.impl.ExecutionLogModeSource;
@@ -95,11 +96,24 @@ public class CachingExecutionPlanner implements GraphExecutionPlanner {
    * @param manager the cache manager from which to obtain the execution plan cache not null
    */
   public CachingExecutionPlanner(final GraphExecutionPlanner underlying, final CacheManager manager) {
+    this(underlying, manager, CACHE_NAME);
+  }
+
+  /**
+   * Constructs an instance with its own cache region. Plans created by planners with different parameters must be held in different regions as the parameters are not part of the cache key.
+   * 
+   * @param underlying the underlying execution planner, not null
+   * @param manager the cache manager from which to obtain the execution plan cache not null
+   * @param region the name of the region, not null
+   */
+  public CachingExecutionPlanner(final GraphExecutionPlanner underlying, final CacheManager manager, final String region) {
     ArgumentChecker.notNull(underlying, "underlying");
     ArgumentChecker.notNull(manager, "manager");
+    ArgumentChecker.notNull(region, "region");
     _underlying = underlying;
-    EHCacheUtils.addCache(manager, CACHE_NAME);
-    _cache = EHCacheUtils.getCacheFromManager(manager, CACHE_NAME);
+    final String cacheName = CACHE_NAME.equals(region) ? CACHE_NAME : CACHE_NAME + "-" + region;
+    EHCacheUtils.addCache(manager, cacheName);
+    _cache = EHCacheUtils.getCacheFromManager(manager, cacheName);
   }
 
   public synchronized void invalidate() {
@@ -112,9 +126,10 @@ public class CachingExecutionPlanner implements GraphExecutionPlanner {
   // GraphExecutionPlanner
 
   @Override
-  public GraphExecutionPlan createPlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitId, final Set<ValueSpecification> sharedValues,
-      final Map<ValueSpecification, FunctionParameters> parameters) {
+  public GraphExecutionPlan createPlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitId, final CompiledFunctionRepository functions,
+      final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
     // NOTE: The logModeSource is not used as part of the key; this is wrong as the plan contains job items which embed the logging requirements
+    // The functions are not part of the key; which of them can be batched is fixed for a given function initialisation identifier
     s_logger.debug("Searching for cached execution plan for {}/{}", graph, functionInitId);
     CacheKey key = new CacheKey(graph, functionInitId, sharedValues, parameters);
     final Element element = _cache.get(key);
@@ -123,7 +138,7 @@ public class CachingExecutionPlanner implements GraphExecutionPlanner {
       return ((GraphExecutionPlan) element.getObjectValue()).withCalculationConfiguration(graph.getCalculationConfigurationName());
     } else {
       s_logger.debug("Cache miss");
-      final GraphExecutionPlan plan = _underlying.createPlan(graph, logModeSource, functionInitId, sharedValues, parameters);
+      final GraphExecutionPlan plan = _underlying.createPlan(graph, logModeSource, functionInitId, functions, sharedValues, parameters);
       if (plan != null) {
         _cache.put(new Element(key, plan));
       }
@@ -135,7 +150,7 @@ public class CachingExecutionPlanner implements GraphExecutionPlanner {
    * Call this at the end of a unit test run to clear the state of EHCache. It should not be part of a generic lifecycle method.
    */
   protected void shutdown() {
-    _cache.getCacheManager().removeCache(CACHE_NAME);
+    _cache.getCacheManager().removeCache(_cache.getName());
   }
 
   // TODO [ENG-269] If the function costs change significantly, invalidate the execution plan cache.
@@ -5,16 +5,23 @@
  */
 package com.opengamma.engine.exec.plan;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 
 import org.threeten.bp.Instant;
 
 import com.opengamma.engine.calcnode.CalculationJob;
+import com.opengamma.engine.calcnode.CalculationJobItem;
 import com.opengamma.engine.calcnode.CalculationJobSpecification;
 import com.opengamma.engine.exec.JobIdSource;
+import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.ArgumentChecker;
@@ -24,6 +31,12 @@ import com.opengamma.util.ArgumentChecker;
  */
 public class ExecutingGraph {
 
+  /**
+   * The dispatch priority of a job on the critical path of its graph. Priorities are normalized to this scale so that jobs from different graphs sharing a dispatcher are ordered by their
+   * slack relative to their own graph's critical path, not by the absolute cost estimates of the graphs.
+   */
+  public static final long MAXIMUM_DISPATCH_PRIORITY = 1L << 20;
+
   /**
    * Temporary information used to construct tail execution chains.
    */
@@ -68,19 +81,35 @@ public class ExecutingGraph {
       return _job;
     }
 
+    public PlannedJob getBlockedJob() {
+      return _job;
+    }
+
     public boolean unblock() {
       return --_waitingFor == 0;
     }
 
   }
 
+  /**
+   * Orders jobs so that the one with the least slack against the critical path is first.
+   */
+  private static final Comparator<PlannedJob> s_criticalPathOrder = new Comparator<PlannedJob>() {
+    @Override
+    public int compare(final PlannedJob o1, final PlannedJob o2) {
+      return Long.compare(o2.getCriticalPathFinish(), o1.getCriticalPathFinish());
+    }
+  };
+
   private final GraphExecutionPlan _plan;
   private final UniqueId _cycleId;
   private final Instant _valuationTime;
   private final VersionCorrection _resolverVersionCorrection;
-  private final List<PlannedJob> _executable;
+  private final Queue<PlannedJob> _executable;
   private final Map<PlannedJob, BlockedJobInfo> _blocked;
   private final Map<CalculationJobSpecification, BlockedJobInfo[]> _executing;
+  private final Map<CalculationJobSpecification, PlannedJob> _prioritized;
+  private final Map<CalculationJobSpecification, int[]> _partial;
 
   /**
    * Creates a new execution state.
@@ -99,9 +128,17 @@ public class ExecutingGraph {
     _cycleId = cycleId;
     _valuationTime = valuationTime;
     _resolverVersionCorrection = resolverVersionCorrection;
-    _executable = new ArrayList<PlannedJob>(plan.getLeafJobs());
+    if (plan.isCriticalPathScheduling()) {
+      _executable = new PriorityQueue<PlannedJob>(Math.max(plan.getLeafJobs().size(), 1), s_criticalPathOrder);
+      _prioritized = new HashMap<CalculationJobSpecification, PlannedJob>();
+    } else {
+      _executable = Collections.asLifoQueue(new ArrayDeque<PlannedJob>());
+      _prioritized = null;
+    }
+    _executable.addAll(plan.getLeafJobs());
     _blocked = new HashMap<PlannedJob, BlockedJobInfo>();
     _executing = new HashMap<CalculationJobSpecification, BlockedJobInfo[]>();
+    _partial = new HashMap<CalculationJobSpecification, int[]>();
   }
 
   protected GraphExecutionPlan getPlan() {
@@ -128,6 +165,15 @@ public class ExecutingGraph {
     return _resolverVersionCorrection;
   }
 
+  /**
+   * Returns the estimated cost of the critical path through the graph.
+   * 
+   * @return the estimated cost in nanoseconds, or zero if not available
+   */
+  public long getCriticalPathCost() {
+    return getPlan().getCriticalPathCost();
+  }
+
   /**
    * Allocates a job specification.
    * 
@@ -229,12 +275,39 @@ public class ExecutingGraph {
    * @return an executable job, if one is available
    */
   public synchronized CalculationJob nextExecutableJob() {
-    final int index = _executable.size() - 1;
-    if (index < 0) {
+    final PlannedJob planned = _executable.poll();
+    if (planned == null) {
       return null;
     }
-    final PlannedJob planned = _executable.remove(index);
-    return createCalculationJob(planned);
+    final CalculationJob actual = createCalculationJob(planned);
+    if (_prioritized != null) {
+      _prioritized.put(actual.getSpecification(), planned);
+    }
+    return actual;
+  }
+
+  /**
+   * Returns the dispatch priority of a job previously returned by {@link #nextExecutableJob}. If the plan uses critical path scheduling, jobs with the least slack have the highest priority.
+   * Otherwise all jobs have the same priority.
+   * <p>
+   * The priority is the estimated completion time of the graph through the job as a fraction of the graph's critical path, scaled to {@link #MAXIMUM_DISPATCH_PRIORITY}. A job on the critical
+   * path of a short graph therefore ranks equally with one on the critical path of a long graph, and ahead of jobs from either graph that have slack.
+   * <p>
+   * The priority is only available once for each job.
+   * 
+   * @param jobSpec the job specification, not null
+   * @return the priority, higher values to be dispatched first
+   */
+  public synchronized long getDispatchPriority(final CalculationJobSpecification jobSpec) {
+    if (_prioritized == null) {
+      return 0;
+    }
+    final PlannedJob planned = _prioritized.remove(jobSpec);
+    final long criticalPathCost = getCriticalPathCost();
+    if ((planned == null) || (criticalPathCost <= 0)) {
+      return 0;
+    }
+    return Math.max(1L, (long) ((double) planned.getCriticalPathFinish() / (double) criticalPathCost * MAXIMUM_DISPATCH_PRIORITY));
   }
 
   /**
@@ -255,9 +328,11 @@ public class ExecutingGraph {
    */
   public synchronized void jobCompleted(CalculationJobSpecification jobSpec) {
     final BlockedJobInfo[] blockedJobs = _executing.remove(jobSpec);
+    _partial.remove(jobSpec);
     if (blockedJobs != null) {
       for (BlockedJobInfo blockedJob : blockedJobs) {
-        if (blockedJob.unblock()) {
+        // Entries are cleared when a partial completion has already released the dependent
+        if ((blockedJob != null) && blockedJob.unblock()) {
           final PlannedJob job = blockedJob.getJob();
           _executable.add(job);
           _blocked.remove(job);
@@ -266,6 +341,86 @@ public class ExecutingGraph {
     }
   }
 
+  /**
+   * Calculates, for each dependent of a job, the number of leading job items that must have completed before all of the values that the dependent requires from the job are available.
+   *
+   * @param items the job items, not null
+   * @param blockedJobs the dependents of the job, not null
+   * @return the number of items required by each dependent, not null
+   */
+  private static int[] getRequiredItemCounts(final List<CalculationJobItem> items, final BlockedJobInfo[] blockedJobs) {
+    final int[] required = new int[blockedJobs.length];
+    final Map<ValueSpecification, Integer> producers = new HashMap<ValueSpecification, Integer>();
+    for (int i = 0; i < items.size(); i++) {
+      final ValueSpecification[] outputs = items.get(i).getOutputs();
+      if (outputs == null) {
+        // Specifications not resolved; every dependent must wait for the whole job
+        Arrays.fill(required, items.size());
+        return required;
+      }
+      for (ValueSpecification output : outputs) {
+        producers.put(output, i);
+      }
+    }
+    for (int i = 0; i < blockedJobs.length; i++) {
+      int count = 0;
+      for (CalculationJobItem item : blockedJobs[i].getBlockedJob().getItems()) {
+        final ValueSpecification[] inputs = item.getInputs();
+        if (inputs == null) {
+          count = items.size();
+          break;
+        }
+        for (ValueSpecification input : inputs) {
+          final Integer producer = producers.get(input);
+          if ((producer != null) && (producer >= count)) {
+            count = producer + 1;
+          }
+        }
+      }
+      // A dependent that takes no values from the job directly (e.g. one reached through a tail) must wait for all of it
+      required[i] = (count > 0) ? count : items.size();
+    }
+    return required;
+  }
+
+  /**
+   * Notifies of a job, previously returned by {@link #nextExecutableJob} (either directly or as a job's tail), having completed some of its items. The outputs of the leading items must be available
+   * to other jobs, for example in the shared value cache.
+   * <p>
+   * Any jobs that were not yet executable because they require one or more results from this job may now become executable if all of the values they need from it are produced by the completed items.
+   * The job must still be notified to {@link #jobCompleted} when all of its items have completed.
+   *
+   * @param job the job that is executing, not null
+   * @param completedItems the number of leading items of the job that have completed
+   * @return true if any jobs were released, false otherwise
+   */
+  public synchronized boolean jobPartiallyCompleted(final CalculationJob job, final int completedItems) {
+    final CalculationJobSpecification jobSpec = job.getSpecification();
+    final BlockedJobInfo[] blockedJobs = _executing.get(jobSpec);
+    if (blockedJobs == null) {
+      return false;
+    }
+    int[] required = _partial.get(jobSpec);
+    if (required == null) {
+      required = getRequiredItemCounts(job.getJobItems(), blockedJobs);
+      _partial.put(jobSpec, required);
+    }
+    boolean released = false;
+    for (int i = 0; i < blockedJobs.length; i++) {
+      final BlockedJobInfo blockedJob = blockedJobs[i];
+      if ((blockedJob != null) && (required[i] <= completedItems)) {
+        blockedJobs[i] = null;
+        if (blockedJob.unblock()) {
+          final PlannedJob planned = blockedJob.getJob();
+          _executable.add(planned);
+          _blocked.remove(planned);
+          released = true;
+        }
+      }
+    }
+    return released;
+  }
+
   @Override
   public String toString() {
     return "ExecutingGraph-" + _plan.getCalculationConfiguration();
@@ -27,7 +27,7 @@ import com.opengamma.util.ArgumentChecker;
  */
 public class GraphExecutionPlan implements Serializable {
 
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
   private final String _calculationConfiguration;
   private final long _functionInitializationId;
@@ -36,6 +36,8 @@ public class GraphExecutionPlan implements Serializable {
   private final double _meanJobSize;
   private final double _meanJobCycleCost;
   private final double _meanJobIOCost;
+  private final long _criticalPathCost;
+  private final boolean _criticalPathScheduling;
 
   /**
    * Creates a new execution plan.
@@ -50,6 +52,23 @@ public class GraphExecutionPlan implements Serializable {
    */
   public GraphExecutionPlan(final String calculationConfiguration, final long functionInitializationId, final Collection<PlannedJob> leafJobs, final int totalJobs, final double meanJobSize,
       final double meanJobCycleCost, final double meanJobIOCost) {
+    this(calculationConfiguration, functionInitializationId, leafJobs, totalJobs, meanJobSize, meanJobCycleCost, meanJobIOCost, false);
+  }
+
+  /**
+   * Creates a new execution plan.
+   * 
+   * @param calculationConfiguration the configuration name, not null - this will be used for constructing job specifications
+   * @param functionInitializationId [PLAT-2241] this will go soon
+   * @param leafJobs the jobs that will execute first, not null and not containing null - these will refer to other jobs that form part of the full plan
+   * @param totalJobs the total number of jobs in the plan
+   * @param meanJobSize the mean job size
+   * @param meanJobCycleCost the mean of each job's CPU cost
+   * @param meanJobIOCost the mean of each job's I/O cost
+   * @param criticalPathScheduling true to release executable jobs in order of least slack against the critical path, false to release them in the order they became executable
+   */
+  public GraphExecutionPlan(final String calculationConfiguration, final long functionInitializationId, final Collection<PlannedJob> leafJobs, final int totalJobs, final double meanJobSize,
+      final double meanJobCycleCost, final double meanJobIOCost, final boolean criticalPathScheduling) {
     ArgumentChecker.notNull(calculationConfiguration, "calculationConfiguration");
     ArgumentChecker.notNull(leafJobs, "leafJobs");
     assert !leafJobs.contains(null);
@@ -60,6 +79,14 @@ public class GraphExecutionPlan implements Serializable {
     _meanJobSize = meanJobSize;
     _meanJobCycleCost = meanJobCycleCost;
     _meanJobIOCost = meanJobIOCost;
+    long criticalPathCost = 0;
+    for (PlannedJob leafJob : leafJobs) {
+      if (leafJob.getCriticalPathFinish() > criticalPathCost) {
+        criticalPathCost = leafJob.getCriticalPathFinish();
+      }
+    }
+    _criticalPathCost = criticalPathCost;
+    _criticalPathScheduling = criticalPathScheduling;
   }
 
   protected GraphExecutionPlan(final String calculationConfiguration, final GraphExecutionPlan copyFrom) {
@@ -71,6 +98,8 @@ public class GraphExecutionPlan implements Serializable {
     _meanJobSize = copyFrom._meanJobSize;
     _meanJobCycleCost = copyFrom._meanJobCycleCost;
     _meanJobIOCost = copyFrom._meanJobIOCost;
+    _criticalPathCost = copyFrom._criticalPathCost;
+    _criticalPathScheduling = copyFrom._criticalPathScheduling;
   }
 
   /**
@@ -119,6 +148,24 @@ public class GraphExecutionPlan implements Serializable {
     return _meanJobIOCost;
   }
 
+  /**
+   * Returns the estimated cost of the critical path through the graph. This is the shortest time in which the graph could be executed given unlimited calculation nodes.
+   * 
+   * @return the estimated cost in nanoseconds, or zero if no cost estimates were available when the plan was created
+   */
+  public long getCriticalPathCost() {
+    return _criticalPathCost;
+  }
+
+  /**
+   * Tests whether executable jobs will be released in order of least slack against the critical path.
+   * 
+   * @return true if jobs are prioritized by slack, false if they are released in the order they became executable
+   */
+  public boolean isCriticalPathScheduling() {
+    return _criticalPathScheduling;
+  }
+
   /**
    * Creates an execution state from the plan. The state may be used to deliver executable jobs that can be used to evaluate the graph that this plan represents.
    * 
@@ -136,7 +183,7 @@ public class GraphExecutionPlan implements Serializable {
   }
 
   public void print(final PrintStream out) {
-    out.println(getCalculationConfiguration() + ", " + getTotalJobs() + " job(s)");
+    out.println(getCalculationConfiguration() + ", " + getTotalJobs() + " job(s), critical path " + getCriticalPathCost());
     final Map<PlannedJob, Integer> jobs = new HashMap<PlannedJob, Integer>();
     for (PlannedJob job : getLeafJobs()) {
       job.print(out, "  ", jobs);
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Set;
 
 import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.function.CompiledFunctionRepository;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.impl.ExecutionLogModeSource;
@@ -18,7 +19,18 @@ import com.opengamma.engine.view.impl.ExecutionLogModeSource;
  */
 public interface GraphExecutionPlanner {
 
-  GraphExecutionPlan createPlan(DependencyGraph graph, ExecutionLogModeSource logModeSource, long functionInitialisationId, Set<ValueSpecification> sharedValues,
+  /**
+   * Creates an execution plan for a graph.
+   * 
+   * @param graph the graph to execute, not null
+   * @param logModeSource the execution log modes, not null
+   * @param functionInitialisationId the identifier of the function repository initialisation the graph was built with
+   * @param functions the functions the graph will be executed with, used to order job items for batch invocation, null if not known
+   * @param sharedValues the values already available in the shared cache, not null
+   * @param parameters the function parameters that override those in the graph, not null
+   * @return the plan, not null
+   */
+  GraphExecutionPlan createPlan(DependencyGraph graph, ExecutionLogModeSource logModeSource, long functionInitialisationId, CompiledFunctionRepository functions, Set<ValueSpecification> sharedValues,
       Map<ValueSpecification, FunctionParameters> parameters);
 
 }
@@ -466,7 +466,7 @@ import com.opengamma.engine.view.ExecutionLogMode;
     } else {
       dependentJobs = null;
     }
-    return new PlannedJob(getInputFragments().size(), items, hint, tailJobs, dependentJobs);
+    return new PlannedJob(getInputFragments().size(), JobItemGrouping.groupByFunction(items, context.getFunctions()), hint, tailJobs, dependentJobs, getJobCost(), getStartTime());
   }
 
   public PlannedJob getOrCreateJob(final GraphFragmentContext context) {
@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.opengamma.engine.function.CompiledFunctionRepository;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.impl.ExecutionLogModeSource;
@@ -21,14 +22,16 @@ import com.opengamma.engine.view.impl.ExecutionLogModeSource;
   private final String _calculationConfig;
   private final ExecutionLogModeSource _logModeSource;
   private final long _functionInitializationId;
+  private final CompiledFunctionRepository _functions;
   private final Map<ValueSpecification, Boolean> _sharedCacheValues = new HashMap<ValueSpecification, Boolean>();
   private final Map<ValueSpecification, FunctionParameters> _parameters;
 
   public GraphFragmentContext(final String calculationConfig, final ExecutionLogModeSource logModeSource, final long functionInitializationId,
-      final Collection<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
+      final CompiledFunctionRepository functions, final Collection<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
     _calculationConfig = calculationConfig;
     _logModeSource = logModeSource;
     _functionInitializationId = functionInitializationId;
+    _functions = functions;
     for (ValueSpecification sharedValue : sharedValues) {
       _sharedCacheValues.put(sharedValue, Boolean.TRUE);
     }
@@ -47,6 +50,10 @@ import com.opengamma.engine.view.impl.ExecutionLogModeSource;
     return _functionInitializationId;
   }
 
+  public CompiledFunctionRepository getFunctions() {
+    return _functions;
+  }
+
   public Map<ValueSpecification, Boolean> getSharedCacheValues() {
     return _sharedCacheValues;
   }
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.exec.plan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.opengamma.engine.calcnode.CalculationJobItem;
+import com.opengamma.engine.function.BatchFunctionInvoker;
+import com.opengamma.engine.function.CompiledFunctionRepository;
+import com.opengamma.engine.function.FunctionParameters;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Pairs;
+
+/**
+ * Orders the items of a job so that independent items for the same function and parameters are consecutive, allowing a calculation node to pass them to a {@link BatchFunctionInvoker} in a single
+ * call.
+ * <p>
+ * Each item is given a level, one more than the highest level of any item in the job that produces one of its inputs. Items on the same level cannot depend on each other, so the job is reordered
+ * level by level and, within each level, grouped by function in the order that each function first appears. Jobs that contain no more than one item for functions with a
+ * {@link BatchFunctionInvoker} are left in their original order.
+ * <p>
+ * The last group of one level may be for the same function as the first group of the next, so consecutive items are not necessarily independent; the calculation node checks this when forming a
+ * batch.
+ */
+/* package */final class JobItemGrouping {
+
+  private JobItemGrouping() {
+  }
+
+  /**
+   * Tests whether a job has at least two items for functions that can be invoked as a batch.
+   *
+   * @param items the job items, not null
+   * @param functions the functions the job will be executed with, null if not known
+   * @return true if reordering the job may allow items to be batched, false otherwise
+   */
+  private static boolean isBatchable(final List<CalculationJobItem> items, final CompiledFunctionRepository functions) {
+    if (functions == null) {
+      return false;
+    }
+    final Map<String, Boolean> batchFunctions = new HashMap<String, Boolean>();
+    int batchItems = 0;
+    for (CalculationJobItem item : items) {
+      Boolean batch = batchFunctions.get(item.getFunctionUniqueIdentifier());
+      if (batch == null) {
+        batch = functions.getInvoker(item.getFunctionUniqueIdentifier()) instanceof BatchFunctionInvoker;
+        batchFunctions.put(item.getFunctionUniqueIdentifier(), batch);
+      }
+      if (batch && (++batchItems > 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reorders job items, keeping every item after any others in the job that it depends on.
+   *
+   * @param items the job items, in a valid execution order, not null
+   * @param functions the functions the job will be executed with, null if not known in which case the items are not reordered
+   * @return the reordered job items, not null
+   */
+  public static List<CalculationJobItem> groupByFunction(final List<CalculationJobItem> items, final CompiledFunctionRepository functions) {
+    if ((items.size() < 3) || !isBatchable(items, functions)) {
+      // Nothing to gain from reordering
+      return items;
+    }
+    final Map<ValueSpecification, Integer> producerLevels = new HashMap<ValueSpecification, Integer>();
+    final List<Map<Pair<String, FunctionParameters>, List<CalculationJobItem>>> levels = new ArrayList<Map<Pair<String, FunctionParameters>, List<CalculationJobItem>>>();
+    for (CalculationJobItem item : items) {
+      int level = 0;
+      for (ValueSpecification input : item.getInputs()) {
+        final Integer inputLevel = producerLevels.get(input);
+        if ((inputLevel != null) && (inputLevel >= level)) {
+          level = inputLevel + 1;
+        }
+      }
+      for (ValueSpecification output : item.getOutputs()) {
+        producerLevels.put(output, level);
+      }
+      if (level == levels.size()) {
+        levels.add(new LinkedHashMap<Pair<String, FunctionParameters>, List<CalculationJobItem>>());
+      }
+      final Pair<String, FunctionParameters> key = Pairs.of(item.getFunctionUniqueIdentifier(), item.getFunctionParameters());
+      List<CalculationJobItem> group = levels.get(level).get(key);
+      if (group == null) {
+        group = new ArrayList<CalculationJobItem>();
+        levels.get(level).put(key, group);
+      }
+      group.add(item);
+    }
+    final List<CalculationJobItem> result = new ArrayList<CalculationJobItem>(items.size());
+    for (Map<Pair<String, FunctionParameters>, List<CalculationJobItem>> level : levels) {
+      for (List<CalculationJobItem> group : level.values()) {
+        result.addAll(group);
+      }
+    }
+    return result;
+  }
+
+}
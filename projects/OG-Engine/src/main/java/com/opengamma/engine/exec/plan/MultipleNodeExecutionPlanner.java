@@ -26,6 +26,7 @@ import com.opengamma.engine.calcnode.stats.FunctionCostsPerConfiguration;
 import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.depgraph.DependencyNode;
 import com.opengamma.engine.depgraph.impl.DependencyGraphImpl;
+import com.opengamma.engine.function.CompiledFunctionRepository;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.impl.ExecutionLogModeSource;
@@ -54,6 +55,7 @@ public class MultipleNodeExecutionPlanner implements GraphExecutionPlanner {
   private long _maximumJobCost = Long.MAX_VALUE;
   private int _maximumConcurrency = Integer.MAX_VALUE;
   private FunctionCosts _functionCosts = new FunctionCosts();
+  private boolean _criticalPathScheduling;
 
   /**
    * Sets the minimum number of items for each job.
@@ -172,9 +174,31 @@ public class MultipleNodeExecutionPlanner implements GraphExecutionPlanner {
     return _functionCosts;
   }
 
+  /**
+   * Sets whether plans should release executable jobs in order of least slack against the estimated critical path.
+   * <p>
+   * The slack of a job is how long it could be delayed without extending the graph's execution, estimated from the function costs. When there are more executable jobs than calculation nodes can
+   * accept, dispatching those with the least slack first keeps the critical path moving. If not set, jobs are released in the order they become executable.
+   * 
+   * @param criticalPathScheduling true to prioritize jobs by slack, false otherwise
+   */
+  public void setCriticalPathScheduling(final boolean criticalPathScheduling) {
+    _criticalPathScheduling = criticalPathScheduling;
+  }
+
+  /**
+   * Returns whether plans release executable jobs in order of least slack against the estimated critical path.
+   * 
+   * @return true if jobs are prioritized by slack, false otherwise
+   * @see #setCriticalPathScheduling
+   */
+  public boolean isCriticalPathScheduling() {
+    return _criticalPathScheduling;
+  }
+
   private GraphExecutionPlan createSingleNodePlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitializationId,
-      final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
-    return s_smallJobPlanner.createPlan(graph, logModeSource, functionInitializationId, sharedValues, parameters);
+      final CompiledFunctionRepository functions, final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
+    return s_smallJobPlanner.createPlan(graph, logModeSource, functionInitializationId, functions, sharedValues, parameters);
   }
 
   private static final class FragmentGatherer {
@@ -454,8 +478,8 @@ public class MultipleNodeExecutionPlanner implements GraphExecutionPlanner {
   }
 
   private GraphExecutionPlan createMultipleNodePlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitializationId,
-      final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
-    final GraphFragmentContext context = new GraphFragmentContext(graph.getCalculationConfigurationName(), logModeSource, functionInitializationId, sharedValues, parameters);
+      final CompiledFunctionRepository functions, final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
+    final GraphFragmentContext context = new GraphFragmentContext(graph.getCalculationConfigurationName(), logModeSource, functionInitializationId, functions, sharedValues, parameters);
     context.setTerminalOutputs(DependencyGraphImpl.getTerminalOutputSpecifications(graph));
     FragmentGatherer gatherer = new FragmentGatherer(graph.getSize(), getFunctionCosts().getStatistics(graph.getCalculationConfigurationName()), sharedValues);
     final Set<GraphFragment> rootFragments = createGraphFragments(graph, gatherer);
@@ -495,22 +519,22 @@ public class MultipleNodeExecutionPlanner implements GraphExecutionPlanner {
     }
     final int totalJobs = allFragments.size();
     return new GraphExecutionPlan(graph.getCalculationConfigurationName(), functionInitializationId, jobs, allFragments.size(), (double) totalSize / (double) totalJobs,
-        (double) totalInvocationCost / (double) totalJobs, (double) totalDataCost / (double) totalJobs);
+        (double) totalInvocationCost / (double) totalJobs, (double) totalDataCost / (double) totalJobs, isCriticalPathScheduling());
   }
 
   // GraphExecutionPlanner
 
   @Override
   public GraphExecutionPlan createPlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitialisationId,
-      final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
+      final CompiledFunctionRepository functions, final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
     final OperationTimer timer = new OperationTimer(s_logger, "Creating execution plan for {}", graph);
     try {
       if (graph.getSize() <= getMinimumJobItems()) {
         // If the graph is too small, run it as-is
-        return createSingleNodePlan(graph, logModeSource, functionInitialisationId, sharedValues, parameters);
+        return createSingleNodePlan(graph, logModeSource, functionInitialisationId, functions, sharedValues, parameters);
       } else {
         // Split the graph into multiple fragments
-        return createMultipleNodePlan(graph, logModeSource, functionInitialisationId, sharedValues, parameters);
+        return createMultipleNodePlan(graph, logModeSource, functionInitialisationId, functions, sharedValues, parameters);
       }
     } finally {
       timer.finished();
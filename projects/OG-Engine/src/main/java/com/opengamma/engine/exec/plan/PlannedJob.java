@@ -22,20 +22,54 @@ import com.opengamma.id.VersionCorrection;
  */
 public class PlannedJob implements Serializable {
 
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
   private final int _inputJobs;
   private final List<CalculationJobItem> _items;
   private final CacheSelectHint _cacheSelectHint;
   private final PlannedJob[] _tails;
   private final PlannedJob[] _dependents;
+  private final long _startTime;
+  private final long _pathCost;
 
   public PlannedJob(final int inputJobs, final List<CalculationJobItem> items, final CacheSelectHint cacheSelectHint, final PlannedJob[] tails, final PlannedJob[] dependents) {
+    this(inputJobs, items, cacheSelectHint, tails, dependents, 0, 0);
+  }
+
+  /**
+   * Creates a new planned job with cost estimates.
+   * <p>
+   * The tail and dependent jobs must already have been created so that the cost of the longest path from this job to the end of the graph can be calculated.
+   * 
+   * @param inputJobs the number of input jobs
+   * @param items the job items, not null
+   * @param cacheSelectHint the cache select hint, not null
+   * @param tails the tail jobs, or null for none
+   * @param dependents the dependent jobs, or null for none
+   * @param jobCost the estimated cost of this job, in nanoseconds
+   * @param startTime the estimated earliest start time of this job, in nanoseconds from the start of graph execution
+   */
+  public PlannedJob(final int inputJobs, final List<CalculationJobItem> items, final CacheSelectHint cacheSelectHint, final PlannedJob[] tails, final PlannedJob[] dependents,
+      final long jobCost, final long startTime) {
     _inputJobs = inputJobs;
     _items = items;
     _cacheSelectHint = cacheSelectHint;
     _tails = tails;
     _dependents = dependents;
+    _startTime = startTime;
+    _pathCost = jobCost + Math.max(getMaximumPathCost(tails), getMaximumPathCost(dependents));
+  }
+
+  private static long getMaximumPathCost(final PlannedJob[] jobs) {
+    long cost = 0;
+    if (jobs != null) {
+      for (PlannedJob job : jobs) {
+        if (job.getPathCost() > cost) {
+          cost = job.getPathCost();
+        }
+      }
+    }
+    return cost;
   }
 
   /**
@@ -85,6 +119,33 @@ public class PlannedJob implements Serializable {
     return _dependents;
   }
 
+  /**
+   * Returns the estimated earliest start time of the job, assuming unlimited calculation nodes.
+   * 
+   * @return the start time in nanoseconds from the start of graph execution
+   */
+  protected long getStartTime() {
+    return _startTime;
+  }
+
+  /**
+   * Returns the estimated cost of the longest path through the remaining graph that starts with this job. This includes the cost of the job itself and all tail and dependent jobs along that path.
+   * 
+   * @return the path cost in nanoseconds
+   */
+  protected long getPathCost() {
+    return _pathCost;
+  }
+
+  /**
+   * Returns the estimated completion time of the graph if this job is on the critical path. Jobs with a higher value have less slack and should be dispatched first.
+   * 
+   * @return the start time plus the path cost, in nanoseconds
+   */
+  protected long getCriticalPathFinish() {
+    return getStartTime() + getPathCost();
+  }
+
   /**
    * Creates a concrete calculation job that can be executed.
    * <p>
@@ -110,7 +171,7 @@ public class PlannedJob implements Serializable {
       jobs.put(this, id);
       alloc = true;
     }
-    out.println(indent + id + ": " + getItems().size() + " item(s)");
+    out.println(indent + id + ": " + getItems().size() + " item(s), start " + getStartTime() + ", path " + getPathCost());
     if (alloc) {
       for (CalculationJobItem item : getItems()) {
         out.println(indent + "  " + item.getFunctionUniqueIdentifier() + "(" + item.getComputationTargetSpecification() + "," + Arrays.asList(item.getInputs()) + ") = " +
@@ -21,6 +21,7 @@ import com.opengamma.engine.calcnode.CalculationJobItem;
 import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.depgraph.DependencyNode;
 import com.opengamma.engine.depgraph.impl.DependencyNodeImpl;
+import com.opengamma.engine.function.CompiledFunctionRepository;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.ExecutionLogMode;
@@ -84,8 +85,8 @@ public class SingleNodeExecutionPlanner implements GraphExecutionPlanner {
       _items.add(new CalculationJobItem(root.getFunction().getFunctionId(), functionParameters, root.getTarget(), inputs, outputs, logMode));
     }
 
-    public List<CalculationJobItem> getJobItems() {
-      return _items;
+    public List<CalculationJobItem> getJobItems(final CompiledFunctionRepository functions) {
+      return JobItemGrouping.groupByFunction(_items, functions);
     }
 
     public CacheSelectHint getCacheHint() {
@@ -99,8 +100,8 @@ public class SingleNodeExecutionPlanner implements GraphExecutionPlanner {
 
   }
 
-  protected static PlannedJob createJob(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final Set<ValueSpecification> sharedValues,
-      final Map<ValueSpecification, FunctionParameters> parameters) {
+  protected static PlannedJob createJob(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final CompiledFunctionRepository functions,
+      final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
     final JobBuilder builder = new JobBuilder(graph, logModeSource, sharedValues, parameters);
     final int roots = graph.getRootCount();
     iLoop: for (int i = 0; i < roots; i++) { //CSIGNORE
@@ -113,15 +114,15 @@ public class SingleNodeExecutionPlanner implements GraphExecutionPlanner {
       }
       builder.addNodes(root);
     }
-    return new PlannedJob(0, builder.getJobItems(), builder.getCacheHint(), null, null);
+    return new PlannedJob(0, builder.getJobItems(functions), builder.getCacheHint(), null, null);
   }
 
   // GraphExecutionPlanner
 
   @Override
-  public GraphExecutionPlan createPlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitialisationId, final Set<ValueSpecification> sharedValues,
-      final Map<ValueSpecification, FunctionParameters> parameters) {
-    final PlannedJob job = createJob(graph, logModeSource, sharedValues, parameters);
+  public GraphExecutionPlan createPlan(final DependencyGraph graph, final ExecutionLogModeSource logModeSource, final long functionInitialisationId,
+      final CompiledFunctionRepository functions, final Set<ValueSpecification> sharedValues, final Map<ValueSpecification, FunctionParameters> parameters) {
+    final PlannedJob job = createJob(graph, logModeSource, functions, sharedValues, parameters);
     return new GraphExecutionPlan(graph.getCalculationConfigurationName(), functionInitialisationId, Collections.singleton(job), 1, job.getItems().size(), Double.NaN, Double.NaN);
   }
 
@@ -23,6 +23,11 @@ public class DiscardingGraphStatisticsGathererProvider implements GraphExecutorS
       // No action
     }
 
+    @Override
+    public void graphCriticalPath(String calcConfig, long criticalPath, long duration) {
+      // No action
+    }
+
     @Override
     public void graphProcessed(String calcConfig, int totalJobs, double meanJobSize, double meanJobCycleCost, double meanJobIOCost) {
       // No action
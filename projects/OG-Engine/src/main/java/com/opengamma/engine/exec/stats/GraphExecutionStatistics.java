@@ -28,6 +28,9 @@ public class GraphExecutionStatistics {
   private final AtomicLong _processedJobSize = new AtomicLong();
   private final AtomicLong _processedJobCycleCost = new AtomicLong();
   private final AtomicLong _processedJobDataCost = new AtomicLong();
+  private final AtomicLong _criticalPathGraphs = new AtomicLong();
+  private final AtomicLong _criticalPathTime = new AtomicLong();
+  private final AtomicLong _criticalPathActualTime = new AtomicLong();
   private volatile Instant _lastProcessedTime;
   private volatile Instant _lastExecutedTime;
 
@@ -80,6 +83,18 @@ public class GraphExecutionStatistics {
     return _processedJobDataCost.get();
   }
 
+  public long getCriticalPathGraphs() {
+    return _criticalPathGraphs.get();
+  }
+
+  public long getCriticalPathTime() {
+    return _criticalPathTime.get();
+  }
+
+  public long getCriticalPathActualTime() {
+    return _criticalPathActualTime.get();
+  }
+
   public Instant getLastProcessedTime() {
     return _lastProcessedTime;
   }
@@ -142,6 +157,21 @@ public class GraphExecutionStatistics {
     }
   }
 
+  /**
+   * Returns the ratio of the estimated critical path to the actual execution time, for the graphs with an estimate. A value close to 1 means that execution is limited by the dependencies within the
+   * graph rather than by the scheduling of the jobs or capacity of the calculation nodes.
+   * 
+   * @return the ratio, or 0 if no graphs have a critical path estimate
+   */
+  public double getCriticalPathEfficiency() {
+    final long actualTime = getCriticalPathActualTime();
+    if (actualTime > 0) {
+      return (double) getCriticalPathTime() / (double) actualTime;
+    } else {
+      return 0;
+    }
+  }
+
   public void recordExecution(final int nodeCount, final long executionTime, final long duration) {
     _executedGraphs.incrementAndGet();
     _executedNodes.addAndGet(nodeCount);
@@ -150,6 +180,12 @@ public class GraphExecutionStatistics {
     _lastExecutedTime = Instant.now();
   }
 
+  public void recordCriticalPath(final long criticalPath, final long duration) {
+    _criticalPathGraphs.incrementAndGet();
+    _criticalPathTime.addAndGet(criticalPath);
+    _criticalPathActualTime.addAndGet(duration);
+  }
+
   public void recordProcessing(final int totalJobs, final double meanJobSize, double meanJobCycleCost, double meanJobIOCost) {
     if (Double.isNaN(meanJobCycleCost)) {
       meanJobCycleCost = getAverageJobCycleCost();
@@ -175,6 +211,9 @@ public class GraphExecutionStatistics {
     _processedJobSize.set(0);
     _processedJobCycleCost.set(0);
     _processedJobDataCost.set(0);
+    _criticalPathGraphs.set(0);
+    _criticalPathTime.set(0);
+    _criticalPathActualTime.set(0);
   }
 
   private static void decay(final AtomicLong value, final double factor) {
@@ -191,6 +230,9 @@ public class GraphExecutionStatistics {
     decay(_processedJobSize, factor);
     decay(_processedJobCycleCost, factor);
     decay(_processedJobDataCost, factor);
+    decay(_criticalPathGraphs, factor);
+    decay(_criticalPathTime, factor);
+    decay(_criticalPathActualTime, factor);
   }
 
   public GraphExecutionStatistics snapshot() {
@@ -209,6 +251,9 @@ public class GraphExecutionStatistics {
     _processedJobSize.set(other.getProcessedJobSize());
     _processedJobCycleCost.set(other.getProcessedJobCycleCost());
     _processedJobDataCost.set(other.getProcessedJobDataCost());
+    _criticalPathGraphs.set(other.getCriticalPathGraphs());
+    _criticalPathTime.set(other.getCriticalPathTime());
+    _criticalPathActualTime.set(other.getCriticalPathActualTime());
   }
 
   public void delta(final GraphExecutionStatistics future) {
@@ -221,5 +266,8 @@ public class GraphExecutionStatistics {
     _processedJobSize.set(future.getProcessedJobSize() - getProcessedJobSize());
     _processedJobCycleCost.set(future.getProcessedJobCycleCost() - getProcessedJobCycleCost());
     _processedJobDataCost.set(future.getProcessedJobDataCost() - getProcessedJobDataCost());
+    _criticalPathGraphs.set(future.getCriticalPathGraphs() - getCriticalPathGraphs());
+    _criticalPathTime.set(future.getCriticalPathTime() - getCriticalPathTime());
+    _criticalPathActualTime.set(future.getCriticalPathActualTime() - getCriticalPathActualTime());
   }
 }
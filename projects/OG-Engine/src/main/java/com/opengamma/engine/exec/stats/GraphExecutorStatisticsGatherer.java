@@ -35,4 +35,13 @@ public interface GraphExecutorStatisticsGatherer {
    */
   void graphExecuted(String calcConfig, int nodeCount, long executionTime, long duration);
 
+  /**
+   * Reports the estimated critical path of a graph executed by a {@link JobDispatcher}. This is only reported if the execution plan had cost estimates available.
+   * 
+   * @param calcConfig Calculation configuration name.
+   * @param criticalPath Estimated cost of the critical path through the graph, in nanoseconds.
+   * @param duration Time from first starting graph processing to completion.
+   */
+  void graphCriticalPath(String calcConfig, long criticalPath, long duration);
+
 }
@@ -51,6 +51,11 @@ public class TotallingGraphStatisticsGathererProvider extends PerViewStatisticsG
       getOrCreateConfiguration(calcConfig).recordExecution(nodeCount, executionTime, duration);
     }
 
+    @Override
+    public void graphCriticalPath(String calcConfig, long criticalPath, long duration) {
+      getOrCreateConfiguration(calcConfig).recordCriticalPath(criticalPath, duration);
+    }
+
     @Override
     public void graphProcessed(String calcConfig, int totalJobs, double meanJobSize, double meanJobCycleCost, double meanJobIOCost) {
       getOrCreateConfiguration(calcConfig).recordProcessing(totalJobs, meanJobSize, meanJobCycleCost, meanJobIOCost);
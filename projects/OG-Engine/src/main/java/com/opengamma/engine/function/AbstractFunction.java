@@ -6,6 +6,7 @@
 package com.opengamma.engine.function;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -193,6 +194,29 @@ public abstract class AbstractFunction implements FunctionDefinition {
     _uniqueId = uniqueId;
   }
 
+  /**
+   * The parameters the function was constructed with from configuration, if any.
+   */
+  private List<String> _configurationParameters;
+
+  /**
+   * Returns the parameters the function was constructed with from a function configuration, if known. These distinguish functions of the same class in fingerprints of a repository.
+   * 
+   * @return the parameters, null if not known
+   */
+  public List<String> getConfigurationParameters() {
+    return _configurationParameters;
+  }
+
+  /**
+   * Records the parameters the function was constructed with from a function configuration.
+   * 
+   * @param configurationParameters the parameters
+   */
+  public void setConfigurationParameters(final List<String> configurationParameters) {
+    _configurationParameters = configurationParameters;
+  }
+
   @Override
   public String getShortName() {
     // Note: don't use simple name as some are inner classes called "Impl" or similarly unhelpful
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.function;
+
+import java.util.List;
+import java.util.Set;
+
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.util.PublicSPI;
+
+/**
+ * Optional extension to {@link FunctionInvoker} for functions that can execute on many targets in a single call.
+ * <p>
+ * When a calculation node executes a job containing several consecutive items for the same function and function parameters, it will pass them all to {@link #executeBatch} instead of calling
+ * {@link #execute} once per item. The execution planners order the items of a job so that independent items for the same function are consecutive. A function can then amortise the lookups and
+ * set-up shared by the targets, for example fetching a curve bundle once, and work on all of the targets in a tight loop.
+ * <p>
+ * The single-target {@link #execute} method must still be implemented; it will be used when an item cannot be batched with any others.
+ */
+@PublicSPI
+public interface BatchFunctionInvoker extends FunctionInvoker {
+
+  /**
+   * Executes on each of the specified targets, producing the values desired. The lists are all the same size, with one element for each invocation. The function parameters set in the execution
+   * context are the same for every invocation.
+   * <p>
+   * Unlike {@link #execute}, this must execute synchronously. An exception thrown will result in a failure of every invocation in the batch.
+   *
+   * @param executionContext the execution-time configuration for these invocations
+   * @param inputs the required inputs pre-packaged for each invocation
+   * @param targets the target of each invocation
+   * @param desiredValues the only values that should be computed by each invocation
+   * @return the values computed by each invocation, in the same order as the targets, not null. An element may be null if nothing was computed by that invocation
+   */
+  List<Set<ComputedValue>> executeBatch(
+      FunctionExecutionContext executionContext,
+      List<FunctionInputs> inputs,
+      List<ComputationTarget> targets,
+      List<Set<ValueRequirement>> desiredValues);
+
+}
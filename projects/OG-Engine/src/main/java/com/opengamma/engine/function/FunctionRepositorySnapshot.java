@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.function;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.threeten.bp.Instant;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * The outcome of compiling a function repository, recorded so that another process can build an equivalent compiled repository without compiling every function up front.
+ * <p>
+ * Compiled function definitions hold references to the sources and other services of the process that compiled them, so cannot be serialized. The snapshot instead records the valuation time window
+ * that the compiled repository was valid for, the valuation time it was compiled at and the functions that could not be compiled. A process loading the snapshot can then compile each of the
+ * remaining functions at the same valuation time only when it is first used, knowing that the repository it presents will be valid for the whole window and that no function missing from it would
+ * have compiled.
+ * <p>
+ * A snapshot is keyed by a fingerprint of the function configuration, including function parameters, and the function initialization identifier. The initialization identifier is the timestamp at which the functions were
+ * initialized against the masters, so is changed whenever a master change causes function re-initialization.
+ */
+public final class FunctionRepositorySnapshot implements Serializable {
+
+  private static final long serialVersionUID = 2L;
+
+  private final String _key;
+  private final Instant _validFrom;
+  private final Instant _validTo;
+  private final Instant _compiledAt;
+  private final int _functionCount;
+  private final Set<String> _failedFunctions;
+
+  /**
+   * Creates a snapshot of a compiled repository.
+   *
+   * @param key the snapshot key from {@link #getKey}, not null
+   * @param functions the functions that were compiled, not null
+   * @param compiled the compiled repository, not null
+   * @param compiledAt the valuation time the repository was compiled at, not null
+   */
+  public FunctionRepositorySnapshot(final String key, final FunctionRepository functions, final InMemoryCompiledFunctionRepository compiled, final Instant compiledAt) {
+    ArgumentChecker.notNull(key, "key");
+    ArgumentChecker.notNull(functions, "functions");
+    ArgumentChecker.notNull(compiled, "compiled");
+    ArgumentChecker.notNull(compiledAt, "compiledAt");
+    _key = key;
+    _compiledAt = compiledAt;
+    _validFrom = compiled.getEarliestInvocationTime();
+    _validTo = compiled.getLatestInvocationTime();
+    final Collection<FunctionDefinition> allFunctions = functions.getAllFunctions();
+    final Set<String> failed = new HashSet<String>();
+    for (FunctionDefinition function : allFunctions) {
+      if (compiled.findDefinition(function.getUniqueId()) == null) {
+        failed.add(function.getUniqueId());
+      }
+    }
+    _functionCount = allFunctions.size();
+    _failedFunctions = failed;
+  }
+
+  /**
+   * Returns the key a snapshot of the given function repository will be stored under. This is a hash of the function initialization identifier and the repository's
+   * {@link #getFingerprint fingerprint}.
+   *
+   * @param functions the function repository, not null
+   * @param functionInitId the function initialization identifier
+   * @return the key, not null
+   */
+  public static String getKey(final FunctionRepository functions, final long functionInitId) {
+    return Hashing.sha1().newHasher().putLong(functionInitId).putString(getFingerprint(functions), StandardCharsets.UTF_8).hash().toString();
+  }
+
+  /**
+   * Returns a fingerprint of a function repository that is stable between processes. This is a hash of the identifiers, names and classes of the functions, the parameters they were constructed
+   * with from configuration and their default parameters.
+   *
+   * @param functions the function repository, not null
+   * @return the fingerprint, not null
+   */
+  public static String getFingerprint(final FunctionRepository functions) {
+    final List<String> identifiers = new ArrayList<String>();
+    for (FunctionDefinition function : functions.getAllFunctions()) {
+      final StringBuilder sb = new StringBuilder();
+      sb.append(function.getUniqueId()).append('\t').append(function.getShortName()).append('\t').append(function.getClass().getName());
+      if (function instanceof AbstractFunction) {
+        sb.append('\t').append(((AbstractFunction) function).getConfigurationParameters());
+      }
+      sb.append('\t').append(function.getDefaultParameters());
+      identifiers.add(sb.toString());
+    }
+    Collections.sort(identifiers);
+    final Hasher hasher = Hashing.sha1().newHasher();
+    for (String identifier : identifiers) {
+      hasher.putString(identifier, StandardCharsets.UTF_8).putByte((byte) '\n');
+    }
+    return hasher.hash().toString();
+  }
+
+  public String getKey() {
+    return _key;
+  }
+
+  /**
+   * Returns the earliest valuation time the compiled repository was valid for.
+   *
+   * @return the earliest valuation time, or null if there is no lower bound
+   */
+  public Instant getValidFrom() {
+    return _validFrom;
+  }
+
+  /**
+   * Returns the latest valuation time the compiled repository was valid for.
+   *
+   * @return the latest valuation time, or null if there is no upper bound
+   */
+  public Instant getValidTo() {
+    return _validTo;
+  }
+
+  /**
+   * Returns the valuation time the repository was compiled at. The validity window of a function depends on the valuation time it is compiled at, so functions must be compiled at this time for
+   * the snapshot's window to hold.
+   *
+   * @return the valuation time, not null
+   */
+  public Instant getCompiledAt() {
+    return _compiledAt;
+  }
+
+  public int getFunctionCount() {
+    return _functionCount;
+  }
+
+  /**
+   * Tests whether a function failed to compile, and should therefore be omitted from the repository.
+   *
+   * @param uniqueId the function identifier, not null
+   * @return true if the function failed to compile, false otherwise
+   */
+  public boolean isFailed(final String uniqueId) {
+    return _failedFunctions.contains(uniqueId);
+  }
+
+  /**
+   * Tests whether a valuation time falls within the window the snapshot is valid for.
+   *
+   * @param atInstant the valuation time, not null
+   * @return true if the snapshot can be used for the valuation time, false otherwise
+   */
+  public boolean isValidAt(final Instant atInstant) {
+    if ((_validFrom != null) && atInstant.isBefore(_validFrom)) {
+      return false;
+    }
+    if ((_validTo != null) && atInstant.isAfter(_validTo)) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "FunctionRepositorySnapshot[" + _key + ", " + _validFrom + " - " + _validTo + ", " + (_functionCount - _failedFunctions.size()) + "/" + _functionCount + " functions]";
+  }
+
+}
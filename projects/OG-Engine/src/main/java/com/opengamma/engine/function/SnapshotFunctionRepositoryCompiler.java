@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.function;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.MapMaker;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.PoolExecutor;
+import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Pairs;
+
+/**
+ * Implements a {@link FunctionRepositoryCompiler} that writes a {@link FunctionRepositorySnapshot} of each repository it compiles to a folder, and uses any matching snapshot already in the folder
+ * instead of compiling all of the functions.
+ * <p>
+ * When a snapshot exists for the function configuration, function initialization identifier and valuation time, the repository is created immediately and each function compiled the first time it
+ * is requested. Each function is compiled at the valuation time the snapshot was taken at, rather than the requested one, so that it has the same validity as when the snapshot was written. Unlike
+ * {@link LazyFunctionRepositoryCompiler}, the repository is then known to be valid for the snapshot's whole valuation time window so it is reused by subsequent cycles in that window.
+ * When there is no snapshot, the repository is compiled in full and a snapshot written for the next process.
+ * <p>
+ * Calculation nodes joining a running system can share a folder so that only the first node to see a new valuation time window pays for the full compilation. As with
+ * {@link LazyFunctionRepositoryCompiler}, a repository built from a snapshot only presents the functions that have been requested so it should not be used by a view processor for dependency graph
+ * compilation.
+ */
+public class SnapshotFunctionRepositoryCompiler extends CachingFunctionRepositoryCompiler {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(SnapshotFunctionRepositoryCompiler.class);
+
+  private static final String SUFFIX = ".frs";
+
+  private static final class Repository extends InMemoryCompiledFunctionRepository {
+
+    private final ConcurrentMap<String, FunctionDefinition> _uncompiled = new ConcurrentHashMap<String, FunctionDefinition>();
+    private final FunctionRepositorySnapshot _snapshot;
+
+    public Repository(final FunctionCompilationContext functionCompilationContext, final FunctionRepositorySnapshot snapshot) {
+      super(functionCompilationContext);
+      _snapshot = snapshot;
+    }
+
+    @Override
+    public CompiledFunctionDefinition getDefinition(final String uniqueId) {
+      FunctionDefinition function = _uncompiled.get(uniqueId);
+      if (function != null) {
+        synchronized (this) {
+          function = _uncompiled.get(uniqueId);
+          if (function != null) {
+            try {
+              s_logger.debug("Compiling {}", function);
+              addFunction(function.compile(getCompilationContext(), _snapshot.getCompiledAt()));
+            } catch (final RuntimeException e) {
+              // Don't propagate the error; it just won't be in the compiled repository as if it had been compiled in full
+              s_logger.warn("Compiling {} threw {}", function.getShortName(), e);
+            }
+            _uncompiled.remove(uniqueId);
+          }
+        }
+      }
+      return super.getDefinition(uniqueId);
+    }
+
+    public void addUncompiledFunction(final FunctionDefinition function) {
+      _uncompiled.put(function.getUniqueId(), function);
+    }
+
+    // Functions taken from neighbouring repositories were not compiled at the snapshot's time, so may narrow its window
+
+    @Override
+    public Instant getEarliestInvocationTime() {
+      final Instant snapshot = _snapshot.getValidFrom();
+      final Instant functions = super.getEarliestInvocationTime();
+      if ((snapshot == null) || ((functions != null) && functions.isAfter(snapshot))) {
+        return functions;
+      }
+      return snapshot;
+    }
+
+    @Override
+    public Instant getLatestInvocationTime() {
+      final Instant snapshot = _snapshot.getValidTo();
+      final Instant functions = super.getLatestInvocationTime();
+      if ((snapshot == null) || ((functions != null) && functions.isBefore(snapshot))) {
+        return functions;
+      }
+      return snapshot;
+    }
+
+  }
+
+  private final File _directory;
+
+  private final ConcurrentMap<FunctionRepository, Pair<Long, String>> _keys = new MapMaker().weakKeys().makeMap();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param directory the folder to read and write snapshots in, not null. This will be created if it does not exist.
+   */
+  public SnapshotFunctionRepositoryCompiler(final File directory) {
+    ArgumentChecker.notNull(directory, "directory");
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new OpenGammaRuntimeException("Couldn't create snapshot folder " + directory);
+    }
+    _directory = directory;
+  }
+
+  public File getDirectory() {
+    return _directory;
+  }
+
+  /**
+   * Returns the snapshot key for a function repository. This is only recalculated when the function initialization identifier changes.
+   *
+   * @param functions the function repository, not null
+   * @param functionInitId the function initialization identifier
+   * @return the key, not null
+   */
+  protected String getSnapshotKey(final FunctionRepository functions, final long functionInitId) {
+    Pair<Long, String> key = _keys.get(functions);
+    if ((key == null) || (key.getFirst() != functionInitId)) {
+      key = Pairs.of(functionInitId, FunctionRepositorySnapshot.getKey(functions, functionInitId));
+      _keys.put(functions, key);
+    }
+    return key.getSecond();
+  }
+
+  /**
+   * Reads a snapshot from disk.
+   *
+   * @param key the snapshot key, not null
+   * @param atInstant the valuation time the snapshot must be valid for, not null
+   * @return the snapshot, or null if there is no usable one
+   */
+  protected FunctionRepositorySnapshot read(final String key, final Instant atInstant) {
+    final File[] files = getDirectory().listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(final File dir, final String name) {
+        return name.startsWith(key) && name.endsWith(SUFFIX);
+      }
+    });
+    if (files != null) {
+      for (File file : files) {
+        final FunctionRepositorySnapshot snapshot;
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+          snapshot = (FunctionRepositorySnapshot) ois.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+          s_logger.warn("Discarding unreadable snapshot {} - {}", file, e.toString());
+          file.delete();
+          continue;
+        }
+        if (key.equals(snapshot.getKey()) && snapshot.isValidAt(atInstant)) {
+          return snapshot;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Writes a snapshot to disk. The snapshot is written to a temporary file first and then moved into place so that a partially written snapshot is never read.
+   *
+   * @param snapshot the snapshot, not null
+   */
+  protected void write(final FunctionRepositorySnapshot snapshot) {
+    final File file = new File(getDirectory(), snapshot.getKey() + '-' + ((snapshot.getValidFrom() != null) ? Long.toString(snapshot.getValidFrom().toEpochMilli()) : "") + SUFFIX);
+    File temp = null;
+    try {
+      temp = File.createTempFile("frs", ".tmp", getDirectory());
+      try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        oos.writeObject(snapshot);
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      temp = null;
+    } catch (IOException e) {
+      s_logger.warn("Couldn't write {} to {} - {}", new Object[] {snapshot, file, e.toString() });
+    } finally {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  @Override
+  protected InMemoryCompiledFunctionRepository compile(final FunctionCompilationContext context, final FunctionRepository functions, final Instant atInstant,
+      final InMemoryCompiledFunctionRepository before, final InMemoryCompiledFunctionRepository after, final PoolExecutor poolExecutor) {
+    final Long functionInitId = context.getFunctionInitId();
+    if (functionInitId == null) {
+      return super.compile(context, functions, atInstant, before, after, poolExecutor);
+    }
+    final String key = getSnapshotKey(functions, functionInitId);
+    final FunctionRepositorySnapshot snapshot = read(key, atInstant);
+    if (snapshot != null) {
+      s_logger.info("Using {} for {}", snapshot, atInstant);
+      final Repository compiled = new Repository(context, snapshot);
+      for (final FunctionDefinition function : functions.getAllFunctions()) {
+        if (snapshot.isFailed(function.getUniqueId())) {
+          continue;
+        }
+        if (addFunctionFromCachedRepository(before, after, compiled, function, atInstant)) {
+          continue;
+        }
+        compiled.addUncompiledFunction(function);
+      }
+      return compiled;
+    }
+    s_logger.info("No snapshot for {}; compiling all functions", atInstant);
+    final InMemoryCompiledFunctionRepository compiled = super.compile(context, functions, atInstant, before, after, poolExecutor);
+    write(new FunctionRepositorySnapshot(key, functions, compiled, atInstant));
+    return compiled;
+  }
+
+}
@@ -150,6 +150,7 @@ public abstract class FunctionRepositoryFactory implements ChangeProvider {
     try {
       final Class<?> definitionClass = ReflectionUtils.loadClass(functionConfig.getDefinitionClassName());
       final AbstractFunction functionDefinition = createParameterizedFunction(definitionClass, functionConfig.getParameter());
+      functionDefinition.setConfigurationParameters(functionConfig.getParameter());
       repository.addFunction(functionDefinition);
     } catch (final RuntimeException ex) {
       s_logger.error("Unable to add function definition {}, ignoring", functionConfig);
@@ -17,6 +17,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
@@ -36,6 +37,7 @@ import com.opengamma.engine.target.ComputationTargetResolverUtils;
 import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.target.ComputationTargetTypeMap;
 import com.opengamma.engine.target.ComputationTargetTypeVisitor;
+import com.opengamma.engine.target.digest.TargetDigests;
 import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.id.UniqueIdentifiable;
@@ -50,6 +52,10 @@ import com.opengamma.util.tuple.Triple;
  * <p>
  * The aim of the resolution is to find functions that are capable of satisfying a requirement. In addition, a priority mechanism is used to return functions in priority order from highest to lowest.
  * <p>
+ * Once a target has been considered, the rules which produced results for it are indexed by value name so that each requirement on the target is only tested against rules that can produce it.
+ * If {@link TargetDigests} are set, a rule that produces no results for a target is not considered for any other target of the same type and digest. This is only appropriate if the digests capture
+ * everything that the functions' {@code canApplyTo} and {@code getResults} methods depend on. Hit and miss counts for each rule are available from {@link #getStatistics}.
+ * <p>
  * This class is not thread-safe. It is possible to call {@link #resolveFunction} concurrently from multiple threads, the rule manipulation methods require external locking.
  */
 public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver {
@@ -75,6 +81,18 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
     }
   };
 
+  /**
+   * Comparator to order rule statistics from the most to least expensive.
+   */
+  private static final Comparator<ResolutionRuleStatistics> STATISTICS_COMPARATOR = new Comparator<ResolutionRuleStatistics>() {
+    @Override
+    public int compare(final ResolutionRuleStatistics o1, final ResolutionRuleStatistics o2) {
+      return Long.compare(o2.getNanos(), o1.getNanos());
+    }
+  };
+
+  private static final int[] NO_RULES = new int[0];
+
   /**
    * Holds an arbitrary bundle of rules with mixed priorities. Instances can attach to a "parent" bundle to receive copies of those rules. For example a rule that applies to objects of type A must be
    * present in the bundles for objects of sub-types of A.
@@ -317,7 +335,22 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
   /**
    * Cache of targets. The values are weak so that when the function iterators drop out of scope as the requirements on the target are resolved the entry can be dropped.
    */
-  private final ConcurrentMap<ComputationTargetSpecification, Pair<ResolutionRule[], Collection<ValueSpecification>[]>> _targetCache = new MapMaker().weakValues().makeMap();
+  private final ConcurrentMap<ComputationTargetSpecification, TargetRules> _targetCache = new MapMaker().weakValues().makeMap();
+
+  /**
+   * The rules that have been found to produce no results for a target, keyed by the target type and digest.
+   */
+  private final ConcurrentMap<Pair<ComputationTargetType, Object>, Set<ResolutionRule>> _digestMisses = new ConcurrentHashMap<Pair<ComputationTargetType, Object>, Set<ResolutionRule>>();
+
+  /**
+   * The usage statistics for each rule, created by {@link #compileRules}.
+   */
+  private Map<ResolutionRule, ResolutionRuleStatistics> _statistics = Collections.emptyMap();
+
+  /**
+   * The target digests used to skip rules that do not apply to similar targets, null to consider every rule for every target.
+   */
+  private TargetDigests _targetDigests;
 
   /**
    * Function definition lookup.
@@ -439,6 +472,7 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
   public void compileRules() {
     final Iterator<Map.Entry<ComputationTargetType, Iterable<Collection<ResolutionRule>>>> itr = _type2Rules.entries().iterator();
     int count = 0;
+    final Map<ResolutionRule, ResolutionRuleStatistics> statistics = new HashMap<ResolutionRule, ResolutionRuleStatistics>();
     while (itr.hasNext()) {
       final Map.Entry<ComputationTargetType, Iterable<Collection<ResolutionRule>>> e = itr.next();
       final Iterable<Collection<ResolutionRule>> v = e.getValue();
@@ -446,8 +480,13 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
         final Iterable<Collection<ResolutionRule>> rules = ((ChainedRuleBundle) v).prioritize();
         if (rules != null) {
           e.setValue(rules);
-          for (Collection<ResolutionRule> rule : rules) {
-            count += rule.size();
+          for (Collection<ResolutionRule> priorityRules : rules) {
+            count += priorityRules.size();
+            for (ResolutionRule rule : priorityRules) {
+              if (!statistics.containsKey(rule)) {
+                statistics.put(rule, new ResolutionRuleStatistics(rule));
+              }
+            }
           }
         } else {
           itr.remove();
@@ -455,6 +494,55 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
       }
     }
     _ruleCount = count;
+    _statistics = statistics;
+  }
+
+  /**
+   * Sets the target digests used to skip rules that have already produced no results for a similar target. The digests must capture everything that affects whether a function applies to a target
+   * and the value names it can produce; if they do not, valid resolutions may be missed.
+   * 
+   * @param targetDigests the target digests, or null to consider every rule for every target
+   */
+  public void setTargetDigests(final TargetDigests targetDigests) {
+    _targetDigests = targetDigests;
+  }
+
+  public TargetDigests getTargetDigests() {
+    return _targetDigests;
+  }
+
+  /**
+   * Returns the usage statistics for each of the rules.
+   * 
+   * @return the statistics, not null
+   */
+  public Collection<ResolutionRuleStatistics> getStatistics() {
+    return Collections.unmodifiableCollection(_statistics.values());
+  }
+
+  /**
+   * Writes the total hit and miss counts, and the statistics for the most expensive rules, to the debug log.
+   * 
+   * @param count the maximum number of rules to write
+   */
+  public void logStatistics(final int count) {
+    if (!s_logger.isDebugEnabled()) {
+      return;
+    }
+    final List<ResolutionRuleStatistics> statistics = new ArrayList<ResolutionRuleStatistics>(_statistics.values());
+    long hits = 0;
+    long misses = 0;
+    long skipped = 0;
+    for (ResolutionRuleStatistics rule : statistics) {
+      hits += rule.getHits();
+      misses += rule.getMisses();
+      skipped += rule.getSkipped();
+    }
+    s_logger.debug("{} rules; {} hits, {} misses, {} skipped", new Object[] {statistics.size(), hits, misses, skipped });
+    Collections.sort(statistics, STATISTICS_COMPARATOR);
+    for (int i = 0; (i < count) && (i < statistics.size()); i++) {
+      s_logger.debug("{}", statistics.get(i));
+    }
   }
 
   @Override
@@ -505,6 +593,33 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
     }
   }
 
+  /**
+   * Returns the rules that have produced no results for targets with the same type and digest as the given target.
+   * 
+   * @param targetSpecification the target, not null
+   * @return the rules, to be updated with any further misses, or null if there are no target digests or no digest for the target
+   */
+  private Set<ResolutionRule> getDigestMisses(final ComputationTargetSpecification targetSpecification) {
+    final TargetDigests targetDigests = getTargetDigests();
+    if (targetDigests == null) {
+      return null;
+    }
+    final Object digest = targetDigests.getDigest(getFunctionCompilationContext(), targetSpecification);
+    if (digest == null) {
+      return null;
+    }
+    final Pair<ComputationTargetType, Object> key = Pairs.of(targetSpecification.getType(), digest);
+    Set<ResolutionRule> misses = _digestMisses.get(key);
+    if (misses == null) {
+      misses = Collections.newSetFromMap(new ConcurrentHashMap<ResolutionRule, Boolean>());
+      final Set<ResolutionRule> existing = _digestMisses.putIfAbsent(key, misses);
+      if (existing != null) {
+        misses = existing;
+      }
+    }
+    return misses;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Iterator<Triple<ParameterizedFunction, ValueSpecification, Collection<ValueSpecification>>> resolveFunction(final String valueName, final ComputationTarget target,
@@ -513,13 +628,14 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
     // TODO [PLAT-2286] Don't key the cache by target specification as the contexts may vary. E.g. the (PORTFOLIO_NODE/POSITION, node0, pos0) target
     // will have considered all the rules for (POSITION, pos0). We want to share this, not duplicate the effort (and the storage)
     final ComputationTargetSpecification targetSpecification = MemoryUtils.instance(ComputationTargetResolverUtils.simplifyType(target.toSpecification(), resolver));
-    Pair<ResolutionRule[], Collection<ValueSpecification>[]> cached = _targetCache.get(targetSpecification);
+    TargetRules cached = _targetCache.get(targetSpecification);
     if (cached == null) {
       int resolutions = 0;
       ResolutionRule[] resolutionRules = new ResolutionRule[_ruleCount];
       Collection<ValueSpecification>[] resolutionResults = new Collection[_ruleCount];
       final Iterable<Collection<ResolutionRule>> typeRules = _type2Rules.get(target.getType());
       if (typeRules != null) {
+        final Set<ResolutionRule> digestMisses = getDigestMisses(targetSpecification);
         try {
           final Map<ComputationTargetType, ComputationTarget> adjusted = new HashMap<ComputationTargetType, ComputationTarget>();
           for (Collection<ResolutionRule> rules : typeRules) {
@@ -527,11 +643,23 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
             for (ResolutionRule rule : rules) {
               final ComputationTarget adjustedTarget = rule.adjustTarget(adjusted, target);
               if (adjustedTarget != null) {
+                final ResolutionRuleStatistics statistics = _statistics.get(rule);
+                if ((digestMisses != null) && digestMisses.contains(rule)) {
+                  statistics.skip();
+                  continue;
+                }
+                final long t = System.nanoTime();
                 final Set<ValueSpecification> results = rule.getResults(adjustedTarget, getFunctionCompilationContext());
                 if ((results != null) && !results.isEmpty()) {
+                  statistics.hit(System.nanoTime() - t);
                   resolutionRules[resolutions] = rule;
                   resolutionResults[resolutions] = reduceMemory(results, resolver);
                   resolutions++;
+                } else {
+                  statistics.miss(System.nanoTime() - t);
+                  if (digestMisses != null) {
+                    digestMisses.add(rule);
+                  }
                 }
               }
             }
@@ -549,8 +677,8 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
         resolutionRules = Arrays.copyOf(resolutionRules, resolutions);
         resolutionResults = Arrays.copyOf(resolutionResults, resolutions);
       }
-      cached = (Pair<ResolutionRule[], Collection<ValueSpecification>[]>) (Pair<?, ?>) Pairs.of(resolutionRules, resolutionResults);
-      final Pair<ResolutionRule[], Collection<ValueSpecification>[]> existing = _targetCache.putIfAbsent(targetSpecification, cached);
+      cached = new TargetRules(resolutionRules, resolutionResults);
+      final TargetRules existing = _targetCache.putIfAbsent(targetSpecification, cached);
       if (existing != null) {
         cached = existing;
       }
@@ -558,6 +686,46 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
     return new It(valueName, targetSpecification, constraints, target, getFunctionCompilationContext(), cached);
   }
 
+  /**
+   * The rules that produce results for a target, in descending priority order, indexed by the value names they produce.
+   */
+  private static final class TargetRules {
+
+    private final ResolutionRule[] _rules;
+    private final Collection<ValueSpecification>[] _results;
+    private final Map<String, int[]> _valueNames = new HashMap<String, int[]>();
+
+    private TargetRules(final ResolutionRule[] rules, final Collection<ValueSpecification>[] results) {
+      _rules = rules;
+      _results = results;
+      for (int i = 0; i < results.length; i++) {
+        for (ValueSpecification result : results[i]) {
+          final int[] indices = _valueNames.get(result.getValueName());
+          if (indices == null) {
+            _valueNames.put(result.getValueName(), new int[] {i });
+          } else if (indices[indices.length - 1] != i) {
+            final int[] newIndices = Arrays.copyOf(indices, indices.length + 1);
+            newIndices[indices.length] = i;
+            _valueNames.put(result.getValueName(), newIndices);
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the indices of the rules that can produce the value name, in descending priority order.
+     */
+    private int[] getRules(final String valueName) {
+      final int[] indices = _valueNames.get(valueName);
+      if (indices == null) {
+        return NO_RULES;
+      } else {
+        return indices;
+      }
+    }
+
+  }
+
   /**
    * Iterator of functions and specifications from a dependency node.
    */
@@ -567,30 +735,33 @@ public class DefaultCompiledFunctionResolver implements CompiledFunctionResolver
     private final ComputationTargetSpecification _target;
     private final String _valueName;
     private final ValueProperties _constraints;
-    private final Pair<ResolutionRule[], Collection<ValueSpecification>[]> _values;
+    private final TargetRules _values;
+    private final int[] _indices;
     private int _itr;
     private Triple<ParameterizedFunction, ValueSpecification, Collection<ValueSpecification>> _next;
 
     private It(final String valueName, final ComputationTargetSpecification targetSpecification, final ValueProperties constraints, final ComputationTarget target,
-        final FunctionCompilationContext context, final Pair<ResolutionRule[], Collection<ValueSpecification>[]> values) {
+        final FunctionCompilationContext context, final TargetRules values) {
       _context = context;
       _target = targetSpecification;
       _valueName = valueName;
       _constraints = constraints;
       _values = values;
+      _indices = values.getRules(valueName);
       findNext(target);
     }
 
     private void findNext(final ComputationTarget target) {
-      final ResolutionRule[] rules = _values.getFirst();
-      final Collection<ValueSpecification>[] resultSets = _values.getSecond();
+      final ResolutionRule[] rules = _values._rules;
+      final Collection<ValueSpecification>[] resultSets = _values._results;
       final FunctionBlacklistQuery blacklist = _context.getGraphBuildingBlacklist();
-      while (_itr < rules.length) {
-        final ResolutionRule rule = rules[_itr];
+      while (_itr < _indices.length) {
+        final int index = _indices[_itr];
+        final ResolutionRule rule = rules[index];
         if (!blacklist.isBlacklisted(rule.getParameterizedFunction(), _target)) {
           final ComputationTarget adjustedTarget = rule.adjustTarget(target);
           if (adjustedTarget != null) {
-            final Collection<ValueSpecification> resultSet = resultSets[_itr];
+            final Collection<ValueSpecification> resultSet = resultSets[index];
             final ValueSpecification result = rule.getResult(_valueName, adjustedTarget, _constraints, resultSet);
             if (result != null) {
               _next = Triple.of(rule.getParameterizedFunction(), result, resultSet);
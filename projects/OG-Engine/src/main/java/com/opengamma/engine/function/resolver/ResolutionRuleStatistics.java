@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.function.resolver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Counts how often a {@link ResolutionRule} has been considered by a {@link DefaultCompiledFunctionResolver} and how much time was spent in the function's
+ * {@link com.opengamma.engine.function.CompiledFunctionDefinition#canApplyTo} and {@link com.opengamma.engine.function.CompiledFunctionDefinition#getResults} methods.
+ * <p>
+ * A rule with a high miss count and a high total time is probing far more targets than it applies to and is a candidate for a narrower target type or a cheaper {@code canApplyTo} test.
+ */
+public final class ResolutionRuleStatistics {
+
+  private final ResolutionRule _rule;
+  private final AtomicLong _hits = new AtomicLong();
+  private final AtomicLong _misses = new AtomicLong();
+  private final AtomicLong _skipped = new AtomicLong();
+  private final AtomicLong _nanos = new AtomicLong();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param rule the rule the statistics are for, not null
+   */
+  public ResolutionRuleStatistics(final ResolutionRule rule) {
+    ArgumentChecker.notNull(rule, "rule");
+    _rule = rule;
+  }
+
+  public ResolutionRule getRule() {
+    return _rule;
+  }
+
+  /**
+   * Returns the number of targets the rule was applied to that it produced results for.
+   *
+   * @return the hit count
+   */
+  public long getHits() {
+    return _hits.get();
+  }
+
+  /**
+   * Returns the number of targets the rule was applied to that it could not produce results for.
+   *
+   * @return the miss count
+   */
+  public long getMisses() {
+    return _misses.get();
+  }
+
+  /**
+   * Returns the number of targets the rule was not applied to because it had already missed on a target with the same digest.
+   *
+   * @return the skipped count
+   */
+  public long getSkipped() {
+    return _skipped.get();
+  }
+
+  /**
+   * Returns the total time spent applying the rule to targets.
+   *
+   * @return the time in nanoseconds
+   */
+  public long getNanos() {
+    return _nanos.get();
+  }
+
+  /* package */void hit(final long nanos) {
+    _hits.incrementAndGet();
+    _nanos.addAndGet(nanos);
+  }
+
+  /* package */void miss(final long nanos) {
+    _misses.incrementAndGet();
+    _nanos.addAndGet(nanos);
+  }
+
+  /* package */void skip() {
+    _skipped.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return _rule.getParameterizedFunction().getFunction().getFunctionDefinition().getShortName() + "[hits=" + getHits() + ", misses=" + getMisses() + ", skipped=" + getSkipped() + ", time="
+        + (getNanos() / 1000000L) + "ms]";
+  }
+
+}
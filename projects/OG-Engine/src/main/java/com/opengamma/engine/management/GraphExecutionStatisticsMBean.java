@@ -38,6 +38,10 @@ public interface GraphExecutionStatisticsMBean {
 
   Long getProcessedJobDataCost();
 
+  Long getCriticalPathTime();
+
+  Long getCriticalPathActualTime();
+
   String getLastProcessedTime();
 
   String getLastExecutedTime();
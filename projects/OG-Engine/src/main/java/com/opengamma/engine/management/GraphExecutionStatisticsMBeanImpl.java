@@ -147,6 +147,18 @@ public class GraphExecutionStatisticsMBeanImpl implements GraphExecutionStatisti
     return graphExecutionStatistics != null ? graphExecutionStatistics.getProcessedJobDataCost() : null;
   }
 
+  @Override
+  public Long getCriticalPathTime() {
+    com.opengamma.engine.exec.stats.GraphExecutionStatistics graphExecutionStatistics = getGraphExecutionStatistics();
+    return graphExecutionStatistics != null ? graphExecutionStatistics.getCriticalPathTime() : null;
+  }
+
+  @Override
+  public Long getCriticalPathActualTime() {
+    com.opengamma.engine.exec.stats.GraphExecutionStatistics graphExecutionStatistics = getGraphExecutionStatistics();
+    return graphExecutionStatistics != null ? graphExecutionStatistics.getCriticalPathActualTime() : null;
+  }
+
   @Override
   public String getLastProcessedTime() {
     com.opengamma.engine.exec.stats.GraphExecutionStatistics graphExecutionStatistics = getGraphExecutionStatistics();
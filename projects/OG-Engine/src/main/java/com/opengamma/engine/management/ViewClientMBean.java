@@ -67,6 +67,43 @@ public interface ViewClientMBean {
    */
   void resume();
   
+  /**
+   * Gets whether the period between updates adapts to the rate at which the listener consumes them.
+   * 
+   * @return true if adaptive updates are enabled
+   */
+  boolean isAdaptiveUpdates();
+  
+  /**
+   * Sets whether the period between updates adapts to the rate at which the listener consumes them. A slow listener
+   * then receives merged updates less frequently instead of stalling the view process or accumulating results.
+   * 
+   * @param adaptiveUpdates  true to enable adaptive updates
+   */
+  void setAdaptiveUpdates(boolean adaptiveUpdates);
+  
+  /**
+   * Gets the period that must currently elapse between updates, taking into account how quickly the listener is
+   * consuming them.
+   * 
+   * @return the current period between updates in milliseconds, or 0 if updates are unrestricted
+   */
+  long getEffectiveUpdatePeriod();
+  
+  /**
+   * Gets the number of results which were merged into a later result rather than being delivered individually.
+   * 
+   * @return the number of dropped results
+   */
+  long getDroppedResultCount();
+  
+  /**
+   * Gets the number of times an update was held back because the listener was consuming results too slowly.
+   * 
+   * @return the overflow count
+   */
+  long getOverflowCount();
+  
   /**
    * Gets whether the attached view process has completed from the perspective of the client. This is consistent with
    * any data flow restrictions being applied through this view client, so may occur after the process actually
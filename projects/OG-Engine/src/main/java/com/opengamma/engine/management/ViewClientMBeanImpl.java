@@ -11,6 +11,7 @@ import javax.management.ObjectName;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.client.ViewClient;
+import com.opengamma.engine.view.client.ViewClientImpl;
 import com.opengamma.engine.view.client.ViewClientState;
 import com.opengamma.id.UniqueId;
 import com.opengamma.util.ArgumentChecker;
@@ -101,6 +102,33 @@ public class ViewClientMBeanImpl implements ViewClientMBean {
     _viewClient.resume();
   }
 
+  @Override
+  public boolean isAdaptiveUpdates() {
+    return (_viewClient instanceof ViewClientImpl) && ((ViewClientImpl) _viewClient).isAdaptiveUpdates();
+  }
+
+  @Override
+  public void setAdaptiveUpdates(boolean adaptiveUpdates) {
+    if (_viewClient instanceof ViewClientImpl) {
+      ((ViewClientImpl) _viewClient).setAdaptiveUpdates(adaptiveUpdates);
+    }
+  }
+
+  @Override
+  public long getEffectiveUpdatePeriod() {
+    return (_viewClient instanceof ViewClientImpl) ? ((ViewClientImpl) _viewClient).getEffectiveUpdatePeriod() : 0;
+  }
+
+  @Override
+  public long getDroppedResultCount() {
+    return (_viewClient instanceof ViewClientImpl) ? ((ViewClientImpl) _viewClient).getDroppedResultCount() : 0;
+  }
+
+  @Override
+  public long getOverflowCount() {
+    return (_viewClient instanceof ViewClientImpl) ? ((ViewClientImpl) _viewClient).getOverflowCount() : 0;
+  }
+
   @Override
   public boolean isCompleted() {
     return _viewClient.isCompleted();
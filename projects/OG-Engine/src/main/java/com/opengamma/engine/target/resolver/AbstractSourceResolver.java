@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.target.resolver;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 import com.opengamma.DataNotFoundException;
@@ -24,7 +26,7 @@ import com.opengamma.util.ArgumentChecker;
  * 
  * @param <S> the type of the source
  */
-public abstract class AbstractSourceResolver<T extends UniqueIdentifiable, S extends Source<T> & ChangeProvider> extends AbstractIdentifierResolver implements Resolver<T> { //CSIGNORE
+public abstract class AbstractSourceResolver<T extends UniqueIdentifiable, S extends Source<T> & ChangeProvider> extends AbstractIdentifierResolver implements Resolver<T>, BulkObjectResolver<T> { //CSIGNORE
 
   private final ExternalScheme _identifierScheme;
   private final S _underlying;
@@ -69,6 +71,13 @@ public abstract class AbstractSourceResolver<T extends UniqueIdentifiable, S ext
     return null;
   }
 
+  // BulkObjectResolver
+
+  @Override
+  public Map<UniqueId, T> resolveObjects(final Collection<UniqueId> uniqueIds, final VersionCorrection versionCorrection) {
+    return getUnderlying().get(uniqueIds);
+  }
+
   // IdentifierResolver
 
   @Override
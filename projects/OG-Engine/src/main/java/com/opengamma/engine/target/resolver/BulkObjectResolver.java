@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.target.resolver;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.UniqueIdentifiable;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * Optional extension to {@link ObjectResolver} for resolvers that can produce many objects from a single query to their underlying source.
+ *
+ * @param <T> the common type of the item produced by the resolution
+ */
+public interface BulkObjectResolver<T extends UniqueIdentifiable> extends ObjectResolver<T> {
+
+  /**
+   * Resolves the unique identifiers into the origin objects.
+   *
+   * @param uniqueIds the unique identifiers to resolve, not null and not containing null
+   * @param versionCorrection the version/correction timestamp for any deep resolution of the objects, not null
+   * @return the resolved objects, not null. Any identifiers that could not be resolved will be missing from the map
+   */
+  Map<UniqueId, T> resolveObjects(Collection<UniqueId> uniqueIds, VersionCorrection versionCorrection);
+
+}
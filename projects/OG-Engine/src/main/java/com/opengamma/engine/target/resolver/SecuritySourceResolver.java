@@ -26,7 +26,7 @@ import com.opengamma.util.ArgumentChecker;
 /**
  * A {@link ObjectResolver} built on a {@link SecuritySource}.
  */
-public class SecuritySourceResolver extends AbstractIdentifierResolver implements Resolver<Security> {
+public class SecuritySourceResolver extends AbstractIdentifierResolver implements Resolver<Security>, BulkObjectResolver<Security> {
 
   private final SecuritySource _underlying;
 
@@ -75,6 +75,13 @@ public class SecuritySourceResolver extends AbstractIdentifierResolver implement
     return null;
   }
 
+  // BulkObjectResolver
+
+  @Override
+  public Map<UniqueId, Security> resolveObjects(final Collection<UniqueId> uniqueIds, final VersionCorrection versionCorrection) {
+    return getUnderlying().get(uniqueIds);
+  }
+
   @Override
   public ChangeManager changeManager() {
     return getUnderlying().changeManager();
@@ -21,6 +21,7 @@ import org.fudgemsg.MutableFudgeMsg;
 import org.fudgemsg.wire.types.FudgeWireType;
 
 import com.google.common.collect.Sets;
+import com.opengamma.engine.MemoryUtils;
 import com.opengamma.engine.fudgemsg.ValuePropertiesFudgeBuilder;
 import com.opengamma.engine.value.properties.AbstractValueProperty;
 import com.opengamma.engine.value.properties.AdditivePropertiesBuilder;
@@ -214,6 +215,16 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
 
     private final int _hashCode;
 
+    /**
+     * Bit mask of the defined property names, one bit per name selected by its hash code. If a bit is clear then no property with a name hashing to it is defined.
+     */
+    private final transient long _definedMask;
+
+    /**
+     * Bit mask of the non-optional property names, as for {@link #_definedMask}.
+     */
+    private final transient long _requiredMask;
+
     /**
      * Creates a new instance, backed by the property array.
      * 
@@ -222,6 +233,23 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
     private SimpleValueProperties(final AbstractValueProperty[] properties) {
       _properties = properties;
       _hashCode = Arrays.hashCode(properties);
+      long defined = 0;
+      long required = 0;
+      for (AbstractValueProperty property : properties) {
+        for (; property != null; property = property.getNext()) {
+          final long mask = mask(property.getKey());
+          defined |= mask;
+          if (!property.isOptional()) {
+            required |= mask;
+          }
+        }
+      }
+      _definedMask = defined;
+      _requiredMask = required;
+    }
+
+    private static long mask(final String propertyName) {
+      return 1L << (propertyName.hashCode() & 63);
     }
 
     private boolean isLongerPropertyCount(final SimpleValueProperties other) {
@@ -249,6 +277,10 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
 
     @Override
     /* package */boolean isSatisfySimple(final SimpleValueProperties other) {
+      if ((other._requiredMask & ~_definedMask) != 0) {
+        // Doesn't define at least one of the non-optional properties
+        return false;
+      }
       for (AbstractValueProperty property : other._properties) {
         propertyLoop: for (; property != null; property = property.getNext()) { //CSIGNORE
           final int hc = property.getKey().hashCode() & 0x7FFFFFFF;
@@ -328,6 +360,10 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
 
     @Override
     /* package */ValueProperties rightIntersectSimple(final SimpleValueProperties other) {
+      if ((_definedMask & other._definedMask) == 0) {
+        // No common properties to compose
+        return other;
+      }
       final AdditivePropertiesBuilder builder = new AdditivePropertiesBuilder(other._properties);
       for (AbstractValueProperty property : _properties) {
         for (; property != null; property = property.getNext()) {
@@ -376,6 +412,10 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
 
     @Override
     /* package */ValueProperties intersectSimple(final SimpleValueProperties other) {
+      if ((_definedMask & other._definedMask) == 0) {
+        // No common properties
+        return EMPTY;
+      }
       if (isLongerPropertyCount(other)) {
         return other.intersectSimpleImpl(this);
       } else {
@@ -747,7 +787,7 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
         return false;
       }
       final SimpleValueProperties other = (SimpleValueProperties) o;
-      if (other._hashCode != _hashCode) {
+      if ((other._hashCode != _hashCode) || (other._definedMask != _definedMask) || (other._requiredMask != _requiredMask)) {
         return false;
       }
       return Arrays.equals(_properties, other._properties);
@@ -763,6 +803,11 @@ public abstract class ValueProperties implements Serializable, Comparable<ValueP
       }
     }
 
+    private Object readResolve() {
+      // Recalculate the masks and share the instance with any equal ones already in memory
+      return MemoryUtils.instance(new SimpleValueProperties(_properties));
+    }
+
   }
 
   /**
@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.value.properties;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Set;
@@ -12,6 +14,7 @@ import java.util.Set;
 import org.fudgemsg.MutableFudgeMsg;
 
 import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValueRequirement;
 
 /**
  * Base class for internal state used to implement {@link ValueProperties}.
@@ -25,7 +28,7 @@ public abstract class AbstractValueProperty implements Serializable {
   /**
    * The property name for this entry.
    */
-  private final String _key;
+  private String _key;
 
   /**
    * The 'optional' flag for this entry.
@@ -52,6 +55,12 @@ public abstract class AbstractValueProperty implements Serializable {
     _next = next;
   }
 
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    // Serialization loses the "intern" nature of the string, which the identity comparisons of property names rely on
+    _key = ValueRequirement.getInterned(_key);
+  }
+
   /**
    * Creates a copy of the property and everything chained after it in the bucket.
    * 
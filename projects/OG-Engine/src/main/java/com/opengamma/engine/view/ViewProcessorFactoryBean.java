@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.view;
 
+import java.io.File;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +32,7 @@ import com.opengamma.engine.view.permission.ViewPermissionProvider;
 import com.opengamma.engine.view.permission.ViewPortfolioPermissionProvider;
 import com.opengamma.engine.view.worker.SingleThreadViewProcessWorkerFactory;
 import com.opengamma.engine.view.worker.ViewProcessWorkerFactory;
+import com.opengamma.engine.view.worker.cache.FileViewExecutionCache;
 import com.opengamma.engine.view.worker.cache.InMemoryViewExecutionCache;
 import com.opengamma.engine.view.worker.cache.ViewExecutionCache;
 import com.opengamma.util.ArgumentChecker;
@@ -60,6 +63,7 @@ public class ViewProcessorFactoryBean extends SingletonFactoryBean<ViewProcessor
   private OverrideOperationCompiler _overrideOperationCompiler = new DummyOverrideOperationCompiler();
   private ViewResultListenerFactory _batchViewClientFactory;
   private ViewExecutionCache _viewExecutionCache = new InMemoryViewExecutionCache();
+  private File _viewExecutionCacheDirectory;
   private int _permissionCheckInterval;
   private boolean _useAutoStartViews;
 
@@ -184,6 +188,19 @@ public class ViewProcessorFactoryBean extends SingletonFactoryBean<ViewProcessor
     _viewExecutionCache = viewExecutionCache;
   }
 
+  public File getViewExecutionCacheDirectory() {
+    return _viewExecutionCacheDirectory;
+  }
+
+  /**
+   * Sets a folder to hold compiled view definitions so that they survive a restart. If set, a {@link FileViewExecutionCache} is used instead of the {@link #setViewExecutionCache} value.
+   * 
+   * @param viewExecutionCacheDirectory the folder, null to use the view execution cache property
+   */
+  public void setViewExecutionCacheDirectory(final File viewExecutionCacheDirectory) {
+    _viewExecutionCacheDirectory = viewExecutionCacheDirectory;
+  }
+
   public void setUseAutoStartViews(boolean useAutoStartViews) {
     _useAutoStartViews = useAutoStartViews;
   }
@@ -205,6 +222,9 @@ public class ViewProcessorFactoryBean extends SingletonFactoryBean<ViewProcessor
     ArgumentChecker.notNullInjected(getComputationJobDispatcher(), "computationJobDispatcher");
     ArgumentChecker.notNullInjected(getViewProcessWorkerFactory(), "viewComputationJobFactory");
     ArgumentChecker.notNullInjected(getViewPermissionProvider(), "viewPermissionProvider");
+    if (getViewExecutionCacheDirectory() != null) {
+      setViewExecutionCache(new FileViewExecutionCache(getViewExecutionCacheDirectory(), getFunctionCompilationService()));
+    }
     ArgumentChecker.notNullInjected(getViewExecutionCache(), "viewExecutionCache");
   }
 
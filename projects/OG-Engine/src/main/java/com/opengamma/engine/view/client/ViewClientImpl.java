@@ -57,6 +57,11 @@ public class ViewClientImpl implements ViewClient {
 
   private static final Logger s_logger = LoggerFactory.getLogger(ViewClientImpl.class);
 
+  /**
+   * Whether new clients should adapt their update rate to the rate at which their result listeners consume updates. This can also be changed for an individual client.
+   */
+  private static final boolean ADAPTIVE_UPDATES = System.getProperty("ViewClientImpl.adaptiveUpdates", "FALSE").equalsIgnoreCase("TRUE");
+
   private final ReentrantLock _clientLock = new ReentrantLock();
 
   private final UniqueId _id;
@@ -264,6 +269,7 @@ public class ViewClientImpl implements ViewClient {
     };
 
     _mergingViewProcessListener = new RateLimitingMergingViewProcessListener(mergedViewProcessListener, getViewProcessor().getViewCycleManager(), timer);
+    _mergingViewProcessListener.setAdaptive(ADAPTIVE_UPDATES);
     _mergingViewProcessListener.setPaused(true);
   }
 
@@ -398,6 +404,52 @@ public class ViewClientImpl implements ViewClient {
     _mergingViewProcessListener.setMinimumUpdatePeriodMillis(periodMillis);
   }
 
+  /**
+   * Gets whether the period between updates adapts to the rate at which the result listener consumes them.
+   * 
+   * @return true if adaptive updates are enabled
+   */
+  public boolean isAdaptiveUpdates() {
+    return _mergingViewProcessListener.isAdaptive();
+  }
+
+  /**
+   * Sets whether the period between updates adapts to the rate at which the result listener consumes them. This stops a slow listener from stalling the view process, or from causing results to
+   * accumulate on its behalf, at the cost of it receiving merged results less frequently than the update period.
+   * 
+   * @param adaptiveUpdates true to enable adaptive updates
+   */
+  public void setAdaptiveUpdates(boolean adaptiveUpdates) {
+    _mergingViewProcessListener.setAdaptive(adaptiveUpdates);
+  }
+
+  /**
+   * Gets the period that must currently elapse between updates, taking into account the rate at which the result listener is consuming them.
+   * 
+   * @return the current period between updates, in milliseconds, or 0 if updates are unrestricted
+   */
+  public long getEffectiveUpdatePeriod() {
+    return _mergingViewProcessListener.getEffectiveUpdatePeriodMillis();
+  }
+
+  /**
+   * Gets the number of results that have been merged into a later result rather than delivered to the result listener.
+   * 
+   * @return the number of dropped results
+   */
+  public long getDroppedResultCount() {
+    return _mergingViewProcessListener.getDroppedResultCount();
+  }
+
+  /**
+   * Gets the number of times an update has been held back because the result listener was consuming results too slowly.
+   * 
+   * @return the overflow count
+   */
+  public long getOverflowCount() {
+    return _mergingViewProcessListener.getOverflowCount();
+  }
+
   @Override
   public ViewResultMode getResultMode() {
     return _resultMode.get();
@@ -5,6 +5,7 @@
  */
 package com.opengamma.engine.view.client;
 
+import java.util.Collection;
 import java.util.Map;
 
 import org.apache.commons.lang.ObjectUtils;
@@ -35,6 +36,24 @@ public class ViewDeltaResultCalculator {
    * @return the delta between the two results, not null
    */
   public static ViewDeltaResultModel computeDeltaModel(ViewDefinition viewDefinition, ViewResultModel previousResult, ViewResultModel result) {
+    return computeDeltaModel(viewDefinition, previousResult, result, null);
+  }
+
+  /**
+   * Computes the delta between and old and new results, only considering the targets that may have changed.
+   * <p>
+   * If the new results were produced by a cycle that reused values from the cycle that produced the old results then only the targets with recalculated values need to be compared. The cost of the
+   * delta is then proportional to the amount of recalculation rather than the size of the view.
+   * 
+   * @param viewDefinition the view definition to which the results apply
+   * @param previousResult the previous result
+   * @param result the new result
+   * @param changedTargets the targets, by calculation configuration, that may have different values in the new result; all other values must be the same as the previous result. Null to compare all
+   *          targets
+   * @return the delta between the two results, not null
+   */
+  public static ViewDeltaResultModel computeDeltaModel(ViewDefinition viewDefinition, ViewResultModel previousResult, ViewResultModel result,
+      Map<String, ? extends Collection<ComputationTargetSpecification>> changedTargets) {
     InMemoryViewDeltaResultModel deltaModel = new InMemoryViewDeltaResultModel();
     deltaModel.setViewCycleExecutionOptions(result.getViewCycleExecutionOptions());
     deltaModel.setCalculationTime(result.getCalculationTime());
@@ -49,7 +68,17 @@ public class ViewDeltaResultCalculator {
       final DeltaDefinition deltaDefinition = viewDefinition.getCalculationConfiguration(calcConfigName).getDeltaDefinition();
       final ViewCalculationResultModel resultCalcModel = result.getCalculationResult(calcConfigName);
       final ViewCalculationResultModel previousCalcModel = previousResult != null ? previousResult.getCalculationResult(calcConfigName) : null;
-      for (ComputationTargetSpecification targetSpec : resultCalcModel.getAllTargets()) {
+      final Collection<ComputationTargetSpecification> targets;
+      if ((changedTargets != null) && (previousCalcModel != null)) {
+        targets = changedTargets.get(calcConfigName);
+        if (targets == null) {
+          // Nothing in this configuration has changed
+          continue;
+        }
+      } else {
+        targets = resultCalcModel.getAllTargets();
+      }
+      for (ComputationTargetSpecification targetSpec : targets) {
         computeDeltaModel(deltaDefinition, deltaModel, targetSpec, calcConfigName, previousCalcModel, resultCalcModel);
       }
     }
@@ -105,6 +105,11 @@ public class MergingViewProcessListener implements ViewResultListener {
    */
   private final AtomicLong _lastUpdateMillis = new AtomicLong(0);
 
+  /**
+   * The number of cycle and fragment results that have been merged into an earlier, undelivered, result rather than delivered individually.
+   */
+  private final AtomicLong _droppedResultCount = new AtomicLong();
+
   private Call<?> _firstCall;
   private Call<?> _lastCall;
   /**
@@ -192,6 +197,26 @@ public class MergingViewProcessListener implements ViewResultListener {
     return _lastUpdateMillis.get();
   }
 
+  /**
+   * Gets the number of cycle and fragment results that were merged into an earlier result, or discarded by a subsequent failure, instead of being delivered to the underlying listener. This only
+   * ever increases; a steadily rising count indicates a listener that is consuming results more slowly than they are produced.
+   * 
+   * @return the number of results not delivered individually
+   */
+  public long getDroppedResultCount() {
+    return _droppedResultCount.get();
+  }
+
+  /**
+   * Called after results have been delivered to the underlying listener, either directly in pass-through mode or when queued calls are invoked. Sub-classes may use this to monitor how quickly the
+   * underlying listener consumes results. The caller does not hold the {@link #_mergerLock}.
+   * 
+   * @param durationNanos the time taken by the underlying listener, in nanoseconds
+   */
+  protected void resultsDelivered(final long durationNanos) {
+    // No-op
+  }
+
   //-------------------------------------------------------------------------
   public boolean isLatestResultCycleRetained() {
     return _isLatestResultCycleRetained;
@@ -286,6 +311,7 @@ public class MergingViewProcessListener implements ViewResultListener {
         }
         if (_cycleCompleted != null) {
           // There's a previous cycle completed call in the queue - move to end
+          _droppedResultCount.incrementAndGet();
           putCallToEnd(_cycleCompleted);
           // Merge new cycle completed call into old one
           _cycleCompleted.getFunction().update(fullResult, deltaResult);
@@ -314,7 +340,9 @@ public class MergingViewProcessListener implements ViewResultListener {
     } finally {
       _mergerLock.unlock();
     }
+    final long start = System.nanoTime();
     getUnderlying().cycleCompleted(fullResult, deltaResult);
+    resultsDelivered(System.nanoTime() - start);
   }
 
   @Override
@@ -325,6 +353,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       if (!isPassThrough()) {
         if (_latestCycleFragmentCompleted != null) {
           // There's a current fragment completed call in the queue - move to end
+          _droppedResultCount.incrementAndGet();
           putCallToEnd(_latestCycleFragmentCompleted);
           // Merge new fragment completed call into old one
           _latestCycleFragmentCompleted.getFunction().update(fullFragment, deltaFragment);
@@ -337,7 +366,9 @@ public class MergingViewProcessListener implements ViewResultListener {
     } finally {
       _mergerLock.unlock();
     }
+    final long start = System.nanoTime();
     getUnderlying().cycleFragmentCompleted(fullFragment, deltaFragment);
+    resultsDelivered(System.nanoTime() - start);
   }
 
   @Override
@@ -348,6 +379,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       if (!isPassThrough()) {
         if (_cycleCompleted != null) {
           // Remove any previous success
+          _droppedResultCount.incrementAndGet();
           removeCall(_cycleCompleted);
           _cycleCompleted = null;
         }
@@ -460,6 +492,10 @@ public class MergingViewProcessListener implements ViewResultListener {
    * @param call the node head of the list, null for an empty list
    */
   protected void invoke(Call<?> call) {
+    if (call == null) {
+      return;
+    }
+    final long start = System.nanoTime();
     while (call != null) {
       try {
         call.getFunction().apply(getUnderlying());
@@ -469,6 +505,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       }
       call = call._next;
     }
+    resultsDelivered(System.nanoTime() - start);
   }
 
   /**
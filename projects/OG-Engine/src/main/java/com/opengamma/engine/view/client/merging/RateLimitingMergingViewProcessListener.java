@@ -11,17 +11,37 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.opengamma.engine.resource.EngineResourceManagerInternal;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.util.ArgumentChecker;
 
 /**
  * Merges view process results to satisfy a specified maximum downstream update rate (given in terms of a minimum period between updates). This maximum rate can be adjusted on-the-fly.
+ * <p>
+ * If adaptive updates are enabled then the time the underlying listener takes to consume each update is also measured, and the period between updates is stretched so that a slow listener is only
+ * offered results at the rate it can consume them. Results arriving in the meantime are merged into a single pending update, holding at most the latest full result and the accumulated delta, rather
+ * than queuing up behind the slow listener. A listener that is too slow for pass-through delivery is switched to merged delivery from the timer thread so that it no longer stalls the view process,
+ * and is switched back once it has caught up.
  */
 public class RateLimitingMergingViewProcessListener extends MergingViewProcessListener {
 
+  private static final Logger s_logger = LoggerFactory.getLogger(RateLimitingMergingViewProcessListener.class);
+
   private static final long MIN_PERIOD = 50;
 
+  /**
+   * The default cap on the period that adaptive updates may stretch to.
+   */
+  private static final long DEFAULT_MAX_PERIOD = 30000;
+
+  /**
+   * The multiple of the measured consumption time to use as the adaptive period. A value of 2 leaves the listener idle for at least half of the time.
+   */
+  private static final int CONSUMPTION_FACTOR = 2;
+
   private final ScheduledExecutorService _timer;
   private ReentrantLock _taskSetupLock = new ReentrantLock();
   private Future<?> _asyncUpdateCheckerTask;
@@ -35,6 +55,30 @@ public class RateLimitingMergingViewProcessListener extends MergingViewProcessLi
    */
   private AtomicLong _lastUpdateTimeMillis = new AtomicLong();
 
+  private volatile boolean _isAdaptive;
+
+  private volatile long _maximumUpdatePeriodMillis = DEFAULT_MAX_PERIOD;
+
+  /**
+   * Whether pass-through delivery has been suspended because the underlying listener was too slow.
+   */
+  private volatile boolean _isThrottled;
+
+  /**
+   * Exponentially weighted moving average of the time the underlying listener takes to consume an update.
+   */
+  private long _consumptionNanos;
+
+  /**
+   * The number of times an update has been held back, or pass-through delivery suspended, because the underlying listener was consuming results too slowly.
+   */
+  private final AtomicLong _overflowCount = new AtomicLong();
+
+  /**
+   * The time of the last output when an update was last found to be overdue, so that each held back update is only counted once however many timer ticks it is held back for.
+   */
+  private final AtomicLong _overdueSince = new AtomicLong(-1);
+
   public RateLimitingMergingViewProcessListener(ViewResultListener underlying, EngineResourceManagerInternal<?> cycleManager, ScheduledExecutorService timer) {
     super(underlying, cycleManager);
     ArgumentChecker.notNull(timer, "timer");
@@ -112,6 +156,141 @@ public class RateLimitingMergingViewProcessListener extends MergingViewProcessLi
   }
 
   //-------------------------------------------------------------------------
+  /**
+   * Gets whether the period between updates adapts to the rate at which the underlying listener consumes them.
+   * 
+   * @return true if adaptive updates are enabled
+   */
+  public boolean isAdaptive() {
+    return _isAdaptive;
+  }
+
+  /**
+   * Sets whether the period between updates should adapt to the rate at which the underlying listener consumes them. When enabled, the effective period is never less than the minimum update
+   * period, and pass-through delivery is suspended while the listener is too slow for it.
+   * 
+   * @param isAdaptive true to enable adaptive updates, false to only use the minimum update period
+   */
+  public void setAdaptive(boolean isAdaptive) {
+    final Call<?> drain;
+    _taskSetupLock.lock();
+    try {
+      _isAdaptive = isAdaptive;
+      if (isAdaptive || !_isThrottled) {
+        return;
+      }
+      _isThrottled = false;
+      drain = updateConfiguration();
+    } finally {
+      _taskSetupLock.unlock();
+    }
+    invoke(drain);
+  }
+
+  /**
+   * Gets the longest period that adaptive updates will stretch to, however slow the underlying listener.
+   * 
+   * @return the maximum period between adaptive updates, in milliseconds
+   */
+  public long getMaximumUpdatePeriodMillis() {
+    return _maximumUpdatePeriodMillis;
+  }
+
+  /**
+   * Sets the longest period that adaptive updates will stretch to, however slow the underlying listener.
+   * 
+   * @param maximumUpdatePeriodMillis the maximum period between adaptive updates, in milliseconds
+   */
+  public void setMaximumUpdatePeriodMillis(long maximumUpdatePeriodMillis) {
+    ArgumentChecker.notNegativeOrZero(maximumUpdatePeriodMillis, "maximumUpdatePeriodMillis");
+    _maximumUpdatePeriodMillis = Math.max(MIN_PERIOD, maximumUpdatePeriodMillis);
+  }
+
+  /**
+   * Gets the period that must currently elapse between updates. This is the minimum update period unless adaptive updates are enabled and the underlying listener is consuming results more slowly.
+   * 
+   * @return the current period between updates, in milliseconds, or 0 if updates are passed straight through
+   */
+  public long getEffectiveUpdatePeriodMillis() {
+    long period = getMinimumUpdatePeriodMillis();
+    if (!isAdaptive() || ((period == 0) && !_isThrottled)) {
+      return period;
+    }
+    final long consumptionMillis = TimeUnit.NANOSECONDS.toMillis(getConsumptionNanos()) * CONSUMPTION_FACTOR;
+    if (consumptionMillis > period) {
+      period = Math.min(consumptionMillis, getMaximumUpdatePeriodMillis());
+    }
+    if (period < MIN_PERIOD) {
+      period = MIN_PERIOD;
+    }
+    return period;
+  }
+
+  /**
+   * Gets the number of times an update has been held back, or pass-through delivery suspended, because the underlying listener was consuming results more slowly than they were produced.
+   * 
+   * @return the overflow count
+   */
+  public long getOverflowCount() {
+    return _overflowCount.get();
+  }
+
+  private synchronized long getConsumptionNanos() {
+    return _consumptionNanos;
+  }
+
+  private synchronized long updateConsumptionNanos(final long durationNanos) {
+    if (_consumptionNanos == 0) {
+      _consumptionNanos = durationNanos;
+    } else {
+      _consumptionNanos += (durationNanos - _consumptionNanos) >> 2;
+    }
+    return _consumptionNanos;
+  }
+
+  @Override
+  protected void resultsDelivered(final long durationNanos) {
+    final long consumptionNanos = updateConsumptionNanos(durationNanos);
+    if (!isAdaptive() || !isPassThrough() || (TimeUnit.NANOSECONDS.toMillis(consumptionNanos) < MIN_PERIOD)) {
+      return;
+    }
+    // The listener can't keep up with pass-through delivery; merge updates for it on the timer thread instead of stalling the caller
+    _taskSetupLock.lock();
+    try {
+      if (_isThrottled || isPaused() || (getMinimumUpdatePeriodMillis() != 0)) {
+        return;
+      }
+      s_logger.info("Throttling updates to slow listener, {}ms per update", TimeUnit.NANOSECONDS.toMillis(consumptionNanos));
+      _overflowCount.incrementAndGet();
+      _isThrottled = true;
+      // Switching out of pass-through never returns calls to invoke
+      updateConfiguration();
+    } finally {
+      _taskSetupLock.unlock();
+    }
+  }
+
+  private void restorePassThroughIfRequired() {
+    final Call<?> drain;
+    _taskSetupLock.lock();
+    try {
+      if (!_isThrottled || (getEffectiveUpdatePeriodMillis() > MIN_PERIOD)) {
+        return;
+      }
+      s_logger.info("Resuming pass-through updates to listener");
+      _isThrottled = false;
+      // Called from the timer task, so mustn't interrupt it
+      if (_asyncUpdateCheckerTask != null) {
+        _asyncUpdateCheckerTask.cancel(false);
+        _asyncUpdateCheckerTask = null;
+      }
+      drain = updateConfiguration();
+    } finally {
+      _taskSetupLock.unlock();
+    }
+    invoke(drain);
+  }
+
   private boolean drainIfRequired() {
 
     long currentTime = System.currentTimeMillis();
@@ -122,10 +301,17 @@ public class RateLimitingMergingViewProcessListener extends MergingViewProcessLi
       return false;
     }
 
-    long minimumUpdatePeriodMillis = getMinimumUpdatePeriodMillis();
+    final long minimumUpdatePeriodMillis = Math.max(getMinimumUpdatePeriodMillis(), _isThrottled ? MIN_PERIOD : 0);
     if (currentTime - lastUpdateTime < minimumUpdatePeriodMillis) {
       return false;
     }
+    if (currentTime - lastUpdateTime < getEffectiveUpdatePeriodMillis()) {
+      // Due an update, but the listener hasn't been keeping up
+      if (_overdueSince.getAndSet(lastUpdateTime) != lastUpdateTime) {
+        _overflowCount.incrementAndGet();
+      }
+      return false;
+    }
 
     if (!_lastUpdateTimeMillis.compareAndSet(lastUpdateTime, currentTime)) {
       // Another thread has got there before us
@@ -139,12 +325,19 @@ public class RateLimitingMergingViewProcessListener extends MergingViewProcessLi
   private Call<?> updateConfiguration() {
     long minimumUpdatePeriodMillis = getMinimumUpdatePeriodMillis();
     cancelTimerTask();
-    final Call<?> drain = setPassThrough(minimumUpdatePeriodMillis == 0 && !isPaused());
+    final Call<?> drain = setPassThrough(minimumUpdatePeriodMillis == 0 && !isPaused() && !_isThrottled);
     if (!isPaused() && !isPassThrough()) {
+      final boolean throttled = _isThrottled;
+      if (minimumUpdatePeriodMillis == 0) {
+        minimumUpdatePeriodMillis = MIN_PERIOD;
+      }
       final Runnable task = new Runnable() {
         @Override
         public void run() {
           drainIfRequired();
+          if (throttled) {
+            restorePassThroughIfRequired();
+          }
         }
       };
       _asyncUpdateCheckerTask = _timer.scheduleWithFixedDelay(task, minimumUpdatePeriodMillis, minimumUpdatePeriodMillis, TimeUnit.MILLISECONDS);
@@ -56,6 +56,7 @@ import com.opengamma.util.tuple.Pairs;
     private final ComputationTargetSpecification _targetSpec;
     private final Set<Pair<String, ValueProperties>> _requirements = Sets.newHashSet();
     private final boolean _excluded;
+    private volatile boolean _affected;
 
     public NodeData(final PortfolioNode node, final boolean excluded) {
       _targetSpec = ComputationTargetSpecification.of(node);
@@ -78,6 +79,14 @@ import com.opengamma.util.tuple.Pairs;
       return _excluded;
     }
 
+    public void setAffected() {
+      _affected = true;
+    }
+
+    public boolean isAffected() {
+      return _affected;
+    }
+
   }
 
   private final Set<UniqueId> _includeEvents;
@@ -180,6 +189,8 @@ import com.opengamma.util.tuple.Pairs;
 
   /**
    * The pre-order operation for a portfolio node, which adds the aggregate value requirements for the current portfolio node to the graph builder's set of value requirements.
+   * <p>
+   * When only a set of changed positions is being considered, the aggregate requirements are deferred to the post-order operation and only added if the node has one of those positions beneath it.
    * 
    * @param node the portfolio node being traversed
    */
@@ -201,7 +212,22 @@ import com.opengamma.util.tuple.Pairs;
     // this portfolio node's post-order traversal.
     final NodeData nodeData = new NodeData(node, nodeExcluded);
     _nodeData.put(node.getUniqueId(), nodeData);
-    if (_outputAggregates && !nodeExcluded) {
+    if (_includeEvents != null) {
+      // Only nodes above an included position need their aggregates resolving; this isn't known until the post-order operation
+      return;
+    }
+    if (!nodeExcluded) {
+      addAggregateOnlyRequirements(nodeData);
+    }
+  }
+
+  /**
+   * Adds the aggregate-only value requirements (those not gathered from the positions beneath the node) for a portfolio node.
+   * 
+   * @param nodeData the node to add the requirements for
+   */
+  private void addAggregateOnlyRequirements(final NodeData nodeData) {
+    if (_outputAggregates) {
       // Retrieve the required aggregate outputs (by 'aggregate' sec type) for the current calc configuration
       final Set<Pair<String, ValueProperties>> requiredOutputs =
           _portfolioRequirementsBySecurityType.get(ViewCalculationConfiguration.SECURITY_TYPE_AGGREGATE_ONLY);
@@ -232,6 +258,8 @@ import com.opengamma.util.tuple.Pairs;
       if (!_includeEvents.contains(position.getUniqueId())) {
         return;
       }
+      nodeData = _nodeData.get(parentNode.getUniqueId());
+      nodeData.setAffected();
     } else if (_excludeEvents != null) {
       nodeData = _nodeData.get(parentNode.getUniqueId());
       if (nodeData == null) {
@@ -336,11 +364,21 @@ import com.opengamma.util.tuple.Pairs;
       // Totally excluded
       return;
     }
+    if (_includeEvents != null) {
+      if (!nodeData.isAffected()) {
+        // No included positions beneath this node; anything it needs is already in the previous graph
+        return;
+      }
+      addAggregateOnlyRequirements(nodeData);
+    }
     final Set<Pair<String, ValueProperties>> nodeRequirements = nodeData.getRequirements();
     if (node.getParentNodeId() != null) {
       // Retrieve the parent portfolio node's requirements
       final NodeData parentNodeData = _nodeData.get(node.getParentNodeId());
       parentNodeData.addRequirements(nodeRequirements);
+      if (nodeData.isAffected()) {
+        parentNodeData.setAffected();
+      }
     }
     if (!nodeData.isExcluded()) {
       final ComputationTargetSpecification targetSpec = nodeData.getTargetSpecification();
@@ -8,10 +8,12 @@ package com.opengamma.engine.view.compilation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -48,6 +50,11 @@ public final class SecurityLinkResolver {
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(SecurityLinkResolver.class);
 
+  /**
+   * The maximum number of securities requested from the security source in a single bulk query.
+   */
+  private static final int PREFETCH_CHUNK_SIZE = 500;
+
   /**
    * The executor service.
    */
@@ -135,6 +142,7 @@ public final class SecurityLinkResolver {
         _securitySource.addToCache(security);
       }
     }
+    prefetchSecurities(securityLinkMap.keySet());
     s_logger.debug("Submitting {} resolution jobs for {} links", securityLinkMap.size(), securityLinks.size());
     // Submit a job for each "unique" link. The job will serially resolve all "identical" links as they will
     // be in the cache at that point.
@@ -173,6 +181,64 @@ public final class SecurityLinkResolver {
     }
   }
 
+  /**
+   * Loads the securities for a set of distinct links into the cache using bulk queries to the security source. The queries are split into chunks which run in parallel. Any failures are logged and
+   * left for the individual link resolution to report.
+   * 
+   * @param keys the object identifiers and external identifiers of the links, not null
+   */
+  private void prefetchSecurities(final Collection<Pair<ObjectId, ExternalIdBundle>> keys) {
+    final List<ObjectId> objectIds = new ArrayList<ObjectId>();
+    final List<ExternalIdBundle> bundles = new ArrayList<ExternalIdBundle>();
+    for (Pair<ObjectId, ExternalIdBundle> key : keys) {
+      // Same order of preference as link resolution
+      if (key.getFirst() != null) {
+        objectIds.add(key.getFirst());
+      } else if (key.getSecond() != null) {
+        bundles.add(key.getSecond());
+      }
+    }
+    if (objectIds.size() + bundles.size() < 2) {
+      return;
+    }
+    final ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<Void>(_executorService);
+    int jobs = 0;
+    for (int i = 0; i < objectIds.size(); i += PREFETCH_CHUNK_SIZE) {
+      final List<ObjectId> chunk = objectIds.subList(i, Math.min(i + PREFETCH_CHUNK_SIZE, objectIds.size()));
+      completionService.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          _securitySource.prefetchObjectIds(chunk, _versionCorrection);
+          return null;
+        }
+      });
+      jobs++;
+    }
+    for (int i = 0; i < bundles.size(); i += PREFETCH_CHUNK_SIZE) {
+      final List<ExternalIdBundle> chunk = bundles.subList(i, Math.min(i + PREFETCH_CHUNK_SIZE, bundles.size()));
+      completionService.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          _securitySource.prefetchBundles(chunk, _versionCorrection);
+          return null;
+        }
+      });
+      jobs++;
+    }
+    s_logger.debug("Submitted {} bulk queries for {} securities", jobs, objectIds.size() + bundles.size());
+    while (jobs-- > 0) {
+      try {
+        completionService.take().get();
+      } catch (InterruptedException ex) {
+        Thread.interrupted();
+        s_logger.warn("Interrupted, so didn't finish bulk security queries");
+        return;
+      } catch (ExecutionException ex) {
+        s_logger.warn("Bulk security query failed - {}", ex.getCause().toString());
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Resolves a security link making use of the caching of this instance.
@@ -314,6 +380,18 @@ public final class SecurityLinkResolver {
       }
     }
 
+    void prefetchObjectIds(Collection<ObjectId> objectIds, VersionCorrection versionCorrection) {
+      for (Map.Entry<ObjectId, Security> security : _underlying.get(objectIds, versionCorrection).entrySet()) {
+        _objectIdCache.putIfAbsent(security.getKey(), security.getValue());
+      }
+    }
+
+    void prefetchBundles(Collection<ExternalIdBundle> bundles, VersionCorrection versionCorrection) {
+      for (Map.Entry<ExternalIdBundle, ? extends Security> security : _underlying.getSingle(bundles, versionCorrection).entrySet()) {
+        _weakIdCache.putIfAbsent(security.getKey(), security.getValue());
+      }
+    }
+
     @Override
     public Security get(UniqueId uniqueId) {
       Security security = _objectIdCache.get(uniqueId.getObjectId());
@@ -74,6 +74,9 @@ import com.opengamma.id.VersionCorrection;
     compilationContext.setComputationTargetResults(new ComputationTargetResults(transformedRules));
     final DefaultCompiledFunctionResolver functionResolver = new DefaultCompiledFunctionResolver(compilationContext, transformedRules);
     functionResolver.compileRules();
+    if (_services.getDependencyGraphBuilder().isTargetDigestFunctionResolution()) {
+      functionResolver.setTargetDigests(_services.getDependencyGraphBuilder().getTargetDigests());
+    }
     builder.setFunctionResolver(functionResolver);
     compilationContext.init();
     builder.setCompilationContext(compilationContext);
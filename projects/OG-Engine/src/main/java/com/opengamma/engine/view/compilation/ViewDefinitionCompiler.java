@@ -47,6 +47,7 @@ import com.opengamma.engine.depgraph.Housekeeper;
 import com.opengamma.engine.depgraph.impl.DependencyGraphImpl;
 import com.opengamma.engine.depgraph.impl.RootDiscardingSubgrapher;
 import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.resolver.DefaultCompiledFunctionResolver;
 import com.opengamma.engine.target.ComputationTargetReference;
 import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.value.ValueProperties;
@@ -69,6 +70,12 @@ import com.opengamma.util.tuple.Pair;
 public final class ViewDefinitionCompiler {
 
   private static final Logger s_logger = LoggerFactory.getLogger(ViewDefinitionCompiler.class);
+
+  /**
+   * The number of the most expensive function resolution rules to write to the debug log after each graph is built.
+   */
+  private static final int STATISTICS_RULE_COUNT = 20;
+
   private static boolean s_striped;
   private static Timer s_fullTimer = new Timer(); // timer for full graph compilation (replaced if registerMetrics called)
   private static Timer s_deltaTimer = new Timer(); // timer for delta graph compilation (replaced if registerMetrics called)
@@ -191,6 +198,9 @@ public final class ViewDefinitionCompiler {
         graph = DependencyGraphImpl.removeUnnecessaryValues(graph);
         getContext().getGraphs().add(graph);
         s_logger.debug("Built {}", graph);
+        if (builder.getFunctionResolver() instanceof DefaultCompiledFunctionResolver) {
+          ((DefaultCompiledFunctionResolver) builder.getFunctionResolver()).logStatistics(STATISTICS_RULE_COUNT);
+        }
       }
     }
 
@@ -247,6 +257,23 @@ public final class ViewDefinitionCompiler {
       return target.getValue(ComputationTargetType.PORTFOLIO);
     }
 
+    /**
+     * Resolves the security links of the positions and trades in the portfolio with bulk queries. This is much quicker than the graph builders resolving each link as they come to it. Any links that
+     * can't be resolved here are left for the graph builders.
+     * 
+     * @param portfolio the resolved portfolio, not null
+     */
+    private void resolveSecurities(final Portfolio portfolio) {
+      if (getContext().getServices().getFunctionCompilationContext().getSecuritySource() == null) {
+        return;
+      }
+      try {
+        new SecurityLinkResolver(getContext(), getContext().getResolverVersionCorrection()).resolveSecurities(portfolio.getRootNode());
+      } catch (final RuntimeException e) {
+        s_logger.info("Couldn't resolve all securities in portfolio {} - {}", portfolio.getUniqueId(), e.getMessage());
+      }
+    }
+
     protected boolean isPortfolioOutputs() {
       return _portfolioOutputs;
     }
@@ -308,6 +335,7 @@ public final class ViewDefinitionCompiler {
           if (!functionContext.getViewCalculationConfiguration().getAllPortfolioRequirements().isEmpty()) {
             if (_portfolio == null) {
               _portfolio = resolvePortfolio();
+              resolveSecurities(_portfolio);
               final UniqueId newPortfolioId = _portfolio.getUniqueId();
               final UniqueId oldPortfolioId = resolutions.put(new ComputationTargetSpecification(ComputationTargetType.PORTFOLIO, getContext().getViewDefinition().getPortfolioId()), newPortfolioId);
               if (oldPortfolioId != null) {
@@ -498,7 +526,7 @@ public final class ViewDefinitionCompiler {
         s_logger.info("Adding portfolio requirements with unchanged node set");
         addPortfolioRequirements(builder, incrementalRequirements, getContext(), calcConfig, null, _unchangedNodes);
       } else if (changedPositions != null) {
-        s_logger.info("Adding portfolio requirements with changed position set");
+        s_logger.info("Adding portfolio requirements with changed position set of {}", changedPositions.size());
         addPortfolioRequirements(builder, incrementalRequirements, getContext(), calcConfig, changedPositions, null);
       } else {
         s_logger.info("No additional portfolio requirements needed");
@@ -29,6 +29,7 @@ import org.threeten.bp.Instant;
 import com.google.common.collect.Maps;
 import com.opengamma.DataNotFoundException;
 import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.cache.MissingInput;
 import com.opengamma.engine.cache.MissingOutput;
 import com.opengamma.engine.cache.ViewComputationCache;
@@ -53,14 +54,18 @@ import com.opengamma.engine.marketdata.OverrideOperation;
 import com.opengamma.engine.marketdata.OverrideOperationCompiler;
 import com.opengamma.engine.marketdata.manipulator.DistinctMarketDataSelector;
 import com.opengamma.engine.resource.EngineResource;
+import com.opengamma.engine.resource.EngineResourceManager;
+import com.opengamma.engine.resource.EngineResourceReference;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.AggregatedExecutionLog;
 import com.opengamma.engine.view.ExecutionLogMode;
 import com.opengamma.engine.view.ResultModelDefinition;
 import com.opengamma.engine.view.ResultOutputMode;
 import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewCalculationResultModel;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDefinition;
 import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
@@ -68,6 +73,8 @@ import com.opengamma.engine.view.compilation.CompiledViewDefinition;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
+import com.opengamma.engine.view.impl.ColumnarResultLayout;
+import com.opengamma.engine.view.impl.ColumnarViewComputationResultModel;
 import com.opengamma.engine.view.impl.ExecutionLogModeSource;
 import com.opengamma.engine.view.impl.InMemoryViewComputationResultModel;
 import com.opengamma.engine.view.impl.ViewProcessContext;
@@ -77,6 +84,7 @@ import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.log.LogLevel;
 import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Pairs;
 
 /**
  * Holds all data and actions for a single computation pass. The view cycle may be executed at most once.
@@ -92,6 +100,11 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
    */
   public static final String MARKET_DATA_SHIFT_PROPERTY = "MARKET_DATA_SHIFT";
 
+  /**
+   * Whether to hold the full results of each cycle in a {@link ColumnarViewComputationResultModel}, which uses much less memory for large views than the map-based model.
+   */
+  private static final boolean COLUMNAR_RESULTS = System.getProperty("SingleComputationCycle.columnarResults", "FALSE").equalsIgnoreCase("TRUE");
+
   /**
    * Marker for nodes that have not been executed, for example because of blacklist suppression, calculation error or missing input data (perhaps caused by blacklist suppression or calculation
    * errors).
@@ -121,6 +134,36 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   // Output
   private final InMemoryViewComputationResultModel _resultModel;
 
+  /**
+   * The cycle that values were reused from, if any; see {@link #getRecalculatedTargets}.
+   */
+  private volatile UniqueId _reusedFromCycleId;
+
+  /**
+   * The targets, by calculation configuration, of the values added to the result model that were not reused from the previous cycle.
+   */
+  private final Map<String, Set<ComputationTargetSpecification>> _recalculatedTargets = new HashMap<String, Set<ComputationTargetSpecification>>();
+
+  /**
+   * The market data that has changed since the previous cycle if this is a tick cycle, or null for a normal cycle.
+   */
+  private Set<ValueSpecification> _tickedMarketData;
+
+  /**
+   * The previous cycle holding values that this tick cycle has reused but not yet copied into its own caches, or null if there are none.
+   */
+  private volatile SingleComputationCycle _deferredCopyCycle;
+
+  /**
+   * The reference that keeps {@link #_deferredCopyCycle} alive until the values have been copied, or null if it is not a managed resource.
+   */
+  private EngineResourceReference<SingleComputationCycle> _deferredCopyReference;
+
+  /**
+   * The values, by calculation configuration, to copy from {@link #_deferredCopyCycle}.
+   */
+  private final Map<String, Collection<ValueSpecification>> _deferredCopies = new HashMap<String, Collection<ValueSpecification>>();
+
   public SingleComputationCycle(final UniqueId cycleId, final String name, final ComputationResultListener cycleFragmentResultListener, final ViewProcessContext viewProcessContext,
       final CompiledViewDefinitionWithGraphs compiledViewDefinition, final ViewCycleExecutionOptions executionOptions, final VersionCorrection versionCorrection) {
     ArgumentChecker.notNull(cycleId, "cycleId");
@@ -136,11 +179,10 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     _cycleFragmentResultListener = cycleFragmentResultListener;
     _executionOptions = executionOptions;
     _versionCorrection = versionCorrection;
-    _resultModel = constructTemplateResultModel();
+    _resultModel = constructFullResultModel();
   }
 
-  protected InMemoryViewComputationResultModel constructTemplateResultModel() {
-    final InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
+  private InMemoryViewComputationResultModel initResultModel(final InMemoryViewComputationResultModel result) {
     result.setViewCycleId(getCycleId());
     result.setViewProcessId(getViewProcessId());
     result.setViewCycleExecutionOptions(getExecutionOptions());
@@ -148,6 +190,24 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     return result;
   }
 
+  protected InMemoryViewComputationResultModel constructTemplateResultModel() {
+    return initResultModel(new InMemoryViewComputationResultModel());
+  }
+
+  /**
+   * Creates the model that will hold the full results of the cycle. This is a {@link ColumnarViewComputationResultModel} if enabled, otherwise the same as {@link #constructTemplateResultModel}.
+   * Fragment results are always small, map-based, models.
+   * 
+   * @return the result model, not null
+   */
+  protected InMemoryViewComputationResultModel constructFullResultModel() {
+    if (COLUMNAR_RESULTS) {
+      return initResultModel(new ColumnarViewComputationResultModel(ColumnarResultLayout.of(getCompiledViewDefinition())));
+    } else {
+      return constructTemplateResultModel();
+    }
+  }
+
   //-------------------------------------------------------------------------
   public Instant getValuationTime() {
     return getExecutionOptions().getValuationTime();
@@ -262,6 +322,61 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     return _resultModel;
   }
 
+  /**
+   * Adds a value that has been calculated (or sourced) by this cycle, rather than reused from a previous cycle, to the full result model.
+   * 
+   * @param calcConfigName the calculation configuration name, not null
+   * @param value the value, not null
+   */
+  /* package */void addRecalculatedValue(final String calcConfigName, final ComputedValueResult value) {
+    getResultModel().addValue(calcConfigName, value);
+    synchronized (_recalculatedTargets) {
+      Set<ComputationTargetSpecification> targets = _recalculatedTargets.get(calcConfigName);
+      if (targets == null) {
+        targets = new HashSet<ComputationTargetSpecification>();
+        _recalculatedTargets.put(calcConfigName, targets);
+      }
+      targets.add(value.getSpecification().getTargetSpecification());
+    }
+  }
+
+  /**
+   * Records the cycle that values were reused from so that {@link #getRecalculatedTargets} can be used. This is only done if the previous cycle used the same compiled view definition. After an
+   * incremental recompilation a reused value may be a terminal output that was not in the previous cycle's result model, and as such values are not recorded as recalculated the targets would be
+   * incomplete.
+   * 
+   * @param previousCycle the cycle values were reused from, not null
+   */
+  private void setReusedFrom(final SingleComputationCycle previousCycle) {
+    if (previousCycle.getCompiledViewDefinition() == getCompiledViewDefinition()) {
+      _reusedFromCycleId = previousCycle.getUniqueId();
+    } else {
+      _reusedFromCycleId = null;
+    }
+  }
+
+  /**
+   * Returns the targets that may have different results to a previous cycle. Results for all other targets were reused from that cycle so are the same as in its result model.
+   * <p>
+   * This is only available if the previous cycle is the one that this cycle reused values from, and it had the same compiled view definition. Otherwise, for example if nothing could be reused or the
+   * view was recompiled between the cycles, any target may have changed so this returns null.
+   * 
+   * @param previousCycleId the identifier of the previous cycle, not null
+   * @return the targets that may have changed, keyed by calculation configuration name, or null if not known
+   */
+  public Map<String, Set<ComputationTargetSpecification>> getRecalculatedTargets(final UniqueId previousCycleId) {
+    if (!previousCycleId.equals(_reusedFromCycleId)) {
+      return null;
+    }
+    synchronized (_recalculatedTargets) {
+      final Map<String, Set<ComputationTargetSpecification>> targets = new HashMap<String, Set<ComputationTargetSpecification>>();
+      for (Map.Entry<String, Set<ComputationTargetSpecification>> entry : _recalculatedTargets.entrySet()) {
+        targets.put(entry.getKey(), new HashSet<ComputationTargetSpecification>(entry.getValue()));
+      }
+      return targets;
+    }
+  }
+
   @Override
   public ComputationCacheResponse queryComputationCaches(final ComputationCycleQuery query) {
     ArgumentChecker.notNull(query, "query");
@@ -271,6 +386,9 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     if (cache == null) {
       throw new DataNotFoundException("No computation cache for calculation configuration '" + query.getCalculationConfigurationName() + "' was found.");
     }
+    if (_deferredCopyCycle != null) {
+      copyDeferredValues();
+    }
 
     final Collection<Pair<ValueSpecification, Object>> result = cache.getValues(query.getValueSpecifications());
     final ComputationCacheResponse response = new ComputationCacheResponse();
@@ -307,6 +425,26 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     }
   }
 
+  /**
+   * Marks this as a tick cycle, executing only the parts of the graph affected by the given market data changes. All other values, including other market data, are reused from the previous cycle
+   * without comparing them. This must be called before {@link #preExecute}, and has no effect if that is not given a previous cycle.
+   * <p>
+   * An empty set runs the cycle against the previous cycle's market data, executing only the parts of the graph affected by differences in the function parameters of the execution options. This is
+   * how a batch of scenarios is executed against a single base cycle.
+   * <p>
+   * Values that are reused but not needed for execution are only copied from the previous cycle by {@link #copyDeferredValues}, or on demand if the cycle is queried, so that results can be
+   * published as soon as possible.
+   * 
+   * @param tickedMarketData the market data that has changed since the previous cycle, not null
+   */
+  public void setTickedMarketData(final Set<ValueSpecification> tickedMarketData) {
+    ArgumentChecker.notNull(tickedMarketData, "tickedMarketData");
+    if (_state != ViewCycleState.AWAITING_EXECUTION) {
+      throw new IllegalStateException("State must be " + ViewCycleState.AWAITING_EXECUTION);
+    }
+    _tickedMarketData = tickedMarketData;
+  }
+
   /**
    * Prepares the cycle for execution, organising the caches and copying any values salvaged from a previous cycle.
    * 
@@ -322,7 +460,12 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     _startTime = Instant.now();
     _state = ViewCycleState.EXECUTING;
     createAllCaches();
-    if (!prepareInputs(marketDataSnapshot, suppressExecutionOnNoMarketData)) {
+    if ((previousCycle != null) && (_tickedMarketData != null)) {
+      prepareInputs(marketDataSnapshot, false, previousCycle);
+      computeTickDelta(previousCycle);
+      return true;
+    }
+    if (!prepareInputs(marketDataSnapshot, suppressExecutionOnNoMarketData, null)) {
       generateSuppressedOutputs();
       return false;
     }
@@ -403,7 +546,6 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
    * Adds suppressed output markers to the result model for all terminal outputs.
    */
   private void generateSuppressedOutputs() {
-    final InMemoryViewComputationResultModel fullResultModel = getResultModel();
     final InMemoryViewComputationResultModel fragmentResultModel = constructTemplateResultModel();
     for (CompiledViewCalculationConfiguration compiledCalcConfig : getCompiledViewDefinition().getCompiledCalculationConfigurations()) {
       String calcConfigName = compiledCalcConfig.getName();
@@ -411,7 +553,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
         ComputedValue value = new ComputedValue(valueSpec, MissingOutput.SUPPRESSED);
         ComputedValueResult valueResult = new ComputedValueResult(value, AggregatedExecutionLog.EMPTY);
         fragmentResultModel.addValue(calcConfigName, valueResult);
-        fullResultModel.addValue(calcConfigName, valueResult);
+        addRecalculatedValue(calcConfigName, valueResult);
       }
     }
     fragmentResultModel.setCalculationTime(Instant.now());
@@ -453,15 +595,23 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
    * 
    * @param snapshot the market data snapshot from which to source the input data, not null
    * @param suppressExecutionOnNoMarketData true if execution is to be suppressed when input data is entirely missing, false otherwise
+   * @param previousCycle the cycle to take any market data that has not ticked from if this is a tick cycle, null otherwise
    * @return true if execution should continue, false if execution should be suppressed
    */
-  private boolean prepareInputs(final MarketDataSnapshot snapshot, boolean suppressExecutionOnNoMarketData) {
+  private boolean prepareInputs(final MarketDataSnapshot snapshot, boolean suppressExecutionOnNoMarketData, final SingleComputationCycle previousCycle) {
     int missingMarketData = 0;
-    final Set<ValueSpecification> allRequiredMarketData = getCompiledViewDefinition().getMarketDataRequirements();
+    final Set<ValueSpecification> allRequiredMarketData = (previousCycle != null) ? _tickedMarketData : getCompiledViewDefinition().getMarketDataRequirements();
     s_logger.debug("Populating {} market data items using snapshot {}", allRequiredMarketData.size(), snapshot);
     final InMemoryViewComputationResultModel fragmentResultModel = constructTemplateResultModel();
     final InMemoryViewComputationResultModel fullResultModel = getResultModel();
-    final Map<ValueSpecification, Object> marketDataValues = snapshot.query(allRequiredMarketData);
+    if (previousCycle != null) {
+      for (ComputedValue marketData : previousCycle.getResultModel().getAllMarketData()) {
+        if (!allRequiredMarketData.contains(marketData.getSpecification())) {
+          fullResultModel.addMarketData(marketData);
+        }
+      }
+    }
+    final Map<ValueSpecification, Object> marketDataValues = allRequiredMarketData.isEmpty() ? Collections.<ValueSpecification, Object>emptyMap() : snapshot.query(allRequiredMarketData);
     if (suppressExecutionOnNoMarketData && allRequiredMarketData.size() > 0 && marketDataValues.size() == 0) {
       // Market data was expected but the snapshot was empty. Don't bother doing anything else, and indicate that
       // execution should not continue.
@@ -475,6 +625,10 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
       final Set<ValueSpecification> terminalOutputs = calcConfig.getTerminalOutputSpecifications().keySet();
       final Collection<ComputedValueResult> valuesToLoad = new ArrayList<>(marketDataRequirements.size());
       for (ValueSpecification marketDataSpec : marketDataRequirements) {
+        if ((previousCycle != null) && !allRequiredMarketData.contains(marketDataSpec)) {
+          // Not ticked; will be reused from the previous cycle
+          continue;
+        }
         Object marketDataValue = marketDataValues.get(marketDataSpec);
         ComputedValueResult computedValueResult;
         if (operation != null) {
@@ -500,7 +654,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
         }
         if (terminalOutputs.contains(marketDataSpec) && (resultModel.getOutputMode(marketDataSpec.getTargetSpecification().getType()) != ResultOutputMode.NONE)) {
           fragmentResultModel.addValue(calcConfig.getName(), computedValueResult);
-          fullResultModel.addValue(calcConfig.getName(), computedValueResult);
+          addRecalculatedValue(calcConfig.getName(), computedValueResult);
         }
         valuesToLoad.add(computedValueResult);
       }
@@ -613,12 +767,163 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
         cache.putSharedValues(errors);
       }
     }
+    setReusedFrom(previousCycle);
     if (!fragmentResultModel.getAllResults().isEmpty()) {
       fragmentResultModel.setCalculationTime(Instant.now());
       notifyFragmentCompleted(fragmentResultModel);
     }
   }
 
+  /**
+   * Determines the nodes affected by the ticked market data, and reuses everything else from the previous cycle. Only the values consumed by the affected nodes are copied into this cycle's caches
+   * before execution. The remaining values are deferred until {@link #copyDeferredValues}.
+   * 
+   * @param previousCycle Previous iteration. It must not have been cleaned yet ({@link #releaseResources()}).
+   */
+  private void computeTickDelta(final SingleComputationCycle previousCycle) {
+    if (previousCycle.getState() != ViewCycleState.EXECUTED) {
+      throw new IllegalArgumentException("State of previous cycle must be " + ViewCycleState.EXECUTED);
+    }
+    final FunctionParametersDelta parameterDelta = FunctionParametersDelta.of(previousCycle.getExecutionOptions(), getExecutionOptions());
+    final InMemoryViewComputationResultModel fragmentResultModel = constructTemplateResultModel();
+    final InMemoryViewComputationResultModel fullResultModel = getResultModel();
+    final ViewComputationResultModel previousResultModel = previousCycle.getResultModel();
+    final CompiledViewDefinition previousViewDefinition = previousCycle.getCompiledViewDefinition();
+    final CompiledViewDefinitionWithGraphs viewDefinition = getCompiledViewDefinition();
+    for (final DependencyGraphExplorer depGraphExplorer : viewDefinition.getDependencyGraphExplorers()) {
+      final DependencyGraph depGraph = depGraphExplorer.getWholeGraph();
+      final String calcConfig = depGraph.getCalculationConfigurationName();
+      final ViewComputationCache cache = getComputationCache(calcConfig);
+      final ViewComputationCache previousCache = previousCycle.getComputationCache(calcConfig);
+      final DependencyNodeJobExecutionResultCache jobExecutionResultCache = getJobExecutionResultCache(calcConfig);
+      final DependencyNodeJobExecutionResultCache previousJobExecutionResultCache = previousCycle.getJobExecutionResultCache(calcConfig);
+      final Set<ValueSpecification> changed = new HashSet<>(_tickedMarketData);
+      changed.addAll(parameterDelta.getValueSpecifications(calcConfig, previousViewDefinition, viewDefinition));
+      final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(depGraph, changed);
+      Iterator<DependencyNode> nodes = depGraph.nodeIterator();
+      while (nodes.hasNext()) {
+        final DependencyNode node = nodes.next();
+        if (MarketDataSourcingFunction.UNIQUE_ID.equals(node.getFunction().getFunctionId())) {
+          continue;
+        }
+        final DependencyNodeJobExecutionResult previousExecutionResult = previousJobExecutionResultCache.get(node);
+        if ((previousExecutionResult == null) ||
+            ((getLogModeSource().getLogMode(calcConfig, node.getOutputValue(0)) == ExecutionLogMode.FULL) && (previousExecutionResult.getJobResultItem().getExecutionLog().getEvents() == null))) {
+          // Nothing to reuse, or need to rerun calculation to collect logs
+          deltaCalculator.addChangedNode(node);
+        }
+      }
+      deltaCalculator.computeDelta();
+      final Set<DependencyNode> changedNodes = deltaCalculator.getChangedNodes();
+      s_logger.info("Computed tick delta for calculation configuration '{}'. {} nodes out of {} require recomputation.", calcConfig, changedNodes.size(), depGraph.getSize());
+      final Set<ValueSpecification> copyNow = new HashSet<>(deltaCalculator.getInputs());
+      final Collection<ValueSpecification> copyLater = new ArrayList<>();
+      final Collection<ComputedValue> errors = new LinkedList<>();
+      final Map<ValueSpecification, ?> terminalOutputs = depGraph.getTerminalOutputs();
+      final ViewCalculationResultModel previousResults = previousResultModel.getCalculationResult(calcConfig);
+      nodes = depGraph.nodeIterator();
+      while (nodes.hasNext()) {
+        final DependencyNode node = nodes.next();
+        final int outputs = node.getOutputCount();
+        final boolean isMarketData = MarketDataSourcingFunction.UNIQUE_ID.equals(node.getFunction().getFunctionId());
+        if (changedNodes.contains(node)) {
+          if (isMarketData) {
+            // Other outputs of the node may not have ticked, but could still be needed by the changed nodes
+            for (int i = 0; i < outputs; i++) {
+              final ValueSpecification output = node.getOutputValue(i);
+              if (!_tickedMarketData.contains(output)) {
+                copyNow.add(output);
+              }
+            }
+          }
+          continue;
+        }
+        if (!isMarketData) {
+          final DependencyNodeJobExecutionResult previousExecutionResult = previousJobExecutionResultCache.get(node);
+          if (previousExecutionResult.getJobResultItem().isFailed()) {
+            for (int i = 0; i < outputs; i++) {
+              errors.add(new ComputedValue(node.getOutputValue(i), MissingOutput.SUPPRESSED));
+            }
+          }
+          jobExecutionResultCache.put(node, previousExecutionResult);
+        }
+        for (int i = 0; i < outputs; i++) {
+          final ValueSpecification output = node.getOutputValue(i);
+          if (!copyNow.contains(output)) {
+            copyLater.add(output);
+          }
+          if ((previousResults != null) && terminalOutputs.containsKey(output)) {
+            final Map<Pair<String, ValueProperties>, ComputedValueResult> previousValues = previousResults.getValues(output.getTargetSpecification());
+            if (previousValues != null) {
+              final ComputedValueResult previousValue = previousValues.get(Pairs.of(output.getValueName(), output.getProperties()));
+              if (previousValue != null) {
+                fragmentResultModel.addValue(calcConfig, previousValue);
+                fullResultModel.addValue(calcConfig, previousValue);
+              }
+            }
+          }
+        }
+      }
+      copyNow.removeAll(_tickedMarketData);
+      copySharedValues(previousCache, cache, copyNow);
+      if (!errors.isEmpty()) {
+        cache.putSharedValues(errors);
+      }
+      if (!copyLater.isEmpty()) {
+        _deferredCopies.put(calcConfig, copyLater);
+      }
+    }
+    if (!_deferredCopies.isEmpty()) {
+      final EngineResourceManager<SingleComputationCycle> cycleManager = getViewProcessContext().getCycleManager();
+      if (cycleManager != null) {
+        _deferredCopyReference = cycleManager.createReference(previousCycle.getUniqueId());
+      }
+      _deferredCopyCycle = previousCycle;
+    }
+    setReusedFrom(previousCycle);
+    if (!fragmentResultModel.getAllResults().isEmpty()) {
+      fragmentResultModel.setCalculationTime(Instant.now());
+      notifyFragmentCompleted(fragmentResultModel);
+    }
+  }
+
+  /**
+   * Copies any values that a tick cycle deferred copying from the previous cycle into this cycle's caches. The previous cycle is kept alive until this has been done, or this cycle is released, but
+   * this should be called before this cycle is used as the previous cycle for another so that long chains of cycles are not retained.
+   */
+  public synchronized void copyDeferredValues() {
+    final SingleComputationCycle previousCycle = _deferredCopyCycle;
+    if (previousCycle == null) {
+      return;
+    }
+    for (Map.Entry<String, Collection<ValueSpecification>> deferred : _deferredCopies.entrySet()) {
+      copySharedValues(previousCycle.getComputationCache(deferred.getKey()), getComputationCache(deferred.getKey()), deferred.getValue());
+    }
+    s_logger.debug("Copied deferred values from {}", previousCycle.getUniqueId());
+    discardDeferredValues();
+  }
+
+  private synchronized void discardDeferredValues() {
+    _deferredCopies.clear();
+    _deferredCopyCycle = null;
+    if (_deferredCopyReference != null) {
+      _deferredCopyReference.release();
+      _deferredCopyReference = null;
+    }
+  }
+
+  private static void copySharedValues(final ViewComputationCache from, final ViewComputationCache to, final Collection<ValueSpecification> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+    final Collection<Pair<ValueSpecification, Object>> previousValues = from.getValues(values);
+    final Collection<ComputedValue> newValues = new ArrayList<>(previousValues.size());
+    for (Pair<ValueSpecification, Object> previousValue : previousValues) {
+      newValues.add(new ComputedValue(previousValue.getFirst(), (previousValue.getSecond() != null) ? previousValue.getSecond() : MissingOutput.EVALUATION_ERROR));
+    }
+    to.putSharedValues(newValues);
+  }
+
   private void completeResultModel() {
     getResultModel().setCalculationTime(Instant.now());
     getResultModel().setCalculationDuration(getDuration());
@@ -690,8 +995,10 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
       throw new IllegalStateException("View cycle " + getUniqueId() + " has already been released");
     }
     if (getViewDefinition().isDumpComputationCacheToDisk()) {
+      copyDeferredValues();
       dumpComputationCachesToDisk();
     }
+    discardDeferredValues();
     getViewProcessContext().getComputationCacheSource().releaseCaches(getUniqueId());
     _state = ViewCycleState.DESTROYED;
   }
@@ -718,8 +1025,9 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   }
 
   /**
-   * Receives a job result fragment. These will be streamed in by the execution framework. Only one notification per job will be received (for example the execution framework might have
-   * repeated/duplicated jobs to handle node failures).
+   * Receives a job result fragment. These will be streamed in by the execution framework. Each job item will only be notified once (for example the execution framework might have
+   * repeated/duplicated jobs to handle node failures) but a job may be notified as several fragments if its calculation node streams partial results. Each fragment is passed with a job containing
+   * just the corresponding items.
    * 
    * @param job the job that was executed, not null
    * @param jobResult the job result, not null
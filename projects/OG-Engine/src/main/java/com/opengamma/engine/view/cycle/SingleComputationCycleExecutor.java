@@ -78,7 +78,7 @@ import com.opengamma.util.tuple.Pair;
       if (calcConfig != null) {
         SingleComputationCycle cycle = executor.getCycle();
         final InMemoryViewComputationResultModel fragmentResultModel = cycle.constructTemplateResultModel();
-        calcConfig.buildResults(fragmentResultModel, cycle.getResultModel());
+        calcConfig.buildResults(fragmentResultModel, cycle);
         // TODO: Populate with durations from the component jobs
         fragmentResultModel.setCalculationTime(Instant.now());
         cycle.notifyFragmentCompleted(fragmentResultModel);
@@ -136,7 +136,7 @@ import com.opengamma.util.tuple.Pair;
       return _terminalOutputs;
     }
 
-    public void buildResults(final InMemoryViewComputationResultModel fragmentResultModel, final InMemoryViewComputationResultModel fullResultModel) {
+    public void buildResults(final InMemoryViewComputationResultModel fragmentResultModel, final SingleComputationCycle cycle) {
       if (_terminalOutputs.isEmpty()) {
         return;
       }
@@ -147,7 +147,7 @@ import com.opengamma.util.tuple.Pair;
         if (calculatedValue != null) {
           final ComputedValueResult computedValueResult = SingleComputationCycle.createComputedValueResult(valueSpec, calculatedValue, _resultCache.get(valueSpec));
           fragmentResultModel.addValue(calculationConfiguration, computedValueResult);
-          fullResultModel.addValue(calculationConfiguration, computedValueResult);
+          cycle.addRecalculatedValue(calculationConfiguration, computedValueResult);
         }
       }
       _terminalOutputs.clear();
@@ -195,9 +195,8 @@ import com.opengamma.util.tuple.Pair;
           } else {
             s_logger.debug("Building result fragment");
             final InMemoryViewComputationResultModel fragmentResultModel = getCycle().constructTemplateResultModel();
-            final InMemoryViewComputationResultModel fullResultModel = getCycle().getResultModel();
             for (ExecutingCalculationConfiguration calcConfig : _executing.values()) {
-              calcConfig.buildResults(fragmentResultModel, fullResultModel);
+              calcConfig.buildResults(fragmentResultModel, getCycle());
             }
             s_logger.info("Fragment execution complete");
             // TODO: Populate the calculation duration with information from the component jobs
@@ -326,8 +325,9 @@ import com.opengamma.util.tuple.Pair;
   }
 
   /**
-   * Receives a job result fragment. These will be streamed in by the execution framework. Only one notification per job will be received (for example the execution framework might have
-   * repeated/duplicated jobs to handle node failures).
+   * Receives a job result fragment. These will be streamed in by the execution framework. Each job item will only be notified once (for example the execution framework might have
+   * repeated/duplicated jobs to handle node failures) but a job may be notified as several fragments if its calculation node streams partial results. Each fragment is passed with a job containing
+   * just the corresponding items.
    * 
    * @param job the job that was executed, not null
    * @param jobResult the job result, not null
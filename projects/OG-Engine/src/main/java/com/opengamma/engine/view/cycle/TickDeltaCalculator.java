@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.cycle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.depgraph.impl.DependencyGraphImpl;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Determines which nodes in a graph are affected by a known set of changed values. A node has 'changed' if it produces one of the changed values, or has been explicitly marked, or if any of its
+ * inputs come from a changed node.
+ * <p>
+ * Unlike {@link LiveDataDeltaCalculator}, which compares every market data value in the graph with its value from the previous cycle, this starts from the changed values and walks downstream to
+ * their dependents. The cost is proportional to the size of the affected sub-graph rather than the whole graph, which makes it suitable for cycles triggered by individual market data ticks.
+ */
+public class TickDeltaCalculator {
+
+  /**
+   * The value producers and node dependents of graphs that are still in use. Building these requires a pass over the whole graph so they are shared by all tick cycles against the same graph.
+   */
+  private static final Cache<DependencyGraph, Index> s_indices = CacheBuilder.newBuilder().weakKeys().build();
+
+  private static final class Index {
+
+    private final Map<ValueSpecification, DependencyNode> _producers;
+    private final Map<DependencyNode, Collection<DependencyNode>> _dependents;
+
+    private Index(final DependencyGraph graph) {
+      _producers = DependencyGraphImpl.getAllOutputs(graph);
+      _dependents = new HashMap<DependencyNode, Collection<DependencyNode>>();
+      final Iterator<DependencyNode> itr = graph.nodeIterator();
+      while (itr.hasNext()) {
+        final DependencyNode node = itr.next();
+        final int count = node.getInputCount();
+        for (int i = 0; i < count; i++) {
+          final DependencyNode input = node.getInputNode(i);
+          Collection<DependencyNode> dependents = _dependents.get(input);
+          if (dependents == null) {
+            dependents = new ArrayList<DependencyNode>(2);
+            _dependents.put(input, dependents);
+          }
+          dependents.add(node);
+        }
+      }
+    }
+
+    private DependencyNode getProducer(final ValueSpecification value) {
+      return _producers.get(value);
+    }
+
+    private Collection<DependencyNode> getDependents(final DependencyNode node) {
+      final Collection<DependencyNode> dependents = _dependents.get(node);
+      return (dependents != null) ? dependents : Collections.<DependencyNode>emptySet();
+    }
+
+  }
+
+  private final Index _index;
+  private final List<DependencyNode> _seeds = new LinkedList<DependencyNode>();
+  private final Set<DependencyNode> _changedNodes = new HashSet<DependencyNode>();
+  private final Set<ValueSpecification> _inputs = new HashSet<ValueSpecification>();
+
+  private boolean _done; // = false
+
+  /**
+   * Creates a calculator for the given graph.
+   *
+   * @param graph the dependency graph, not null
+   * @param changedSpecifications the values that have changed, typically market data, not null
+   */
+  public TickDeltaCalculator(final DependencyGraph graph, final Collection<ValueSpecification> changedSpecifications) {
+    ArgumentChecker.notNull(graph, "graph");
+    ArgumentChecker.notNull(changedSpecifications, "changedSpecifications");
+    Index index = s_indices.getIfPresent(graph);
+    if (index == null) {
+      index = new Index(graph);
+      // Another thread may have indexed the graph concurrently; either copy is valid
+      s_indices.put(graph, index);
+    }
+    _index = index;
+    for (ValueSpecification changed : changedSpecifications) {
+      final DependencyNode node = index.getProducer(changed);
+      if (node != null) {
+        _seeds.add(node);
+      }
+    }
+  }
+
+  /**
+   * Marks a node as changed, for example because its previous result cannot be reused.
+   *
+   * @param node the node to mark, not null
+   */
+  public void addChangedNode(final DependencyNode node) {
+    if (_done) {
+      throw new IllegalStateException("Cannot add nodes after computing the delta");
+    }
+    _seeds.add(node);
+  }
+
+  /**
+   * Returns the nodes that produce changed values, or depend on them.
+   *
+   * @return the changed nodes, not null
+   */
+  public Set<DependencyNode> getChangedNodes() {
+    if (!_done) {
+      throw new IllegalStateException("Call computeDelta() first");
+    }
+    return _changedNodes;
+  }
+
+  /**
+   * Returns the values that are consumed by changed nodes but produced by unchanged ones. These are the only values from the previous cycle that are needed to execute the changed nodes.
+   *
+   * @return the input values, not null
+   */
+  public Set<ValueSpecification> getInputs() {
+    if (!_done) {
+      throw new IllegalStateException("Call computeDelta() first");
+    }
+    return _inputs;
+  }
+
+  /**
+   * Walks from the changed nodes to everything downstream of them. This can only be called once.
+   */
+  public void computeDelta() {
+    if (_done) {
+      throw new IllegalStateException("Cannot determine delta twice");
+    }
+    while (!_seeds.isEmpty()) {
+      final DependencyNode node = _seeds.remove(0);
+      if (_changedNodes.add(node)) {
+        _seeds.addAll(_index.getDependents(node));
+      }
+    }
+    for (DependencyNode node : _changedNodes) {
+      final int count = node.getInputCount();
+      for (int i = 0; i < count; i++) {
+        if (!_changedNodes.contains(node.getInputNode(i))) {
+          _inputs.add(node.getInputValue(i));
+        }
+      }
+    }
+    _done = true;
+  }
+
+}
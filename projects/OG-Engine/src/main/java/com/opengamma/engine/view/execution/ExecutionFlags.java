@@ -117,6 +117,26 @@ public final class ExecutionFlags {
     return this;
   }
 
+  /**
+   * Adds {@link ViewExecutionFlags#TICK_DRIVEN}
+   * 
+   * @return this
+   */
+  public ExecutionFlags tickDriven() {
+    _flags.add(ViewExecutionFlags.TICK_DRIVEN);
+    return this;
+  }
+
+  /**
+   * Adds {@link ViewExecutionFlags#BATCH_SCENARIOS}
+   * 
+   * @return this
+   */
+  public ExecutionFlags batchScenarios() {
+    _flags.add(ViewExecutionFlags.BATCH_SCENARIOS);
+    return this;
+  }
+
   /**
    * Adds {@link ViewExecutionFlags#IGNORE_COMPILATION_VALIDITY}
    * 
@@ -112,6 +112,24 @@ public enum ViewExecutionFlags {
   /**
    * Indicates that the results should be stored in batch database.
    */
-  BATCH
+  BATCH,
+
+  /**
+   * Indicates whether changes to market data should trigger a tick cycle between the normal cycles. A tick cycle executes only the nodes that depend on the market data that has changed, reusing
+   * all other values from the previous cycle, and only the changed market data is taken from the snapshot.
+   * <p>
+   * Tick cycles are delta cycles so are only run once there has been a previous cycle; a full cycle triggered for any other reason always takes priority.
+   */
+  TICK_DRIVEN,
+
+  /**
+   * Indicates whether consecutive cycles in the execution sequence that differ only in their function parameters, for example the scenarios of a simulation, should be executed as a batch. The first
+   * cycle of the batch is executed in full. Each following cycle reuses its market data, and only executes the nodes that depend on market data selections with different function parameters, reusing
+   * every other value from the first cycle.
+   * <p>
+   * Cycles belong to the same batch if they have the same compiled view, valuation time, market data specifications and resolver version/correction. Results are still published one cycle at a time,
+   * named after the cycle execution options, so listeners see each scenario as normal.
+   */
+  BATCH_SCENARIOS
 
 }
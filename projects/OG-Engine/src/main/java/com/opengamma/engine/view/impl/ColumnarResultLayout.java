@@ -0,0 +1,262 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.Triple;
+
+/**
+ * The cell layout of a {@link ColumnarViewComputationResultModel}.
+ * <p>
+ * Each terminal output of a compiled view is a cell. Cells are arranged in rows, one for each target, and columns, one for each distinct calculation configuration, value name and value properties.
+ * The cells of a row are numbered consecutively so that a cursor over the cells visits the results target by target. The value specifications are interned once here, when the layout is created, so
+ * that the result models for each cycle of the same compiled view only need to hold the values.
+ */
+public final class ColumnarResultLayout implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Layouts of the compiled views that are still in use. The keys are weak (and compared by identity) so that layouts are discarded along with their compiled view.
+   */
+  private static final Cache<CompiledViewDefinitionWithGraphs, ColumnarResultLayout> s_layouts = CacheBuilder.newBuilder().weakKeys().build();
+
+  private final ComputationTargetSpecification[] _rows;
+  private final int[] _rowStart;
+  private final String[] _columnConfiguration;
+  private final String[] _columnValueName;
+  private final ValueProperties[] _columnProperties;
+  private final String[] _cellConfiguration;
+  private final ValueSpecification[] _cellSpecification;
+  private final int[] _cellRow;
+  private final int[] _cellColumn;
+  private final Map<String, Map<ValueSpecification, Integer>> _cells;
+  private final Map<ComputationTargetSpecification, Integer> _rowIndex;
+
+  /**
+   * Creates a layout for the given terminal outputs.
+   *
+   * @param terminalOutputs the terminal output specifications of each calculation configuration, not null
+   */
+  public ColumnarResultLayout(final Map<String, ? extends Collection<ValueSpecification>> terminalOutputs) {
+    ArgumentChecker.notNull(terminalOutputs, "terminalOutputs");
+    // Group the cells by target, keeping the order in which the targets are first seen
+    final Map<ComputationTargetSpecification, List<Object[]>> rows = new LinkedHashMap<ComputationTargetSpecification, List<Object[]>>();
+    int cellCount = 0;
+    for (Map.Entry<String, ? extends Collection<ValueSpecification>> configuration : terminalOutputs.entrySet()) {
+      for (ValueSpecification specification : configuration.getValue()) {
+        List<Object[]> row = rows.get(specification.getTargetSpecification());
+        if (row == null) {
+          row = new ArrayList<Object[]>();
+          rows.put(specification.getTargetSpecification(), row);
+        }
+        row.add(new Object[] {configuration.getKey(), specification });
+        cellCount++;
+      }
+    }
+    _rows = rows.keySet().toArray(new ComputationTargetSpecification[rows.size()]);
+    _rowStart = new int[_rows.length + 1];
+    _rowIndex = new HashMap<ComputationTargetSpecification, Integer>();
+    final String[] cellConfiguration = new String[cellCount];
+    final ValueSpecification[] cellSpecification = new ValueSpecification[cellCount];
+    final int[] cellRow = new int[cellCount];
+    final int[] cellColumn = new int[cellCount];
+    _cells = new HashMap<String, Map<ValueSpecification, Integer>>();
+    final Map<Triple<String, String, ValueProperties>, Integer> columns = new LinkedHashMap<Triple<String, String, ValueProperties>, Integer>();
+    int cell = 0;
+    for (int rowIndex = 0; rowIndex < _rows.length; rowIndex++) {
+      _rowIndex.put(_rows[rowIndex], rowIndex);
+      _rowStart[rowIndex] = cell;
+      for (Object[] entry : rows.get(_rows[rowIndex])) {
+        final String configuration = (String) entry[0];
+        final ValueSpecification specification = (ValueSpecification) entry[1];
+        Map<ValueSpecification, Integer> configurationCells = _cells.get(configuration);
+        if (configurationCells == null) {
+          configurationCells = new HashMap<ValueSpecification, Integer>();
+          _cells.put(configuration, configurationCells);
+        }
+        if (configurationCells.containsKey(specification)) {
+          // Duplicate terminal output
+          continue;
+        }
+        final Triple<String, String, ValueProperties> columnKey = Triple.of(configuration, specification.getValueName(), specification.getProperties());
+        Integer column = columns.get(columnKey);
+        if (column == null) {
+          column = columns.size();
+          columns.put(columnKey, column);
+        }
+        configurationCells.put(specification, cell);
+        cellConfiguration[cell] = configuration;
+        cellSpecification[cell] = specification;
+        cellRow[cell] = rowIndex;
+        cellColumn[cell] = column;
+        cell++;
+      }
+    }
+    _rowStart[_rows.length] = cell;
+    _cellConfiguration = Arrays.copyOf(cellConfiguration, cell);
+    _cellSpecification = Arrays.copyOf(cellSpecification, cell);
+    _cellRow = Arrays.copyOf(cellRow, cell);
+    _cellColumn = Arrays.copyOf(cellColumn, cell);
+    _columnConfiguration = new String[columns.size()];
+    _columnValueName = new String[columns.size()];
+    _columnProperties = new ValueProperties[columns.size()];
+    for (Map.Entry<Triple<String, String, ValueProperties>, Integer> column : columns.entrySet()) {
+      _columnConfiguration[column.getValue()] = column.getKey().getFirst();
+      _columnValueName[column.getValue()] = column.getKey().getSecond();
+      _columnProperties[column.getValue()] = column.getKey().getThird();
+    }
+  }
+
+  /**
+   * Returns the layout for the terminal outputs of a compiled view. The layout is created on first use and then shared by all callers while the compiled view remains in memory.
+   *
+   * @param compiledViewDefinition the compiled view, not null
+   * @return the layout, not null
+   */
+  public static ColumnarResultLayout of(final CompiledViewDefinitionWithGraphs compiledViewDefinition) {
+    ArgumentChecker.notNull(compiledViewDefinition, "compiledViewDefinition");
+    ColumnarResultLayout layout = s_layouts.getIfPresent(compiledViewDefinition);
+    if (layout == null) {
+      final Map<String, Collection<ValueSpecification>> terminalOutputs = new LinkedHashMap<String, Collection<ValueSpecification>>();
+      for (CompiledViewCalculationConfiguration calcConfig : compiledViewDefinition.getCompiledCalculationConfigurations()) {
+        terminalOutputs.put(calcConfig.getName(), calcConfig.getTerminalOutputSpecifications().keySet());
+      }
+      layout = new ColumnarResultLayout(terminalOutputs);
+      // Another thread may have created an equivalent layout concurrently; either copy is valid
+      s_layouts.put(compiledViewDefinition, layout);
+    }
+    return layout;
+  }
+
+  /**
+   * Returns the number of cells.
+   *
+   * @return the cell count
+   */
+  public int getCellCount() {
+    return _cellSpecification.length;
+  }
+
+  /**
+   * Returns the number of rows, one for each target.
+   *
+   * @return the row count
+   */
+  public int getRowCount() {
+    return _rows.length;
+  }
+
+  /**
+   * Returns the number of columns, one for each distinct calculation configuration, value name and value properties.
+   *
+   * @return the column count
+   */
+  public int getColumnCount() {
+    return _columnValueName.length;
+  }
+
+  /**
+   * Returns the cell for a terminal output.
+   *
+   * @param calcConfigurationName the calculation configuration name, not null
+   * @param specification the value specification, not null
+   * @return the cell index, or -1 if the value is not part of the layout
+   */
+  public int getCell(final String calcConfigurationName, final ValueSpecification specification) {
+    final Map<ValueSpecification, Integer> cells = _cells.get(calcConfigurationName);
+    if (cells == null) {
+      return -1;
+    }
+    final Integer cell = cells.get(specification);
+    return (cell != null) ? cell : -1;
+  }
+
+  /**
+   * Returns the row for a target.
+   *
+   * @param target the target specification, not null
+   * @return the row index, or -1 if the target is not part of the layout
+   */
+  public int getRow(final ComputationTargetSpecification target) {
+    final Integer row = _rowIndex.get(target);
+    return (row != null) ? row : -1;
+  }
+
+  /**
+   * Returns the index of the first cell of a row.
+   *
+   * @param row the row index
+   * @return the cell index
+   */
+  public int getRowStart(final int row) {
+    return _rowStart[row];
+  }
+
+  /**
+   * Returns the index after the last cell of a row.
+   *
+   * @param row the row index
+   * @return the cell index
+   */
+  public int getRowEnd(final int row) {
+    return _rowStart[row + 1];
+  }
+
+  public ComputationTargetSpecification getRowTarget(final int row) {
+    return _rows[row];
+  }
+
+  public String getColumnCalculationConfiguration(final int column) {
+    return _columnConfiguration[column];
+  }
+
+  public String getColumnValueName(final int column) {
+    return _columnValueName[column];
+  }
+
+  public ValueProperties getColumnProperties(final int column) {
+    return _columnProperties[column];
+  }
+
+  public String getCellCalculationConfiguration(final int cell) {
+    return _cellConfiguration[cell];
+  }
+
+  public ValueSpecification getCellSpecification(final int cell) {
+    return _cellSpecification[cell];
+  }
+
+  public int getCellRow(final int cell) {
+    return _cellRow[cell];
+  }
+
+  public int getCellColumn(final int cell) {
+    return _cellColumn[cell];
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnarResultLayout[" + getRowCount() + " rows, " + getColumnCount() + " columns, " + getCellCount() + " cells]";
+  }
+
+}
@@ -0,0 +1,480 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.ObjectUtils;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.calcnode.InvocationResult;
+import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.ViewCalculationResultModel;
+import com.opengamma.engine.view.ViewResultEntry;
+import com.opengamma.engine.view.ViewTargetResultModel;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Pairs;
+
+/**
+ * Implementation of {@link com.opengamma.engine.view.ViewComputationResultModel} that holds the terminal outputs of a compiled view in columns rather than maps of {@link ComputedValueResult}.
+ * <p>
+ * The cells are defined by a {@link ColumnarResultLayout} shared by all cycles of the compiled view. Scalar double results are held in a primitive array and any other results in an object array, both
+ * indexed by cell. The execution log, compute node, missing inputs and invocation result of each cell are interned as most cells share the same combination. A {@link Cursor} visits the results
+ * target by target without creating any objects. The map based accessors of {@link com.opengamma.engine.view.ViewResultModel} are supported by creating the {@link ComputedValueResult} instances as
+ * they are requested.
+ * <p>
+ * Values that are not part of the layout, for example from a different compilation, are held in the maps of the superclass and returned by the map based accessors but not the cursor.
+ */
+public class ColumnarViewComputationResultModel extends InMemoryViewComputationResultModel {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The non-value parts of a {@link ComputedValueResult}.
+   */
+  private static final class Metadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AggregatedExecutionLog _log;
+    private final String _computeNodeId;
+    private final Set<ValueSpecification> _missingInputs;
+    private final InvocationResult _invocationResult;
+
+    public Metadata(final ComputedValueResult value) {
+      _log = value.getAggregatedExecutionLog();
+      _computeNodeId = value.getComputeNodeId();
+      _missingInputs = value.getMissingInputs();
+      _invocationResult = value.getInvocationResult();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Metadata)) {
+        return false;
+      }
+      final Metadata other = (Metadata) o;
+      return (_invocationResult == other._invocationResult) && ObjectUtils.equals(_computeNodeId, other._computeNodeId) && _log.equals(other._log)
+          && ObjectUtils.equals(_missingInputs, other._missingInputs);
+    }
+
+    @Override
+    public int hashCode() {
+      int hc = _log.hashCode();
+      hc += (hc << 4) + ObjectUtils.hashCode(_computeNodeId);
+      hc += (hc << 4) + ObjectUtils.hashCode(_missingInputs);
+      hc += (hc << 4) + ObjectUtils.hashCode(_invocationResult);
+      return hc;
+    }
+
+  }
+
+  private final ColumnarResultLayout _layout;
+  private final double[] _doubles;
+  private final Object[] _values;
+  private final Metadata[] _metadata;
+  private final BitSet _present;
+  private final BitSet _double;
+  private final Set<String> _configurations = new HashSet<String>();
+  private transient Map<Metadata, Metadata> _metadataCache;
+
+  /**
+   * Creates an empty model.
+   *
+   * @param layout the layout of the cells, not null
+   */
+  public ColumnarViewComputationResultModel(final ColumnarResultLayout layout) {
+    ArgumentChecker.notNull(layout, "layout");
+    _layout = layout;
+    final int cells = layout.getCellCount();
+    _doubles = new double[cells];
+    _values = new Object[cells];
+    _metadata = new Metadata[cells];
+    _present = new BitSet(cells);
+    _double = new BitSet(cells);
+  }
+
+  public ColumnarResultLayout getLayout() {
+    return _layout;
+  }
+
+  private Metadata intern(final Metadata metadata) {
+    if (_metadataCache == null) {
+      _metadataCache = new HashMap<Metadata, Metadata>();
+    }
+    final Metadata existing = _metadataCache.get(metadata);
+    if (existing != null) {
+      return existing;
+    }
+    _metadataCache.put(metadata, metadata);
+    return metadata;
+  }
+
+  @Override
+  protected void addValue(final String calcConfigurationName, final ComputationTargetSpecification target, final ComputedValueResult value) {
+    final int cell = _layout.getCell(calcConfigurationName, value.getSpecification());
+    if (cell < 0) {
+      super.addValue(calcConfigurationName, target, value);
+      return;
+    }
+    final Object v = value.getValue();
+    if (v instanceof Double) {
+      _doubles[cell] = (Double) v;
+      _values[cell] = null;
+      _double.set(cell);
+    } else {
+      _values[cell] = v;
+      _double.clear(cell);
+    }
+    _metadata[cell] = intern(new Metadata(value));
+    if (!_present.get(cell)) {
+      _present.set(cell);
+      _configurations.add(calcConfigurationName);
+    }
+  }
+
+  /**
+   * Tests whether a cell has a value.
+   *
+   * @param cell the cell index
+   * @return true if a value has been added for the cell
+   */
+  public boolean isPresent(final int cell) {
+    return _present.get(cell);
+  }
+
+  /**
+   * Tests whether a cell holds a scalar double value.
+   *
+   * @param cell the cell index
+   * @return true if the value is a double, false if it is any other type or absent
+   */
+  public boolean isDouble(final int cell) {
+    return _double.get(cell);
+  }
+
+  /**
+   * Returns the value of a cell that holds a scalar double, see {@link #isDouble}.
+   *
+   * @param cell the cell index
+   * @return the value
+   */
+  public double getDouble(final int cell) {
+    return _doubles[cell];
+  }
+
+  /**
+   * Returns the value of a cell, boxing it if it is a scalar double.
+   *
+   * @param cell the cell index
+   * @return the value, or null if there is none
+   */
+  public Object getValue(final int cell) {
+    if (_double.get(cell)) {
+      return _doubles[cell];
+    }
+    return _values[cell];
+  }
+
+  /**
+   * Returns the value of a cell as a {@link ComputedValueResult}.
+   *
+   * @param cell the cell index
+   * @return the result, or null if the cell has no value
+   */
+  public ComputedValueResult getResult(final int cell) {
+    if (!_present.get(cell)) {
+      return null;
+    }
+    final Metadata metadata = _metadata[cell];
+    return new ComputedValueResult(_layout.getCellSpecification(cell), getValue(cell), metadata._log, metadata._computeNodeId, metadata._missingInputs, metadata._invocationResult);
+  }
+
+  /**
+   * Returns a cursor positioned before the first cell with a value.
+   *
+   * @return the cursor, not null
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Visits the cells that have values in row order.
+   */
+  public final class Cursor {
+
+    private int _cell = -1;
+
+    private Cursor() {
+    }
+
+    /**
+     * Moves to the next cell with a value.
+     *
+     * @return true if there was another cell, false if the cursor is now beyond the last cell
+     */
+    public boolean next() {
+      _cell = _present.nextSetBit(_cell + 1);
+      return _cell >= 0;
+    }
+
+    public int getCell() {
+      return _cell;
+    }
+
+    public int getRow() {
+      return _layout.getCellRow(_cell);
+    }
+
+    public int getColumn() {
+      return _layout.getCellColumn(_cell);
+    }
+
+    public ComputationTargetSpecification getTarget() {
+      return _layout.getRowTarget(getRow());
+    }
+
+    public String getCalculationConfiguration() {
+      return _layout.getCellCalculationConfiguration(_cell);
+    }
+
+    public ValueSpecification getSpecification() {
+      return _layout.getCellSpecification(_cell);
+    }
+
+    public boolean isDouble() {
+      return _double.get(_cell);
+    }
+
+    public double getDouble() {
+      return _doubles[_cell];
+    }
+
+    public Object getValue() {
+      return ColumnarViewComputationResultModel.this.getValue(_cell);
+    }
+
+    public ComputedValueResult getResult() {
+      return ColumnarViewComputationResultModel.this.getResult(_cell);
+    }
+
+  }
+
+  private boolean isRowPresent(final int row) {
+    final int cell = _present.nextSetBit(_layout.getRowStart(row));
+    return (cell >= 0) && (cell < _layout.getRowEnd(row));
+  }
+
+  /**
+   * Adapts the cells of one calculation configuration to {@link ViewCalculationResultModel}.
+   */
+  private final class CalculationResult implements ViewCalculationResultModel {
+
+    private final String _calcConfigurationName;
+    private final ViewCalculationResultModel _overflow;
+
+    public CalculationResult(final String calcConfigurationName, final ViewCalculationResultModel overflow) {
+      _calcConfigurationName = calcConfigurationName;
+      _overflow = overflow;
+    }
+
+    @Override
+    public Collection<ComputationTargetSpecification> getAllTargets() {
+      final Set<ComputationTargetSpecification> targets = new LinkedHashSet<ComputationTargetSpecification>();
+      for (int row = 0; row < _layout.getRowCount(); row++) {
+        final int end = _layout.getRowEnd(row);
+        for (int cell = _present.nextSetBit(_layout.getRowStart(row)); (cell >= 0) && (cell < end); cell = _present.nextSetBit(cell + 1)) {
+          if (_calcConfigurationName.equals(_layout.getCellCalculationConfiguration(cell))) {
+            targets.add(_layout.getRowTarget(row));
+            break;
+          }
+        }
+      }
+      if (_overflow != null) {
+        targets.addAll(_overflow.getAllTargets());
+      }
+      return Collections.unmodifiableSet(targets);
+    }
+
+    @Override
+    public Map<Pair<String, ValueProperties>, ComputedValueResult> getValues(final ComputationTargetSpecification target) {
+      final Map<Pair<String, ValueProperties>, ComputedValueResult> values = new HashMap<Pair<String, ValueProperties>, ComputedValueResult>();
+      final int row = _layout.getRow(target);
+      if (row >= 0) {
+        final int end = _layout.getRowEnd(row);
+        for (int cell = _present.nextSetBit(_layout.getRowStart(row)); (cell >= 0) && (cell < end); cell = _present.nextSetBit(cell + 1)) {
+          if (_calcConfigurationName.equals(_layout.getCellCalculationConfiguration(cell))) {
+            final int column = _layout.getCellColumn(cell);
+            values.put(Pairs.of(_layout.getColumnValueName(column), _layout.getColumnProperties(column)), getResult(cell));
+          }
+        }
+      }
+      if (_overflow != null) {
+        final Map<Pair<String, ValueProperties>, ComputedValueResult> overflow = _overflow.getValues(target);
+        if (overflow != null) {
+          values.putAll(overflow);
+        }
+      }
+      if (values.isEmpty()) {
+        return null;
+      }
+      return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public Collection<ComputedValueResult> getAllValues(final ComputationTargetSpecification target) {
+      final Map<Pair<String, ValueProperties>, ComputedValueResult> values = getValues(target);
+      if (values == null) {
+        return null;
+      }
+      return values.values();
+    }
+
+  }
+
+  /**
+   * Adapts the cells of one row to {@link ViewTargetResultModel}.
+   */
+  private final class TargetResult implements ViewTargetResultModel {
+
+    private final int _row;
+    private final ViewTargetResultModel _overflow;
+
+    public TargetResult(final int row, final ViewTargetResultModel overflow) {
+      _row = row;
+      _overflow = overflow;
+    }
+
+    @Override
+    public Collection<String> getCalculationConfigurationNames() {
+      final Set<String> names = new LinkedHashSet<String>();
+      if (_row >= 0) {
+        final int end = _layout.getRowEnd(_row);
+        for (int cell = _present.nextSetBit(_layout.getRowStart(_row)); (cell >= 0) && (cell < end); cell = _present.nextSetBit(cell + 1)) {
+          names.add(_layout.getCellCalculationConfiguration(cell));
+        }
+      }
+      if (_overflow != null) {
+        names.addAll(_overflow.getCalculationConfigurationNames());
+      }
+      return Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public Collection<ComputedValueResult> getAllValues(final String calcConfigurationName) {
+      final List<ComputedValueResult> values = new ArrayList<ComputedValueResult>();
+      if (_row >= 0) {
+        final int end = _layout.getRowEnd(_row);
+        for (int cell = _present.nextSetBit(_layout.getRowStart(_row)); (cell >= 0) && (cell < end); cell = _present.nextSetBit(cell + 1)) {
+          if (calcConfigurationName.equals(_layout.getCellCalculationConfiguration(cell))) {
+            values.add(getResult(cell));
+          }
+        }
+      }
+      if (_overflow != null) {
+        final Collection<ComputedValueResult> overflow = _overflow.getAllValues(calcConfigurationName);
+        if (overflow != null) {
+          values.addAll(overflow);
+        }
+      }
+      if (values.isEmpty()) {
+        return null;
+      }
+      return Collections.unmodifiableList(values);
+    }
+
+  }
+
+  // ViewResultModel
+
+  @Override
+  public boolean isEmpty() {
+    return _present.isEmpty() && super.isEmpty();
+  }
+
+  @Override
+  public Set<ComputationTargetSpecification> getAllTargets() {
+    final Set<ComputationTargetSpecification> targets = new LinkedHashSet<ComputationTargetSpecification>();
+    for (int row = 0; row < _layout.getRowCount(); row++) {
+      if (isRowPresent(row)) {
+        targets.add(_layout.getRowTarget(row));
+      }
+    }
+    targets.addAll(super.getAllTargets());
+    return Collections.unmodifiableSet(targets);
+  }
+
+  @Override
+  public Collection<String> getCalculationConfigurationNames() {
+    final Set<String> names = new LinkedHashSet<String>(_configurations);
+    names.addAll(super.getCalculationConfigurationNames());
+    return Collections.unmodifiableSet(names);
+  }
+
+  @Override
+  public ViewCalculationResultModel getCalculationResult(final String calcConfigurationName) {
+    final ViewCalculationResultModel overflow = super.getCalculationResult(calcConfigurationName);
+    if ((overflow == null) && !_configurations.contains(calcConfigurationName)) {
+      return null;
+    }
+    return new CalculationResult(calcConfigurationName, overflow);
+  }
+
+  @Override
+  public ViewTargetResultModel getTargetResult(final ComputationTargetSpecification targetSpecification) {
+    final ViewTargetResultModel overflow = super.getTargetResult(targetSpecification);
+    int row = _layout.getRow(targetSpecification);
+    if ((row >= 0) && !isRowPresent(row)) {
+      row = -1;
+    }
+    if ((overflow == null) && (row < 0)) {
+      return null;
+    }
+    return new TargetResult(row, overflow);
+  }
+
+  @Override
+  public List<ViewResultEntry> getAllResults() {
+    final List<ViewResultEntry> overflow = super.getAllResults();
+    final List<ViewResultEntry> results = new ArrayList<ViewResultEntry>(_present.cardinality() + overflow.size());
+    for (int cell = _present.nextSetBit(0); cell >= 0; cell = _present.nextSetBit(cell + 1)) {
+      results.add(new ViewResultEntry(_layout.getCellCalculationConfiguration(cell), getResult(cell)));
+    }
+    results.addAll(overflow);
+    return results;
+  }
+
+  @Override
+  public Set<String> getAllOutputValueNames() {
+    final Set<String> names = new HashSet<String>();
+    for (int cell = _present.nextSetBit(0); cell >= 0; cell = _present.nextSetBit(cell + 1)) {
+      names.add(_layout.getColumnValueName(_layout.getCellColumn(cell)));
+    }
+    for (ViewResultEntry result : super.getAllResults()) {
+      names.add(result.getComputedValue().getSpecification().getValueName());
+    }
+    return names;
+  }
+
+}
@@ -65,20 +65,13 @@ public abstract class InMemoryViewResultModel implements ViewResultModel, Serial
     setVersionCorrection(delta.getVersionCorrection());
     for (String calculationConfiguration : delta.getCalculationConfigurationNames()) {
       final ViewCalculationResultModel deltaConfigResults = delta.getCalculationResult(calculationConfiguration);
-      ViewCalculationResultModelImpl calcConfigResults = _resultsByConfiguration.get(calculationConfiguration);
-      if (calcConfigResults == null) {
-        calcConfigResults = new ViewCalculationResultModelImpl();
-        _resultsByConfiguration.put(calculationConfiguration, calcConfigResults);
+      // The configuration is present even if the delta has no values for it
+      if (!_resultsByConfiguration.containsKey(calculationConfiguration)) {
+        _resultsByConfiguration.put(calculationConfiguration, new ViewCalculationResultModelImpl());
       }
       for (ComputationTargetSpecification target : deltaConfigResults.getAllTargets()) {
         for (ComputedValueResult value : deltaConfigResults.getAllValues(target)) {
-          calcConfigResults.addValue(target, value);
-          ViewTargetResultModelImpl targetResults = _resultsByTarget.get(target);
-          if (targetResults == null) {
-            targetResults = new ViewTargetResultModelImpl();
-            _resultsByTarget.put(target, targetResults);
-          }
-          targetResults.addValue(calculationConfiguration, value);
+          addValue(calculationConfiguration, target, value);
         }
       }
     }
@@ -156,7 +149,17 @@ public abstract class InMemoryViewResultModel implements ViewResultModel, Serial
   }
 
   public void addValue(final String calcConfigurationName, final ComputedValueResult value) {
-    final ComputationTargetSpecification target = value.getSpecification().getTargetSpecification();
+    addValue(calcConfigurationName, value.getSpecification().getTargetSpecification(), value);
+  }
+
+  /**
+   * Adds a value to the model.
+   * 
+   * @param calcConfigurationName the calculation configuration name, not null
+   * @param target the target the value is for, not null
+   * @param value the value, not null
+   */
+  protected void addValue(final String calcConfigurationName, final ComputationTargetSpecification target, final ComputedValueResult value) {
     ViewCalculationResultModelImpl result = _resultsByConfiguration.get(calcConfigurationName);
     if (result == null) {
       result = new ViewCalculationResultModelImpl();
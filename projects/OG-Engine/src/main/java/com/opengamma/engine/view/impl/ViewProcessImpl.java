@@ -26,6 +26,7 @@ import com.opengamma.DataNotFoundException;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.change.ChangeEvent;
 import com.opengamma.core.change.ChangeListener;
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.management.InternalViewResultListener;
 import com.opengamma.engine.marketdata.MarketDataInjector;
 import com.opengamma.engine.marketdata.MarketDataPermissionProvider;
@@ -39,6 +40,7 @@ import com.opengamma.engine.view.ViewProcessState;
 import com.opengamma.engine.view.client.ViewDeltaResultCalculator;
 import com.opengamma.engine.view.client.ViewResultMode;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.engine.view.cycle.SingleComputationCycle;
 import com.opengamma.engine.view.cycle.ViewCycle;
 import com.opengamma.engine.view.cycle.ViewCycleMetadata;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
@@ -451,7 +453,12 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle, ViewProc
       final ViewComputationResultModel previousResult = _latestResult.getAndSet(result);
       if (_mustCalculateDeltas.get()) {
         // [PLAT-1158] Is the cost of computing the delta going to be high; should we offload that to a slave thread before dispatching to the listeners?
-        deltaResult = ViewDeltaResultCalculator.computeDeltaModel(cycle.getCompiledViewDefinition().getViewDefinition(), previousResult, result);
+        Map<String, Set<ComputationTargetSpecification>> changedTargets = null;
+        if ((previousResult != null) && (cycle instanceof SingleComputationCycle)) {
+          // Only the recalculated targets need comparing if the cycle reused the other values from the previous one
+          changedTargets = ((SingleComputationCycle) cycle).getRecalculatedTargets(previousResult.getViewCycleId());
+        }
+        deltaResult = ViewDeltaResultCalculator.computeDeltaModel(cycle.getCompiledViewDefinition().getViewDefinition(), previousResult, result, changedTargets);
       }
       listeners = getListenerArray();
       latest = _latestCompiledViewDefinition.get();
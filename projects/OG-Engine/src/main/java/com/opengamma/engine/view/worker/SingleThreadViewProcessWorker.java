@@ -211,6 +211,11 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
   private int _cycleCount;
 
   private EngineResourceReference<SingleComputationCycle> _previousCycleReference;
+
+  /**
+   * The market data snapshot used by the previous cycle. Scenario cycles batched with the previous cycle use this rather than taking a new snapshot.
+   */
+  private MarketDataSnapshot _previousMarketDataSnapshot;
   /**
    * The current view definition the worker must calculate on.
    */
@@ -234,6 +239,16 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
   private volatile boolean _cycleRequested;
   private volatile boolean _forceTriggerCycle;
 
+  /**
+   * The market data that has changed since the last cycle started, if {@link ViewExecutionFlags#TICK_DRIVEN} is set. Guarded by {@code this}.
+   */
+  private Set<ValueSpecification> _tickedMarketData = new HashSet<>();
+
+  /**
+   * The market data changes that the next cycle returned by {@link #waitForNextCycle} is for, or null if it is not a tick cycle.
+   */
+  private Set<ValueSpecification> _cycleTickedMarketData;
+
   /**
    * An updated view definition pushed in by the execution coordinator. When the next cycle runs, this should be used instead of the previous one.
    */
@@ -449,6 +464,8 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
         s_logger.debug("Interrupted during wait");
         return;
       }
+      Set<ValueSpecification> tickedMarketData = _cycleTickedMarketData;
+      _cycleTickedMarketData = null;
       ViewCycleExecutionOptions executionOptions = null;
       try {
         if (!getExecutionOptions().getExecutionSequence().isEmpty()) {
@@ -550,13 +567,33 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
         getProcessContext().getLiveDataOverrideInjector().setComputationTargetResolver(
             getProcessContext().getFunctionCompilationService().getFunctionCompilationContext().getRawComputationTargetResolver().atVersionCorrection(versionCorrection));
 
+        if (cycleType == ViewCycleType.FULL) {
+          tickedMarketData = null;
+        }
+        boolean scenarioCycle = false;
+        if ((tickedMarketData == null) && isScenarioOfPreviousCycle(executionOptions, compiledViewDefinition, versionCorrection)) {
+          // Reuse the market data of the previous cycle, executing only what this scenario's function parameters change
+          tickedMarketData = Collections.emptySet();
+          cycleType = ViewCycleType.DELTA;
+          scenarioCycle = true;
+        }
         try {
-          snapshotManager.addMarketDataRequirements(compiledViewDefinition.getMarketDataRequirements());
-          if (getExecutionOptions().getFlags().contains(ViewExecutionFlags.AWAIT_MARKET_DATA)) {
-            long timeoutMillis = getExecutionOptions().getMarketDataTimeoutMillis() != null ? getExecutionOptions().getMarketDataTimeoutMillis() : DEFAULT_MARKET_DATA_TIMEOUT_MILLIS;
-            snapshotManager.initialiseSnapshotWithSubscriptionResults(timeoutMillis);
-          } else {
+          if (scenarioCycle) {
+            // The previous cycle's snapshot is used; no new snapshot is taken
+            s_logger.debug("Scenario cycle {} batched with previous cycle", executionOptions.getName());
+          } else if (tickedMarketData != null) {
+            // Only the ticked data is taken from the snapshot; the rest of the subscriptions are already in place
+            snapshotManager.addMarketDataRequirements(tickedMarketData);
             snapshotManager.initialiseSnapshot();
+            s_logger.debug("Tick cycle for {} changed market data items", tickedMarketData.size());
+          } else {
+            snapshotManager.addMarketDataRequirements(compiledViewDefinition.getMarketDataRequirements());
+            if (getExecutionOptions().getFlags().contains(ViewExecutionFlags.AWAIT_MARKET_DATA)) {
+              long timeoutMillis = getExecutionOptions().getMarketDataTimeoutMillis() != null ? getExecutionOptions().getMarketDataTimeoutMillis() : DEFAULT_MARKET_DATA_TIMEOUT_MILLIS;
+              snapshotManager.initialiseSnapshotWithSubscriptionResults(timeoutMillis);
+            } else {
+              snapshotManager.initialiseSnapshot();
+            }
           }
           if (executionOptions.getValuationTime() == null) {
             executionOptions = executionOptions.copy().setValuationTime(snapshotManager.getSnapshotTime()).create();
@@ -567,6 +604,7 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
         }
 
         if (_executeCycles) {
+          final MarketDataSnapshot marketDataSnapshot = scenarioCycle ? _previousMarketDataSnapshot : snapshotManager.getSnapshot();
           EngineResourceReference<SingleComputationCycle> cycleReference;
           try {
             cycleReference = createCycle(executionOptions, compiledViewDefinition, versionCorrection);
@@ -579,7 +617,6 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
               final SingleComputationCycle singleComputationCycle = cycleReference.get();
               final Map<String, Collection<ComputationTargetSpecification>> configToComputationTargets = new HashMap<>();
               final Map<String, Map<ValueSpecification, Set<ValueRequirement>>> configToTerminalOutputs = new HashMap<>();
-              final MarketDataSnapshot marketDataSnapshot = snapshotManager.getSnapshot();
 
               for (DependencyGraphExplorer graphExp : compiledViewDefinition.getDependencyGraphExplorers()) {
                 configToComputationTargets.put(graphExp.getCalculationConfigurationName(), graphExp.getComputationTargets());
@@ -594,9 +631,13 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
               if (isTerminated()) {
                 return;
               }
-              // We may have started the cycle without setting up market data subscriptions, so we
-              // now need to set them up so that the data will start to be populated in future cycles
-              snapshotManager.requestSubscriptions();
+              if (tickedMarketData != null) {
+                singleComputationCycle.setTickedMarketData(tickedMarketData);
+              } else {
+                // We may have started the cycle without setting up market data subscriptions, so we
+                // now need to set them up so that the data will start to be populated in future cycles
+                snapshotManager.requestSubscriptions();
+              }
               executeViewCycle(cycleType, cycleReference, marketDataSnapshot);
             } catch (final InterruptedException e) {
               // Execution interrupted - don't propagate as failure
@@ -619,11 +660,16 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
             if (isTerminated()) {
               return;
             }
-            if (_previousCycleReference != null) {
-              _previousCycleReference.release();
-            }
-            _previousCycleReference = cycleReference;
-            cycleReference = null;
+            if (!scenarioCycle) {
+              // Values reused by a tick cycle must be copied before the cycle they came from is released
+              cycleReference.get().copyDeferredValues();
+              if (_previousCycleReference != null) {
+                _previousCycleReference.release();
+              }
+              _previousCycleReference = cycleReference;
+              _previousMarketDataSnapshot = marketDataSnapshot;
+              cycleReference = null;
+            } // else keep the previous cycle for the remaining scenarios of the batch
           } finally {
             if (cycleReference != null) {
               cycleReference.release();
@@ -643,6 +689,7 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
       if (_previousCycleReference != null) {
         _previousCycleReference.release();
       }
+      _previousMarketDataSnapshot = null;
       unsubscribeFromTargetResolverChanges();
       _marketDataManager.stop();
       _executionCacheKey = null;
@@ -720,6 +767,8 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
         }
         if (cycleEligibility == ViewCycleEligibility.FORCE || (cycleEligibility == ViewCycleEligibility.ELIGIBLE && _cycleRequested)) {
           _cycleRequested = false;
+          // A normal cycle picks up all market data changes
+          _tickedMarketData.clear();
           ViewCycleType cycleType = triggerResult.getCycleType();
           if (_previousCycleReference == null) {
             // Cannot do a delta if we have no previous cycle
@@ -739,6 +788,13 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
           }
           return cycleType;
         }
+        if (!_tickedMarketData.isEmpty() && (_previousCycleReference != null) && (_previousCycleReference.get().getState() == ViewCycleState.EXECUTED)) {
+          // Tick cycles run between the normal cycles so don't notify the trigger
+          _cycleTickedMarketData = _tickedMarketData;
+          _tickedMarketData = new HashSet<>();
+          s_logger.debug("Eligible for tick cycle");
+          return ViewCycleType.DELTA;
+        }
         // Going to sleep (or doing some useful work)
         final long wakeUpTime = triggerResult.getNextStateChangeNanos();
         if (_cycleRequested) {
@@ -813,6 +869,27 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
     }
   }
 
+  /**
+   * Tests whether a cycle can be executed as a scenario batched with the previous cycle, if {@link ViewExecutionFlags#BATCH_SCENARIOS} is set. This requires the same compiled view, valuation time,
+   * market data and resolver version/correction so that the only difference is in the function parameters.
+   * 
+   * @param executionOptions the options for the cycle, not null
+   * @param compiledViewDefinition the compiled view for the cycle, not null
+   * @param versionCorrection the resolver version/correction for the cycle, not null
+   * @return true if the cycle can reuse the previous cycle's market data and any values that its function parameters do not change
+   */
+  private boolean isScenarioOfPreviousCycle(final ViewCycleExecutionOptions executionOptions, final CompiledViewDefinitionWithGraphs compiledViewDefinition,
+      final VersionCorrection versionCorrection) {
+    if (!getExecutionOptions().getFlags().contains(ViewExecutionFlags.BATCH_SCENARIOS) || (_previousCycleReference == null) || (_previousMarketDataSnapshot == null)) {
+      return false;
+    }
+    final SingleComputationCycle previousCycle = _previousCycleReference.get();
+    return (previousCycle.getState() == ViewCycleState.EXECUTED) && (previousCycle.getCompiledViewDefinition() == compiledViewDefinition) &&
+        (executionOptions.getValuationTime() != null) && executionOptions.getValuationTime().equals(previousCycle.getValuationTime()) &&
+        executionOptions.getMarketDataSpecifications().equals(previousCycle.getExecutionOptions().getMarketDataSpecifications()) &&
+        versionCorrection.equals(previousCycle.getVersionCorrection());
+  }
+
   private void executeViewCycle(final ViewCycleType cycleType, final EngineResourceReference<SingleComputationCycle> cycleReference, final MarketDataSnapshot marketDataSnapshot)
       throws Exception {
     SingleComputationCycle deltaCycle;
@@ -1703,7 +1780,8 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
 
   @Override
   public void onMarketDataValuesChanged(final Collection<ValueSpecification> valueSpecifications) {
-    if (!getExecutionOptions().getFlags().contains(ViewExecutionFlags.TRIGGER_CYCLE_ON_MARKET_DATA_CHANGED)) {
+    final boolean tickDriven = getExecutionOptions().getFlags().contains(ViewExecutionFlags.TICK_DRIVEN);
+    if (!tickDriven && !getExecutionOptions().getFlags().contains(ViewExecutionFlags.TRIGGER_CYCLE_ON_MARKET_DATA_CHANGED)) {
       return;
     }
     // Don't want to query the cache for this; always use the last one
@@ -1711,11 +1789,25 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
     if (compiledView == null) {
       return;
     }
-    if (CollectionUtils.containsAny(compiledView.getMarketDataRequirements(), valueSpecifications)) {
+    if (tickDriven) {
+      tickMarketData(compiledView.getMarketDataRequirements(), valueSpecifications);
+    } else if (CollectionUtils.containsAny(compiledView.getMarketDataRequirements(), valueSpecifications)) {
       requestCycle();
     }
   }
 
+  private synchronized void tickMarketData(final Set<ValueSpecification> marketDataRequirements, final Collection<ValueSpecification> valueSpecifications) {
+    boolean ticked = false;
+    for (ValueSpecification valueSpecification : valueSpecifications) {
+      if (marketDataRequirements.contains(valueSpecification)) {
+        ticked |= _tickedMarketData.add(valueSpecification);
+      }
+    }
+    if (ticked) {
+      notifyAll();
+    }
+  }
+
   // ViewComputationJob
 
   @Override
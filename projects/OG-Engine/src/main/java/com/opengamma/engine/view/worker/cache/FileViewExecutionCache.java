@@ -0,0 +1,346 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.worker.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hashing;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.core.position.Portfolio;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphExplorer;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionRepositorySnapshot;
+import com.opengamma.engine.target.ComputationTargetReference;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * A {@link ViewExecutionCache} that writes compiled view definitions to files in a local folder so that they survive an engine restart.
+ * <p>
+ * Each entry is stored along with the resolver version/correction it was compiled at and a fingerprint of the function repository it was compiled against. An entry written by an earlier process is
+ * only returned if the fingerprint matches the current function repository, in which case it is given the current function initialization identifier. The view process worker then treats it as it
+ * would any other cached compilation; the resolutions it holds are checked against the current version/correction and only the parts of the graphs that depend on changed targets are recompiled.
+ * <p>
+ * The fingerprint is that of {@link FunctionRepositorySnapshot#getFingerprint}, covering the identifiers, names, classes, configuration parameters and default parameters of the functions in the
+ * repository. Changes to function behaviour that are not reflected in the repository, for example by deploying new
+ * code without any configuration change, are not detected and the cache should be cleared when doing so.
+ */
+public class FileViewExecutionCache implements ViewExecutionCache {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(FileViewExecutionCache.class);
+
+  private static final String SUFFIX = ".cvd";
+
+  private static final FilenameFilter ENTRY_FILTER = new FilenameFilter() {
+    @Override
+    public boolean accept(final File dir, final String name) {
+      return name.endsWith(SUFFIX);
+    }
+  };
+
+  private final File _directory;
+
+  private final ComputationTargetResolver _targetResolver;
+
+  private final CompiledFunctionService _functions;
+
+  /**
+   * Identifies entries written by this process. The function initialization identifier from these can be trusted as it is from the same sequence as the current one.
+   */
+  private final String _session = UUID.randomUUID().toString();
+
+  private final ConcurrentMap<ViewExecutionCacheKey, CompiledViewDefinitionWithGraphs> _frontCache = new MapMaker().weakValues().makeMap();
+
+  private long _fingerprintInitId;
+
+  private String _fingerprint;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param directory the folder to write the entries to, not null. This will be created if it does not exist.
+   * @param cfs the compiled function service, holding a computation target resolver, not null
+   */
+  public FileViewExecutionCache(final File directory, final CompiledFunctionService cfs) {
+    this(directory, cfs.getFunctionCompilationContext().getRawComputationTargetResolver(), cfs);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param directory the folder to write the entries to, not null. This will be created if it does not exist.
+   * @param targetResolver the target resolver for portfolio and view definition objects, not null
+   * @param cfs the compiled function service, not null
+   */
+  public FileViewExecutionCache(final File directory, final ComputationTargetResolver targetResolver, final CompiledFunctionService cfs) {
+    ArgumentChecker.notNull(directory, "directory");
+    ArgumentChecker.notNull(targetResolver, "targetResolver");
+    ArgumentChecker.notNull(cfs, "cfs");
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new OpenGammaRuntimeException("Couldn't create cache folder " + directory);
+    }
+    _directory = directory;
+    _targetResolver = targetResolver;
+    _functions = cfs;
+  }
+
+  public File getDirectory() {
+    return _directory;
+  }
+
+  public ComputationTargetResolver getTargetResolver() {
+    return _targetResolver;
+  }
+
+  public CompiledFunctionService getFunctions() {
+    return _functions;
+  }
+
+  /**
+   * Returns the fingerprint of the current function repository. This is only recalculated when the function initialization identifier changes.
+   *
+   * @return the fingerprint, not null
+   */
+  protected synchronized String getFunctionRepositoryFingerprint() {
+    final long initId = getFunctions().getFunctionCompilationContext().getFunctionInitId();
+    if ((_fingerprint == null) || (_fingerprintInitId != initId)) {
+      _fingerprint = FunctionRepositorySnapshot.getFingerprint(getFunctions().getFunctionRepository());
+      _fingerprintInitId = initId;
+    }
+    return _fingerprint;
+  }
+
+  /**
+   * Returns the file that the entry for a key is written to. The name is a hash of the serialized key so is stable between processes.
+   *
+   * @param key the cache key, not null
+   * @return the file, not null
+   */
+  protected File getFile(final ViewExecutionCacheKey key) {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(key);
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't serialize " + key, e);
+    }
+    return new File(getDirectory(), Hashing.sha1().hashBytes(baos.toByteArray()).toString() + SUFFIX);
+  }
+
+  /**
+   * The persisted form of a compiled view definition. The view definition and portfolio are held by identifier and resolved again when the entry is read.
+   */
+  /* package */static final class Entry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ViewExecutionCacheKey _key;
+    private final String _fingerprint;
+    private final String _session;
+    private final long _functionInitId;
+    private final VersionCorrection _versionCorrection;
+    private final String _compilationId;
+    private final UniqueId _viewDefinition;
+    private final Collection<DependencyGraph> _graphs;
+    private final Map<ComputationTargetReference, UniqueId> _resolutions;
+    private final UniqueId _portfolio;
+    private final Collection<CompiledViewCalculationConfiguration> _calcConfigs;
+    private final Instant _validFrom;
+    private final Instant _validTo;
+
+    public Entry(final ViewExecutionCacheKey key, final String fingerprint, final String session, final CompiledViewDefinitionWithGraphs viewDef) {
+      _key = key;
+      _fingerprint = fingerprint;
+      _session = session;
+      _functionInitId = ((CompiledViewDefinitionWithGraphsImpl) viewDef).getFunctionInitId();
+      _versionCorrection = viewDef.getResolverVersionCorrection();
+      _compilationId = viewDef.getCompilationIdentifier();
+      _viewDefinition = viewDef.getViewDefinition().getUniqueId();
+      final Collection<DependencyGraphExplorer> graphs = viewDef.getDependencyGraphExplorers();
+      _graphs = new ArrayList<DependencyGraph>(graphs.size());
+      for (DependencyGraphExplorer explorer : graphs) {
+        _graphs.add(explorer.getWholeGraph());
+      }
+      _resolutions = viewDef.getResolvedIdentifiers();
+      _portfolio = (viewDef.getPortfolio() != null) ? viewDef.getPortfolio().getUniqueId() : null;
+      _calcConfigs = new ArrayList<CompiledViewCalculationConfiguration>(viewDef.getCompiledCalculationConfigurations());
+      _validFrom = viewDef.getValidFrom();
+      _validTo = viewDef.getValidTo();
+    }
+
+    public ViewExecutionCacheKey getKey() {
+      return _key;
+    }
+
+    public String getFingerprint() {
+      return _fingerprint;
+    }
+
+    public String getSession() {
+      return _session;
+    }
+
+    public CompiledViewDefinitionWithGraphs toCompiledViewDefinition(final ComputationTargetResolver resolver, final long functionInitId) {
+      final ComputationTarget viewDefinition = resolver.resolve(new ComputationTargetSpecification(ComputationTargetType.of(ViewDefinition.class), _viewDefinition), VersionCorrection.LATEST);
+      if (viewDefinition == null) {
+        return null;
+      }
+      Portfolio portfolio = null;
+      if (_portfolio != null) {
+        final ComputationTarget target = resolver.resolve(new ComputationTargetSpecification(ComputationTargetType.PORTFOLIO, _portfolio), _versionCorrection);
+        if (target == null) {
+          return null;
+        }
+        portfolio = (Portfolio) target.getValue();
+      }
+      return new CompiledViewDefinitionWithGraphsImpl(_versionCorrection, _compilationId, (ViewDefinition) viewDefinition.getValue(), _graphs, _resolutions, portfolio, functionInitId,
+          _calcConfigs, _validFrom, _validTo);
+    }
+
+  }
+
+  /**
+   * Reads an entry from disk.
+   *
+   * @param key the cache key, not null
+   * @return the compiled view definition, or null if there is no usable entry
+   */
+  protected CompiledViewDefinitionWithGraphs read(final ViewExecutionCacheKey key) {
+    final File file = getFile(key);
+    if (!file.isFile()) {
+      s_logger.debug("Disk miss CompiledViewDefinitionWithGraphs for {}", key);
+      return null;
+    }
+    final Entry entry;
+    try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      entry = (Entry) ois.readObject();
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      s_logger.warn("Discarding unreadable cache entry {} - {}", file, e.toString());
+      file.delete();
+      return null;
+    }
+    if (!key.equals(entry.getKey())) {
+      s_logger.debug("Disk collision for {} on {}", key, file);
+      return null;
+    }
+    final long functionInitId;
+    if (_session.equals(entry.getSession())) {
+      // Written by this process; the function init identifier is from the current sequence and will be checked by the worker
+      functionInitId = entry._functionInitId;
+    } else if (getFunctionRepositoryFingerprint().equals(entry.getFingerprint())) {
+      // Written by a previous process against the same function repository
+      functionInitId = getFunctions().getFunctionCompilationContext().getFunctionInitId();
+    } else {
+      s_logger.info("Discarding CompiledViewDefinitionWithGraphs for {} compiled against a different function repository", key);
+      file.delete();
+      return null;
+    }
+    final CompiledViewDefinitionWithGraphs viewDefinition = entry.toCompiledViewDefinition(getTargetResolver(), functionInitId);
+    if (viewDefinition == null) {
+      s_logger.info("Discarding CompiledViewDefinitionWithGraphs for {} as the view definition or portfolio no longer exists", key);
+      file.delete();
+      return null;
+    }
+    s_logger.info("Disk hit CompiledViewDefinitionWithGraphs for {} at {}", key, entry._versionCorrection);
+    return viewDefinition;
+  }
+
+  /**
+   * Writes an entry to disk. The entry is written to a temporary file first and then moved into place so that a partially written entry is never read.
+   *
+   * @param key the cache key, not null
+   * @param viewDefinition the compiled view definition, not null
+   */
+  protected void write(final ViewExecutionCacheKey key, final CompiledViewDefinitionWithGraphs viewDefinition) {
+    final File file = getFile(key);
+    File temp = null;
+    try {
+      temp = File.createTempFile("cvd", ".tmp", getDirectory());
+      try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        oos.writeObject(new Entry(key, getFunctionRepositoryFingerprint(), _session, viewDefinition));
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      temp = null;
+    } catch (IOException e) {
+      s_logger.warn("Couldn't write CompiledViewDefinitionWithGraphs for {} to {} - {}", new Object[] {key, file, e.toString() });
+    } finally {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  @Override
+  public CompiledViewDefinitionWithGraphs getCompiledViewDefinitionWithGraphs(final ViewExecutionCacheKey key) {
+    CompiledViewDefinitionWithGraphs graphs = _frontCache.get(key);
+    if (graphs != null) {
+      s_logger.debug("Front cache hit CompiledViewDefinitionWithGraphs for {}", key);
+      return graphs;
+    }
+    graphs = read(key);
+    if (graphs != null) {
+      final CompiledViewDefinitionWithGraphs existing = _frontCache.putIfAbsent(key, graphs);
+      if (existing != null) {
+        graphs = existing;
+      }
+    }
+    return graphs;
+  }
+
+  @Override
+  public void setCompiledViewDefinitionWithGraphs(final ViewExecutionCacheKey key, final CompiledViewDefinitionWithGraphs viewDefinition) {
+    final CompiledViewDefinitionWithGraphs existing = _frontCache.put(key, viewDefinition);
+    if (existing == viewDefinition) {
+      return;
+    }
+    s_logger.info("Storing CompiledViewDefinitionWithGraphs for {}", key);
+    write(key, viewDefinition);
+  }
+
+  @Override
+  public void clear() {
+    _frontCache.clear();
+    s_logger.info("Clearing all CompiledViewDefinitionWithGraphs");
+    final File[] files = getDirectory().listFiles(ENTRY_FILTER);
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.ehcache.CacheManager;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.opengamma.core.security.Security;
+import com.opengamma.core.security.impl.SimpleSecurity;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ehcache.EHCacheUtils;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link DefaultCachingComputationTargetResolver} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DefaultCachingComputationTargetResolverTest {
+
+  private static class CountingSecuritySource extends InMemorySecuritySource {
+
+    private int _singleQueries;
+    private int _bulkQueries;
+    private int _bulkSize;
+    private boolean _inBulk;
+
+    @Override
+    public synchronized Security get(final UniqueId uniqueId) {
+      if (!_inBulk) {
+        _singleQueries++;
+      }
+      return super.get(uniqueId);
+    }
+
+    @Override
+    public synchronized Map<UniqueId, Security> get(final Collection<UniqueId> uniqueIds) {
+      _bulkQueries++;
+      _bulkSize = uniqueIds.size();
+      _inBulk = true;
+      try {
+        return super.get(uniqueIds);
+      } finally {
+        _inBulk = false;
+      }
+    }
+
+  }
+
+  private CacheManager _cacheManager;
+
+  @BeforeClass
+  public void setUpClass() {
+    _cacheManager = EHCacheUtils.createTestCacheManager(getClass());
+  }
+
+  @AfterClass
+  public void tearDownClass() {
+    EHCacheUtils.shutdownQuiet(_cacheManager);
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    EHCacheUtils.clear(_cacheManager);
+  }
+
+  private static ComputationTargetSpecification security(final CountingSecuritySource securities, final String name) {
+    final SimpleSecurity security = new SimpleSecurity(UniqueId.of("Test", name), ExternalIdBundle.EMPTY, "Test security", "EQUITY");
+    securities.addSecurity(security);
+    return new ComputationTargetSpecification(ComputationTargetType.SECURITY, security.getUniqueId());
+  }
+
+  public void testResolveTargets() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final ComputationTargetSpecification a = security(securities, "A");
+    final ComputationTargetSpecification b = security(securities, "B");
+    final ComputationTargetSpecification c = security(securities, "C");
+    final ComputationTargetSpecification missing = new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Test", "Missing"));
+    final DefaultCachingComputationTargetResolver resolver = new DefaultCachingComputationTargetResolver(new DefaultComputationTargetResolver(securities), _cacheManager);
+    final Map<ComputationTargetSpecification, ComputationTarget> targets = resolver.resolveTargets(Arrays.asList(a, b, c, missing, ComputationTargetSpecification.NULL), VersionCorrection.LATEST);
+    assertEquals(targets.size(), 4);
+    assertEquals(targets.get(a).getUniqueId(), a.getUniqueId());
+    assertEquals(targets.get(b).getUniqueId(), b.getUniqueId());
+    assertEquals(targets.get(c).getUniqueId(), c.getUniqueId());
+    assertSame(targets.get(ComputationTargetSpecification.NULL), ComputationTarget.NULL);
+    assertEquals(securities._bulkQueries, 1);
+    assertEquals(securities._singleQueries, 0);
+    // Now cached
+    assertSame(resolver.resolve(b, VersionCorrection.LATEST), targets.get(b));
+    assertEquals(securities._singleQueries, 0);
+  }
+
+  public void testResolveTargetsPartlyCached() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final ComputationTargetSpecification a = security(securities, "A");
+    final ComputationTargetSpecification b = security(securities, "B");
+    final ComputationTargetSpecification c = security(securities, "C");
+    final DefaultCachingComputationTargetResolver resolver = new DefaultCachingComputationTargetResolver(new DefaultComputationTargetResolver(securities), _cacheManager);
+    final ComputationTarget target = resolver.atVersionCorrection(VersionCorrection.LATEST).resolve(a);
+    assertEquals(securities._singleQueries, 1);
+    final Map<ComputationTargetSpecification, ComputationTarget> targets = resolver.atVersionCorrection(VersionCorrection.LATEST).resolveTargets(Arrays.asList(a, b, c));
+    assertEquals(targets.size(), 3);
+    assertSame(targets.get(a), target);
+    assertEquals(securities._bulkQueries, 1);
+    assertEquals(securities._bulkSize, 2);
+    assertEquals(securities._singleQueries, 1);
+  }
+
+  public void testResolveTargetsSingleMiss() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final ComputationTargetSpecification a = security(securities, "A");
+    final DefaultCachingComputationTargetResolver resolver = new DefaultCachingComputationTargetResolver(new DefaultComputationTargetResolver(securities), _cacheManager, 0L);
+    final Map<ComputationTargetSpecification, ComputationTarget> targets = resolver.resolveTargets(Arrays.asList(a), VersionCorrection.LATEST);
+    assertEquals(targets.get(a).getUniqueId(), a.getUniqueId());
+    assertEquals(securities._bulkQueries, 0);
+    assertEquals(securities._singleQueries, 1);
+  }
+
+  public void testResolveTargetsParallelChunks() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final List<ComputationTargetSpecification> specs = new ArrayList<ComputationTargetSpecification>();
+    for (int i = 0; i < 1001; i++) {
+      specs.add(security(securities, Integer.toString(i)));
+    }
+    final DefaultCachingComputationTargetResolver resolver = new DefaultCachingComputationTargetResolver(new DefaultComputationTargetResolver(securities), _cacheManager);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      resolver.setExecutorService(executor);
+      final Map<ComputationTargetSpecification, ComputationTarget> targets = resolver.resolveTargets(specs, VersionCorrection.LATEST);
+      assertEquals(targets.size(), specs.size());
+      for (ComputationTargetSpecification spec : specs) {
+        assertEquals(targets.get(spec).getUniqueId(), spec.getUniqueId());
+      }
+      assertEquals(securities._bulkQueries, 3);
+      assertEquals(securities._singleQueries, 0);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
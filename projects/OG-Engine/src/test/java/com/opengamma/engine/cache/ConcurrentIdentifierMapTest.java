@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import static org.testng.AssertJUnit.assertEquals;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link ConcurrentIdentifierMap} class.
+ */
+@Test(groups = TestGroup.INTEGRATION)
+public class ConcurrentIdentifierMapTest extends AbstractIdentifierMapTest {
+
+  @Override
+  protected IdentifierMap createIdentifierMap(String testName) {
+    return new ConcurrentIdentifierMap();
+  }
+
+  @Test
+  public void concurrentAllocation() throws Exception {
+    // Start small so that the table is grown while the threads are running
+    final ConcurrentIdentifierMap idMap = new ConcurrentIdentifierMap(0);
+    final ConcurrentMap<ValueSpecification, Long> identifiers = new ConcurrentHashMap<ValueSpecification, Long>();
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < 4; i++) {
+        final boolean bulk = (i & 1) == 0;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int j = 0; j < 100; j++) {
+              final List<ValueSpecification> specs = new ArrayList<ValueSpecification>();
+              for (int k = 0; k < 50; k++) {
+                specs.add(getValueSpec("value-" + ((j * 37 + k) % 1000)));
+              }
+              if (bulk) {
+                final Object2LongMap<ValueSpecification> result = idMap.getIdentifiers(specs);
+                for (Map.Entry<ValueSpecification, Long> entry : result.entrySet()) {
+                  check(entry.getKey(), entry.getValue());
+                }
+              } else {
+                for (ValueSpecification spec : specs) {
+                  check(spec, idMap.getIdentifier(spec));
+                }
+              }
+            }
+            return null;
+          }
+
+          private void check(final ValueSpecification spec, final long identifier) {
+            final Long previous = identifiers.putIfAbsent(spec, identifier);
+            if (previous != null) {
+              assertEquals(previous.longValue(), identifier);
+            }
+            assertEquals(spec, idMap.getValueSpecification(identifier));
+          }
+
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(identifiers.size(), idMap.size());
+  }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link DirectBinaryDataStore} and {@link DirectBinaryDataStoreFactory} classes.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DirectBinaryDataStoreTest {
+
+  private static byte[] data(final int length, final int seed) {
+    final byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) (i + seed);
+    }
+    return data;
+  }
+
+  public void testPutGet() {
+    final DirectBinaryDataStore store = new DirectBinaryDataStore(64);
+    assertNull(store.get(1L));
+    store.put(1L, data(10, 1));
+    store.put(2L, data(40, 2));
+    store.put(3L, data(100, 3));
+    store.put(4L, new byte[0]);
+    assertEquals(store.get(1L), data(10, 1));
+    assertEquals(store.get(2L), data(40, 2));
+    assertEquals(store.get(3L), data(100, 3));
+    assertEquals(store.get(4L), new byte[0]);
+    assertNull(store.get(5L));
+  }
+
+  public void testReplace() {
+    final DirectBinaryDataStore store = new DirectBinaryDataStore(64);
+    store.put(1L, data(10, 1));
+    store.put(1L, data(20, 2));
+    assertEquals(store.get(1L), data(20, 2));
+  }
+
+  public void testBulk() {
+    final DirectBinaryDataStore store = new DirectBinaryDataStore(64);
+    store.put(ImmutableMap.of(1L, data(10, 1), 2L, data(20, 2)));
+    final Map<Long, byte[]> result = store.get(Arrays.asList(1L, 2L, 3L));
+    assertEquals(result.size(), 2);
+    assertEquals(result.get(1L), data(10, 1));
+    assertEquals(result.get(2L), data(20, 2));
+  }
+
+  public void testGetBuffer() {
+    final DirectBinaryDataStore store = new DirectBinaryDataStore(64);
+    store.put(1L, data(10, 1));
+    store.put(2L, data(20, 2));
+    final ByteBuffer buffer = store.getBuffer(2L);
+    assertEquals(buffer.remaining(), 20);
+    assertEquals(buffer.get(0), (byte) 2);
+    assertEquals(buffer.get(19), (byte) 21);
+    assertNull(store.getBuffer(3L));
+  }
+
+  public void testDelete() {
+    final DirectBinaryDataStore store = new DirectBinaryDataStore(64);
+    store.put(1L, data(10, 1));
+    assertEquals(store.getAllocatedSize(), 64L);
+    store.delete();
+    assertNull(store.get(1L));
+    assertEquals(store.getAllocatedSize(), 0L);
+    store.put(1L, data(10, 2));
+    assertEquals(store.get(1L), data(10, 2));
+  }
+
+  public void testSlabReuse() {
+    final DirectBinaryDataStoreFactory factory = new DirectBinaryDataStoreFactory();
+    factory.setSlabSize(64);
+    final ByteBuffer slab = factory.allocate(64);
+    factory.release(slab);
+    assertSame(factory.allocate(32), slab);
+    final DirectBinaryDataStore store = (DirectBinaryDataStore) factory.createDataStore(null);
+    store.put(1L, data(10, 1));
+    store.delete();
+    final DirectBinaryDataStore store2 = (DirectBinaryDataStore) factory.createDataStore(null);
+    store2.put(2L, data(20, 2));
+    assertNull(store2.get(1L));
+    assertEquals(store2.get(2L), data(20, 2));
+  }
+
+  public void testPoolLimit() {
+    final DirectBinaryDataStoreFactory factory = new DirectBinaryDataStoreFactory();
+    factory.setSlabSize(64);
+    factory.setMaxPooledSlabs(1);
+    final ByteBuffer slab1 = factory.allocate(64);
+    final ByteBuffer slab2 = factory.allocate(64);
+    factory.release(slab1);
+    factory.release(slab2);
+    assertSame(factory.allocate(64), slab1);
+    final ByteBuffer slab3 = factory.allocate(64);
+    assertEquals(slab3.capacity(), 64);
+    assertEquals(slab3.position(), 0);
+  }
+
+}
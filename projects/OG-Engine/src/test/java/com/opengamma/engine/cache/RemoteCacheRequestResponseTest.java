@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.fudgemsg.FudgeContext;
 import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.wire.EncodedFudgeMsg;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
@@ -258,6 +259,40 @@ public class RemoteCacheRequestResponseTest {
     assertEquals(inputValue2.getAllFields(), outputMap.get(identifier2).getAllFields());
   }
 
+  @Test(timeOut = 10000l)
+  public void singleThreadPassThroughPutLoad() {
+    InMemoryViewComputationCacheSource cache = new InMemoryViewComputationCacheSource(s_fudgeContext);
+    ViewComputationCacheServer server = new ViewComputationCacheServer(cache);
+    server.setPassThroughValues(true);
+    DirectFudgeConnection conduit = new DirectFudgeConnection(cache.getFudgeContext());
+    conduit.connectEnd2(server);
+    RemoteCacheClient client = new RemoteCacheClient(conduit.getEnd1());
+    client.setPassThroughValues(true);
+    FudgeMessageStore dataStore = new RemoteFudgeMessageStore(client, new ViewComputationCacheKey(UniqueId.of("Test", "ViewCycle1"), "Config1"));
+    final Map<Long, FudgeMsg> inputValues = new HashMap<Long, FudgeMsg>();
+    for (int i = 0; i < 8; i++) {
+      final MutableFudgeMsg inputValue = s_fudgeContext.newMessage();
+      for (int j = 0; j < 32; j++) {
+        inputValue.add(j, Integer.toString(i * j));
+      }
+      inputValues.put((long) i, inputValue);
+    }
+    dataStore.put(0L, inputValues.get(0L));
+    dataStore.put(inputValues);
+    // The server should hold the values in their encoded form
+    final FudgeMsg stored = cache.getCache(UniqueId.of("Test", "ViewCycle1"), "Config1").getSharedDataStore().get(1L);
+    assertEquals(inputValues.get(1L).getAllFields(), stored.getAllFields());
+    final FudgeMsg outputValue = dataStore.get(0L);
+    assertTrue(outputValue instanceof EncodedFudgeMsg);
+    assertEquals(inputValues.get(0L).getAllFields(), outputValue.getAllFields());
+    final Map<Long, FudgeMsg> outputValues = dataStore.get(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L));
+    assertEquals(inputValues.size(), outputValues.size());
+    for (Map.Entry<Long, FudgeMsg> inputValue : inputValues.entrySet()) {
+      assertEquals(inputValue.getValue().getAllFields(), outputValues.get(inputValue.getKey()).getAllFields());
+    }
+    assertNull(dataStore.get(8L));
+  }
+
   @Test(timeOut = 10000l)
   public void singleThreadPutLoadPurgeLoad() throws InterruptedException {
     InMemoryViewComputationCacheSource cache = new InMemoryViewComputationCacheSource(s_fudgeContext);
@@ -11,18 +11,26 @@ import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
 
 import com.google.common.collect.Iterables;
 import com.opengamma.engine.ComputationTarget;
 import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.CacheSelectHint;
 import com.opengamma.engine.cache.ViewComputationCache;
+import com.opengamma.engine.function.BatchFunctionInvoker;
+import com.opengamma.engine.function.EmptyFunctionParameters;
 import com.opengamma.engine.function.FunctionExecutionContext;
 import com.opengamma.engine.function.FunctionInputs;
 import com.opengamma.engine.test.CalculationNodeUtils;
 import com.opengamma.engine.test.MockFunction;
+import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.test.TestCalculationNode;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueProperties;
@@ -31,12 +39,15 @@ import com.opengamma.engine.value.ValueRequirement;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.ExecutionLog;
 import com.opengamma.engine.view.ExecutionLogMode;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.async.AsynchronousExecution;
 import com.opengamma.util.log.LogBridge;
 import com.opengamma.util.log.LogEvent;
 import com.opengamma.util.log.LogLevel;
 import com.opengamma.util.log.SimpleLogEvent;
 import com.opengamma.util.log.ThreadLocalLogEventListener;
+import com.opengamma.util.money.Currency;
 import com.opengamma.util.test.TestGroup;
 import com.opengamma.util.test.TestLifecycle;
 
@@ -183,6 +194,109 @@ public class CalculationNodeTest {
     return fn;
   }
 
+  private static ValueSpecification batchValue(final String name, final ComputationTarget target) {
+    return new ValueSpecification(name, target.toSpecification(), ValueProperties.with(ValuePropertyNames.FUNCTION, MockFunction.UNIQUE_ID).get());
+  }
+
+  private static CalculationJobItem batchItem(final ValueSpecification input, final ValueSpecification output) {
+    return new CalculationJobItem(MockFunction.UNIQUE_ID, EmptyFunctionParameters.INSTANCE, output.getTargetSpecification(), new ValueSpecification[] {input },
+        new ValueSpecification[] {output }, ExecutionLogMode.INDICATORS);
+  }
+
+  public void testBatchDependingOnItself() throws Exception {
+    TestLifecycle.begin();
+    try {
+      final ComputationTarget target = new ComputationTarget(ComputationTargetType.CURRENCY, Currency.USD);
+      final ValueSpecification input = batchValue("INPUT", target);
+      final ValueSpecification output1 = batchValue("OUTPUT1", target);
+      final ValueSpecification output2 = batchValue("OUTPUT2", target);
+      final ValueSpecification output3 = batchValue("OUTPUT3", target);
+      final MockBatchFunction batchFunction = new MockBatchFunction(MockFunction.UNIQUE_ID, target);
+      batchFunction.addResult(output1, "1");
+      batchFunction.addResult(output2, "2");
+      batchFunction.addResult(output3, "3");
+      final TestCalculationNode calcNode = CalculationNodeUtils.getTestCalcNode(batchFunction);
+      TestLifecycle.register(calcNode);
+      // The last item consumes the output of the first so cannot join the batch formed by the first two
+      final CalculationJobSpecification jobSpec = new CalculationJobSpecification(UniqueId.of("Test", "ViewProcess"), CalculationNodeUtils.CALC_CONF_NAME, Instant.now(), 1L);
+      final CalculationJob calcJob = new CalculationJob(jobSpec, 0L, VersionCorrection.LATEST, null, Arrays.asList(batchItem(input, output1), batchItem(input, output3),
+          batchItem(output1, output2)), CacheSelectHint.allShared());
+      final ViewComputationCache cache = calcNode.getCache(calcJob.getSpecification());
+      cache.putSharedValue(new ComputedValue(input, "Input"));
+      final CalculationJobResult jobResult = calcNode.executeJob(calcJob);
+      assertEquals(3, jobResult.getResultItems().size());
+      for (CalculationJobResultItem resultItem : jobResult.getResultItems()) {
+        assertEquals(InvocationResult.SUCCESS, resultItem.getResult());
+      }
+      assertEquals("2", cache.getValue(output2));
+      // Only the two independent items are batched
+      assertEquals(Arrays.asList(2), batchFunction.getBatchSizes());
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  public void testPublishPartialResults() throws Exception {
+    TestLifecycle.begin();
+    try {
+      final MockFunction mockFunction = CalculationNodeUtils.getMockFunction();
+      final TestCalculationNode calcNode = CalculationNodeUtils.getTestCalcNode(mockFunction);
+      TestLifecycle.register(calcNode);
+      final CalculationJob singleJob = CalculationNodeUtils.getCalculationJob(mockFunction);
+      final CalculationJobItem item = singleJob.getJobItems().get(0);
+      final CalculationJob calcJob = new CalculationJob(singleJob.getSpecification(), 0L, VersionCorrection.LATEST, null, Arrays.asList(item, item, item, item, item),
+          CacheSelectHint.allShared());
+      final ViewComputationCache cache = calcNode.getCache(calcJob.getSpecification());
+      cache.putSharedValue(new ComputedValue(CalculationNodeUtils.getMockFunctionInputs(mockFunction).iterator().next(), "Just an input object"));
+      final List<Integer> fromItems = new ArrayList<Integer>();
+      final List<CalculationJobResult> partialResults = new ArrayList<CalculationJobResult>();
+      calcNode.setPartialResultBatchSize(2);
+      calcNode.setPartialResultReceiver(new PartialJobResultReceiver() {
+        @Override
+        public void partialResultReceived(final CalculationJobResult result, final int fromItem) {
+          // The outputs must be in the shared cache before the notification
+          assertEquals("Nothing we care about", cache.getValue(mockFunction.getResultSpec()));
+          fromItems.add(fromItem);
+          partialResults.add(result);
+        }
+      });
+      final CalculationJobResult jobResult = calcNode.executeJob(calcJob);
+      // Batches of two; the last item is only in the final result
+      assertEquals(Arrays.asList(0, 2), fromItems);
+      assertEquals(5, jobResult.getResultItems().size());
+      for (int i = 0; i < partialResults.size(); i++) {
+        assertEquals(jobResult.getResultItems().subList(fromItems.get(i), fromItems.get(i) + 2), partialResults.get(i).getResultItems());
+      }
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  private static class MockBatchFunction extends MockFunction implements BatchFunctionInvoker {
+
+    private final List<Integer> _batchSizes = new ArrayList<Integer>();
+
+    public MockBatchFunction(final String uniqueId, final ComputationTarget target) {
+      super(uniqueId, target);
+    }
+
+    public List<Integer> getBatchSizes() {
+      return _batchSizes;
+    }
+
+    @Override
+    public List<Set<ComputedValue>> executeBatch(final FunctionExecutionContext executionContext, final List<FunctionInputs> inputs, final List<ComputationTarget> targets,
+        final List<Set<ValueRequirement>> desiredValues) {
+      _batchSizes.add(targets.size());
+      final List<Set<ComputedValue>> results = new ArrayList<Set<ComputedValue>>(targets.size());
+      for (int i = 0; i < targets.size(); i++) {
+        results.add(execute(executionContext, inputs.get(i), targets.get(i), desiredValues.get(i)));
+      }
+      return results;
+    }
+
+  }
+
   private class MockLoggingFunction extends MockFunction {
 
     public MockLoggingFunction(final String uniqueId, final ComputationTarget target) {
@@ -7,13 +7,16 @@ package com.opengamma.engine.depgraph;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -188,4 +191,59 @@ public class RunQueueTest {
     testLIFO(RunQueueFactory.getOrdered());
   }
 
+  public void testWorkStealingRunQueue() throws Exception {
+    testSpeed(RunQueueFactory.getWorkStealing());
+    final RunQueue queue = RunQueueFactory.getWorkStealing().createRunQueue();
+    assertTrue(queue.isEmpty());
+    final ContextRunnable r1 = runnable();
+    final ContextRunnable r2 = runnable();
+    final ContextRunnable r3 = runnable();
+    // Tasks from a thread that has not taken from the queue are shared, in FIFO order
+    queue.add(r1);
+    queue.add(r2);
+    assertFalse(queue.isEmpty());
+    assertEquals(queue.size(), 2);
+    assertSame(queue.take(), r1);
+    // Tasks from a worker go onto its own deque, in LIFO order, ahead of the shared tasks
+    queue.add(r3);
+    queue.add(r1);
+    assertEquals(queue.size(), 3);
+    assertSame(queue.take(), r1);
+    assertSame(queue.take(), r3);
+    assertSame(queue.take(), r2);
+    // A worker that runs out of tasks is unregistered, discarding its thread local state
+    assertNull(queue.take());
+    assertTrue(queue.isEmpty());
+    assertEquals(queue.toString(), "WorkStealingRunQueue[0 workers]");
+    // Another worker steals the oldest task from this one
+    queue.add(r3);
+    assertSame(queue.take(), r3);
+    queue.add(r1);
+    queue.add(r2);
+    final Future<ContextRunnable> stolen = _executor.submit(new Callable<ContextRunnable>() {
+      @Override
+      public ContextRunnable call() {
+        return queue.take();
+      }
+    });
+    assertSame(stolen.get(), r1);
+    assertEquals(queue.size(), 1);
+    assertSame(queue.take(), r2);
+    assertTrue(queue.isEmpty());
+  }
+
+  public void testNamedFactory() {
+    assertEquals(RunQueueFactory.of("FifoLinkedList").createRunQueue().getClass(), LinkedListRunQueue.FIFO.class);
+    assertEquals(RunQueueFactory.of("LifoLinkedList").createRunQueue().getClass(), LinkedListRunQueue.LIFO.class);
+    assertEquals(RunQueueFactory.of("ConcurrentLinkedQueue").createRunQueue().getClass(), ConcurrentLinkedQueueRunQueue.class);
+    assertEquals(RunQueueFactory.of("Ordered").createRunQueue().getClass(), OrderedRunQueue.class);
+    assertEquals(RunQueueFactory.of("ConcurrentStack").createRunQueue().getClass(), StackRunQueue.class);
+    assertEquals(RunQueueFactory.of("WorkStealing").createRunQueue().getClass(), WorkStealingRunQueue.class);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnknownNamedFactory() {
+    RunQueueFactory.of("Foo");
+  }
+
 }
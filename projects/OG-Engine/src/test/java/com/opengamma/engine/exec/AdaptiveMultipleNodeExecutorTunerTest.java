@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.exec;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.exec.AdaptiveMultipleNodeExecutorTuner.Parameter;
+import com.opengamma.engine.exec.AdaptiveMultipleNodeExecutorTuner.Settings;
+import com.opengamma.engine.exec.plan.MultipleNodeExecutionPlanner;
+import com.opengamma.engine.exec.stats.GraphExecutorStatisticsGatherer;
+import com.opengamma.engine.exec.stats.TotallingGraphStatisticsGathererProvider;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link AdaptiveMultipleNodeExecutorTuner} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class AdaptiveMultipleNodeExecutorTunerTest {
+
+  private static final UniqueId VIEW_PROCESS = UniqueId.of("ViewProcess", "Test");
+  private static final int GRAPH_SIZE = 1000;
+
+  private MultipleNodeExecutorFactory mockFactory(final MultipleNodeExecutionPlanner planner) {
+    final MultipleNodeExecutorFactory factory = Mockito.mock(MultipleNodeExecutorFactory.class);
+    Mockito.when(factory.getViewName(VIEW_PROCESS)).thenReturn("Test View");
+    Mockito.when(factory.getViewPlanner("Test View")).thenReturn(planner);
+    return factory;
+  }
+
+  /**
+   * Simulates execution of a graph that runs fastest with 8 items per job.
+   */
+  private void executeGraph(final GraphExecutorStatisticsGatherer statistics, final MultipleNodeExecutionPlanner planner) {
+    final double distance = Math.abs(Math.log(planner.getMinimumJobItems() / 8d) / Math.log(2));
+    final long duration = (long) (GRAPH_SIZE * (1000 + 100 * distance));
+    statistics.graphExecuted("Default", GRAPH_SIZE, duration, duration);
+  }
+
+  private File tempFile() throws Exception {
+    final File file = File.createTempFile("tuner", ".properties");
+    file.delete();
+    file.deleteOnExit();
+    return file;
+  }
+
+  public void testConvergence() throws Exception {
+    final MultipleNodeExecutionPlanner planner = new MultipleNodeExecutionPlanner();
+    final MultipleNodeExecutorFactory factory = mockFactory(planner);
+    final TotallingGraphStatisticsGathererProvider statistics = new TotallingGraphStatisticsGathererProvider();
+    final File file = tempFile();
+    final AdaptiveMultipleNodeExecutorTuner tuner = new AdaptiveMultipleNodeExecutorTuner(factory);
+    tuner.setGraphExecutionStatistics(statistics);
+    tuner.setPersistenceFile(file);
+    tuner.setSampleGraphs(1);
+    tuner.setWarmupGraphs(0);
+    tuner.run();
+    for (int i = 0; i < 100; i++) {
+      executeGraph(statistics.getStatisticsGatherer(VIEW_PROCESS), planner);
+      tuner.run();
+    }
+    assertEquals(planner.getMinimumJobItems(), 8);
+    assertEquals(planner.getMaximumJobItems(), Integer.MAX_VALUE);
+    assertEquals(planner.getMaximumJobCost(), Long.MAX_VALUE);
+    assertTrue(file.exists());
+    // A new tuner should restore the converged settings
+    final MultipleNodeExecutionPlanner restored = new MultipleNodeExecutionPlanner();
+    final AdaptiveMultipleNodeExecutorTuner tuner2 = new AdaptiveMultipleNodeExecutorTuner(mockFactory(restored));
+    tuner2.setPersistenceFile(file);
+    tuner2.run();
+    assertEquals(restored.getMinimumJobItems(), 8);
+    file.delete();
+  }
+
+  public void testNoStatistics() {
+    final MultipleNodeExecutorFactory factory = Mockito.mock(MultipleNodeExecutorFactory.class);
+    final AdaptiveMultipleNodeExecutorTuner tuner = new AdaptiveMultipleNodeExecutorTuner(factory);
+    tuner.run();
+    Mockito.verifyZeroInteractions(factory);
+  }
+
+  public void testScaleUnbounded() {
+    final Settings settings = Settings.of(new MultipleNodeExecutionPlanner());
+    assertNull(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MAXIMUM_JOB_ITEMS, 1, 2d, 100d, 1e6, 0));
+    assertEquals(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MAXIMUM_JOB_ITEMS, -1, 2d, 100d, 1e6, 0).get(Parameter.MAXIMUM_JOB_ITEMS), 50L);
+    assertEquals(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MAXIMUM_JOB_COST, -1, 2d, 100d, 1e6, 0).get(Parameter.MAXIMUM_JOB_COST), 500000L);
+    assertNull(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MAXIMUM_CONCURRENCY, -1, 2d, 100d, 1e6, 0));
+    assertEquals(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MAXIMUM_CONCURRENCY, -1, 2d, 100d, 1e6, 4).get(Parameter.MAXIMUM_CONCURRENCY), 2L);
+  }
+
+  public void testScaleBounds() {
+    final Settings settings = Settings.of(new MultipleNodeExecutionPlanner());
+    assertNull(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MINIMUM_JOB_ITEMS, -1, 2d, 100d, 1e6, 0));
+    assertEquals(AdaptiveMultipleNodeExecutorTuner.scale(settings, Parameter.MINIMUM_JOB_ITEMS, 1, 2d, 100d, 1e6, 0).get(Parameter.MINIMUM_JOB_ITEMS), 2L);
+    final Settings small = settings.with(Parameter.MINIMUM_JOB_ITEMS, 10).with(Parameter.MAXIMUM_JOB_ITEMS, 12);
+    assertEquals(AdaptiveMultipleNodeExecutorTuner.scale(small, Parameter.MINIMUM_JOB_ITEMS, 1, 2d, 100d, 1e6, 0).get(Parameter.MINIMUM_JOB_ITEMS), 12L);
+    assertEquals(AdaptiveMultipleNodeExecutorTuner.scale(small, Parameter.MAXIMUM_JOB_ITEMS, -1, 2d, 100d, 1e6, 0).get(Parameter.MAXIMUM_JOB_ITEMS), 10L);
+  }
+
+}
@@ -7,8 +7,15 @@ package com.opengamma.engine.exec;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+
 import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
 
 import org.mockito.Mockito;
 import org.testng.annotations.Test;
@@ -16,6 +23,10 @@ import org.testng.annotations.Test;
 import com.opengamma.engine.calcnode.stats.FunctionCosts;
 import com.opengamma.engine.exec.plan.CachingExecutionPlanner;
 import com.opengamma.engine.exec.plan.MultipleNodeExecutionPlanner;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.cycle.SingleComputationCycle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.ehcache.EHCacheUtils;
 import com.opengamma.util.test.TestGroup;
 
 /**
@@ -105,4 +116,60 @@ public class MultipleNodeExecutorFactoryTest {
     assertSame(planner(factory).getFunctionCosts(), costs);
   }
 
+  public void testViewPlanner() {
+    final MultipleNodeExecutorFactory factory = new MultipleNodeExecutorFactory();
+    factory.setMinimumJobItems(50);
+    final MultipleNodeExecutionPlanner viewPlanner = factory.getViewPlanner("Test");
+    assertNotSame(viewPlanner, planner(factory));
+    assertSame(factory.getViewPlanner("Test"), viewPlanner);
+    assertEquals(viewPlanner.getMinimumJobItems(), 50);
+    assertSame(viewPlanner.getFunctionCosts(), factory.getFunctionCosts());
+    viewPlanner.setMininumJobItems(10);
+    assertEquals(factory.getMinimumJobItems(), 50);
+    assertEquals(factory.getViewPlannerNames(), Collections.singleton("Test"));
+    factory.removeViewPlanner("Test");
+    assertTrue(factory.getViewPlannerNames().isEmpty());
+  }
+
+  public void testViewPlannerCacheRegions() {
+    final CacheManager cacheManager = EHCacheUtils.createTestCacheManager(getClass());
+    try {
+      final MultipleNodeExecutorFactory factory = new MultipleNodeExecutorFactory();
+      factory.setCacheManager(cacheManager);
+      factory.afterPropertiesSet();
+      factory.getViewPlanner("A");
+      factory.getViewPlanner("B");
+      // Each view's plans are cached separately as the planner parameters are not part of the cache key
+      assertTrue(cacheManager.cacheExists("executionPlans"));
+      assertTrue(cacheManager.cacheExists("executionPlans-A"));
+      assertTrue(cacheManager.cacheExists("executionPlans-B"));
+      cacheManager.getCache("executionPlans-A").put(new Element("Foo", "Bar"));
+      cacheManager.getCache("executionPlans-B").put(new Element("Foo", "Bar"));
+      factory.invalidateCache("A");
+      assertEquals(cacheManager.getCache("executionPlans-A").getSize(), 0);
+      assertEquals(cacheManager.getCache("executionPlans-B").getSize(), 1);
+      factory.invalidateCache();
+      assertEquals(cacheManager.getCache("executionPlans-B").getSize(), 0);
+    } finally {
+      EHCacheUtils.shutdownQuiet(cacheManager);
+    }
+  }
+
+  public void testViewProcesses() {
+    final MultipleNodeExecutorFactory factory = new MultipleNodeExecutorFactory();
+    final UniqueId viewProcessId = UniqueId.of("Test", "Process");
+    final SingleComputationCycle cycle = Mockito.mock(SingleComputationCycle.class);
+    Mockito.when(cycle.getViewDefinition()).thenReturn(new ViewDefinition("Test", "User"));
+    Mockito.when(cycle.getViewProcessId()).thenReturn(viewProcessId);
+    factory.createExecutor(cycle);
+    assertEquals(factory.getViewName(viewProcessId), "Test");
+    // Looked up by an equal identifier, and replaced when the process runs a different view definition
+    assertEquals(factory.getViewName(UniqueId.of("Test", "Process")), "Test");
+    Mockito.when(cycle.getViewDefinition()).thenReturn(new ViewDefinition("Other", "User"));
+    factory.createExecutor(cycle);
+    assertEquals(factory.getViewName(UniqueId.of("Test", "Process")), "Other");
+    factory.removeViewProcess(viewProcessId);
+    assertNull(factory.getViewName(viewProcessId));
+  }
+
 }
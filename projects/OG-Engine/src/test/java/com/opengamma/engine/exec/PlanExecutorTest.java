@@ -25,6 +25,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ import com.opengamma.engine.calcnode.CalculationJobResult;
 import com.opengamma.engine.calcnode.CalculationJobResultItem;
 import com.opengamma.engine.calcnode.JobDispatcher;
 import com.opengamma.engine.calcnode.JobResultReceiver;
+import com.opengamma.engine.calcnode.PartialJobResultReceiver;
 import com.opengamma.engine.exec.DependencyGraphExecutionFuture.Listener;
 import com.opengamma.engine.exec.plan.GraphExecutionPlan;
 import com.opengamma.engine.exec.plan.PlannedJob;
@@ -435,6 +437,95 @@ public class PlanExecutorTest {
     }
   }
 
+  private GraphExecutionPlan createSingleJobPlan(final int items) {
+    final PlannedJob job = new PlannedJob(0, createJobItems(items), CacheSelectHint.allShared(), null, null);
+    return new GraphExecutionPlan("Default", 0, Arrays.asList(job), 1, items, 10d, 20d);
+  }
+
+  private CalculationJobResult createPartialResult(final CalculationJob job, final int from, final int to) {
+    return new CalculationJobResult(job.getSpecification(), 10L, createResultItems(job.getJobItems().subList(from, to)), "Test");
+  }
+
+  private static final class PartialExecutionJobDispatcher extends JobDispatcher {
+
+    private CalculationJob _job;
+    private JobResultReceiver _receiver;
+
+    @Override
+    public Cancelable dispatchJob(final CalculationJob job, final JobResultReceiver receiver, final long priority) {
+      _job = job;
+      _receiver = receiver;
+      return Mockito.mock(Cancelable.class);
+    }
+
+    public CalculationJob getJob() {
+      return _job;
+    }
+
+    public void partial(final CalculationJobResult result, final int fromItem) {
+      ((PartialJobResultReceiver) _receiver).partialResultReceived(result, fromItem);
+    }
+
+    public void complete(final CalculationJobResult result) {
+      _receiver.resultReceived(result);
+    }
+
+  }
+
+  private static void assertReported(final SingleComputationCycle cycle, final CalculationJob job, final int[] from, final int[] to, final List<?>... items) {
+    final ArgumentCaptor<CalculationJob> jobs = ArgumentCaptor.forClass(CalculationJob.class);
+    final ArgumentCaptor<CalculationJobResult> results = ArgumentCaptor.forClass(CalculationJobResult.class);
+    Mockito.verify(cycle, Mockito.times(from.length)).jobCompleted(jobs.capture(), results.capture());
+    for (int i = 0; i < from.length; i++) {
+      assertEquals(jobs.getAllValues().get(i).getJobItems(), job.getJobItems().subList(from[i], to[i]));
+      assertEquals(results.getAllValues().get(i).getResultItems().size(), items[i].size());
+      for (int j = 0; j < items[i].size(); j++) {
+        assertTrue(results.getAllValues().get(i).getResultItems().get(j) == items[i].get(j));
+      }
+    }
+  }
+
+  public void testPartialResults() {
+    final PartialExecutionJobDispatcher dispatcher = new PartialExecutionJobDispatcher();
+    final PlanExecutor executor = new PlanExecutor(createCycle(dispatcher), createSingleJobPlan(4));
+    executor.start();
+    final CalculationJob job = dispatcher.getJob();
+    final CalculationJobResult partial1 = createPartialResult(job, 0, 2);
+    dispatcher.partial(partial1, 0);
+    final CalculationJobResult partial2 = createPartialResult(job, 2, 3);
+    dispatcher.partial(partial2, 2);
+    // A partial result containing the last item is left to the final result
+    dispatcher.partial(createPartialResult(job, 3, 4), 3);
+    assertFalse(executor.isDone());
+    final CalculationJobResult result = createJobResult(job);
+    dispatcher.complete(result);
+    assertTrue(executor.isDone());
+    // The final result only reports the items not in the partial results
+    assertReported(executor.getCycle(), job, new int[] {0, 2, 3 }, new int[] {2, 3, 4 }, partial1.getResultItems(), partial2.getResultItems(), result.getResultItems().subList(3, 4));
+  }
+
+  public void testPartialResultsRetried() {
+    final PartialExecutionJobDispatcher dispatcher = new PartialExecutionJobDispatcher();
+    final PlanExecutor executor = new PlanExecutor(createCycle(dispatcher), createSingleJobPlan(6));
+    executor.start();
+    final CalculationJob job = dispatcher.getJob();
+    final CalculationJobResult partial1 = createPartialResult(job, 0, 2);
+    dispatcher.partial(partial1, 0);
+    // The job is retried and streams from the first item again; items already delivered are ignored
+    dispatcher.partial(createPartialResult(job, 0, 1), 0);
+    dispatcher.partial(createPartialResult(job, 0, 2), 0);
+    // Out of sequence; item 2 has not been delivered
+    dispatcher.partial(createPartialResult(job, 3, 4), 3);
+    // Overlaps the items already delivered; only the new one is reported
+    final CalculationJobResult partial2 = createPartialResult(job, 0, 3);
+    dispatcher.partial(partial2, 0);
+    final CalculationJobResult result = createJobResult(job);
+    dispatcher.complete(result);
+    assertTrue(executor.isDone());
+    assertReported(executor.getCycle(), job, new int[] {0, 2, 3 }, new int[] {2, 3, 6 }, partial1.getResultItems(), partial2.getResultItems().subList(2, 3),
+        result.getResultItems().subList(3, 6));
+  }
+
   public void testToString() {
     final PlanExecutor executor = new PlanExecutor(createCycle(new JobDispatcher()), createPlan());
     assertEquals(executor.toString(), "ExecutingGraph-Default for TEST-CYCLE");
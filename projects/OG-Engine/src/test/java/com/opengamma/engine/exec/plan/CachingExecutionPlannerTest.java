@@ -35,6 +35,7 @@ import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
 import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
 import com.opengamma.engine.exec.plan.CachingExecutionPlanner.CacheKey;
 import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.function.CompiledFunctionRepository;
 import com.opengamma.engine.function.FunctionParameters;
 import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.test.MockFunction;
@@ -157,8 +158,8 @@ public class CachingExecutionPlannerTest {
   private GraphExecutionPlanner createExecutionPlanner() {
     return new GraphExecutionPlanner() {
       @Override
-      public GraphExecutionPlan createPlan(DependencyGraph graph, ExecutionLogModeSource logModeSource, long functionInitialisationId, Set<ValueSpecification> sharedValues,
-          Map<ValueSpecification, FunctionParameters> parameters) {
+      public GraphExecutionPlan createPlan(DependencyGraph graph, ExecutionLogModeSource logModeSource, long functionInitialisationId, CompiledFunctionRepository functions,
+          Set<ValueSpecification> sharedValues, Map<ValueSpecification, FunctionParameters> parameters) {
         return new GraphExecutionPlan(graph.getCalculationConfigurationName(), 0L, Collections.<PlannedJob>emptySet(), 0, 0d, 0d, 0d);
       }
     };
@@ -167,10 +168,10 @@ public class CachingExecutionPlannerTest {
   public void testCache_match() {
     final CachingExecutionPlanner cache = new CachingExecutionPlanner(createExecutionPlanner(), _cacheManager);
     try {
-      final GraphExecutionPlan plan1 = cache.createPlan(testGraphBuilder("Default").buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, Collections.<ValueSpecification>emptySet(),
-          Collections.<ValueSpecification, FunctionParameters>emptyMap());
-      final GraphExecutionPlan plan2 = cache.createPlan(testGraphBuilder("Default").buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, Collections.<ValueSpecification>emptySet(),
-          Collections.<ValueSpecification, FunctionParameters>emptyMap());
+      final GraphExecutionPlan plan1 = cache.createPlan(testGraphBuilder("Default").buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, null,
+          Collections.<ValueSpecification>emptySet(), Collections.<ValueSpecification, FunctionParameters>emptyMap());
+      final GraphExecutionPlan plan2 = cache.createPlan(testGraphBuilder("Default").buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, null,
+          Collections.<ValueSpecification>emptySet(), Collections.<ValueSpecification, FunctionParameters>emptyMap());
       assertSame(plan2, plan1);
       assertNotNull(plan1);
       assertNotNull(plan2);
@@ -182,13 +183,13 @@ public class CachingExecutionPlannerTest {
   public void testCache_mismatch() {
     final CachingExecutionPlanner cache = new CachingExecutionPlanner(createExecutionPlanner(), _cacheManager);
     try {
-      final GraphExecutionPlan plan1 = cache.createPlan(testGraphBuilder("Default").buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, Collections.<ValueSpecification>emptySet(),
-          Collections.<ValueSpecification, FunctionParameters>emptyMap());
+      final GraphExecutionPlan plan1 = cache.createPlan(testGraphBuilder("Default").buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, null,
+          Collections.<ValueSpecification>emptySet(), Collections.<ValueSpecification, FunctionParameters>emptyMap());
       final TestDependencyGraphBuilder gb = testGraphBuilder("Default");
       gb.addTerminalOutput(new ValueSpecification("1", ComputationTargetSpecification.of(UniqueId.of("Test", "X")), ValueProperties.with(ValuePropertyNames.FUNCTION, "Foo1").get()),
           Collections.singleton(new ValueRequirement("1", ComputationTargetSpecification.of(UniqueId.of("Test", "X")))));
-      final GraphExecutionPlan plan2 = cache.createPlan(gb.buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, Collections.<ValueSpecification>emptySet(),
-          Collections.<ValueSpecification, FunctionParameters>emptyMap());
+      final GraphExecutionPlan plan2 = cache.createPlan(gb.buildGraph(), Mockito.mock(ExecutionLogModeSource.class), 0, null,
+          Collections.<ValueSpecification>emptySet(), Collections.<ValueSpecification, FunctionParameters>emptyMap());
       assertNotSame(plan2, plan1);
       assertNotNull(plan1);
       assertNotNull(plan2);
@@ -12,6 +12,7 @@ import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -24,6 +25,8 @@ import com.opengamma.engine.cache.CacheSelectHint;
 import com.opengamma.engine.calcnode.CalculationJob;
 import com.opengamma.engine.calcnode.CalculationJobItem;
 import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.ExecutionLogMode;
 import com.opengamma.id.UniqueId;
@@ -74,6 +77,26 @@ public class ExecutingGraphTest {
     return new GraphExecutionPlan("Default", 0, Arrays.asList(job1, job6), 0, 10d, 10d, 10d);
   }
 
+  /**
+   * As {@link #create9JobPlan} but with costs such that J1 has less slack than J6.
+   */
+  private GraphExecutionPlan create9JobPlanWithCosts() {
+    return create9JobPlanWithCosts(1);
+  }
+
+  private GraphExecutionPlan create9JobPlanWithCosts(final long k) {
+    final PlannedJob job9 = new PlannedJob(2, createJobItems(9), CacheSelectHint.allShared(), null, null, k, 106 * k);
+    final PlannedJob job8 = new PlannedJob(1, createJobItems(8), CacheSelectHint.allShared(), null, new PlannedJob[] {job9 }, k, 10 * k);
+    final PlannedJob job7 = new PlannedJob(2, createJobItems(7), CacheSelectHint.allShared(), null, new PlannedJob[] {job9 }, 100 * k, 6 * k);
+    final PlannedJob job5 = new PlannedJob(2, createJobItems(5), CacheSelectHint.allShared(), new PlannedJob[] {job8 }, null, k, 9 * k);
+    final PlannedJob job3 = new PlannedJob(1, createJobItems(3), CacheSelectHint.allShared(), new PlannedJob[] {job5 }, null, k, 6 * k);
+    final PlannedJob job4 = new PlannedJob(1, createJobItems(4), CacheSelectHint.allShared(), new PlannedJob[] {job5 }, new PlannedJob[] {job7 }, k, 6 * k);
+    final PlannedJob job2 = new PlannedJob(2, createJobItems(2), CacheSelectHint.allShared(), new PlannedJob[] {job3, job4 }, null, k, 5 * k);
+    final PlannedJob job1 = new PlannedJob(0, createJobItems(1), CacheSelectHint.allShared(), null, new PlannedJob[] {job2 }, 5 * k, 0);
+    final PlannedJob job6 = new PlannedJob(0, createJobItems(6), CacheSelectHint.allShared(), null, new PlannedJob[] {job2, job7 }, k, 0);
+    return new GraphExecutionPlan("Default", 0, Arrays.asList(job1, job6), 0, 10d, 10d, 10d, true);
+  }
+
   private void assertJob(final CalculationJob job, final int i) {
     assertEquals(job.getJobItems().size(), 1);
     assertEquals(job.getJobItems().get(0).getFunctionUniqueIdentifier(), Integer.toString(i));
@@ -136,4 +159,102 @@ public class ExecutingGraphTest {
     assertNull(executing.nextExecutableJob());
     assertTrue(executing.isFinished());
   }
+
+  public void criticalPathTest() {
+    final GraphExecutionPlan plan = create9JobPlanWithCosts();
+    assertTrue(plan.isCriticalPathScheduling());
+    assertEquals(plan.getCriticalPathCost(), 108L);
+    final ExecutingGraph executing = new ExecutingGraph(plan, UniqueId.of("Cycle", "Test"), Instant.now(), VersionCorrection.LATEST);
+    assertEquals(executing.getCriticalPathCost(), 108L);
+    // J1 is on the critical path so is released first, unlike the basic ordering
+    final CalculationJob job1 = executing.nextExecutableJob();
+    assertJob(job1, 1);
+    final CalculationJob job6 = executing.nextExecutableJob();
+    assertJob(job6, 6);
+    assertNull(executing.nextExecutableJob());
+    assertEquals(executing.getDispatchPriority(job1.getSpecification()), ExecutingGraph.MAXIMUM_DISPATCH_PRIORITY);
+    assertEquals(executing.getDispatchPriority(job1.getSpecification()), 0L);
+    assertEquals(executing.getDispatchPriority(job6.getSpecification()), (long) (104d / 108d * ExecutingGraph.MAXIMUM_DISPATCH_PRIORITY));
+    executing.jobCompleted(job6.getSpecification());
+    executing.jobCompleted(job1.getSpecification());
+    final CalculationJob job2 = executing.nextExecutableJob();
+    assertJob(job2, 2);
+    assertEquals(executing.getDispatchPriority(job2.getSpecification()), ExecutingGraph.MAXIMUM_DISPATCH_PRIORITY);
+  }
+
+  public void criticalPathPriorityNormalized() {
+    // The same graph shape with every cost doubled gives the same priorities
+    final ExecutingGraph executing = new ExecutingGraph(create9JobPlanWithCosts(), UniqueId.of("Cycle", "Test"), Instant.now(), VersionCorrection.LATEST);
+    final ExecutingGraph executingLonger = new ExecutingGraph(create9JobPlanWithCosts(2), UniqueId.of("Cycle", "Longer"), Instant.now(), VersionCorrection.LATEST);
+    assertEquals(executingLonger.getCriticalPathCost(), 216L);
+    final CalculationJob job1 = executing.nextExecutableJob();
+    final CalculationJob job1Longer = executingLonger.nextExecutableJob();
+    assertEquals(executingLonger.getDispatchPriority(job1Longer.getSpecification()), executing.getDispatchPriority(job1.getSpecification()));
+    final CalculationJob job6 = executing.nextExecutableJob();
+    final CalculationJob job6Longer = executingLonger.nextExecutableJob();
+    assertEquals(executingLonger.getDispatchPriority(job6Longer.getSpecification()), executing.getDispatchPriority(job6.getSpecification()));
+  }
+
+  private ValueSpecification createValue(final String name) {
+    return new ValueSpecification(name, ComputationTargetSpecification.NULL, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+  }
+
+  private CalculationJobItem createItem(final int i, final Collection<ValueSpecification> inputs, final Collection<ValueSpecification> outputs) {
+    return new CalculationJobItem(Integer.toString(i), new EmptyFunctionParameters(), ComputationTargetSpecification.NULL, inputs, outputs, ExecutionLogMode.INDICATORS);
+  }
+
+  /**
+   * <pre>
+   *     J2    J3    J4
+   *      \    |    /
+   *       \   |   /
+   *           J1
+   * </pre>
+   * J1 produces A, B and C from its three items. J2 consumes A, J3 consumes C and J4 consumes nothing from J1 directly.
+   */
+  private GraphExecutionPlan createStreamingPlan() {
+    final ValueSpecification a = createValue("A");
+    final ValueSpecification b = createValue("B");
+    final ValueSpecification c = createValue("C");
+    final List<ValueSpecification> none = Collections.emptyList();
+    final PlannedJob job2 = new PlannedJob(1, Arrays.asList(createItem(2, Arrays.asList(a), none)), CacheSelectHint.allShared(), null, null);
+    final PlannedJob job3 = new PlannedJob(1, Arrays.asList(createItem(3, Arrays.asList(c), none)), CacheSelectHint.allShared(), null, null);
+    final PlannedJob job4 = new PlannedJob(1, Arrays.asList(createItem(4, none, none)), CacheSelectHint.allShared(), null, null);
+    final PlannedJob job1 = new PlannedJob(0, Arrays.asList(createItem(10, none, Arrays.asList(a)), createItem(11, Arrays.asList(a), Arrays.asList(b)),
+        createItem(12, Arrays.asList(b), Arrays.asList(c))), CacheSelectHint.allShared(), null, new PlannedJob[] {job2, job3, job4 });
+    return new GraphExecutionPlan("Default", 0, Arrays.asList(job1), 0, 10d, 10d, 10d);
+  }
+
+  public void partialCompletionTest() {
+    final ExecutingGraph executing = new ExecutingGraph(createStreamingPlan(), UniqueId.of("Cycle", "Test"), Instant.now(), VersionCorrection.LATEST);
+    final CalculationJob job1 = executing.nextExecutableJob();
+    assertEquals(job1.getJobItems().size(), 3);
+    assertNull(executing.nextExecutableJob());
+    // First item produces A for J2
+    assertTrue(executing.jobPartiallyCompleted(job1, 1));
+    assertJob(executing.nextExecutableJob(), 2);
+    assertNull(executing.nextExecutableJob());
+    // Second item produces nothing new for the dependents
+    assertFalse(executing.jobPartiallyCompleted(job1, 2));
+    assertNull(executing.nextExecutableJob());
+    assertFalse(executing.isFinished());
+    // Completion releases J3 and J4 but not J2 a second time
+    executing.jobCompleted(job1.getSpecification());
+    assertJob(executing.nextExecutableJob(), 4);
+    assertJob(executing.nextExecutableJob(), 3);
+    assertNull(executing.nextExecutableJob());
+    assertTrue(executing.isFinished());
+    // Late partial notification is ignored
+    assertFalse(executing.jobPartiallyCompleted(job1, 2));
+  }
+
+  public void basicOrderingWithoutCriticalPath() {
+    final GraphExecutionPlan plan = create9JobPlan();
+    assertFalse(plan.isCriticalPathScheduling());
+    assertEquals(plan.getCriticalPathCost(), 0L);
+    final ExecutingGraph executing = new ExecutingGraph(plan, UniqueId.of("Cycle", "Test"), Instant.now(), VersionCorrection.LATEST);
+    final CalculationJob job6 = executing.nextExecutableJob();
+    assertEquals(executing.getDispatchPriority(job6.getSpecification()), 0L);
+  }
+
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.exec.plan;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.calcnode.CalculationJobItem;
+import com.opengamma.engine.function.BatchFunctionInvoker;
+import com.opengamma.engine.function.CompiledFunctionRepository;
+import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.function.FunctionInvoker;
+import com.opengamma.engine.function.SimpleFunctionParameters;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ExecutionLogMode;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link JobItemGrouping} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class JobItemGroupingTest {
+
+  private static ValueSpecification value(final String name) {
+    return ValueSpecification.of(name, ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name), ValueProperties.with(ValuePropertyNames.FUNCTION, "Mock").get());
+  }
+
+  private static CalculationJobItem item(final String function, final ValueSpecification[] inputs, final ValueSpecification output) {
+    return new CalculationJobItem(function, EmptyFunctionParameters.INSTANCE, output.getTargetSpecification(), inputs, new ValueSpecification[] {output }, ExecutionLogMode.INDICATORS);
+  }
+
+  private static CompiledFunctionRepository functions() {
+    // A and B can be batched, C can't
+    final CompiledFunctionRepository functions = Mockito.mock(CompiledFunctionRepository.class);
+    Mockito.when(functions.getInvoker("A")).thenReturn(Mockito.mock(BatchFunctionInvoker.class));
+    Mockito.when(functions.getInvoker("B")).thenReturn(Mockito.mock(BatchFunctionInvoker.class));
+    Mockito.when(functions.getInvoker("C")).thenReturn(Mockito.mock(FunctionInvoker.class));
+    return functions;
+  }
+
+  private static List<CalculationJobItem> groupByFunction(final List<CalculationJobItem> items) {
+    return JobItemGrouping.groupByFunction(items, functions());
+  }
+
+  public void testSmallJob() {
+    final List<CalculationJobItem> items = Arrays.asList(item("A", new ValueSpecification[0], value("1")), item("B", new ValueSpecification[0], value("2")));
+    assertSame(groupByFunction(items), items);
+  }
+
+  public void testNoFunctions() {
+    final List<CalculationJobItem> items = Arrays.asList(item("A", new ValueSpecification[0], value("a1")), item("B", new ValueSpecification[0], value("b1")),
+        item("A", new ValueSpecification[0], value("a2")));
+    assertSame(JobItemGrouping.groupByFunction(items, null), items);
+  }
+
+  public void testNoBatchFunctions() {
+    // Only one item can be batched so the order is left alone
+    final List<CalculationJobItem> items = Arrays.asList(item("C", new ValueSpecification[0], value("c1")), item("A", new ValueSpecification[0], value("a1")),
+        item("C", new ValueSpecification[0], value("c2")));
+    assertSame(groupByFunction(items), items);
+  }
+
+  public void testIndependentItems() {
+    final CalculationJobItem a1 = item("A", new ValueSpecification[0], value("a1"));
+    final CalculationJobItem b1 = item("B", new ValueSpecification[0], value("b1"));
+    final CalculationJobItem a2 = item("A", new ValueSpecification[0], value("a2"));
+    final CalculationJobItem b2 = item("B", new ValueSpecification[0], value("b2"));
+    assertEquals(groupByFunction(Arrays.asList(a1, b1, a2, b2)), Arrays.asList(a1, a2, b1, b2));
+  }
+
+  public void testDependentItems() {
+    // a2 depends on b1 so can't move before it
+    final CalculationJobItem a1 = item("A", new ValueSpecification[0], value("a1"));
+    final CalculationJobItem b1 = item("B", new ValueSpecification[] {value("a1") }, value("b1"));
+    final CalculationJobItem a2 = item("A", new ValueSpecification[] {value("b1") }, value("a2"));
+    final CalculationJobItem a3 = item("A", new ValueSpecification[0], value("a3"));
+    final CalculationJobItem b2 = item("B", new ValueSpecification[] {value("a3") }, value("b2"));
+    assertEquals(groupByFunction(Arrays.asList(a1, b1, a2, a3, b2)), Arrays.asList(a1, a3, b1, b2, a2));
+  }
+
+  public void testSameFunctionOnAdjacentLevels() {
+    // a3 aggregates a1 and a2 so is on the next level, but the groups either side of the level boundary are both for A. The items are consecutive
+    // and the calculation node must not batch a3 with the items it depends on.
+    final CalculationJobItem b1 = item("B", new ValueSpecification[0], value("b1"));
+    final CalculationJobItem a1 = item("A", new ValueSpecification[0], value("a1"));
+    final CalculationJobItem a2 = item("A", new ValueSpecification[0], value("a2"));
+    final CalculationJobItem a3 = item("A", new ValueSpecification[] {value("a1"), value("a2") }, value("a3"));
+    final CalculationJobItem b2 = item("B", new ValueSpecification[0], value("b2"));
+    assertEquals(groupByFunction(Arrays.asList(b1, a1, a2, a3, b2)), Arrays.asList(b1, b2, a1, a2, a3));
+  }
+
+  public void testDifferentParameters() {
+    final CalculationJobItem a1 = item("A", new ValueSpecification[0], value("a1"));
+    final CalculationJobItem a2 = new CalculationJobItem("A", new SimpleFunctionParameters(), value("a2").getTargetSpecification(), new ValueSpecification[0],
+        new ValueSpecification[] {value("a2") }, ExecutionLogMode.INDICATORS);
+    final CalculationJobItem a3 = item("A", new ValueSpecification[0], value("a3"));
+    assertEquals(groupByFunction(Arrays.asList(a1, a2, a3)), Arrays.asList(a1, a3, a2));
+  }
+
+}
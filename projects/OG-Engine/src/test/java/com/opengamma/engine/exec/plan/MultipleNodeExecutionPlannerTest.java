@@ -109,7 +109,7 @@ public class MultipleNodeExecutionPlannerTest {
   }
 
   private GraphExecutionPlan plan(final GraphExecutionPlanner planner, final DependencyGraph graph, final Set<ValueSpecification> sharedData) {
-    return planner.createPlan(graph, new ExecutionLogModeSource(), 0, sharedData, Collections.<ValueSpecification, FunctionParameters>emptyMap());
+    return planner.createPlan(graph, new ExecutionLogModeSource(), 0, null, sharedData, Collections.<ValueSpecification, FunctionParameters>emptyMap());
   }
 
   /**
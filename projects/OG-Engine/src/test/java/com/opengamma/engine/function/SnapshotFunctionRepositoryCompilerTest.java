@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.function;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.DefaultComputationTargetResolver;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.test.TestLifecycle;
+
+/**
+ * Tests the {@link SnapshotFunctionRepositoryCompiler} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class SnapshotFunctionRepositoryCompilerTest {
+
+  private static class MockFunction extends AbstractFunction {
+
+    private final AtomicInteger _compileCount = new AtomicInteger();
+    private final boolean _fail;
+    private volatile Instant _compiledAt;
+
+    private MockFunction(final String name, final boolean fail) {
+      setUniqueId(name);
+      _fail = fail;
+    }
+
+    @Override
+    public CompiledFunctionDefinition compile(final FunctionCompilationContext context, final Instant atInstant) {
+      _compileCount.incrementAndGet();
+      _compiledAt = atInstant;
+      if (_fail) {
+        throw new UnsupportedOperationException();
+      }
+      final AbstractFunction.AbstractCompiledFunction compiled = new AbstractFunction.AbstractCompiledFunction() {
+
+        @Override
+        public ComputationTargetType getTargetType() {
+          return null;
+        }
+
+        @Override
+        public Set<ValueSpecification> getResults(final FunctionCompilationContext context, final ComputationTarget target) {
+          return null;
+        }
+
+        @Override
+        public Set<ValueRequirement> getRequirements(final FunctionCompilationContext context, final ComputationTarget target, final ValueRequirement desiredValue) {
+          return null;
+        }
+
+        @Override
+        public FunctionInvoker getFunctionInvoker() {
+          return null;
+        }
+
+        @Override
+        public boolean canApplyTo(final FunctionCompilationContext context, final ComputationTarget target) {
+          return false;
+        }
+
+      };
+      compiled.setEarliestInvocationTime(atInstant.minusMillis(30L));
+      compiled.setLatestInvocationTime(atInstant.plusMillis(30L));
+      return compiled;
+    }
+
+    @Override
+    public String getShortName() {
+      return getUniqueId();
+    }
+
+  }
+
+  private File _directory;
+
+  @BeforeMethod
+  public void createDirectory() throws IOException {
+    _directory = Files.createTempDirectory("frs").toFile();
+  }
+
+  @AfterMethod
+  public void deleteDirectory() {
+    final File[] files = _directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    _directory.delete();
+  }
+
+  private CompiledFunctionService createFunctions(final long initId, final FunctionDefinition... functions) {
+    final InMemoryFunctionRepository repository = new InMemoryFunctionRepository();
+    for (FunctionDefinition function : functions) {
+      repository.addFunction(function);
+    }
+    final FunctionCompilationContext context = new FunctionCompilationContext();
+    context.setRawComputationTargetResolver(new DefaultComputationTargetResolver());
+    final CompiledFunctionService cfs = new CompiledFunctionService(repository, new SnapshotFunctionRepositoryCompiler(_directory), context);
+    TestLifecycle.register(cfs);
+    cfs.initialize(initId);
+    return cfs;
+  }
+
+  public void testLoadSnapshot() {
+    TestLifecycle.begin();
+    try {
+      final MockFunction a = new MockFunction("A", false);
+      final MockFunction b = new MockFunction("B", false);
+      final MockFunction c = new MockFunction("C", true);
+      final Instant timestamp = Instant.now();
+      // No snapshot; everything is compiled
+      final CompiledFunctionRepository first = createFunctions(1L, a, b, c).compileFunctionRepository(timestamp);
+      assertEquals(1, a._compileCount.get());
+      assertEquals(1, b._compileCount.get());
+      assertEquals(1, c._compileCount.get());
+      assertSame(a, first.getDefinition("A").getFunctionDefinition());
+      assertNull(first.getDefinition("C"));
+      // Snapshot from the first process; nothing is compiled until requested and the failed function is not tried
+      final CompiledFunctionService cfs = createFunctions(1L, a, b, c);
+      final CompiledFunctionRepository second = cfs.compileFunctionRepository(timestamp.plusMillis(10L));
+      assertEquals(1, a._compileCount.get());
+      assertEquals(1, b._compileCount.get());
+      assertSame(a, second.getDefinition("A").getFunctionDefinition());
+      assertEquals(2, a._compileCount.get());
+      assertEquals(1, b._compileCount.get());
+      // Compiled at the snapshot's time so that it is valid for the whole window
+      assertEquals(timestamp, a._compiledAt);
+      assertEquals(timestamp.plusMillis(30L), second.getDefinition("A").getLatestInvocationTime());
+      assertNull(second.getDefinition("C"));
+      assertEquals(1, c._compileCount.get());
+      // The repository is valid for the snapshot window
+      assertSame(second, cfs.compileFunctionRepository(timestamp.plusMillis(20L)));
+      assertSame(second.getDefinition("A"), cfs.compileFunctionRepository(timestamp.plusMillis(30L)).getDefinition("A"));
+      assertEquals(2, a._compileCount.get());
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  public void testSnapshotMiss() {
+    TestLifecycle.begin();
+    try {
+      final MockFunction a = new MockFunction("A", false);
+      final MockFunction b = new MockFunction("B", false);
+      final Instant timestamp = Instant.now();
+      createFunctions(1L, a, b).compileFunctionRepository(timestamp);
+      // Outside the snapshot window
+      createFunctions(1L, a, b).compileFunctionRepository(timestamp.plusMillis(31L));
+      assertEquals(2, a._compileCount.get());
+      assertEquals(2, b._compileCount.get());
+      // Different function initialization
+      createFunctions(2L, a, b).compileFunctionRepository(timestamp);
+      assertEquals(3, a._compileCount.get());
+      assertEquals(3, b._compileCount.get());
+      // Different function configuration
+      createFunctions(1L, a).compileFunctionRepository(timestamp);
+      assertEquals(4, a._compileCount.get());
+      // Different function parameters
+      final MockFunction a2 = new MockFunction("A", false);
+      a2.setConfigurationParameters(Arrays.asList("Foo"));
+      createFunctions(1L, a2, b).compileFunctionRepository(timestamp);
+      assertEquals(1, a2._compileCount.get());
+      assertEquals(4, b._compileCount.get());
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+}
@@ -15,6 +15,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.mockito.Mockito;
 import org.testng.annotations.Test;
@@ -35,6 +36,7 @@ import com.opengamma.engine.function.FunctionCompilationContext;
 import com.opengamma.engine.function.FunctionInvoker;
 import com.opengamma.engine.function.ParameterizedFunction;
 import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.target.digest.TargetDigests;
 import com.opengamma.engine.test.PrimitiveTestFunction;
 import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValueRequirement;
@@ -76,6 +78,74 @@ public class DefaultCompiledFunctionResolverTest {
     assertEquals(result.getFirst(), parameterizedF2);
   }
 
+  private static ResolutionRuleStatistics statistics(final DefaultCompiledFunctionResolver resolver, final ParameterizedFunction function) {
+    for (ResolutionRuleStatistics statistics : resolver.getStatistics()) {
+      if (statistics.getRule().getParameterizedFunction() == function) {
+        return statistics;
+      }
+    }
+    return null;
+  }
+
+  public void testValueNameIndex() {
+    final ComputationTarget target = new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("scheme", "test_target"));
+    final ParameterizedFunction parameterizedF1 = function(new PrimitiveTestFunction("req1"), "1");
+    final ParameterizedFunction parameterizedF2 = function(new PrimitiveTestFunction("req2"), "2");
+    final DefaultCompiledFunctionResolver resolver = new DefaultCompiledFunctionResolver(createFunctionCompilationContext());
+    resolver.addRule(new ResolutionRule(parameterizedF1, ApplyToAllTargets.INSTANCE, 100));
+    resolver.addRule(new ResolutionRule(parameterizedF2, ApplyToAllTargets.INSTANCE, 200));
+    resolver.compileRules();
+    Iterator<Triple<ParameterizedFunction, ValueSpecification, Collection<ValueSpecification>>> itr = resolver.resolveFunction("req1", target, ValueProperties.none());
+    assertEquals(itr.next().getFirst(), parameterizedF1);
+    assertFalse(itr.hasNext());
+    itr = resolver.resolveFunction("req2", target, ValueProperties.none());
+    assertEquals(itr.next().getFirst(), parameterizedF2);
+    assertFalse(itr.hasNext());
+    assertFalse(resolver.resolveFunction("req3", target, ValueProperties.none()).hasNext());
+    // Rules were only applied to the target once
+    assertEquals(statistics(resolver, parameterizedF1).getHits(), 1);
+    assertEquals(statistics(resolver, parameterizedF2).getHits(), 1);
+    assertEquals(statistics(resolver, parameterizedF2).getMisses(), 0);
+  }
+
+  public void testTargetDigestMisses() {
+    final AtomicInteger canApplyTo = new AtomicInteger();
+    final ParameterizedFunction parameterizedF1 = function(new PrimitiveTestFunction("req1") {
+      @Override
+      public boolean canApplyTo(final FunctionCompilationContext context, final ComputationTarget target) {
+        canApplyTo.incrementAndGet();
+        return false;
+      }
+    }, "1");
+    final ParameterizedFunction parameterizedF2 = function(new PrimitiveTestFunction("req1"), "2");
+    final DefaultCompiledFunctionResolver resolver = new DefaultCompiledFunctionResolver(createFunctionCompilationContext());
+    resolver.addRule(new ResolutionRule(parameterizedF1, ApplyToAllTargets.INSTANCE, 200));
+    resolver.addRule(new ResolutionRule(parameterizedF2, ApplyToAllTargets.INSTANCE, 100));
+    resolver.compileRules();
+    resolver.setTargetDigests(new TargetDigests() {
+      @Override
+      public Object getDigest(final FunctionCompilationContext context, final ComputationTargetSpecification target) {
+        return target.getUniqueId().getValue().startsWith("digest") ? "Digest" : null;
+      }
+    });
+    assertEquals(resolver.resolveFunction("req1", new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("scheme", "digest1")), ValueProperties.none()).next().getFirst(),
+        parameterizedF2);
+    assertEquals(canApplyTo.get(), 1);
+    // Same digest; the rule that missed is skipped
+    assertEquals(resolver.resolveFunction("req1", new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("scheme", "digest2")), ValueProperties.none()).next().getFirst(),
+        parameterizedF2);
+    assertEquals(canApplyTo.get(), 1);
+    // No digest; the rule is applied
+    assertEquals(resolver.resolveFunction("req1", new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("scheme", "other")), ValueProperties.none()).next().getFirst(),
+        parameterizedF2);
+    assertEquals(canApplyTo.get(), 2);
+    final ResolutionRuleStatistics statistics = statistics(resolver, parameterizedF1);
+    assertEquals(statistics.getHits(), 0);
+    assertEquals(statistics.getMisses(), 2);
+    assertEquals(statistics.getSkipped(), 1);
+    assertEquals(statistics(resolver, parameterizedF2).getHits(), 3);
+  }
+
   private static class Filter implements ComputationTargetFilter {
 
     private final ComputationTarget _match;
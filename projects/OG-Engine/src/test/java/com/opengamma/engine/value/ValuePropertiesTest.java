@@ -12,11 +12,16 @@ import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 
 import org.testng.annotations.Test;
 
+import com.opengamma.engine.MemoryUtils;
 import com.opengamma.util.test.TestGroup;
 
 /**
@@ -229,6 +234,32 @@ public class ValuePropertiesTest {
     assertEquals(fg, g.union(f));
   }
 
+  public void testDisjointProperties() {
+    final ValueProperties a = ValueProperties.with("A", "1").withAny("B").withOptional("C").get();
+    final ValueProperties x = ValueProperties.with("X", "1").withAny("Y").get();
+    assertSame(a, a.compose(x));
+    assertSame(x, x.compose(a));
+    assertSame(ValueProperties.none(), a.intersect(x));
+    assertSame(ValueProperties.none(), x.intersect(a));
+    assertFalse(a.isSatisfiedBy(x));
+    assertFalse(x.isSatisfiedBy(a));
+    assertTrue(ValueProperties.withOptional("X").get().isSatisfiedBy(a));
+    assertFalse(a.equals(x));
+  }
+
+  public void testSerializationCycle() throws Exception {
+    final ValueProperties original = MemoryUtils.instance(ValueProperties.with("A", "1").with("B", "2", "3").withAny("C").withOptional("D").get());
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final ObjectOutputStream out = new ObjectOutputStream(baos);
+    out.writeObject(original);
+    out.close();
+    final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    final ValueProperties copy = (ValueProperties) in.readObject();
+    assertSame(original, copy);
+    assertTrue(ValueProperties.with("A", "1").withAny("C").get().isSatisfiedBy(copy));
+    assertFalse(ValueProperties.withAny("E").get().isSatisfiedBy(copy));
+  }
+
   public void testEquals() {
     final ValueProperties requirement1 = ValueProperties.with("A", "1").with("B", "2", "3").get();
     final ValueProperties requirement2 = ValueProperties.with("A", "1").with("B", "3").get();
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.client;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.ViewDeltaResultModel;
+import com.opengamma.engine.view.impl.InMemoryViewComputationResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link ViewDeltaResultCalculator} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class ViewDeltaResultCalculatorTest {
+
+  private static final ComputationTargetSpecification TARGET_1 = new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Test", "1"));
+  private static final ComputationTargetSpecification TARGET_2 = new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Test", "2"));
+
+  private ViewDefinition createViewDefinition() {
+    final ViewDefinition viewDefinition = new ViewDefinition("Test", UniqueId.of("Portfolio", "0"), "User");
+    viewDefinition.addViewCalculationConfiguration(new ViewCalculationConfiguration(viewDefinition, "Default"));
+    return viewDefinition;
+  }
+
+  private static ComputedValueResult result(final ComputationTargetSpecification target, final double value) {
+    return new ComputedValueResult(new ValueSpecification("PV", target, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get()), value, AggregatedExecutionLog.EMPTY);
+  }
+
+  private static InMemoryViewComputationResultModel model(final double value1, final double value2) {
+    final InMemoryViewComputationResultModel model = new InMemoryViewComputationResultModel();
+    model.addValue("Default", result(TARGET_1, value1));
+    model.addValue("Default", result(TARGET_2, value2));
+    return model;
+  }
+
+  public void testFullDelta() {
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(createViewDefinition(), model(1, 2), model(1, 3));
+    assertEquals(delta.getAllTargets(), Collections.singleton(TARGET_2));
+    assertEquals(delta.getCalculationResult("Default").getAllValues(TARGET_2).iterator().next().getValue(), 3d);
+  }
+
+  public void testNoPreviousResult() {
+    final Map<String, Set<ComputationTargetSpecification>> changed = Collections.emptyMap();
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(createViewDefinition(), null, model(1, 3), changed);
+    assertEquals(delta.getAllTargets(), Sets.newHashSet(TARGET_1, TARGET_2));
+  }
+
+  public void testChangedTargetsOnly() {
+    // TARGET_1 differs but is declared unchanged so must not be compared
+    final Map<String, Set<ComputationTargetSpecification>> changed = ImmutableMap.<String, Set<ComputationTargetSpecification>>of("Default", Collections.singleton(TARGET_2));
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(createViewDefinition(), model(1, 2), model(5, 3), changed);
+    assertEquals(delta.getAllTargets(), Collections.singleton(TARGET_2));
+  }
+
+  public void testChangedTargetWithSameValues() {
+    final Map<String, Set<ComputationTargetSpecification>> changed = ImmutableMap.<String, Set<ComputationTargetSpecification>>of("Default", Sets.newHashSet(TARGET_1, TARGET_2));
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(createViewDefinition(), model(1, 2), model(1, 2), changed);
+    assertEquals(delta.getAllTargets(), Collections.emptySet());
+  }
+
+  public void testNothingChanged() {
+    final Map<String, Set<ComputationTargetSpecification>> changed = Collections.emptyMap();
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(createViewDefinition(), model(1, 2), model(1, 2), changed);
+    assertEquals(delta.getAllTargets(), Collections.emptySet());
+    assertNull(delta.getCalculationResult("Default"));
+  }
+
+}
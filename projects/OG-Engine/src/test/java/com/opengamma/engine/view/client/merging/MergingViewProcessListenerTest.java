@@ -212,6 +212,24 @@ public class MergingViewProcessListenerTest {
     Mockito.verifyNoMoreInteractions(underlying);
   }
 
+  public void testCycleCompleted_droppedCount() {
+    final ViewResultListener underlying = Mockito.mock(ViewResultListener.class);
+    final EngineResourceManagerInternal<?> cycleManager = new EngineResourceManagerImpl<EngineResource>();
+    final MergingViewProcessListener listener = new MergingViewProcessListener(underlying, cycleManager);
+    listener.setPassThrough(false);
+    for (int i = 0; i < 3; i++) {
+      final InMemoryViewComputationResultModel fullResult = new InMemoryViewComputationResultModel();
+      fullResult.setCalculationTime(now());
+      listener.cycleCompleted(fullResult, null);
+    }
+    // The first result is queued, the next two merged into it
+    assertEquals(listener.getDroppedResultCount(), 2L);
+    listener.drain();
+    Mockito.verify(underlying).cycleCompleted(Mockito.any(ViewComputationResultModel.class), Mockito.any(ViewDeltaResultModel.class));
+    listener.cycleExecutionFailed(Mockito.mock(ViewCycleExecutionOptions.class), new OpenGammaRuntimeException("Test"));
+    assertEquals(listener.getDroppedResultCount(), 2L);
+  }
+
   public void testCycleFragmentCompleted_passThrough() {
     final ViewResultListener underlying = Mockito.mock(ViewResultListener.class);
     final EngineResourceManagerInternal<?> cycleManager = new EngineResourceManagerImpl<EngineResource>();
@@ -13,12 +13,14 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
 
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.resource.EngineResourceManagerImpl;
 import com.opengamma.engine.test.TestViewResultListener;
@@ -27,13 +29,16 @@ import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValuePropertyNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDeltaResultModel;
 import com.opengamma.engine.view.ViewResultEntry;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
 import com.opengamma.engine.view.impl.InMemoryViewComputationResultModel;
 import com.opengamma.engine.view.impl.InMemoryViewDeltaResultModel;
+import com.opengamma.engine.view.listener.AbstractViewResultListener;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.id.UniqueId;
+import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.util.test.TestGroup;
 import com.opengamma.util.test.Timeout;
 import com.opengamma.util.tuple.Pair;
@@ -183,6 +188,62 @@ public class RateLimitingMergingViewProcessListenerTest {
     }
   }
 
+  @Test
+  public void testAdaptiveBackPressure() throws InterruptedException {
+    final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+    try {
+      final AtomicInteger delivered = new AtomicInteger();
+      final AtomicInteger delay = new AtomicInteger(200);
+      final ViewResultListener slowListener = new AbstractViewResultListener() {
+
+        @Override
+        public UserPrincipal getUser() {
+          return UserPrincipal.getTestUser();
+        }
+
+        @Override
+        public void cycleCompleted(final ViewComputationResultModel fullResult, final ViewDeltaResultModel deltaResult) {
+          delivered.incrementAndGet();
+          try {
+            Thread.sleep(delay.get());
+          } catch (final InterruptedException e) {
+            throw new OpenGammaRuntimeException("Interrupted", e);
+          }
+        }
+
+      };
+      final RateLimitingMergingViewProcessListener mergingListener = new RateLimitingMergingViewProcessListener(slowListener, mock(EngineResourceManagerImpl.class), executor);
+      mergingListener.setAdaptive(true);
+      // The first result goes straight through, revealing the listener to be slow
+      addResults(mergingListener, 1);
+      assertEquals(1, delivered.get());
+      assertEquals(1L, mergingListener.getOverflowCount());
+      assertTrue(mergingListener.getEffectiveUpdatePeriodMillis() >= 400);
+      // Subsequent results are merged rather than blocking the caller
+      final long start = System.currentTimeMillis();
+      addResults(mergingListener, 100);
+      assertTrue(System.currentTimeMillis() - start < 200);
+      assertEquals(99L, mergingListener.getDroppedResultCount());
+      Thread.sleep(1000);
+      assertEquals(2, delivered.get());
+      // The merged update is counted once, not on every timer tick that held it back
+      assertTrue(mergingListener.getOverflowCount() <= 2L);
+      // Once the listener speeds up it gets pass-through delivery again
+      delay.set(0);
+      for (int i = 0; (i < 20) && (mergingListener.getEffectiveUpdatePeriodMillis() != 0); i++) {
+        addResults(mergingListener, 1);
+        Thread.sleep(500);
+      }
+      assertEquals(0L, mergingListener.getEffectiveUpdatePeriodMillis());
+      final int count = delivered.get();
+      addResults(mergingListener, 10);
+      assertEquals(count + 10, delivered.get());
+      mergingListener.terminate();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   private ViewDeltaResultModel getDeltaResult(final int value) {
     final InMemoryViewDeltaResultModel deltaResult = new InMemoryViewDeltaResultModel();
     deltaResult.setCalculationTime(now());
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.compilation;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.core.position.impl.PortfolioNodeTraverser;
+import com.opengamma.core.position.impl.SimplePortfolioNode;
+import com.opengamma.core.position.impl.SimplePosition;
+import com.opengamma.core.security.impl.SimpleSecurity;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DepGraphTestHelper;
+import com.opengamma.engine.depgraph.DependencyGraphBuilder;
+import com.opengamma.engine.target.ComputationTargetReference;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.test.TestLifecycle;
+
+/**
+ * Tests the requirements produced by {@link PortfolioCompilerTraversalCallback}, in particular when only a set of changed positions is compiled.
+ */
+@Test(groups = TestGroup.UNIT)
+public class PortfolioCompilerTraversalCallbackTest {
+
+  private static final String SECURITY_TYPE = "Test";
+  private static final String POSITION_VALUE = "Value";
+  private static final String AGGREGATE_VALUE = "Total";
+
+  private final SimplePortfolioNode _root = new SimplePortfolioNode(UniqueId.of("Node", "Root"), "Root");
+  private final SimplePortfolioNode _nodeA = new SimplePortfolioNode(UniqueId.of("Node", "A"), "A");
+  private final SimplePortfolioNode _nodeB = new SimplePortfolioNode(UniqueId.of("Node", "B"), "B");
+  private final SimplePosition _positionA;
+  private final SimplePosition _positionB;
+
+  public PortfolioCompilerTraversalCallbackTest() {
+    final SimpleSecurity security = new SimpleSecurity(UniqueId.of("Sec", "1"), ExternalIdBundle.EMPTY, SECURITY_TYPE, "Security");
+    _positionA = new SimplePosition(UniqueId.of("Pos", "A"), BigDecimal.ONE, security);
+    _positionB = new SimplePosition(UniqueId.of("Pos", "B"), BigDecimal.ONE, security);
+    _nodeA.setParentNodeId(_root.getUniqueId());
+    _nodeA.addPosition(_positionA);
+    _nodeB.setParentNodeId(_root.getUniqueId());
+    _nodeB.addPosition(_positionB);
+    _root.addChildNode(_nodeA);
+    _root.addChildNode(_nodeB);
+  }
+
+  private ViewCalculationConfiguration createCalcConfig() {
+    final ViewDefinition viewDefinition = new ViewDefinition("Test", "user");
+    final ViewCalculationConfiguration calcConfig = new ViewCalculationConfiguration(viewDefinition, "Default");
+    calcConfig.addPortfolioRequirementName(SECURITY_TYPE, POSITION_VALUE);
+    calcConfig.addPortfolioRequirementName(ViewCalculationConfiguration.SECURITY_TYPE_AGGREGATE_ONLY, AGGREGATE_VALUE);
+    return calcConfig;
+  }
+
+  private Set<ValueRequirement> traverse(final Set<UniqueId> includeEvents) {
+    final DependencyGraphBuilder builder = new DepGraphTestHelper().createBuilder(null);
+    builder.setMaxAdditionalThreads(0);
+    final PortfolioCompilerTraversalCallback callback = new PortfolioCompilerTraversalCallback(createCalcConfig(), builder, null,
+        new ConcurrentHashMap<ComputationTargetReference, UniqueId>(), includeEvents, null);
+    PortfolioNodeTraverser.depthFirst(callback).traverse(_root);
+    return new HashSet<ValueRequirement>(builder.getOutstandingResolutions());
+  }
+
+  private static ComputationTargetSpecification node(final SimplePortfolioNode node) {
+    return ComputationTargetSpecification.of(node);
+  }
+
+  private static ComputationTargetSpecification position(final SimplePortfolioNode node, final SimplePosition position) {
+    return node(node).containing(ComputationTargetType.POSITION, position.getUniqueId().toLatest());
+  }
+
+  private static Set<ValueRequirement> nodeRequirements(final SimplePortfolioNode node) {
+    return ImmutableSet.of(new ValueRequirement(POSITION_VALUE, node(node)), new ValueRequirement(AGGREGATE_VALUE, node(node)));
+  }
+
+  public void testFullCompilation() {
+    TestLifecycle.begin();
+    try {
+      final Set<ValueRequirement> expected = new HashSet<ValueRequirement>();
+      expected.addAll(nodeRequirements(_root));
+      expected.addAll(nodeRequirements(_nodeA));
+      expected.addAll(nodeRequirements(_nodeB));
+      expected.add(new ValueRequirement(POSITION_VALUE, position(_nodeA, _positionA)));
+      expected.add(new ValueRequirement(POSITION_VALUE, position(_nodeB, _positionB)));
+      assertEquals(expected, traverse(null));
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  public void testChangedPosition() {
+    TestLifecycle.begin();
+    try {
+      // Only the changed position and the nodes above it; node B and its position are already in the previous graph
+      final Set<ValueRequirement> expected = new HashSet<ValueRequirement>();
+      expected.addAll(nodeRequirements(_root));
+      expected.addAll(nodeRequirements(_nodeA));
+      expected.add(new ValueRequirement(POSITION_VALUE, position(_nodeA, _positionA)));
+      assertEquals(expected, traverse(ImmutableSet.of(_positionA.getUniqueId())));
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  public void testNoChangedPositions() {
+    TestLifecycle.begin();
+    try {
+      assertEquals(ImmutableSet.of(), traverse(ImmutableSet.<UniqueId>of()));
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+}
@@ -5,9 +5,13 @@
  */
 package com.opengamma.engine.view.cycle;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -17,21 +21,46 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.fudgemsg.FudgeContext;
+import org.mockito.Mockito;
 import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
 
+import com.opengamma.core.position.impl.SimplePortfolio;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.InMemoryViewComputationCacheSource;
 import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
 import com.opengamma.engine.exec.DependencyGraphExecutionFuture;
 import com.opengamma.engine.exec.DependencyGraphExecutor;
 import com.opengamma.engine.exec.DependencyGraphExecutorFactory;
 import com.opengamma.engine.function.FunctionParameters;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.marketdata.MarketDataSnapshot;
 import com.opengamma.engine.marketdata.spec.MarketData;
+import com.opengamma.engine.resource.EngineResourceManagerImpl;
+import com.opengamma.engine.resource.EngineResourceReference;
+import com.opengamma.engine.target.ComputationTargetReference;
 import com.opengamma.engine.test.ViewProcessorTestEnvironment;
+import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.engine.view.ViewDefinition;
 import com.opengamma.engine.view.client.ViewClient;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfigurationImpl;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
 import com.opengamma.engine.view.execution.ExecutionOptions;
+import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
+import com.opengamma.engine.view.impl.ViewProcessContext;
 import com.opengamma.engine.view.impl.ViewProcessImpl;
 import com.opengamma.engine.view.impl.ViewProcessorImpl;
+import com.opengamma.engine.view.listener.ComputationResultListener;
 import com.opengamma.engine.view.worker.ViewProcessWorker;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.util.test.TestGroup;
 import com.opengamma.util.test.TestLifecycle;
@@ -79,6 +108,84 @@ public class SingleComputationCycleTest {
     }
   }
 
+  private CompiledViewDefinitionWithGraphsImpl createCompiledViewDefinition() {
+    final TestDependencyGraphBuilder gb = new TestDependencyGraphBuilder("Default");
+    gb.addNode("Foo", ComputationTargetSpecification.NULL).addTerminalOutput("Foo");
+    return createCompiledViewDefinition(gb.buildGraph());
+  }
+
+  private CompiledViewDefinitionWithGraphsImpl createCompiledViewDefinition(final DependencyGraph graph) {
+    final ViewDefinition viewDefinition = new ViewDefinition("Test", UserPrincipal.getTestUser());
+    viewDefinition.addViewCalculationConfiguration(new ViewCalculationConfiguration(viewDefinition, "Default"));
+    final Instant now = Instant.now();
+    return new CompiledViewDefinitionWithGraphsImpl(VersionCorrection.of(now, now), "", viewDefinition, Collections.singleton(graph),
+        Collections.<ComputationTargetReference, UniqueId>emptyMap(), new SimplePortfolio("Test"), 0,
+        Collections.<CompiledViewCalculationConfiguration>singleton(CompiledViewCalculationConfigurationImpl.of(graph)), null, null);
+  }
+
+  private SingleComputationCycle executeCycle(final String cycleId, final ViewProcessContext context, final CompiledViewDefinitionWithGraphsImpl viewDefinition,
+      final SingleComputationCycle previousCycle) {
+    return executeCycle(cycleId, context, viewDefinition, previousCycle, null);
+  }
+
+  private SingleComputationCycle executeCycle(final String cycleId, final ViewProcessContext context, final CompiledViewDefinitionWithGraphsImpl viewDefinition,
+      final SingleComputationCycle previousCycle, final Set<ValueSpecification> tickedMarketData) {
+    final SingleComputationCycle cycle = new SingleComputationCycle(UniqueId.of("Cycle", cycleId), "", new ComputationResultListener() {
+      @Override
+      public void resultAvailable(final ViewComputationResultModel result) {
+        // Ignore
+      }
+    }, context, viewDefinition, ViewCycleExecutionOptions.builder().setValuationTime(Instant.ofEpochMilli(1)).setMarketDataSpecification(MarketData.live()).create(),
+        VersionCorrection.of(Instant.ofEpochMilli(1), Instant.ofEpochMilli(1)));
+    if (tickedMarketData != null) {
+      cycle.setTickedMarketData(tickedMarketData);
+    }
+    assertTrue(cycle.preExecute(previousCycle, Mockito.mock(MarketDataSnapshot.class), false));
+    cycle.postExecute();
+    return cycle;
+  }
+
+  public void testRecalculatedTargetsAfterRecompilation() {
+    final ViewProcessContext context = Mockito.mock(ViewProcessContext.class);
+    Mockito.when(context.getProcessId()).thenReturn(UniqueId.of("Process", "Test"));
+    Mockito.when(context.getComputationCacheSource()).thenReturn(new InMemoryViewComputationCacheSource(FudgeContext.GLOBAL_DEFAULT));
+    final CompiledViewDefinitionWithGraphsImpl viewDefinition = createCompiledViewDefinition();
+    final SingleComputationCycle cycle1 = executeCycle("1", context, viewDefinition, null);
+    assertNull(cycle1.getRecalculatedTargets(UniqueId.of("Cycle", "0")));
+    // Delta from a cycle of the same compilation; only the recalculated targets need comparing
+    final SingleComputationCycle cycle2 = executeCycle("2", context, viewDefinition, cycle1);
+    assertNotNull(cycle2.getRecalculatedTargets(cycle1.getUniqueId()));
+    // Delta spanning a recompilation; values reused from the previous cycle may be new terminal outputs so all targets must be compared
+    final SingleComputationCycle cycle3 = executeCycle("3", context, createCompiledViewDefinition(), cycle2);
+    assertNull(cycle3.getRecalculatedTargets(cycle2.getUniqueId()));
+  }
+
+  public void testDeferredCopyAfterPreviousCycleReleased() {
+    final ViewProcessContext context = Mockito.mock(ViewProcessContext.class);
+    final EngineResourceManagerImpl<SingleComputationCycle> cycleManager = new EngineResourceManagerImpl<SingleComputationCycle>();
+    Mockito.when(context.getProcessId()).thenReturn(UniqueId.of("Process", "Test"));
+    Mockito.when(context.getComputationCacheSource()).thenReturn(new InMemoryViewComputationCacheSource(FudgeContext.GLOBAL_DEFAULT));
+    Mockito.when(context.getCycleManager()).thenReturn(cycleManager);
+    final TestDependencyGraphBuilder gb = new TestDependencyGraphBuilder("Default");
+    final NodeBuilder marketData = gb.addNode(MarketDataSourcingFunction.INSTANCE, ComputationTargetSpecification.NULL);
+    final ValueSpecification marketDataValue = marketData.addTerminalOutput("Bar");
+    gb.addNode("Foo", ComputationTargetSpecification.NULL).addTerminalOutput("Foo");
+    final CompiledViewDefinitionWithGraphsImpl viewDefinition = createCompiledViewDefinition(gb.buildGraph());
+    final SingleComputationCycle cycle1 = executeCycle("1", context, viewDefinition, null);
+    final EngineResourceReference<SingleComputationCycle> cycle1Reference = cycleManager.manage(cycle1);
+    cycle1.getComputationCache("Default").putSharedValue(new ComputedValue(marketDataValue, 42d));
+    // Nothing has ticked, so the market data value is reused and its copy is deferred
+    final SingleComputationCycle cycle2 = executeCycle("2", context, viewDefinition, cycle1, Collections.<ValueSpecification>emptySet());
+    assertNull(cycle2.getComputationCache("Default").getValue(marketDataValue));
+    // The worker moves on from the first cycle before the deferred copy has been made
+    cycle1Reference.release();
+    assertEquals(ViewCycleState.EXECUTED, cycle1.getState());
+    cycle2.copyDeferredValues();
+    assertEquals(42d, cycle2.getComputationCache("Default").getValue(marketDataValue));
+    assertEquals(ViewCycleState.DESTROYED, cycle1.getState());
+    assertEquals(0, cycleManager.getResourceCount());
+  }
+
   private class BlockingDependencyGraphExecutorFactory implements DependencyGraphExecutorFactory {
 
     private final BlockingDependencyGraphExecutor _instance;
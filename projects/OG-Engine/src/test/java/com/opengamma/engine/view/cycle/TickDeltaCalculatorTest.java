@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.cycle;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Collections;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphExplorer;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
+import com.opengamma.engine.depgraph.impl.DependencyGraphExplorerImpl;
+import com.opengamma.engine.depgraph.impl.DependencyNodeFunctionImpl;
+import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link TickDeltaCalculator} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class TickDeltaCalculatorTest {
+
+  private DependencyGraph _graph;
+  private final DependencyNode[] _node = new DependencyNode[5];
+  private final ValueSpecification[] _value = new ValueSpecification[_node.length];
+
+  @BeforeMethod
+  public void setUp() {
+    createTestGraph();
+  }
+
+  private ComputationTargetSpecification getTarget(final String name) {
+    return new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("testdomain", name));
+  }
+
+  /**
+   * Creates the test graph (data flows downwards - 0 & 1 are market data nodes)
+   *
+   * <pre>
+   *         0   1
+   *          \ / \
+   *           2   3
+   *            \ /
+   *             4
+   * </pre>
+   */
+  private void createTestGraph() {
+    final TestDependencyGraphBuilder gb = new TestDependencyGraphBuilder("test");
+    NodeBuilder n0 = gb.addNode(MarketDataSourcingFunction.INSTANCE, getTarget("Node0"));
+    NodeBuilder n1 = gb.addNode(MarketDataSourcingFunction.INSTANCE, getTarget("Node1"));
+    NodeBuilder n2 = gb.addNode(DependencyNodeFunctionImpl.of("Mock", EmptyFunctionParameters.INSTANCE), getTarget("Node2"));
+    NodeBuilder n3 = gb.addNode(DependencyNodeFunctionImpl.of("Mock", EmptyFunctionParameters.INSTANCE), getTarget("Node3"));
+    NodeBuilder n4 = gb.addNode(DependencyNodeFunctionImpl.of("Mock", EmptyFunctionParameters.INSTANCE), getTarget("Node4"));
+    _value[0] = n0.addOutput("MarketValue");
+    n2.addInput(_value[0]);
+    _value[1] = n1.addOutput("MarketValue");
+    n2.addInput(_value[1]);
+    n3.addInput(_value[1]);
+    _value[2] = n2.addOutput("IntermediateValue");
+    n4.addInput(_value[2]);
+    _value[3] = n3.addOutput("IntermediateValue");
+    n4.addInput(_value[3]);
+    _value[4] = n4.addTerminalOutput("TerminalValue");
+    _graph = gb.buildGraph();
+    final DependencyGraphExplorer dge = new DependencyGraphExplorerImpl(_graph);
+    for (int i = 0; i < _value.length; i++) {
+      _node[i] = dge.getNodeProducing(_value[i]);
+    }
+  }
+
+  public void noChange() {
+    final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(_graph, Collections.<ValueSpecification>emptySet());
+    deltaCalculator.computeDelta();
+    assertEquals(Collections.emptySet(), deltaCalculator.getChangedNodes());
+    assertEquals(Collections.emptySet(), deltaCalculator.getInputs());
+  }
+
+  public void changeA() {
+    final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(_graph, Collections.singleton(_value[0]));
+    deltaCalculator.computeDelta();
+    assertEquals(Sets.newHashSet(_node[0], _node[2], _node[4]), deltaCalculator.getChangedNodes());
+    // Only the values feeding the changed nodes from outside the cone are needed
+    assertEquals(Sets.newHashSet(_value[1], _value[3]), deltaCalculator.getInputs());
+  }
+
+  public void changeB() {
+    final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(_graph, Collections.singleton(_value[1]));
+    deltaCalculator.computeDelta();
+    assertEquals(Sets.newHashSet(_node[1], _node[2], _node[3], _node[4]), deltaCalculator.getChangedNodes());
+    assertEquals(Collections.singleton(_value[0]), deltaCalculator.getInputs());
+  }
+
+  public void changedNode() {
+    final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(_graph, Collections.<ValueSpecification>emptySet());
+    deltaCalculator.addChangedNode(_node[3]);
+    deltaCalculator.computeDelta();
+    assertEquals(Sets.newHashSet(_node[3], _node[4]), deltaCalculator.getChangedNodes());
+    assertEquals(Sets.newHashSet(_value[1], _value[2]), deltaCalculator.getInputs());
+  }
+
+  public void unknownValue() {
+    final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(_graph, Collections.singleton(new ValueSpecification("MarketValue", getTarget("Other"), _value[0].getProperties())));
+    deltaCalculator.computeDelta();
+    assertEquals(Collections.emptySet(), deltaCalculator.getChangedNodes());
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void addAfterCompute() {
+    final TickDeltaCalculator deltaCalculator = new TickDeltaCalculator(_graph, Collections.<ValueSpecification>emptySet());
+    deltaCalculator.computeDelta();
+    deltaCalculator.addChangedNode(_node[0]);
+  }
+
+}
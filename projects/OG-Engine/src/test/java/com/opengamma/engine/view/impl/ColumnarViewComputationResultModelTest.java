@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValueResult;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.ViewCalculationResultModel;
+import com.opengamma.engine.view.ViewTargetResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Pairs;
+
+/**
+ * Tests the {@link ColumnarViewComputationResultModel} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class ColumnarViewComputationResultModelTest {
+
+  private static final ComputationTargetSpecification TARGET_1 = new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Test", "1"));
+  private static final ComputationTargetSpecification TARGET_2 = new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Test", "2"));
+
+  private static ValueSpecification spec(final String name, final ComputationTargetSpecification target) {
+    return new ValueSpecification(name, target, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+  }
+
+  private static ComputedValueResult result(final ValueSpecification spec, final Object value) {
+    return new ComputedValueResult(spec, value, AggregatedExecutionLog.EMPTY, "Node", null, null);
+  }
+
+  private ColumnarResultLayout createLayout() {
+    final Map<String, List<ValueSpecification>> terminalOutputs = new LinkedHashMap<String, List<ValueSpecification>>();
+    terminalOutputs.put("Default", Arrays.asList(spec("PV", TARGET_1), spec("PV", TARGET_2), spec("Delta", TARGET_1)));
+    terminalOutputs.put("Other", Arrays.asList(spec("PV", TARGET_2)));
+    return new ColumnarResultLayout(terminalOutputs);
+  }
+
+  public void testLayout() {
+    final ColumnarResultLayout layout = createLayout();
+    assertEquals(layout.getRowCount(), 2);
+    assertEquals(layout.getColumnCount(), 3);
+    assertEquals(layout.getCellCount(), 4);
+    // Cells are grouped by target
+    assertEquals(layout.getRowStart(0), 0);
+    assertEquals(layout.getRowEnd(0), 2);
+    assertEquals(layout.getRowEnd(1), 4);
+    assertEquals(layout.getRowTarget(0), TARGET_1);
+    final int pv1 = layout.getCell("Default", spec("PV", TARGET_1));
+    final int pv2 = layout.getCell("Default", spec("PV", TARGET_2));
+    assertEquals(layout.getCellColumn(pv1), layout.getCellColumn(pv2));
+    assertEquals(layout.getCellRow(pv2), 1);
+    assertEquals(layout.getCell("Other", spec("Delta", TARGET_1)), -1);
+    assertEquals(layout.getCell("Missing", spec("PV", TARGET_1)), -1);
+  }
+
+  public void testCursor() {
+    final ColumnarViewComputationResultModel model = new ColumnarViewComputationResultModel(createLayout());
+    assertTrue(model.isEmpty());
+    model.addValue("Default", result(spec("PV", TARGET_2), 2d));
+    model.addValue("Default", result(spec("PV", TARGET_1), 1d));
+    model.addValue("Default", result(spec("Delta", TARGET_1), "Foo"));
+    assertFalse(model.isEmpty());
+    final ColumnarViewComputationResultModel.Cursor cursor = model.cursor();
+    assertTrue(cursor.next());
+    assertEquals(cursor.getTarget(), TARGET_1);
+    assertEquals(cursor.getSpecification(), spec("PV", TARGET_1));
+    assertTrue(cursor.isDouble());
+    assertEquals(cursor.getDouble(), 1d);
+    assertTrue(cursor.next());
+    assertEquals(cursor.getRow(), 0);
+    assertFalse(cursor.isDouble());
+    assertEquals(cursor.getValue(), "Foo");
+    assertTrue(cursor.next());
+    assertEquals(cursor.getRow(), 1);
+    assertEquals(cursor.getCalculationConfiguration(), "Default");
+    assertEquals(cursor.getResult(), result(spec("PV", TARGET_2), 2d));
+    assertFalse(cursor.next());
+  }
+
+  public void testMapAccessors() {
+    final ColumnarViewComputationResultModel model = new ColumnarViewComputationResultModel(createLayout());
+    model.addValue("Default", result(spec("PV", TARGET_1), 1d));
+    model.addValue("Other", result(spec("PV", TARGET_2), 2d));
+    // Not in the layout
+    final ComputationTargetSpecification target3 = new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Test", "3"));
+    model.addValue("Default", result(spec("PV", target3), 3d));
+    assertEquals(model.getAllTargets(), Sets.newHashSet(TARGET_1, TARGET_2, target3));
+    assertEquals(new HashSet<String>(model.getCalculationConfigurationNames()), Sets.newHashSet("Default", "Other"));
+    assertEquals(model.getAllResults().size(), 3);
+    assertEquals(model.getAllOutputValueNames(), Collections.singleton("PV"));
+    final ViewCalculationResultModel calcResult = model.getCalculationResult("Default");
+    assertNotNull(calcResult);
+    assertEquals(new HashSet<ComputationTargetSpecification>(calcResult.getAllTargets()), Sets.newHashSet(TARGET_1, target3));
+    final Map<Pair<String, ValueProperties>, ComputedValueResult> values = calcResult.getValues(TARGET_1);
+    assertEquals(values.size(), 1);
+    assertEquals(values.get(Pairs.of("PV", spec("PV", TARGET_1).getProperties())), result(spec("PV", TARGET_1), 1d));
+    assertNull(calcResult.getValues(TARGET_2));
+    assertEquals(calcResult.getAllValues(target3).size(), 1);
+    assertNull(model.getCalculationResult("Missing"));
+    final ViewTargetResultModel targetResult = model.getTargetResult(TARGET_2);
+    assertEquals(targetResult.getCalculationConfigurationNames(), Collections.singleton("Other"));
+    assertEquals(targetResult.getAllValues("Other").iterator().next().getValue(), 2d);
+    assertNull(targetResult.getAllValues("Default"));
+    assertNull(model.getTargetResult(new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Test", "4"))));
+  }
+
+  public void testCopy() {
+    final ColumnarViewComputationResultModel model = new ColumnarViewComputationResultModel(createLayout());
+    model.addValue("Default", result(spec("PV", TARGET_1), 1d));
+    model.addValue("Default", result(spec("Delta", TARGET_1), 0.5d));
+    // Copy to the map-based model
+    final InMemoryViewComputationResultModel copy = new InMemoryViewComputationResultModel(model);
+    assertEquals(copy.getCalculationResult("Default").getValues(TARGET_1), model.getCalculationResult("Default").getValues(TARGET_1));
+    // And back again
+    final ColumnarViewComputationResultModel columnar = new ColumnarViewComputationResultModel(model.getLayout());
+    columnar.update(copy);
+    assertSame(columnar.getLayout(), model.getLayout());
+    assertEquals(columnar.getAllResults().size(), 2);
+    assertEquals(columnar.getDouble(columnar.getLayout().getCell("Default", spec("Delta", TARGET_1))), 0.5d);
+  }
+
+}
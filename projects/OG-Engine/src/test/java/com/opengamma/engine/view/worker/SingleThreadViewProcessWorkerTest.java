@@ -11,6 +11,8 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.Duration;
@@ -393,6 +395,51 @@ public class SingleThreadViewProcessWorkerTest {
     }
   }
 
+  private int runScenarios(final EnumSet<ViewExecutionFlags> flags) throws InterruptedException {
+    final ViewProcessorTestEnvironment env = new ViewProcessorTestEnvironment();
+    final TestLiveMarketDataProvider provider = new TestLiveMarketDataProvider(SOURCE_1_NAME, new InMemoryLKVMarketDataProvider());
+    env.setMarketDataProviderResolver(new MockMarketDataProviderResolver(SOURCE_1_NAME, provider, SOURCE_2_NAME, provider, SOURCE_3_NAME, provider));
+    env.init();
+    final ViewProcessorImpl vp = env.getViewProcessor();
+    vp.start();
+    final ViewClient client = vp.createViewClient(ViewProcessorTestEnvironment.TEST_USER);
+    final TestViewResultListener resultListener = new TestViewResultListener();
+    client.setResultListener(resultListener);
+    final ViewCycleExecutionOptions.Builder builder = ViewCycleExecutionOptions.builder().setValuationTime(Instant.now()).setMarketDataSpecification(MarketData.live(SOURCE_1_NAME));
+    final ViewCycleExecutionOptions base = builder.setName("Base").create();
+    final ViewCycleExecutionOptions scenario1 = builder.setName("Scenario 1").create();
+    final ViewCycleExecutionOptions scenario2 = builder.setName("Scenario 2").create();
+    final ViewExecutionOptions executionOptions = ExecutionOptions.of(ArbitraryViewCycleExecutionSequence.of(base, scenario1, scenario2), flags);
+    client.attachToViewProcess(env.getViewDefinition().getUniqueId(), executionOptions);
+    resultListener.assertViewDefinitionCompiled(TIMEOUT);
+    assertEquals("Base", resultListener.getCycleCompleted(TIMEOUT).getFullResult().getViewCycleExecutionOptions().getName());
+    assertEquals("Scenario 1", resultListener.getCycleCompleted(TIMEOUT).getFullResult().getViewCycleExecutionOptions().getName());
+    assertEquals("Scenario 2", resultListener.getCycleCompleted(TIMEOUT).getFullResult().getViewCycleExecutionOptions().getName());
+    resultListener.assertProcessCompleted(TIMEOUT);
+    return provider.getSnapshotsInitialised();
+  }
+
+  @Test
+  public void testBatchScenarios() throws InterruptedException {
+    TestLifecycle.begin();
+    try {
+      // The scenarios share the compiled view, valuation time and market data so only the base cycle takes a snapshot
+      assertEquals(1, runScenarios(ExecutionFlags.none().runAsFastAsPossible().batchScenarios().get()));
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  @Test
+  public void testScenariosNotBatchedByDefault() throws InterruptedException {
+    TestLifecycle.begin();
+    try {
+      assertEquals(3, runScenarios(ExecutionFlags.none().runAsFastAsPossible().get()));
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
   private void assertThreadReachesState(final BorrowedThread recalcThread, final Thread.State state) throws InterruptedException {
     final long startTime = System.currentTimeMillis();
     while (recalcThread.getState() != state) {
@@ -417,6 +464,7 @@ public class SingleThreadViewProcessWorkerTest {
     private final String _sourceName;
     private final InMemoryLKVMarketDataProvider _underlyingProvider;
     private final MarketDataAvailabilityProvider _availability;
+    private final AtomicInteger _snapshotsInitialised = new AtomicInteger();
 
     public TestLiveMarketDataProvider(final String sourceName, final InMemoryLKVMarketDataProvider underlyingProvider) {
       this(sourceName, underlyingProvider, defaultAvailability());
@@ -487,7 +535,25 @@ public class SingleThreadViewProcessWorkerTest {
 
     @Override
     public MarketDataSnapshot snapshot(final MarketDataSpecification marketDataSpec) {
-      return new LiveMarketDataSnapshot(_underlyingProvider.snapshot(marketDataSpec), this);
+      return new LiveMarketDataSnapshot(_underlyingProvider.snapshot(marketDataSpec), this) {
+
+        @Override
+        public void init() {
+          _snapshotsInitialised.incrementAndGet();
+          super.init();
+        }
+
+        @Override
+        public void init(final Set<ValueSpecification> values, final long timeout, final TimeUnit unit) {
+          _snapshotsInitialised.incrementAndGet();
+          super.init(values, timeout, unit);
+        }
+
+      };
+    }
+
+    public int getSnapshotsInitialised() {
+      return _snapshotsInitialised.get();
     }
 
     @Override
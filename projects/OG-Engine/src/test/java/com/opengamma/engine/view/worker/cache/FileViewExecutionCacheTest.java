@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2014 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.worker.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.core.position.Portfolio;
+import com.opengamma.core.position.impl.SimplePortfolio;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
+import com.opengamma.engine.function.AbstractFunction;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.FunctionDefinition;
+import com.opengamma.engine.function.FunctionRepository;
+import com.opengamma.engine.function.SimpleFunctionParameters;
+import com.opengamma.engine.target.ComputationTargetReference;
+import com.opengamma.engine.target.ComputationTargetRequirement;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfigurationImpl;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link FileViewExecutionCache} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class FileViewExecutionCacheTest {
+
+  private final Instant _now = Instant.now();
+  private File _directory;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    _directory = Files.createTempDirectory("cvd").toFile();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    final File[] files = _directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    _directory.delete();
+  }
+
+  private Portfolio createPortfolio() {
+    return new SimplePortfolio(UniqueId.of("Portfolio", "0", "V"), "Portfolio");
+  }
+
+  private ViewDefinition createViewDefinition() {
+    final ViewDefinition viewDefinition = new ViewDefinition("TestView", UniqueId.of("Portfolio", "0"), "TestUser");
+    viewDefinition.setUniqueId(UniqueId.of("View", "0", "V"));
+    return viewDefinition;
+  }
+
+  private DependencyGraph createDependencyGraph() {
+    final TestDependencyGraphBuilder gb = new TestDependencyGraphBuilder("Default");
+    final NodeBuilder n1 = gb.addNode("Foo", ComputationTargetSpecification.NULL);
+    n1.addTerminalOutput("Foo");
+    final NodeBuilder n2 = gb.addNode("Bar", ComputationTargetSpecification.NULL);
+    n1.addInput(n2.addOutput("Bar"));
+    return gb.buildGraph();
+  }
+
+  private CompiledViewDefinitionWithGraphs createCompiledViewDefinitionWithGraphs(final long functionInitId) {
+    final Portfolio portfolio = createPortfolio();
+    final ViewDefinition viewDefinition = createViewDefinition();
+    viewDefinition.addViewCalculationConfiguration(new ViewCalculationConfiguration(viewDefinition, "Default"));
+    final DependencyGraph graph = createDependencyGraph();
+    final Collection<DependencyGraph> graphs = Collections.singleton(graph);
+    final Collection<CompiledViewCalculationConfiguration> calcConfigs = Collections.<CompiledViewCalculationConfiguration>singleton(CompiledViewCalculationConfigurationImpl.of(graph));
+    final Map<ComputationTargetReference, UniqueId> resolutions = ImmutableMap.<ComputationTargetReference, UniqueId>of(new ComputationTargetRequirement(ComputationTargetType.SECURITY,
+        ExternalId.of("Security", "Foo")), UniqueId.of("Sec", "0"));
+    return new CompiledViewDefinitionWithGraphsImpl(VersionCorrection.of(_now, _now), "", viewDefinition, graphs, resolutions, portfolio, functionInitId, calcConfigs, null, null);
+  }
+
+  private FunctionDefinition createFunction(final String id) {
+    final FunctionDefinition function = Mockito.mock(FunctionDefinition.class);
+    Mockito.when(function.getUniqueId()).thenReturn(id);
+    Mockito.when(function.getShortName()).thenReturn(id);
+    return function;
+  }
+
+  private FunctionDefinition createFunction(final String id, final String configurationParameter, final String defaultParameter) {
+    final AbstractFunction function = Mockito.mock(AbstractFunction.class);
+    Mockito.when(function.getUniqueId()).thenReturn(id);
+    Mockito.when(function.getShortName()).thenReturn(id);
+    Mockito.when(function.getConfigurationParameters()).thenReturn(Collections.singletonList(configurationParameter));
+    Mockito.when(function.getDefaultParameters()).thenReturn(new SimpleFunctionParameters(ImmutableMap.of("Foo", defaultParameter)));
+    return function;
+  }
+
+  private CompiledFunctionService createFunctions(final long functionInitId, final String... functionIds) {
+    final List<FunctionDefinition> functions = new ArrayList<FunctionDefinition>();
+    for (String functionId : functionIds) {
+      functions.add(createFunction(functionId));
+    }
+    return createFunctions(functionInitId, functions);
+  }
+
+  private CompiledFunctionService createFunctions(final long functionInitId, final List<FunctionDefinition> functions) {
+    final FunctionRepository repository = Mockito.mock(FunctionRepository.class);
+    Mockito.when(repository.getAllFunctions()).thenReturn(functions);
+    final FunctionCompilationContext context = new FunctionCompilationContext();
+    context.setFunctionInitId(functionInitId);
+    final CompiledFunctionService cfs = Mockito.mock(CompiledFunctionService.class);
+    Mockito.when(cfs.getFunctionCompilationContext()).thenReturn(context);
+    Mockito.when(cfs.getFunctionRepository()).thenReturn(repository);
+    return cfs;
+  }
+
+  private FileViewExecutionCache createCache(final CompiledFunctionService cfs) {
+    final ComputationTargetResolver targetResolver = Mockito.mock(ComputationTargetResolver.class);
+    Mockito.when(targetResolver.resolve(new ComputationTargetSpecification(ComputationTargetType.PORTFOLIO, UniqueId.of("Portfolio", "0", "V")), VersionCorrection.of(_now, _now)))
+        .thenReturn(new ComputationTarget(ComputationTargetType.PORTFOLIO, createPortfolio()));
+    Mockito.when(targetResolver.resolve(new ComputationTargetSpecification(ComputationTargetType.of(ViewDefinition.class), UniqueId.of("View", "0", "V")), VersionCorrection.LATEST))
+        .thenReturn(new ComputationTarget(ComputationTargetType.of(ViewDefinition.class), createViewDefinition()));
+    return new FileViewExecutionCache(_directory, targetResolver, cfs);
+  }
+
+  public void testCaching() {
+    final FileViewExecutionCache cache = createCache(createFunctions(1L, "A", "B"));
+    final CompiledViewDefinitionWithGraphs object = createCompiledViewDefinitionWithGraphs(1L);
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    // Miss
+    assertNull(cache.getCompiledViewDefinitionWithGraphs(key));
+    // Store
+    cache.setCompiledViewDefinitionWithGraphs(key, object);
+    assertTrue(cache.getFile(key).isFile());
+    // Hit the front cache
+    assertSame(cache.getCompiledViewDefinitionWithGraphs(key), object);
+    // Different key
+    assertNull(cache.getCompiledViewDefinitionWithGraphs(new ViewExecutionCacheKey(UniqueId.of("Key", "2"), "Foo", "No-op")));
+  }
+
+  public void testRestart() {
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    final CompiledViewDefinitionWithGraphs object = createCompiledViewDefinitionWithGraphs(1L);
+    createCache(createFunctions(1L, "A", "B")).setCompiledViewDefinitionWithGraphs(key, object);
+    // Same function repository, initialized at a different time
+    final FileViewExecutionCache cache = createCache(createFunctions(2L, "B", "A"));
+    final CompiledViewDefinitionWithGraphs restored = cache.getCompiledViewDefinitionWithGraphs(key);
+    assertNotNull(restored);
+    assertNotSame(restored, object);
+    assertEquals(((CompiledViewDefinitionWithGraphsImpl) restored).getFunctionInitId(), 2L);
+    assertEquals(restored.getCompiledCalculationConfigurations(), object.getCompiledCalculationConfigurations());
+    assertEquals(restored.getPortfolio(), object.getPortfolio());
+    assertEquals(restored.getResolvedIdentifiers(), object.getResolvedIdentifiers());
+    assertEquals(restored.getResolverVersionCorrection(), object.getResolverVersionCorrection());
+    assertEquals(restored.getDependencyGraphExplorer("Default").getWholeGraph().getSize(), 2);
+  }
+
+  public void testRestartWithDifferentFunctions() {
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    createCache(createFunctions(1L, "A", "B")).setCompiledViewDefinitionWithGraphs(key, createCompiledViewDefinitionWithGraphs(1L));
+    final FileViewExecutionCache cache = createCache(createFunctions(2L, "A", "B", "C"));
+    assertNull(cache.getCompiledViewDefinitionWithGraphs(key));
+    assertFalse(cache.getFile(key).exists());
+  }
+
+  public void testRestartWithDifferentParameters() {
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    createCache(createFunctions(1L, Collections.singletonList(createFunction("A", "X", "1")))).setCompiledViewDefinitionWithGraphs(key, createCompiledViewDefinitionWithGraphs(1L));
+    // Same parameters
+    assertNotNull(createCache(createFunctions(2L, Collections.singletonList(createFunction("A", "X", "1")))).getCompiledViewDefinitionWithGraphs(key));
+    // Different default parameters
+    assertNull(createCache(createFunctions(2L, Collections.singletonList(createFunction("A", "X", "2")))).getCompiledViewDefinitionWithGraphs(key));
+    // Different configuration parameters
+    createCache(createFunctions(1L, Collections.singletonList(createFunction("A", "X", "1")))).setCompiledViewDefinitionWithGraphs(key, createCompiledViewDefinitionWithGraphs(1L));
+    assertNull(createCache(createFunctions(2L, Collections.singletonList(createFunction("A", "Y", "1")))).getCompiledViewDefinitionWithGraphs(key));
+  }
+
+  public void testClear() {
+    final FileViewExecutionCache cache = createCache(createFunctions(1L, "A"));
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    final CompiledViewDefinitionWithGraphs object = createCompiledViewDefinitionWithGraphs(1L);
+    cache.setCompiledViewDefinitionWithGraphs(key, object);
+    cache.clear();
+    assertFalse(cache.getFile(key).exists());
+    assertNull(cache.getCompiledViewDefinitionWithGraphs(key));
+  }
+
+}
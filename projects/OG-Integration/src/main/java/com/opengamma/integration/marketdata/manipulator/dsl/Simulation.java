@@ -64,6 +64,9 @@ public class Simulation {
   /** The name of the base scenario (i.e. containing no transformations) */
   private String _baseScenarioName;
 
+  /** Whether scenarios sharing market data are executed against a single base cycle. */
+  private boolean _batchScenarios;
+
   /**
    * Creates a new simulation with a calculation configuration name of "Default", valuation time of {@code Instant.now()}
    * and resolver version correction of {@link VersionCorrection#LATEST}.
@@ -180,6 +183,17 @@ public class Simulation {
     return this;
   }
 
+  /**
+   * Executes scenarios that share a valuation time, resolver version correction and market data as a batch when the
+   * simulation isn't run in batch mode. The first scenario of a batch is executed in full against a market data snapshot
+   * and the rest reuse its market data, only recalculating the values affected by their transformations.
+   * @return This simulation
+   */
+  public Simulation batchScenarios() {
+    _batchScenarios = true;
+    return this;
+  }
+
   /**
    * Sets the calculation configuration name to which the scenarios will apply.
    * @param calcConfigNames The calculation configuration name to which the scenarios will apply
@@ -259,7 +273,11 @@ public class Simulation {
               .create();
       List<ViewCycleExecutionOptions> cycleOptions = cycleExecutionOptions(baseOptions, allSelectors);
       ViewCycleExecutionSequence sequence = new ArbitraryViewCycleExecutionSequence(cycleOptions);
-      EnumSet<ViewExecutionFlags> executionFlags = ExecutionFlags.none().awaitMarketData().runAsFastAsPossible().get();
+      ExecutionFlags flags = ExecutionFlags.none().awaitMarketData().runAsFastAsPossible();
+      if (_batchScenarios) {
+        flags = flags.batchScenarios();
+      }
+      EnumSet<ViewExecutionFlags> executionFlags = flags.get();
       ViewExecutionOptions executionOptions;
       if (listener != null) {
         viewClient.setResultListener(listener);
@@ -284,6 +302,10 @@ public class Simulation {
     }
   }
 
+  /* package */ boolean isBatchScenarios() {
+    return _batchScenarios;
+  }
+
   /* package */ Set<String> getCalcConfigNames() {
     return _calcConfigNames;
   }